@@ -0,0 +1,127 @@
+/*
+ * Copyright 2023 PANTHEON.tech, s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.storage.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A bounded pool of direct {@link ByteBuffer}s, used by segment writers to serialize entries and to scan segments
+ * without holding on to large per-writer buffers. Buffers are handed out in power-of-two capacities and are retained
+ * for reuse as long as the total capacity of idle buffers does not exceed the configured limit. Buffers which do not
+ * fit into the pool are freed eagerly.
+ *
+ * <p>
+ * A single pool is typically shared by all journals in a process, see {@link #shared()}.
+ */
+public final class DirectBufferPool {
+  private static final Logger LOG = LoggerFactory.getLogger(DirectBufferPool.class);
+  private static final int MIN_CAPACITY_BITS = 12;
+  private static final int MAX_CAPACITY_BITS = 30;
+  private static final long DEFAULT_MAX_POOLED_BYTES = 64 * 1024 * 1024;
+  private static final DirectBufferPool SHARED = new DirectBufferPool(DEFAULT_MAX_POOLED_BYTES);
+
+  private final Queue<ByteBuffer>[] buckets;
+  private final AtomicLong pooledBytes = new AtomicLong();
+  private final long maxPooledBytes;
+
+  /**
+   * Creates a new pool.
+   *
+   * @param maxPooledBytes Maximum total capacity of idle buffers retained by this pool.
+   * @throws IllegalArgumentException if {@code maxPooledBytes} is negative
+   */
+  @SuppressWarnings("unchecked")
+  public DirectBufferPool(long maxPooledBytes) {
+    checkArgument(maxPooledBytes >= 0, "maxPooledBytes must be non-negative");
+    this.maxPooledBytes = maxPooledBytes;
+    buckets = new Queue[MAX_CAPACITY_BITS - MIN_CAPACITY_BITS + 1];
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new ConcurrentLinkedQueue<>();
+    }
+  }
+
+  /**
+   * Returns the pool shared by all journals which have not been configured with a specific pool. It retains at most
+   * 64 MiB of idle buffers.
+   *
+   * @return The shared pool.
+   */
+  public static DirectBufferPool shared() {
+    return SHARED;
+  }
+
+  /**
+   * Acquires a cleared buffer with at least specified capacity. The buffer needs to be returned through
+   * {@link #release(ByteBuffer)} once it is no longer used.
+   *
+   * @param minCapacity Minimum capacity of the buffer.
+   * @return A direct buffer.
+   * @throws IllegalArgumentException if {@code minCapacity} is larger than 1 GiB
+   */
+  ByteBuffer acquire(int minCapacity) {
+    final int bucket = bucketOf(minCapacity);
+    final ByteBuffer buffer = buckets[bucket].poll();
+    if (buffer == null) {
+      return ByteBuffer.allocateDirect(1 << (bucket + MIN_CAPACITY_BITS));
+    }
+    pooledBytes.addAndGet(-buffer.capacity());
+    return buffer.clear();
+  }
+
+  /**
+   * Returns a buffer previously acquired from this pool. The buffer must not be used after this method is invoked.
+   *
+   * @param buffer The buffer to return.
+   */
+  void release(ByteBuffer buffer) {
+    final int capacity = buffer.capacity();
+    if (pooledBytes.addAndGet(capacity) <= maxPooledBytes) {
+      buckets[bucketOf(capacity)].add(buffer);
+      return;
+    }
+
+    pooledBytes.addAndGet(-capacity);
+    try {
+      BufferCleaner.freeBuffer(buffer);
+    } catch (IOException e) {
+      LOG.debug("Failed to free buffer, leaving it to GC", e);
+    }
+  }
+
+  private static int bucketOf(int capacity) {
+    checkArgument(capacity <= 1 << MAX_CAPACITY_BITS, "Capacity %s is too large", capacity);
+    final int bits = capacity <= 1 << MIN_CAPACITY_BITS ? MIN_CAPACITY_BITS
+        : Integer.SIZE - Integer.numberOfLeadingZeros(capacity - 1);
+    return bits - MIN_CAPACITY_BITS;
+  }
+
+  @Override
+  public String toString() {
+    return toStringHelper(this)
+        .add("pooledBytes", pooledBytes.get())
+        .add("maxPooledBytes", maxPooledBytes)
+        .toString();
+  }
+}
@@ -22,7 +22,6 @@ import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.NoSuchElementException;
-import java.util.zip.CRC32;
 import java.util.zip.Checksum;
 
 /**
@@ -37,6 +36,7 @@ final class FileChannelJournalSegmentReader<E> implements JournalReader<E> {
   private final JournalSerdes namespace;
   private final ByteBuffer memory;
   private final long firstIndex;
+  private final Checksum crc;
   private Indexed<E> currentEntry;
   private Indexed<E> nextEntry;
 
@@ -52,6 +52,7 @@ final class FileChannelJournalSegmentReader<E> implements JournalReader<E> {
     this.namespace = namespace;
     this.memory = ByteBuffer.allocate((maxEntrySize + Integer.BYTES + Integer.BYTES) * 2);
     this.firstIndex = segment.index();
+    this.crc = segment.descriptor().newChecksum();
     reset();
   }
 
@@ -170,12 +171,15 @@ final class FileChannelJournalSegmentReader<E> implements JournalReader<E> {
         // Read the checksum of the entry.
         long checksum = memory.getInt() & 0xFFFFFFFFL;
 
-        // Compute the checksum for the entry bytes.
-        final Checksum crc32 = new CRC32();
-        crc32.update(memory.array(), memory.position(), length);
+        // Compute the checksum for the entry bytes, unless the entry has not been completely written.
+        final boolean complete = length <= memory.remaining();
+        if (complete) {
+          crc.reset();
+          crc.update(memory.slice(memory.position(), length));
+        }
 
         // If the stored checksum equals the computed checksum, return the entry.
-        if (checksum == crc32.getValue()) {
+        if (complete && checksum == crc.getValue()) {
           int limit = memory.limit();
           memory.limit(memory.position() + length);
           E entry = namespace.deserialize(memory);
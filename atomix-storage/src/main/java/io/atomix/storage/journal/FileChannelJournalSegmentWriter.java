@@ -23,8 +23,8 @@ import java.nio.BufferOverflowException;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.util.zip.CRC32;
-import java.util.zip.Checksum;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Segment writer.
@@ -38,55 +38,130 @@ import java.util.zip.Checksum;
  * <li>8-bit signed entry type ID</li>
  * <li>n-bit entry bytes</li>
  * </ul>
+ * <p>
+ * Entries are serialized into direct buffers borrowed from a {@link DirectBufferPool} and written together with their
+ * header through a single gathering write, so that the writer does not retain any buffers sized to the maximum entry
+ * size. Batches of entries are serialized back to back into a single buffer and written out together.
  *
  * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
  */
-class FileChannelJournalSegmentWriter<E> implements JournalWriter<E> {
+class FileChannelJournalSegmentWriter<E> extends JournalSegmentWriter<E> {
+  private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES;
+  private static final int INITIAL_SERIALIZE_CAPACITY = 4096;
+
   private final FileChannel channel;
-  private final JournalSegment<E> segment;
-  private final int maxEntrySize;
-  private final JournalIndex index;
-  private final JournalSerdes namespace;
-  private final ByteBuffer memory;
-  private final long firstIndex;
-  private Indexed<E> lastEntry;
+  private final DirectBufferPool bufferPool;
+  private final ByteBuffer header = ByteBuffer.allocateDirect(HEADER_BYTES);
+  private final ByteBuffer[] buffers = new ByteBuffer[2];
+  private final int scanCapacity;
+  private int serializeCapacity;
 
   FileChannelJournalSegmentWriter(
       FileChannel channel,
       JournalSegment<E> segment,
       int maxEntrySize,
       JournalIndex index,
-      JournalSerdes namespace) {
+      JournalSerdes namespace,
+      DirectBufferPool bufferPool) {
+    super(segment, maxEntrySize, index, namespace);
     this.channel = channel;
-    this.segment = segment;
-    this.maxEntrySize = maxEntrySize;
-    this.index = index;
-    this.memory = ByteBuffer.allocate((maxEntrySize + Integer.BYTES + Integer.BYTES) * 2);
-    memory.limit(0);
-    this.namespace = namespace;
-    this.firstIndex = segment.index();
-    reset(0);
+    this.bufferPool = bufferPool;
+    // Smallest power of two which can hold a maximum-sized entry and its header, as the pool rounds up to those
+    this.scanCapacity = Integer.highestOneBit(maxEntrySize + HEADER_BYTES - 1) << 1;
+    this.serializeCapacity = Math.min(maxEntrySize, INITIAL_SERIALIZE_CAPACITY);
+    buffers[0] = header;
+    initialize();
+  }
+
+  @Override
+  boolean restore(JournalSegmentSummary summary) {
+    final int position = summary.lastPosition();
+    final int length = summary.lastLength();
+    final int next = position + HEADER_BYTES + length;
+    if (summary.lastIndex() < firstIndex || position < JournalSegmentDescriptor.BYTES || length <= 0
+        || length > maxEntrySize
+        || next > segment.descriptor().maxSegmentSize()) {
+      return false;
+    }
+
+    final ByteBuffer memory = bufferPool.acquire(HEADER_BYTES + length + Integer.BYTES);
+    try {
+      // Read the last entry along with the length of the entry following it, which has to be zero
+      memory.limit(Math.min(next + Integer.BYTES, segment.descriptor().maxSegmentSize()) - position);
+      while (memory.hasRemaining() && channel.read(memory, position + memory.position()) > 0) {
+        // Keep reading
+      }
+      memory.flip();
+
+      if (memory.remaining() < next - position || memory.getInt() != length
+          || memory.getInt() != summary.lastChecksum()) {
+        return false;
+      }
+
+      crc.reset();
+      crc.update(memory.slice(memory.position(), length));
+      if ((int) crc.getValue() != summary.lastChecksum()
+          || (memory.remaining() >= length + Integer.BYTES && memory.getInt(memory.position() + length) != 0)) {
+        return false;
+      }
+
+      if (!summary.restoreIndex(index)) {
+        return false;
+      }
+
+      setLastEntry(summary.lastIndex(), position, length, summary.lastChecksum());
+      channel.position(next);
+      return true;
+    } catch (IOException e) {
+      throw new StorageException(e);
+    } finally {
+      bufferPool.release(memory);
+    }
+  }
+
+  @Override
+  E readEntry(int position, int length) {
+    final ByteBuffer buffer = ByteBuffer.allocate(length);
+    try {
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, position + HEADER_BYTES + buffer.position()) < 0) {
+          throw new StorageException("Unexpected end of segment at " + position);
+        }
+      }
+    } catch (IOException e) {
+      throw new StorageException(e);
+    }
+    return namespace.deserialize(buffer.flip());
+  }
+
+  @Override
+  void initializeEmpty() {
+    try {
+      channel.position(JournalSegmentDescriptor.BYTES);
+    } catch (IOException e) {
+      throw new StorageException(e);
+    }
   }
 
   @Override
   public void reset(long index) {
     long nextIndex = firstIndex;
+    resetLastEntry();
+
+    final ByteBuffer memory = bufferPool.acquire(scanCapacity);
+    memory.limit(scanCapacity);
 
     // Clear the buffer indexes.
     try {
       channel.position(JournalSegmentDescriptor.BYTES);
-      memory.clear().flip();
 
       // Record the current buffer position.
       long position = channel.position();
 
-      // Read more bytes from the segment if necessary.
-      if (memory.remaining() < maxEntrySize) {
-        memory.clear();
-        channel.read(memory);
-        channel.position(position);
-        memory.flip();
-      }
+      // Read bytes from the segment.
+      channel.read(memory);
+      channel.position(position);
+      memory.flip();
 
       // Read the entry length.
       memory.mark();
@@ -98,17 +173,19 @@ class FileChannelJournalSegmentWriter<E> implements JournalWriter<E> {
         // Read the checksum of the entry.
         final long checksum = memory.getInt() & 0xFFFFFFFFL;
 
+        // Stop at an entry which has not been completely written.
+        if (length > memory.remaining()) {
+          break;
+        }
+
         // Compute the checksum for the entry bytes.
-        final Checksum crc32 = new CRC32();
-        crc32.update(memory.array(), memory.position(), length);
+        crc.reset();
+        crc.update(memory.slice(memory.position(), length));
 
         // If the stored checksum equals the computed checksum, return the entry.
-        if (checksum == crc32.getValue()) {
-          int limit = memory.limit();
-          memory.limit(memory.position() + length);
-          final E entry = namespace.deserialize(memory);
-          memory.limit(limit);
-          lastEntry = new Indexed<>(nextIndex, entry, length);
+        if (checksum == crc.getValue()) {
+          memory.position(memory.position() + length);
+          setLastEntry(nextIndex, (int) position, length, (int) checksum);
           this.index.index(nextIndex, (int) position);
           nextIndex++;
         } else {
@@ -118,10 +195,10 @@ class FileChannelJournalSegmentWriter<E> implements JournalWriter<E> {
         // Update the current position for indexing.
         position = channel.position() + memory.position();
 
-        // Read more bytes from the segment if necessary.
-        if (memory.remaining() < maxEntrySize) {
+        // Read more bytes from the segment if necessary, so that the next entry fits into the buffer.
+        if (memory.remaining() < maxEntrySize + HEADER_BYTES) {
           channel.position(position);
-          memory.clear();
+          memory.clear().limit(scanCapacity);
           channel.read(memory);
           channel.position(position);
           memory.flip();
@@ -141,25 +218,8 @@ class FileChannelJournalSegmentWriter<E> implements JournalWriter<E> {
       }
     } catch (IOException e) {
       throw new StorageException(e);
-    }
-  }
-
-  @Override
-  public long getLastIndex() {
-    return lastEntry != null ? lastEntry.index() : segment.index() - 1;
-  }
-
-  @Override
-  public Indexed<E> getLastEntry() {
-    return lastEntry;
-  }
-
-  @Override
-  public long getNextIndex() {
-    if (lastEntry != null) {
-      return lastEntry.index() + 1;
-    } else {
-      return firstIndex;
+    } finally {
+      bufferPool.release(memory);
     }
   }
 
@@ -176,15 +236,6 @@ class FileChannelJournalSegmentWriter<E> implements JournalWriter<E> {
     }
   }
 
-  /**
-   * Returns a boolean indicating whether the segment is empty.
-   *
-   * @return Indicates whether the segment is empty.
-   */
-  public boolean isEmpty() {
-    return lastEntry == null;
-  }
-
   /**
    * Returns a boolean indicating whether the segment is full.
    *
@@ -195,82 +246,180 @@ class FileChannelJournalSegmentWriter<E> implements JournalWriter<E> {
         || getNextIndex() - firstIndex >= segment.descriptor().maxEntries();
   }
 
-  /**
-   * Returns the first index written to the segment.
-   */
-  public long firstIndex() {
-    return firstIndex;
-  }
-
-  @Override
-  public void append(Indexed<E> entry) {
-    final long nextIndex = getNextIndex();
-
-    // If the entry's index is greater than the next index in the segment, skip some entries.
-    if (entry.index() > nextIndex) {
-      throw new IndexOutOfBoundsException("Entry index is not sequential");
-    }
-
-    // If the entry's index is less than the next index, truncate the segment.
-    if (entry.index() < nextIndex) {
-      truncate(entry.index() - 1);
-    }
-    append(entry.entry());
-  }
-
   @Override
   @SuppressWarnings("unchecked")
   public <T extends E> Indexed<T> append(T entry) {
     // Store the entry index.
     final long index = getNextIndex();
 
+    // Serialize the entry into a pooled buffer.
+    final long start = System.nanoTime();
+    ByteBuffer pooled = bufferPool.acquire(serializeCapacity);
     try {
-      // Serialize the entry.
-      memory.clear();
-      memory.position(Integer.BYTES + Integer.BYTES);
-      try {
-        namespace.serialize(entry, memory);
-      } catch (KryoException e) {
-        throw new StorageException.TooLarge("Entry size exceeds maximum allowed bytes (" + maxEntrySize + ")");
+      ByteBuffer body = pooled.slice(0, Math.min(pooled.capacity(), maxEntrySize));
+      while (true) {
+        try {
+          namespace.serialize(entry, body);
+          break;
+        } catch (KryoException e) {
+          // Retry with a larger buffer, unless the entry does not fit into the maximum entry size.
+          if (body.capacity() >= maxEntrySize) {
+            throw new StorageException.TooLarge("Entry size exceeds maximum allowed bytes (" + maxEntrySize + ")");
+          }
+          final int capacity = pooled.capacity() * 2;
+          final ByteBuffer grown = bufferPool.acquire(capacity);
+          bufferPool.release(pooled);
+          pooled = grown;
+          body = pooled.slice(0, Math.min(pooled.capacity(), maxEntrySize));
+        }
       }
-      memory.flip();
+      body.flip();
+      final long serialized = System.nanoTime();
+      metrics.serializeTime(serialized - start);
 
-      final int length = memory.limit() - (Integer.BYTES + Integer.BYTES);
+      final int length = body.remaining();
+      serializeCapacity = Math.max(serializeCapacity, length);
 
       // Ensure there's enough space left in the buffer to store the entry.
       long position = channel.position();
-      if (segment.descriptor().maxSegmentSize() - position < length + Integer.BYTES + Integer.BYTES) {
+      if (segment.descriptor().maxSegmentSize() - position < length + HEADER_BYTES) {
         throw new BufferOverflowException();
       }
 
-      // If the entry length exceeds the maximum entry size then throw an exception.
-      if (length > maxEntrySize) {
-        throw new StorageException.TooLarge("Entry size " + length + " exceeds maximum allowed bytes (" + maxEntrySize + ")");
-      }
-
       // Compute the checksum for the entry.
-      final Checksum crc32 = new CRC32();
-      crc32.update(memory.array(), Integer.BYTES + Integer.BYTES, memory.limit() - (Integer.BYTES + Integer.BYTES));
-      final long checksum = crc32.getValue();
-
-      // Create a single byte[] in memory for the entire entry and write it as a batch to the underlying buffer.
-      memory.putInt(0, length);
-      memory.putInt(Integer.BYTES, (int) checksum);
-      channel.write(memory);
+      crc.reset();
+      crc.update(body.duplicate());
+      final long checksum = crc.getValue();
+      final long checksummed = System.nanoTime();
+      metrics.checksumTime(checksummed - serialized);
+
+      // Write the header and the entry with a single gathering write.
+      header.clear();
+      header.putInt(length).putInt((int) checksum).flip();
+      buffers[1] = body;
+      while (body.hasRemaining()) {
+        channel.write(buffers);
+      }
+      metrics.writeTime(System.nanoTime() - checksummed);
 
       // Update the last entry with the correct index/term/length.
       Indexed<E> indexedEntry = new Indexed<>(index, entry, length);
-      this.lastEntry = indexedEntry;
+      setLastEntry(indexedEntry, (int) position, (int) checksum);
       this.index.index(index, (int) position);
       return (Indexed<T>) indexedEntry;
     } catch (IOException e) {
       throw new StorageException(e);
+    } finally {
+      buffers[1] = null;
+      if (pooled != null) {
+        bufferPool.release(pooled);
+      }
     }
   }
 
   @Override
-  public void commit(long index) {
+  @SuppressWarnings("unchecked")
+  <T extends E> int appendAll(List<T> entries, int offset, List<Indexed<T>> appended) {
+    final long start = size();
+    final List<Indexed<T>> batched = new ArrayList<>();
+    long nextIndex = getNextIndex();
+    int checksum = 0;
+
+    // Serialize entries back to back, each preceded by its header, until the batch buffer cannot grow any further
+    ByteBuffer batch = bufferPool.acquire(Math.min(scanCapacity, serializeCapacity + HEADER_BYTES));
+    try {
+      for (int i = offset; i < entries.size(); i++) {
+        final T entry = entries.get(i);
+        final int entryStart = batch.position();
+        final long serializeStart = System.nanoTime();
+        int length = serializeAt(batch, entryStart, entry);
+        while (length < 0 && batch.capacity() < scanCapacity) {
+          batch = grow(batch, entryStart);
+          length = serializeAt(batch, entryStart, entry);
+        }
+        if (length < 0) {
+          if (batched.isEmpty()) {
+            throw new StorageException.TooLarge("Entry size exceeds maximum allowed bytes (" + maxEntrySize + ")");
+          }
+          // Leave the entry to the next batch
+          break;
+        }
 
+        // Ensure there's enough space left in the segment to store the entry.
+        if (segment.descriptor().maxSegmentSize() - start < entryStart + HEADER_BYTES + length) {
+          if (batched.isEmpty()) {
+            throw new BufferOverflowException();
+          }
+          break;
+        }
+
+        // Compute the checksum for the entry and fill in the header.
+        final long serialized = System.nanoTime();
+        metrics.serializeTime(serialized - serializeStart);
+        crc.reset();
+        crc.update(batch.slice(entryStart + HEADER_BYTES, length));
+        checksum = (int) crc.getValue();
+        metrics.checksumTime(System.nanoTime() - serialized);
+        batch.putInt(entryStart, length).putInt(entryStart + Integer.BYTES, checksum);
+        batch.position(entryStart + HEADER_BYTES + length);
+
+        serializeCapacity = Math.max(serializeCapacity, length);
+        batched.add(new Indexed<>(nextIndex++, entry, length));
+      }
+
+      batch.flip();
+      final long writeStart = System.nanoTime();
+      while (batch.hasRemaining()) {
+        channel.write(batch);
+      }
+      metrics.writeTime(System.nanoTime() - writeStart);
+    } catch (IOException e) {
+      throw new StorageException(e);
+    } finally {
+      bufferPool.release(batch);
+    }
+
+    // Index the entries written out.
+    long position = start;
+    for (Indexed<T> indexed : batched) {
+      index.index(indexed.index(), (int) position);
+      position += HEADER_BYTES + indexed.size();
+    }
+    final Indexed<T> last = batched.get(batched.size() - 1);
+    setLastEntry((Indexed<E>) last, (int) (position - HEADER_BYTES - last.size()), checksum);
+
+    appended.addAll(batched);
+    return batched.size();
+  }
+
+  /**
+   * Serializes an entry into a batch buffer, leaving room for its header.
+   *
+   * @return the length of the serialized entry, or {@code -1} if it does not fit into the buffer
+   */
+  private int serializeAt(ByteBuffer batch, int entryStart, E entry) {
+    final int room = Math.min(batch.capacity() - entryStart - HEADER_BYTES, maxEntrySize);
+    if (room <= 0) {
+      return -1;
+    }
+
+    final ByteBuffer body = batch.slice(entryStart + HEADER_BYTES, room);
+    try {
+      namespace.serialize(entry, body);
+    } catch (KryoException e) {
+      return -1;
+    }
+    return body.position();
+  }
+
+  /**
+   * Replaces a batch buffer with one twice as large, retaining the specified number of bytes.
+   */
+  private ByteBuffer grow(ByteBuffer batch, int used) {
+    final ByteBuffer grown = bufferPool.acquire(batch.capacity() * 2);
+    grown.put(batch.position(0).limit(used));
+    bufferPool.release(batch);
+    return grown;
   }
 
   @Override
@@ -281,7 +430,7 @@ class FileChannelJournalSegmentWriter<E> implements JournalWriter<E> {
     }
 
     // Reset the last entry.
-    lastEntry = null;
+    resetLastEntry();
 
     try {
       // Truncate the index.
@@ -289,7 +438,7 @@ class FileChannelJournalSegmentWriter<E> implements JournalWriter<E> {
 
       if (index < segment.index()) {
         channel.position(JournalSegmentDescriptor.BYTES);
-        channel.write(zero());
+        zero(JournalSegmentDescriptor.BYTES);
         channel.position(JournalSegmentDescriptor.BYTES);
       } else {
         // Reset the writer to the given index.
@@ -297,7 +446,7 @@ class FileChannelJournalSegmentWriter<E> implements JournalWriter<E> {
 
         // Zero entries after the given index.
         long position = channel.position();
-        channel.write(zero());
+        zero(position);
         channel.position(position);
       }
     } catch (IOException e) {
@@ -306,14 +455,25 @@ class FileChannelJournalSegmentWriter<E> implements JournalWriter<E> {
   }
 
   /**
-   * Returns a zeroed out byte buffer.
+   * Zeroes out the bytes following specified position, up to the size of the scan buffer.
    */
-  private ByteBuffer zero() {
-    memory.clear();
-    for (int i = 0; i < memory.limit(); i++) {
-      memory.put(i, (byte) 0);
+  private void zero(long position) throws IOException {
+    final ByteBuffer memory = bufferPool.acquire(scanCapacity);
+    try {
+      memory.limit((int) Math.min(scanCapacity, segment.descriptor().maxSegmentSize() - position));
+      while (memory.remaining() >= Long.BYTES) {
+        memory.putLong(0);
+      }
+      while (memory.hasRemaining()) {
+        memory.put((byte) 0);
+      }
+      memory.flip();
+      while (memory.hasRemaining()) {
+        channel.write(memory);
+      }
+    } finally {
+      bufferPool.release(memory);
     }
-    return memory;
   }
 
   @Override
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2023 PANTHEON.tech, s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.storage.journal;
+
+/**
+ * Receives the time spent in individual phases of writing to a {@link SegmentedJournal}. All times are reported in
+ * nanoseconds. Methods are invoked by the thread performing the operation, which in case of compaction is the
+ * compaction executor, hence implementations need to be thread-safe. They should also be cheap, as they are invoked
+ * for each entry written.
+ * <p>
+ * All methods have a no-op default implementation, so that implementations can pick the phases they are interested in.
+ */
+public interface JournalMetrics {
+  /**
+   * A {@link JournalMetrics} ignoring all measurements.
+   */
+  JournalMetrics NOOP = new JournalMetrics() {
+    // Defaults only
+  };
+
+  /**
+   * Reports the time spent serializing a single entry.
+   *
+   * @param nanos time in nanoseconds
+   */
+  default void serializeTime(long nanos) {
+    // No-op
+  }
+
+  /**
+   * Reports the time spent computing the checksum of a single entry.
+   *
+   * @param nanos time in nanoseconds
+   */
+  default void checksumTime(long nanos) {
+    // No-op
+  }
+
+  /**
+   * Reports the time spent writing one or more serialized entries to a segment file channel. Memory-mapped segments do
+   * not report this phase, as entries are serialized directly into the mapped buffer.
+   *
+   * @param nanos time in nanoseconds
+   */
+  default void writeTime(long nanos) {
+    // No-op
+  }
+
+  /**
+   * Reports the time spent flushing the current segment to persistent storage.
+   *
+   * @param nanos time in nanoseconds
+   */
+  default void flushTime(long nanos) {
+    // No-op
+  }
+
+  /**
+   * Reports the time spent rolling over to a new segment, including flushing and sealing the previous segment.
+   *
+   * @param nanos time in nanoseconds
+   */
+  default void rolloverTime(long nanos) {
+    // No-op
+  }
+
+  /**
+   * Reports the time spent closing and deleting segments removed by a single {@link SegmentedJournal#compact(long)}.
+   *
+   * @param nanos time in nanoseconds
+   */
+  default void compactionTime(long nanos) {
+    // No-op
+  }
+}
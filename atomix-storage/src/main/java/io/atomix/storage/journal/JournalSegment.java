@@ -16,7 +16,6 @@
 package io.atomix.storage.journal;
 
 import io.atomix.storage.journal.index.JournalIndex;
-import io.atomix.storage.journal.index.SparseJournalIndex;
 import java.io.File;
 import java.io.IOException;
 import java.nio.MappedByteBuffer;
@@ -24,8 +23,11 @@ import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkState;
@@ -36,31 +38,70 @@ import static com.google.common.base.Preconditions.checkState;
  * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
  */
 public class JournalSegment<E> implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(JournalSegment.class);
+
   private final JournalSegmentFile file;
   private final JournalSegmentDescriptor descriptor;
   private final StorageLevel storageLevel;
   private final int maxEntrySize;
   private final JournalIndex index;
   private final JournalSerdes namespace;
+  private final MappedBytesBudget mappedBytesBudget;
+  private final JournalMetrics metrics;
   private final MappableJournalSegmentWriter<E> writer;
+  private JournalSegmentSummary summary;
+  // Set when the segment file is known to contain no entries, until the first writer is initialized
+  private boolean knownEmpty;
   private final Set<MappableJournalSegmentReader<E>> readers = ConcurrentHashMap.newKeySet();
   private final AtomicInteger references = new AtomicInteger();
   private boolean open = true;
+  private volatile boolean compacted;
+  // Completed once the segment has been compacted and all references to it have been released
+  private final CompletableFuture<Void> released = new CompletableFuture<>();
 
   public JournalSegment(
       JournalSegmentFile file,
       JournalSegmentDescriptor descriptor,
       StorageLevel storageLevel,
       int maxEntrySize,
-      double indexDensity,
-      JournalSerdes namespace) {
+      JournalIndex index,
+      JournalSerdes namespace,
+      JournalSerdes writerNamespace,
+      DirectBufferPool bufferPool,
+      MappedBytesBudget mappedBytesBudget,
+      JournalMetrics metrics) {
+    this(file, descriptor, storageLevel, maxEntrySize, index, namespace, writerNamespace, bufferPool,
+        mappedBytesBudget, metrics, null);
+  }
+
+  /**
+   * Creates a segment, optionally using an already open channel to its file, which is then known to contain no
+   * entries.
+   */
+  JournalSegment(
+      JournalSegmentFile file,
+      JournalSegmentDescriptor descriptor,
+      StorageLevel storageLevel,
+      int maxEntrySize,
+      JournalIndex index,
+      JournalSerdes namespace,
+      JournalSerdes writerNamespace,
+      DirectBufferPool bufferPool,
+      MappedBytesBudget mappedBytesBudget,
+      JournalMetrics metrics,
+      FileChannel emptyChannel) {
     this.file = file;
     this.descriptor = descriptor;
     this.storageLevel = storageLevel;
     this.maxEntrySize = maxEntrySize;
-    this.index = new SparseJournalIndex(indexDensity);
+    this.index = index;
     this.namespace = namespace;
-    this.writer = new MappableJournalSegmentWriter<>(openChannel(file.file()), this, maxEntrySize, index, namespace);
+    this.mappedBytesBudget = mappedBytesBudget;
+    this.metrics = metrics;
+    this.knownEmpty = emptyChannel != null;
+    this.summary = knownEmpty ? null : JournalSegmentSummary.read(file.indexFile(), descriptor);
+    this.writer = new MappableJournalSegmentWriter<>(knownEmpty ? emptyChannel : openChannel(file.file()), this,
+        maxEntrySize, index, writerNamespace, bufferPool);
   }
 
   private FileChannel openChannel(File file) {
@@ -116,6 +157,15 @@ public class JournalSegment<E> implements AutoCloseable {
     return writer.size();
   }
 
+  /**
+   * Returns the metrics to which segment writers report.
+   *
+   * @return the journal metrics
+   */
+  JournalMetrics metrics() {
+    return metrics;
+  }
+
   /**
    * Returns the segment file.
    *
@@ -153,7 +203,9 @@ public class JournalSegment<E> implements AutoCloseable {
   }
 
   /**
-   * Acquires a reference to the log segment.
+   * Acquires a reference to the log segment. The first reference maps the segment into memory, if the mapped bytes
+   * budget allows it. A segment which did not fit is accessed through its file channel until it is released by all
+   * its users, at which point mapping it is attempted again once it is next acquired.
    */
   void acquire() {
     if (references.getAndIncrement() == 0 && open) {
@@ -162,19 +214,29 @@ public class JournalSegment<E> implements AutoCloseable {
   }
 
   /**
-   * Releases a reference to the log segment.
+   * Releases a reference to the log segment. Releasing the last reference to a compacted segment allows it to be
+   * closed and deleted.
    */
   void release() {
-    if (references.decrementAndGet() == 0 && open) {
-      unmap();
+    if (references.decrementAndGet() == 0) {
+      if (open) {
+        unmap();
+      }
+      if (compacted) {
+        released.complete(null);
+      }
     }
   }
 
   /**
-   * Maps the log segment into memory.
+   * Maps the log segment into memory, if it is not mapped already and the mapped bytes budget allows it.
    */
-  private void map() {
-    if (storageLevel == StorageLevel.MAPPED) {
+  private synchronized void map() {
+    if (storageLevel == StorageLevel.MAPPED && writer.buffer() == null) {
+      if (!mappedBytesBudget.tryReserve(descriptor.maxSegmentSize())) {
+        LOG.debug("Not mapping segment {}, mapped bytes budget {} is exhausted", this, mappedBytesBudget);
+        return;
+      }
       MappedByteBuffer buffer = writer.map();
       readers.forEach(reader -> reader.map(buffer));
     }
@@ -183,10 +245,66 @@ public class JournalSegment<E> implements AutoCloseable {
   /**
    * Unmaps the log segment from memory.
    */
-  private void unmap() {
-    if (storageLevel == StorageLevel.MAPPED) {
+  private synchronized void unmap() {
+    if (storageLevel == StorageLevel.MAPPED && writer.buffer() != null) {
       writer.unmap();
       readers.forEach(reader -> reader.unmap());
+      mappedBytesBudget.release(descriptor.maxSegmentSize());
+    }
+  }
+
+  /**
+   * Returns the summary this segment was sealed with, if any.
+   *
+   * @return the summary, or {@code null} if the segment is not sealed
+   */
+  JournalSegmentSummary summary() {
+    return summary;
+  }
+
+  /**
+   * Checks whether the segment file is known to contain no entries, so that the writer does not need to scan it. This
+   * holds only for the first writer of a segment created from a preallocated file.
+   *
+   * @return {@code true} if the segment is known to be empty
+   */
+  boolean takeKnownEmpty() {
+    final boolean ret = knownEmpty;
+    knownEmpty = false;
+    return ret;
+  }
+
+  /**
+   * Seals the segment, flushing its contents and then persisting a summary of them. This method should be invoked
+   * once no more entries are going to be appended to the segment. Failure to persist the summary is not fatal, as the
+   * segment can always be scanned.
+   */
+  void seal() {
+    writer.flush();
+    final JournalSegmentSummary newSummary = writer.summarize();
+    if (newSummary != null) {
+      try {
+        newSummary.write(file.indexFile());
+        summary = newSummary;
+      } catch (IOException e) {
+        LOG.warn("Failed to write summary of segment {}", this, e);
+      }
+    }
+  }
+
+  /**
+   * Unseals the segment, removing its persisted summary, as the segment is about to be modified.
+   */
+  void unseal() {
+    summary = null;
+    deleteSummary();
+  }
+
+  private void deleteSummary() {
+    try {
+      Files.deleteIfExists(file.indexFile().toPath());
+    } catch (IOException e) {
+      throw new StorageException(e);
     }
   }
 
@@ -243,7 +361,32 @@ public class JournalSegment<E> implements AutoCloseable {
   }
 
   /**
-   * Closes the segment.
+   * Marks the segment as removed from the journal by compaction. Readers must not acquire it anymore, but those which
+   * hold a reference to it may keep using it until they release it, hence the segment must not be closed or deleted
+   * until the returned future completes.
+   *
+   * @return A future completing once all references to the segment have been released
+   */
+  CompletableFuture<Void> markCompacted() {
+    compacted = true;
+    if (references.get() == 0) {
+      released.complete(null);
+    }
+    return released;
+  }
+
+  /**
+   * Returns a boolean indicating whether the segment has been removed from the journal by compaction.
+   *
+   * @return indicates whether the segment has been compacted
+   */
+  boolean isCompacted() {
+    return compacted;
+  }
+
+  /**
+   * Closes the segment, regardless of any references to it. Segments removed by compaction should be closed only once
+   * {@link #markCompacted()} completes.
    */
   @Override
   public void close() {
@@ -257,6 +400,7 @@ public class JournalSegment<E> implements AutoCloseable {
    * Deletes the segment.
    */
   public void delete() {
+    deleteSummary();
     try {
       Files.deleteIfExists(file.file().toPath());
     } catch (IOException e) {
@@ -18,6 +18,9 @@ package io.atomix.storage.journal;
 import com.google.common.annotations.VisibleForTesting;
 
 import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
@@ -32,9 +35,8 @@ import static java.util.Objects.requireNonNull;
  * each log. Segments with in-sequence identifiers should contain in-sequence indexes.</li>
  * <li>{@code index} (64-bit signed integer) - The effective first index of the segment. This indicates the index at which
  * the first entry should be written to the segment. Indexes are monotonically increasing thereafter.</li>
- * <li>{@code version} (64-bit signed integer) - The version of the segment. Versions are monotonically increasing
- * starting at {@code 1}. Versions will only be incremented whenever the segment is rewritten to another memory/disk
- * space, e.g. after log compaction.</li>
+ * <li>{@code version} (32-bit signed integer) - The format version of the segment. Version {@code 1} segments protect
+ * their entries with CRC32 checksums, version {@code 2} segments use CRC32C checksums.</li>
  * <li>{@code maxSegmentSize} (32-bit unsigned integer) - The maximum number of bytes allowed in the segment.</li>
  * <li>{@code maxEntries} (32-bit signed integer) - The total number of expected entries in the segment. This is the final
  * number of entries allowed within the segment both before and after compaction. This entry count is used to determine
@@ -54,9 +56,11 @@ import static java.util.Objects.requireNonNull;
 public final class JournalSegmentDescriptor {
   public static final int BYTES = 64;
 
-  // Current segment version.
+  // Default segment version, using CRC32 entry checksums.
   @VisibleForTesting
   static final int VERSION = 1;
+  // Segment version using CRC32C entry checksums.
+  static final int CRC32C_VERSION = 2;
 
   // The lengths of each field in the header.
   private static final int VERSION_LENGTH = Integer.BYTES;     // 32-bit signed integer
@@ -122,7 +126,7 @@ public final class JournalSegmentDescriptor {
   /**
    * Returns the segment version.
    * <p>
-   * Versions are monotonically increasing starting at {@code 1}.
+   * The version determines the checksum algorithm used to protect entries, see {@link #newChecksum()}.
    *
    * @return The segment version.
    */
@@ -195,6 +199,20 @@ public final class JournalSegmentDescriptor {
     }
   }
 
+  /**
+   * Returns a new instance of the checksum algorithm used to protect entries in segments of this version.
+   *
+   * @return A new checksum.
+   * @throws StorageException if the segment version is not supported
+   */
+  Checksum newChecksum() {
+    return switch (version) {
+      case VERSION -> new CRC32();
+      case CRC32C_VERSION -> new CRC32C();
+      default -> throw new StorageException("Unsupported segment version " + version);
+    };
+  }
+
   /**
    * Copies the segment to a new buffer.
    */
@@ -230,6 +248,17 @@ public final class JournalSegmentDescriptor {
       buffer.putInt(VERSION_POSITION, VERSION);
     }
 
+    /**
+     * Sets the segment version.
+     *
+     * @param version The segment version.
+     * @return The segment descriptor builder.
+     */
+    public Builder withVersion(int version) {
+      buffer.putInt(VERSION_POSITION, version);
+      return this;
+    }
+
     /**
      * Sets the segment identifier.
      *
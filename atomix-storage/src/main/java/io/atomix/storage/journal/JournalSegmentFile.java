@@ -28,6 +28,7 @@ public final class JournalSegmentFile {
   private static final char PART_SEPARATOR = '-';
   private static final char EXTENSION_SEPARATOR = '.';
   private static final String EXTENSION = "log";
+  private static final String INDEX_EXTENSION = "idx";
   private final File file;
 
   /**
@@ -76,6 +77,15 @@ public final class JournalSegmentFile {
     return new File(directory, String.format("%s-%d.log", requireNonNull(name, "name cannot be null"), id));
   }
 
+  /**
+   * Creates the file holding a preallocated segment for the given directory and log name. This file never appears to
+   * be a segment file.
+   */
+  static File createPreallocatedFile(String name, File directory) {
+    return new File(directory, String.format("%s%cnext%ctmp", requireNonNull(name, "name cannot be null"),
+        PART_SEPARATOR, EXTENSION_SEPARATOR));
+  }
+
   /**
    * @throws IllegalArgumentException if {@code file} is not a valid segment file
    */
@@ -91,4 +101,17 @@ public final class JournalSegmentFile {
   public File file() {
     return file;
   }
+
+  /**
+   * Returns the file holding the {@link JournalSegmentSummary} of this segment. The file exists only while the segment
+   * is sealed.
+   *
+   * @return The summary file.
+   */
+  File indexFile() {
+    final String name = file.getName();
+    final int extensionSeparator = name.lastIndexOf(EXTENSION_SEPARATOR);
+    return new File(file.getParentFile(), (extensionSeparator == -1 ? name : name.substring(0, extensionSeparator))
+        + EXTENSION_SEPARATOR + INDEX_EXTENSION);
+  }
 }
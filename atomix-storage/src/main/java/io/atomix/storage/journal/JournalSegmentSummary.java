@@ -0,0 +1,269 @@
+/*
+ * Copyright 2023 PANTHEON.tech, s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.storage.journal;
+
+import io.atomix.storage.journal.index.JournalIndex;
+import io.atomix.storage.journal.index.Position;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Summary of a sealed {@link JournalSegment}, persisted next to the segment file. It records the location of the last
+ * entry in the segment and the contents of the segment's {@link JournalIndex}, so that reopening a journal does not
+ * have to read and deserialize every entry of every segment.
+ *
+ * <p>
+ * The file format is as follows:
+ * <ul>
+ * <li>32-bit magic</li>
+ * <li>32-bit version</li>
+ * <li>64-bit segment ID</li>
+ * <li>64-bit segment first index</li>
+ * <li>64-bit last index</li>
+ * <li>32-bit position of the last entry</li>
+ * <li>32-bit length of the last entry</li>
+ * <li>32-bit checksum of the last entry</li>
+ * <li>32-bit number of index positions, followed by that many 64-bit index and 32-bit position pairs</li>
+ * <li>32-bit CRC32 of all preceding bytes</li>
+ * </ul>
+ *
+ * <p>
+ * The summary is only a hint: it is verified against the segment when it is loaded and a segment whose summary is
+ * missing, stale or corrupted is scanned as usual.
+ */
+final class JournalSegmentSummary {
+  private static final Logger LOG = LoggerFactory.getLogger(JournalSegmentSummary.class);
+  private static final int MAGIC = 0x4A535349;
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES + Long.BYTES + Long.BYTES
+      + Integer.BYTES + Integer.BYTES + Integer.BYTES + Integer.BYTES;
+  private static final int POSITION_BYTES = Long.BYTES + Integer.BYTES;
+
+  private final long id;
+  private final long firstIndex;
+  private final long lastIndex;
+  private final int lastPosition;
+  private final int lastLength;
+  private final int lastChecksum;
+  private final long[] indices;
+  private final int[] positions;
+
+  private JournalSegmentSummary(long id, long firstIndex, long lastIndex, int lastPosition, int lastLength,
+      int lastChecksum, long[] indices, int[] positions) {
+    this.id = id;
+    this.firstIndex = firstIndex;
+    this.lastIndex = lastIndex;
+    this.lastPosition = lastPosition;
+    this.lastLength = lastLength;
+    this.lastChecksum = lastChecksum;
+    this.indices = indices;
+    this.positions = positions;
+  }
+
+  /**
+   * Creates a summary of a segment.
+   *
+   * @param descriptor the segment descriptor
+   * @param lastIndex the index of the last entry
+   * @param lastPosition the position of the last entry
+   * @param lastLength the length of the last entry
+   * @param lastChecksum the checksum of the last entry
+   * @param index the segment index
+   * @return a summary
+   */
+  static JournalSegmentSummary of(JournalSegmentDescriptor descriptor, long lastIndex, int lastPosition,
+      int lastLength, int lastChecksum, JournalIndex index) {
+    final List<Position> list = new ArrayList<>();
+    index.forEach(list::add);
+
+    final long[] indices = new long[list.size()];
+    final int[] positions = new int[list.size()];
+    for (int i = 0; i < indices.length; i++) {
+      final Position position = list.get(i);
+      indices[i] = position.index();
+      positions[i] = position.position();
+    }
+
+    return new JournalSegmentSummary(descriptor.id(), descriptor.index(), lastIndex, lastPosition, lastLength,
+        lastChecksum, indices, positions);
+  }
+
+  /**
+   * Reads the summary of a segment from a file.
+   *
+   * @param file the summary file
+   * @param descriptor the descriptor of the segment
+   * @return the summary, or {@code null} if the file does not exist or does not hold a valid summary of the segment
+   */
+  static JournalSegmentSummary read(File file, JournalSegmentDescriptor descriptor) {
+    final byte[] bytes;
+    try {
+      bytes = Files.readAllBytes(file.toPath());
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException e) {
+      LOG.warn("Failed to read segment summary {}", file, e);
+      return null;
+    }
+
+    if (bytes.length < HEADER_BYTES + Integer.BYTES) {
+      LOG.debug("Ignoring truncated segment summary {}", file);
+      return null;
+    }
+
+    final CRC32 crc32 = new CRC32();
+    crc32.update(bytes, 0, bytes.length - Integer.BYTES);
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    if (buffer.getInt(bytes.length - Integer.BYTES) != (int) crc32.getValue()) {
+      LOG.debug("Ignoring corrupted segment summary {}", file);
+      return null;
+    }
+
+    try {
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        LOG.debug("Ignoring unrecognized segment summary {}", file);
+        return null;
+      }
+
+      final long id = buffer.getLong();
+      final long firstIndex = buffer.getLong();
+      if (id != descriptor.id() || firstIndex != descriptor.index()) {
+        LOG.debug("Ignoring segment summary {} of a different segment", file);
+        return null;
+      }
+
+      final long lastIndex = buffer.getLong();
+      final int lastPosition = buffer.getInt();
+      final int lastLength = buffer.getInt();
+      final int lastChecksum = buffer.getInt();
+      final int count = buffer.getInt();
+      if (count < 0 || count > (bytes.length - HEADER_BYTES - Integer.BYTES) / POSITION_BYTES) {
+        LOG.debug("Ignoring segment summary {} with invalid index size {}", file, count);
+        return null;
+      }
+
+      final long[] indices = new long[count];
+      final int[] positions = new int[count];
+      for (int i = 0; i < count; i++) {
+        indices[i] = buffer.getLong();
+        positions[i] = buffer.getInt();
+      }
+      return new JournalSegmentSummary(id, firstIndex, lastIndex, lastPosition, lastLength, lastChecksum, indices,
+          positions);
+    } catch (BufferUnderflowException e) {
+      LOG.debug("Ignoring malformed segment summary {}", file, e);
+      return null;
+    }
+  }
+
+  /**
+   * Writes this summary to a file. The file is replaced atomically, so that it is either absent or complete.
+   *
+   * @param file the summary file
+   * @throws IOException if an I/O error occurs
+   */
+  void write(File file) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + indices.length * POSITION_BYTES + Integer.BYTES);
+    buffer.putInt(MAGIC)
+        .putInt(VERSION)
+        .putLong(id)
+        .putLong(firstIndex)
+        .putLong(lastIndex)
+        .putInt(lastPosition)
+        .putInt(lastLength)
+        .putInt(lastChecksum)
+        .putInt(indices.length);
+    for (int i = 0; i < indices.length; i++) {
+      buffer.putLong(indices[i]).putInt(positions[i]);
+    }
+
+    final CRC32 crc32 = new CRC32();
+    crc32.update(buffer.array(), 0, buffer.position());
+    buffer.putInt((int) crc32.getValue());
+    buffer.flip();
+
+    final Path target = file.toPath();
+    final Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(true);
+    }
+    Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Populates an index with the positions recorded in this summary.
+   *
+   * @param index the index to populate
+   * @return {@code true} if the index has been populated, {@code false} if the positions are not compatible with it,
+   *         in which case any positions at or beyond the first index of the segment have been removed from the index
+   */
+  boolean restoreIndex(JournalIndex index) {
+    try {
+      for (int i = 0; i < indices.length; i++) {
+        index.index(indices[i], positions[i]);
+      }
+      return true;
+    } catch (IllegalArgumentException e) {
+      index.truncate(firstIndex - 1);
+      return false;
+    }
+  }
+
+  long lastIndex() {
+    return lastIndex;
+  }
+
+  int lastPosition() {
+    return lastPosition;
+  }
+
+  int lastLength() {
+    return lastLength;
+  }
+
+  int lastChecksum() {
+    return lastChecksum;
+  }
+
+  @Override
+  public String toString() {
+    return toStringHelper(this)
+        .add("id", id)
+        .add("firstIndex", firstIndex)
+        .add("lastIndex", lastIndex)
+        .add("positions", indices.length)
+        .toString();
+  }
+}
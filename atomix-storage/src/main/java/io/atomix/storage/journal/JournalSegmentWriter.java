@@ -0,0 +1,229 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ * Copyright 2023 PANTHEON.tech, s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.storage.journal;
+
+import io.atomix.storage.journal.index.JournalIndex;
+import java.nio.BufferOverflowException;
+import java.util.List;
+import java.util.zip.Checksum;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Base class for writers of a single {@link JournalSegment}. Aside from the last entry, it tracks the position, length
+ * and the stored checksum of that entry, so that a sealed segment can be described by a {@link JournalSegmentSummary}
+ * and subsequently restored from it without scanning all of its entries.
+ *
+ * <p>
+ * Scanning a segment only validates entry framing and checksums, without deserializing the entries. The last entry is
+ * materialized lazily, when it is first requested through {@link #getLastEntry()}.
+ */
+abstract class JournalSegmentWriter<E> implements JournalWriter<E> {
+  final JournalSegment<E> segment;
+  final int maxEntrySize;
+  final JournalIndex index;
+  final JournalSerdes namespace;
+  final long firstIndex;
+  final Checksum crc;
+  final JournalMetrics metrics;
+
+  private Indexed<E> lastEntry;
+  private long lastIndex;
+  private int lastPosition;
+  private int lastLength;
+  private int lastChecksum;
+
+  JournalSegmentWriter(JournalSegment<E> segment, int maxEntrySize, JournalIndex index, JournalSerdes namespace) {
+    this.segment = requireNonNull(segment);
+    this.maxEntrySize = maxEntrySize;
+    this.index = requireNonNull(index);
+    this.namespace = requireNonNull(namespace);
+    this.firstIndex = segment.index();
+    this.lastIndex = firstIndex - 1;
+    this.crc = segment.descriptor().newChecksum();
+    this.metrics = segment.metrics();
+  }
+
+  /**
+   * Initializes this writer, either from the segment's summary or by scanning the segment. This method needs to be
+   * invoked by subclass constructors once they are fully initialized.
+   */
+  final void initialize() {
+    if (segment.takeKnownEmpty()) {
+      initializeEmpty();
+      return;
+    }
+
+    final JournalSegmentSummary summary = segment.summary();
+    if (summary == null || !restore(summary)) {
+      reset(0);
+    }
+  }
+
+  /**
+   * Attempts to restore the state of this writer from a summary. If this method returns {@code true}, the writer is
+   * positioned just after the last entry in the summary.
+   *
+   * @param summary the summary to restore from
+   * @return {@code true} if the summary matches the segment and the writer has been restored
+   */
+  abstract boolean restore(JournalSegmentSummary summary);
+
+  /**
+   * Positions this writer at the start of a segment which is known to be empty, without scanning it.
+   */
+  abstract void initializeEmpty();
+
+  /**
+   * Reads and deserializes the entry stored at specified position.
+   *
+   * @param position the position of the entry header in the segment
+   * @param length the length of the entry
+   * @return the entry
+   */
+  abstract E readEntry(int position, int length);
+
+  /**
+   * Records the last entry written to the segment.
+   *
+   * @param entry the entry
+   * @param position the position of the entry header in the segment
+   * @param checksum the checksum stored in the entry header
+   */
+  final void setLastEntry(Indexed<E> entry, int position, int checksum) {
+    lastEntry = entry;
+    lastIndex = entry.index();
+    lastPosition = position;
+    lastLength = entry.size();
+    lastChecksum = checksum;
+  }
+
+  /**
+   * Records the last entry recovered from the segment, without materializing it.
+   *
+   * @param index the index of the entry
+   * @param position the position of the entry header in the segment
+   * @param length the length of the entry
+   * @param checksum the checksum stored in the entry header
+   */
+  final void setLastEntry(long index, int position, int length, int checksum) {
+    lastEntry = null;
+    lastIndex = index;
+    lastPosition = position;
+    lastLength = length;
+    lastChecksum = checksum;
+  }
+
+  /**
+   * Forgets the last entry, making this writer empty.
+   */
+  final void resetLastEntry() {
+    lastEntry = null;
+    lastIndex = firstIndex - 1;
+  }
+
+  /**
+   * Returns a summary of the segment's contents.
+   *
+   * @return the summary, or {@code null} if the segment is empty
+   */
+  final JournalSegmentSummary summarize() {
+    return isEmpty() ? null : JournalSegmentSummary.of(segment.descriptor(), lastIndex, lastPosition, lastLength,
+        lastChecksum, index);
+  }
+
+  @Override
+  public final long getLastIndex() {
+    return lastIndex;
+  }
+
+  @Override
+  public final Indexed<E> getLastEntry() {
+    if (lastEntry == null && !isEmpty()) {
+      lastEntry = new Indexed<>(lastIndex, readEntry(lastPosition, lastLength), lastLength);
+    }
+    return lastEntry;
+  }
+
+  @Override
+  public final long getNextIndex() {
+    return lastIndex + 1;
+  }
+
+  /**
+   * Returns the first index written to the segment.
+   */
+  public final long firstIndex() {
+    return firstIndex;
+  }
+
+  /**
+   * Returns a boolean indicating whether the segment is empty.
+   *
+   * @return Indicates whether the segment is empty.
+   */
+  public final boolean isEmpty() {
+    return lastIndex < firstIndex;
+  }
+
+  /**
+   * Appends entries to the segment, starting at specified offset, until either all entries are appended or the segment
+   * is full.
+   *
+   * @param entries the entries to append
+   * @param offset the offset of the first entry to append
+   * @param appended the list to which appended indexed entries should be added
+   * @return the number of entries appended, at least one
+   * @throws BufferOverflowException if the segment cannot accommodate the first entry
+   */
+  <T extends E> int appendAll(List<T> entries, int offset, List<Indexed<T>> appended) {
+    int count = 0;
+    for (int i = offset; i < entries.size(); i++) {
+      try {
+        appended.add(append(entries.get(i)));
+      } catch (BufferOverflowException e) {
+        if (count == 0) {
+          throw e;
+        }
+        break;
+      }
+      count++;
+    }
+    return count;
+  }
+
+  @Override
+  public final void append(Indexed<E> entry) {
+    final long nextIndex = getNextIndex();
+
+    // If the entry's index is greater than the next index in the segment, skip some entries.
+    if (entry.index() > nextIndex) {
+      throw new IndexOutOfBoundsException("Entry index is not sequential");
+    }
+
+    // If the entry's index is less than the next index, truncate the segment.
+    if (entry.index() < nextIndex) {
+      truncate(entry.index() - 1);
+    }
+    append(entry.entry());
+  }
+
+  @Override
+  public final void commit(long index) {
+
+  }
+}
@@ -107,6 +107,17 @@ public interface JournalSerdes {
      */
     <T> T deserialize(final InputStream stream, final int bufferSize);
 
+    /**
+     * Returns a {@link JournalSerdes} for exclusive use by a single user, such as a journal writer. The returned
+     * instance must not be accessed concurrently, in exchange it may avoid acquiring pooled resources on each
+     * invocation. The default implementation returns this instance.
+     *
+     * @return A {@link JournalSerdes} for exclusive use
+     */
+    default JournalSerdes forExclusiveUse() {
+        return this;
+    }
+
     /**
      * Creates a new {@link JournalSerdes} builder.
      *
@@ -170,6 +181,16 @@ public interface JournalSerdes {
 
         Object readObject() throws IOException;
 
+        /**
+         * Read all bytes remaining in the entry. This allows a serializer to defer decoding of the last field of an
+         * entry, for example an object written through {@link EntryOutput#writeObject(Object)}, which is encoded in
+         * Java serialization format.
+         *
+         * @return remaining bytes
+         * @throws IOException if an I/O error occurs
+         */
+        byte[] readRemainingBytes() throws IOException;
+
         @VisibleForTesting
         int readVarInt() throws IOException;
     }
@@ -15,6 +15,9 @@
  */
 package io.atomix.storage.journal;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Log writer.
  *
@@ -58,6 +61,21 @@ public interface JournalWriter<E> extends AutoCloseable {
    */
   void append(Indexed<E> entry);
 
+  /**
+   * Appends a batch of entries to the journal. Implementations may write the entries out together, which is
+   * considerably cheaper than appending them one by one.
+   *
+   * @param entries The entries to append.
+   * @return The appended indexed entries, in the order of {@code entries}.
+   */
+  default <T extends E> List<Indexed<T>> appendAll(List<T> entries) {
+    final List<Indexed<T>> appended = new ArrayList<>(entries.size());
+    for (T entry : entries) {
+      appended.add(append(entry));
+    }
+    return appended;
+  }
+
   /**
    * Commits entries up to the given index.
    *
@@ -19,6 +19,7 @@ import io.atomix.storage.journal.index.JournalIndex;
 import java.io.IOException;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.List;
 
 /**
  * Mappable log segment writer.
@@ -29,20 +30,23 @@ class MappableJournalSegmentWriter<E> implements JournalWriter<E> {
   private final int maxEntrySize;
   private final JournalIndex index;
   private final JournalSerdes namespace;
-  private JournalWriter<E> writer;
+  private final DirectBufferPool bufferPool;
+  private JournalSegmentWriter<E> writer;
 
   MappableJournalSegmentWriter(
       FileChannel channel,
       JournalSegment<E> segment,
       int maxEntrySize,
       JournalIndex index,
-      JournalSerdes namespace) {
+      JournalSerdes namespace,
+      DirectBufferPool bufferPool) {
     this.channel = channel;
     this.segment = segment;
     this.maxEntrySize = maxEntrySize;
     this.index = index;
     this.namespace = namespace;
-    this.writer = new FileChannelJournalSegmentWriter<>(channel, segment, maxEntrySize, index, namespace);
+    this.bufferPool = bufferPool;
+    this.writer = new FileChannelJournalSegmentWriter<>(channel, segment, maxEntrySize, index, namespace, bufferPool);
   }
 
   /**
@@ -56,7 +60,7 @@ class MappableJournalSegmentWriter<E> implements JournalWriter<E> {
     }
 
     try {
-      JournalWriter<E> writer = this.writer;
+      JournalSegmentWriter<E> writer = this.writer;
       MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segment.descriptor().maxSegmentSize());
       this.writer = new MappedJournalSegmentWriter<>(buffer, segment, maxEntrySize, index, namespace);
       writer.close();
@@ -71,20 +75,30 @@ class MappableJournalSegmentWriter<E> implements JournalWriter<E> {
    */
   void unmap() {
     if (writer instanceof MappedJournalSegmentWriter) {
-      JournalWriter<E> writer = this.writer;
-      this.writer = new FileChannelJournalSegmentWriter<>(channel, segment, maxEntrySize, index, namespace);
+      JournalSegmentWriter<E> writer = this.writer;
+      this.writer = new FileChannelJournalSegmentWriter<>(channel, segment, maxEntrySize, index, namespace,
+          bufferPool);
       writer.close();
     }
   }
 
   MappedByteBuffer buffer() {
-    JournalWriter<E> writer = this.writer;
+    JournalSegmentWriter<E> writer = this.writer;
     if (writer instanceof MappedJournalSegmentWriter) {
       return ((MappedJournalSegmentWriter<E>) writer).buffer();
     }
     return null;
   }
 
+  /**
+   * Returns a summary of the segment's contents.
+   *
+   * @return the summary, or {@code null} if the segment is empty
+   */
+  JournalSegmentSummary summarize() {
+    return writer.summarize();
+  }
+
   /**
    * Returns the writer's first index.
    *
@@ -132,6 +146,20 @@ class MappableJournalSegmentWriter<E> implements JournalWriter<E> {
     writer.append(entry);
   }
 
+  /**
+   * Appends entries to the segment, starting at specified offset, until either all entries are appended or the segment
+   * is full.
+   *
+   * @param entries the entries to append
+   * @param offset the offset of the first entry to append
+   * @param appended the list to which appended indexed entries should be added
+   * @return the number of entries appended, at least one
+   * @throws java.nio.BufferOverflowException if the segment cannot accommodate the first entry
+   */
+  <T extends E> int appendAll(List<T> entries, int offset, List<Indexed<T>> appended) {
+    return writer.appendAll(entries, offset, appended);
+  }
+
   @Override
   public void commit(long index) {
     writer.commit(index);
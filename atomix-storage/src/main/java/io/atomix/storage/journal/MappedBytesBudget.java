@@ -0,0 +1,107 @@
+/*
+ * Copyright 2023 PANTHEON.tech, s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.storage.journal;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A limit on the number of bytes which may be memory-mapped by {@link StorageLevel#MAPPED} journals. A single budget
+ * can be shared by any number of {@link SegmentedJournal}s, bounding their combined mapped size.
+ * <p>
+ * A segment reserves its maximum size from the budget when it is mapped and returns it when it is unmapped. Segments
+ * are unmapped as soon as they are no longer referenced by any reader or writer. If the budget cannot accommodate a
+ * segment, it is accessed through its file channel instead, and mapping it is retried once it has been released and
+ * is subsequently acquired again.
+ */
+public final class MappedBytesBudget {
+  private final AtomicLong mappedBytes = new AtomicLong();
+  private final long maxBytes;
+
+  /**
+   * Creates a new budget.
+   *
+   * @param maxBytes maximum number of bytes which may be mapped at any time
+   * @throws IllegalArgumentException if {@code maxBytes} is not positive
+   */
+  public MappedBytesBudget(long maxBytes) {
+    checkArgument(maxBytes > 0, "Invalid maximum mapped bytes %s", maxBytes);
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Returns a new budget without any limit.
+   *
+   * @return an unlimited budget
+   */
+  public static MappedBytesBudget unlimited() {
+    return new MappedBytesBudget(Long.MAX_VALUE);
+  }
+
+  /**
+   * Returns the maximum number of bytes which may be mapped at any time.
+   *
+   * @return the maximum number of mapped bytes
+   */
+  public long maxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * Returns the number of bytes currently mapped.
+   *
+   * @return the number of mapped bytes
+   */
+  public long mappedBytes() {
+    return mappedBytes.get();
+  }
+
+  /**
+   * Attempts to reserve specified number of bytes.
+   *
+   * @param bytes the number of bytes to reserve
+   * @return {@code true} if the bytes have been reserved, {@code false} if the budget would be exceeded
+   */
+  boolean tryReserve(long bytes) {
+    long current;
+    do {
+      current = mappedBytes.get();
+      if (maxBytes - current < bytes) {
+        return false;
+      }
+    } while (!mappedBytes.compareAndSet(current, current + bytes));
+    return true;
+  }
+
+  /**
+   * Releases bytes previously reserved through {@link #tryReserve(long)}.
+   *
+   * @param bytes the number of bytes to release
+   */
+  void release(long bytes) {
+    mappedBytes.addAndGet(-bytes);
+  }
+
+  @Override
+  public String toString() {
+    return toStringHelper(this)
+        .add("mappedBytes", mappedBytes.get())
+        .add("maxBytes", maxBytes)
+        .toString();
+  }
+}
@@ -20,7 +20,7 @@ import io.atomix.storage.journal.index.Position;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.util.NoSuchElementException;
-import java.util.zip.CRC32;
+import java.util.zip.Checksum;
 
 /**
  * Log segment reader.
@@ -33,6 +33,7 @@ final class MappedJournalSegmentReader<E> implements JournalReader<E> {
   private final JournalIndex index;
   private final JournalSerdes namespace;
   private final long firstIndex;
+  private final Checksum crc;
   private Indexed<E> currentEntry;
   private Indexed<E> nextEntry;
 
@@ -47,6 +48,7 @@ final class MappedJournalSegmentReader<E> implements JournalReader<E> {
     this.index = index;
     this.namespace = namespace;
     this.firstIndex = segment.index();
+    this.crc = segment.descriptor().newChecksum();
     reset();
   }
 
@@ -145,13 +147,13 @@ final class MappedJournalSegmentReader<E> implements JournalReader<E> {
       long checksum = buffer.getInt() & 0xFFFFFFFFL;
 
       // Compute the checksum for the entry bytes.
-      final CRC32 crc32 = new CRC32();
+      crc.reset();
       ByteBuffer slice = buffer.slice();
       slice.limit(length);
-      crc32.update(slice);
+      crc.update(slice);
 
       // If the stored checksum equals the computed checksum, return the entry.
-      if (checksum == crc32.getValue()) {
+      if (checksum == crc.getValue()) {
         slice.rewind();
         E entry = namespace.deserialize(slice);
         nextEntry = new Indexed<>(index, entry, length);
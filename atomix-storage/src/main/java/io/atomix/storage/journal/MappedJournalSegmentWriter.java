@@ -23,7 +23,6 @@ import java.nio.BufferOverflowException;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
-import java.util.zip.CRC32;
 
 /**
  * Segment writer.
@@ -40,15 +39,9 @@ import java.util.zip.CRC32;
  *
  * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
  */
-class MappedJournalSegmentWriter<E> implements JournalWriter<E> {
+class MappedJournalSegmentWriter<E> extends JournalSegmentWriter<E> {
   private final MappedByteBuffer mappedBuffer;
   private final ByteBuffer buffer;
-  private final JournalSegment<E> segment;
-  private final int maxEntrySize;
-  private final JournalIndex index;
-  private final JournalSerdes namespace;
-  private final long firstIndex;
-  private Indexed<E> lastEntry;
 
   MappedJournalSegmentWriter(
       MappedByteBuffer buffer,
@@ -56,14 +49,44 @@ class MappedJournalSegmentWriter<E> implements JournalWriter<E> {
       int maxEntrySize,
       JournalIndex index,
       JournalSerdes namespace) {
+    super(segment, maxEntrySize, index, namespace);
     this.mappedBuffer = buffer;
     this.buffer = buffer.slice();
-    this.segment = segment;
-    this.maxEntrySize = maxEntrySize;
-    this.index = index;
-    this.namespace = namespace;
-    this.firstIndex = segment.index();
-    reset(0);
+    initialize();
+  }
+
+  @Override
+  boolean restore(JournalSegmentSummary summary) {
+    final int position = summary.lastPosition();
+    final int length = summary.lastLength();
+    final int next = position + Integer.BYTES + Integer.BYTES + length;
+    if (summary.lastIndex() < firstIndex || position < JournalSegmentDescriptor.BYTES || length <= 0
+        || length > maxEntrySize
+        || next > buffer.limit()) {
+      return false;
+    }
+
+    // Verify the last entry header and that it is not followed by another entry
+    if (buffer.getInt(position) != length || buffer.getInt(position + Integer.BYTES) != summary.lastChecksum()
+        || (next + Integer.BYTES <= buffer.limit() && buffer.getInt(next) != 0)) {
+      return false;
+    }
+
+    final ByteBuffer slice = buffer.duplicate();
+    slice.position(position + Integer.BYTES + Integer.BYTES).limit(next);
+    crc.reset();
+    crc.update(slice);
+    if ((int) crc.getValue() != summary.lastChecksum()) {
+      return false;
+    }
+
+    if (!summary.restoreIndex(index)) {
+      return false;
+    }
+
+    setLastEntry(summary.lastIndex(), position, length, summary.lastChecksum());
+    buffer.position(next);
+    return true;
   }
 
   /**
@@ -75,9 +98,22 @@ class MappedJournalSegmentWriter<E> implements JournalWriter<E> {
     return mappedBuffer;
   }
 
+  @Override
+  E readEntry(int position, int length) {
+    final ByteBuffer slice = buffer.duplicate();
+    slice.position(position + Integer.BYTES + Integer.BYTES).limit(position + Integer.BYTES + Integer.BYTES + length);
+    return namespace.deserialize(slice.slice());
+  }
+
+  @Override
+  void initializeEmpty() {
+    buffer.position(JournalSegmentDescriptor.BYTES);
+  }
+
   @Override
   public void reset(long index) {
     long nextIndex = firstIndex;
+    resetLastEntry();
 
     // Clear the buffer indexes.
     buffer.position(JournalSegmentDescriptor.BYTES);
@@ -98,16 +134,14 @@ class MappedJournalSegmentWriter<E> implements JournalWriter<E> {
         final long checksum = buffer.getInt() & 0xFFFFFFFFL;
 
         // Compute the checksum for the entry bytes.
-        final CRC32 crc32 = new CRC32();
+        crc.reset();
         ByteBuffer slice = buffer.slice();
         slice.limit(length);
-        crc32.update(slice);
+        crc.update(slice);
 
         // If the stored checksum equals the computed checksum, return the entry.
-        if (checksum == crc32.getValue()) {
-          slice.rewind();
-          final E entry = namespace.deserialize(slice);
-          lastEntry = new Indexed<>(nextIndex, entry, length);
+        if (checksum == crc.getValue()) {
+          setLastEntry(nextIndex, position, length, (int) checksum);
           this.index.index(nextIndex, position);
           nextIndex++;
         } else {
@@ -129,25 +163,6 @@ class MappedJournalSegmentWriter<E> implements JournalWriter<E> {
     }
   }
 
-  @Override
-  public long getLastIndex() {
-    return lastEntry != null ? lastEntry.index() : segment.index() - 1;
-  }
-
-  @Override
-  public Indexed<E> getLastEntry() {
-    return lastEntry;
-  }
-
-  @Override
-  public long getNextIndex() {
-    if (lastEntry != null) {
-      return lastEntry.index() + 1;
-    } else {
-      return firstIndex;
-    }
-  }
-
   /**
    * Returns the size of the underlying buffer.
    *
@@ -157,31 +172,6 @@ class MappedJournalSegmentWriter<E> implements JournalWriter<E> {
     return buffer.position() + JournalSegmentDescriptor.BYTES;
   }
 
-  /**
-   * Returns a boolean indicating whether the segment is empty.
-   *
-   * @return Indicates whether the segment is empty.
-   */
-  public boolean isEmpty() {
-    return lastEntry == null;
-  }
-
-  @Override
-  public void append(Indexed<E> entry) {
-    final long nextIndex = getNextIndex();
-
-    // If the entry's index is greater than the next index in the segment, skip some entries.
-    if (entry.index() > nextIndex) {
-      throw new IndexOutOfBoundsException("Entry index is not sequential");
-    }
-
-    // If the entry's index is less than the next index, truncate the segment.
-    if (entry.index() < nextIndex) {
-      truncate(entry.index() - 1);
-    }
-    append(entry.entry());
-  }
-
   @Override
   @SuppressWarnings("unchecked")
   public <T extends E> Indexed<T> append(T entry) {
@@ -196,11 +186,14 @@ class MappedJournalSegmentWriter<E> implements JournalWriter<E> {
 
     buffer.position(position + Integer.BYTES + Integer.BYTES);
 
+    final long start = System.nanoTime();
     try {
       namespace.serialize(entry, buffer);
     } catch (KryoException e) {
       throw new BufferOverflowException();
     }
+    final long serialized = System.nanoTime();
+    metrics.serializeTime(serialized - start);
 
     final int length = buffer.position() - (position + Integer.BYTES + Integer.BYTES);
 
@@ -212,12 +205,13 @@ class MappedJournalSegmentWriter<E> implements JournalWriter<E> {
     }
 
     // Compute the checksum for the entry.
-    final CRC32 crc32 = new CRC32();
+    crc.reset();
     buffer.position(position + Integer.BYTES + Integer.BYTES);
     ByteBuffer slice = buffer.slice();
     slice.limit(length);
-    crc32.update(slice);
-    final long checksum = crc32.getValue();
+    crc.update(slice);
+    final long checksum = crc.getValue();
+    metrics.checksumTime(System.nanoTime() - serialized);
 
     // Create a single byte[] in memory for the entire entry and write it as a batch to the underlying buffer.
     buffer.position(position);
@@ -227,16 +221,11 @@ class MappedJournalSegmentWriter<E> implements JournalWriter<E> {
 
     // Update the last entry with the correct index/term/length.
     Indexed<E> indexedEntry = new Indexed<>(index, entry, length);
-    this.lastEntry = indexedEntry;
+    setLastEntry(indexedEntry, position, (int) checksum);
     this.index.index(index, position);
     return (Indexed<T>) indexedEntry;
   }
 
-  @Override
-  public void commit(long index) {
-
-  }
-
   @Override
   public void truncate(long index) {
     // If the index is greater than or equal to the last index, skip the truncate.
@@ -245,7 +234,7 @@ class MappedJournalSegmentWriter<E> implements JournalWriter<E> {
     }
 
     // Reset the last entry.
-    lastEntry = null;
+    resetLastEntry();
 
     // Truncate the index.
     this.index.truncate(index);
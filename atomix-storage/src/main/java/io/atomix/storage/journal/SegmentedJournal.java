@@ -15,20 +15,35 @@
  */
 package io.atomix.storage.journal;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.atomix.storage.journal.index.DenseJournalIndex;
+import io.atomix.storage.journal.index.JournalIndex;
+import io.atomix.storage.journal.index.SparseJournalIndex;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,10 +72,20 @@ public final class SegmentedJournal<E> implements Journal<E> {
   private final StorageLevel storageLevel;
   private final File directory;
   private final JournalSerdes namespace;
+  // Shared by the writers of all segments, as they are only ever used by the journal writer
+  private final JournalSerdes writerNamespace;
   private final int maxSegmentSize;
   private final int maxEntrySize;
   private final int maxEntriesPerSegment;
   private final double indexDensity;
+  private final boolean denseIndex;
+  private final boolean crc32c;
+  private final DirectBufferPool bufferPool;
+  private final MappedBytesBudget mappedBytesBudget;
+  private final JournalMetrics metrics;
+  private final boolean preallocate;
+  private final Executor preallocationExecutor;
+  private final Executor compactionExecutor;
   private final boolean flushOnCommit;
   private final SegmentedJournalWriter<E> writer;
   private volatile long commitIndex;
@@ -68,6 +93,8 @@ public final class SegmentedJournal<E> implements Journal<E> {
   private final ConcurrentNavigableMap<Long, JournalSegment<E>> segments = new ConcurrentSkipListMap<>();
   private final Collection<SegmentedJournalReader<E>> readers = ConcurrentHashMap.newKeySet();
   private JournalSegment<E> currentSegment;
+  private CompletableFuture<SpareSegment> preallocatedFile;
+  private CompletableFuture<Long> pendingCompaction = CompletableFuture.completedFuture(0L);
 
   private volatile boolean open = true;
 
@@ -80,15 +107,32 @@ public final class SegmentedJournal<E> implements Journal<E> {
       int maxEntrySize,
       int maxEntriesPerSegment,
       double indexDensity,
+      boolean denseIndex,
+      boolean crc32c,
+      DirectBufferPool bufferPool,
+      MappedBytesBudget mappedBytesBudget,
+      JournalMetrics metrics,
+      boolean preallocate,
+      Executor preallocationExecutor,
+      Executor compactionExecutor,
       boolean flushOnCommit) {
     this.name = requireNonNull(name, "name cannot be null");
     this.storageLevel = requireNonNull(storageLevel, "storageLevel cannot be null");
     this.directory = requireNonNull(directory, "directory cannot be null");
     this.namespace = requireNonNull(namespace, "namespace cannot be null");
+    this.writerNamespace = namespace.forExclusiveUse();
     this.maxSegmentSize = maxSegmentSize;
     this.maxEntrySize = maxEntrySize;
     this.maxEntriesPerSegment = maxEntriesPerSegment;
     this.indexDensity = indexDensity;
+    this.denseIndex = denseIndex;
+    this.crc32c = crc32c;
+    this.bufferPool = requireNonNull(bufferPool, "bufferPool cannot be null");
+    this.mappedBytesBudget = requireNonNull(mappedBytesBudget, "mappedBytesBudget cannot be null");
+    this.metrics = requireNonNull(metrics, "metrics cannot be null");
+    this.preallocate = preallocate;
+    this.preallocationExecutor = requireNonNull(preallocationExecutor, "preallocationExecutor cannot be null");
+    this.compactionExecutor = requireNonNull(compactionExecutor, "compactionExecutor cannot be null");
     this.flushOnCommit = flushOnCommit;
     open();
     this.writer = openWriter();
@@ -229,6 +273,15 @@ public final class SegmentedJournal<E> implements Journal<E> {
    * Opens the segments.
    */
   private synchronized void open() {
+    // A segment file preallocated by a previous incarnation is reused, unless preallocation has been disabled since.
+    if (!preallocate) {
+      try {
+        Files.deleteIfExists(JournalSegmentFile.createPreallocatedFile(name, directory).toPath());
+      } catch (IOException e) {
+        throw new StorageException(e);
+      }
+    }
+
     // Load existing log segments from disk.
     for (JournalSegment<E> segment : loadSegments()) {
       segments.put(segment.descriptor().index(), segment);
@@ -237,8 +290,9 @@ public final class SegmentedJournal<E> implements Journal<E> {
     // If a segment doesn't already exist, create an initial segment starting at index 1.
     if (!segments.isEmpty()) {
       currentSegment = segments.lastEntry().getValue();
+      currentSegment.unseal();
     } else {
-      JournalSegmentDescriptor descriptor = JournalSegmentDescriptor.builder()
+      JournalSegmentDescriptor descriptor = newDescriptor()
           .withId(1)
           .withIndex(1)
           .withMaxSegmentSize(maxSegmentSize)
@@ -250,6 +304,7 @@ public final class SegmentedJournal<E> implements Journal<E> {
 
       segments.put(1L, currentSegment);
     }
+    preallocateSegment();
   }
 
   /**
@@ -277,8 +332,9 @@ public final class SegmentedJournal<E> implements Journal<E> {
     JournalSegment<E> lastSegment = getLastSegment();
     if (lastSegment != null) {
       currentSegment = lastSegment;
+      currentSegment.unseal();
     } else {
-      JournalSegmentDescriptor descriptor = JournalSegmentDescriptor.builder()
+      JournalSegmentDescriptor descriptor = newDescriptor()
           .withId(1)
           .withIndex(1)
           .withMaxSegmentSize(maxSegmentSize)
@@ -312,7 +368,7 @@ public final class SegmentedJournal<E> implements Journal<E> {
     }
     segments.clear();
 
-    JournalSegmentDescriptor descriptor = JournalSegmentDescriptor.builder()
+    JournalSegmentDescriptor descriptor = newDescriptor()
         .withId(1)
         .withIndex(index)
         .withMaxSegmentSize(maxSegmentSize)
@@ -355,8 +411,10 @@ public final class SegmentedJournal<E> implements Journal<E> {
     assertOpen();
     assertDiskSpace();
 
+    currentSegment.seal();
+
     JournalSegment<E> lastSegment = getLastSegment();
-    JournalSegmentDescriptor descriptor = JournalSegmentDescriptor.builder()
+    JournalSegmentDescriptor descriptor = newDescriptor()
         .withId(lastSegment != null ? lastSegment.descriptor().id() + 1 : 1)
         .withIndex(currentSegment.lastIndex() + 1)
         .withMaxSegmentSize(maxSegmentSize)
@@ -369,6 +427,15 @@ public final class SegmentedJournal<E> implements Journal<E> {
     return currentSegment;
   }
 
+  /**
+   * Returns the metrics to which the journal reports.
+   *
+   * @return the journal metrics
+   */
+  JournalMetrics metrics() {
+    return metrics;
+  }
+
   /**
    * Returns the segment following the segment with the given ID.
    *
@@ -419,33 +486,136 @@ public final class SegmentedJournal<E> implements Journal<E> {
   JournalSegment<E> createSegment(JournalSegmentDescriptor descriptor) {
     File segmentFile = JournalSegmentFile.createSegmentFile(name, directory, descriptor.id());
 
-    RandomAccessFile raf;
-    FileChannel channel;
-    try {
-      raf = new RandomAccessFile(segmentFile, "rw");
-      raf.setLength(descriptor.maxSegmentSize());
-      channel =  raf.getChannel();
-    } catch (IOException e) {
-      throw new StorageException(e);
+    // Use the preallocated file if it is ready. It is already open, hence we only need to write the descriptor and
+    // rename it. It is known to contain no entries, hence the new segment does not need to be scanned either.
+    FileChannel channel = null;
+    final SpareSegment spare = takePreallocatedSegment(false);
+    if (spare != null) {
+      try {
+        writeDescriptor(spare.channel(), descriptor);
+        // The file must not have a segment name before it has a valid descriptor
+        Files.move(spare.file().toPath(), segmentFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        channel = spare.channel();
+      } catch (IOException e) {
+        log.warn("Failed to use preallocated segment file {}, creating {}", spare.file(), segmentFile, e);
+        spare.delete(log);
+      }
+    }
+    if (channel == null) {
+      try (RandomAccessFile raf = new RandomAccessFile(segmentFile, "rw")) {
+        raf.setLength(descriptor.maxSegmentSize());
+        writeDescriptor(raf.getChannel(), descriptor);
+      } catch (IOException e) {
+        throw new StorageException(e);
+      }
     }
 
+    JournalSegment<E> segment = newSegment(new JournalSegmentFile(segmentFile), descriptor, channel);
+    log.debug("Created segment: {}", segment);
+    preallocateSegment();
+    return segment;
+  }
+
+  /**
+   * Writes the segment descriptor to the start of a segment file.
+   */
+  private static void writeDescriptor(FileChannel channel, JournalSegmentDescriptor descriptor) throws IOException {
     ByteBuffer buffer = ByteBuffer.allocate(JournalSegmentDescriptor.BYTES);
     descriptor.copyTo(buffer);
     buffer.flip();
+
+    while (buffer.hasRemaining()) {
+      channel.write(buffer, buffer.position());
+    }
+  }
+
+  /**
+   * Starts preallocating the file of the next segment on the preallocation executor, unless preallocation is disabled
+   * or a file is already being preallocated.
+   */
+  private synchronized void preallocateSegment() {
+    if (!preallocate || preallocatedFile != null) {
+      return;
+    }
+
+    final File file = JournalSegmentFile.createPreallocatedFile(name, directory);
+    final int size = maxSegmentSize;
     try {
-      channel.write(buffer);
-    } catch (IOException e) {
-      throw new StorageException(e);
-    } finally {
+      preallocatedFile = CompletableFuture.supplyAsync(() -> {
+        try {
+          return SpareSegment.open(file, size);
+        } catch (IOException e) {
+          throw new CompletionException(e);
+        }
+      }, preallocationExecutor);
+    } catch (RejectedExecutionException e) {
+      log.warn("{} - Failed to schedule segment preallocation", name, e);
+    }
+  }
+
+  /**
+   * Takes the preallocated segment file.
+   *
+   * @param wait Whether to wait for a preallocation in progress to complete, otherwise it is left running
+   * @return The preallocated file, or {@code null} if there is none ready
+   */
+  private synchronized SpareSegment takePreallocatedSegment(boolean wait) {
+    final CompletableFuture<SpareSegment> future = preallocatedFile;
+    if (future == null || !wait && !future.isDone()) {
+      return null;
+    }
+
+    preallocatedFile = null;
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      log.warn("Failed to preallocate segment file", e.getCause());
+      return null;
+    }
+  }
+
+  /**
+   * An open file of {@code maxSegmentSize} bytes which contains no entries and can become the next segment.
+   */
+  private record SpareSegment(File file, FileChannel channel) {
+    /**
+     * Opens the spare file. A file left by a previous incarnation is reused as long as it has the expected size, as
+     * it is only ever written to once it has been renamed to a segment file. Otherwise the file is created as a sparse
+     * file, which takes no time regardless of its size, unlike filling it with zeros.
+     */
+    static SpareSegment open(File file, int size) throws IOException {
+      final RandomAccessFile raf = new RandomAccessFile(file, "rw");
       try {
-        channel.close();
+        if (raf.length() != size) {
+          raf.setLength(0);
+          raf.setLength(size);
+        }
+      } catch (IOException e) {
         raf.close();
+        throw e;
+      }
+      return new SpareSegment(file, raf.getChannel());
+    }
+
+    /**
+     * Closes the file, keeping it for a future incarnation.
+     */
+    void close(Logger log) {
+      try {
+        channel.close();
       } catch (IOException e) {
+        log.warn("Failed to close preallocated segment file {}", file, e);
+      }
+    }
+
+    void delete(Logger log) {
+      close(log);
+      try {
+        Files.deleteIfExists(file.toPath());
+      } catch (IOException e) {
+        log.warn("Failed to delete preallocated segment file {}", file, e);
       }
     }
-    JournalSegment<E> segment = newSegment(new JournalSegmentFile(segmentFile), descriptor);
-    log.debug("Created segment: {}", segment);
-    return segment;
   }
 
   /**
@@ -456,7 +626,33 @@ public final class SegmentedJournal<E> implements Journal<E> {
    * @return The segment instance.
    */
   protected JournalSegment<E> newSegment(JournalSegmentFile segmentFile, JournalSegmentDescriptor descriptor) {
-    return new JournalSegment<>(segmentFile, descriptor, storageLevel, maxEntrySize, indexDensity, namespace);
+    return newSegment(segmentFile, descriptor, null);
+  }
+
+  private JournalSegment<E> newSegment(JournalSegmentFile segmentFile, JournalSegmentDescriptor descriptor,
+      FileChannel emptyChannel) {
+    return new JournalSegment<>(segmentFile, descriptor, storageLevel, maxEntrySize, newIndex(descriptor), namespace,
+        writerNamespace, bufferPool, mappedBytesBudget, metrics, emptyChannel);
+  }
+
+  /**
+   * Returns a builder for descriptors of new segments.
+   *
+   * @return The descriptor builder.
+   */
+  private JournalSegmentDescriptor.Builder newDescriptor() {
+    return JournalSegmentDescriptor.builder()
+        .withVersion(crc32c ? JournalSegmentDescriptor.CRC32C_VERSION : JournalSegmentDescriptor.VERSION);
+  }
+
+  /**
+   * Creates a new index for a segment.
+   *
+   * @param descriptor The segment descriptor.
+   * @return The index instance.
+   */
+  private JournalIndex newIndex(JournalSegmentDescriptor descriptor) {
+    return denseIndex ? new DenseJournalIndex(descriptor.index()) : new SparseJournalIndex(indexDensity);
   }
 
   /**
@@ -568,8 +764,14 @@ public final class SegmentedJournal<E> implements Journal<E> {
     }
   }
 
-  void closeReader(SegmentedJournalReader<E> reader) {
-    readers.remove(reader);
+  /**
+   * Removes a closed reader from the journal.
+   *
+   * @param reader The reader.
+   * @return {@code true} if the reader was still open
+   */
+  boolean closeReader(SegmentedJournalReader<E> reader) {
+    return readers.remove(reader);
   }
 
   @Override
@@ -603,32 +805,92 @@ public final class SegmentedJournal<E> implements Journal<E> {
    * Compacts the journal up to the given index.
    * <p>
    * The semantics of compaction are not specified by this interface.
+   * <p>
+   * Compacted segments are detached from the journal before this method returns, but they are closed and their files
+   * are deleted asynchronously on the compaction executor, see {@link Builder#withCompactionExecutor(Executor)}.
    *
    * @param index The index up to which to compact the journal.
+   * @return A future completing with the number of bytes reclaimed from the file system
    */
-  public void compact(long index) {
+  public CompletableFuture<Long> compact(long index) {
     Map.Entry<Long, JournalSegment<E>> segmentEntry = segments.floorEntry(index);
     if (segmentEntry != null) {
       SortedMap<Long, JournalSegment<E>> compactSegments = segments.headMap(segmentEntry.getValue().index());
       if (!compactSegments.isEmpty()) {
         log.debug("{} - Compacting {} segment(s)", name, compactSegments.size());
-        for (JournalSegment<E> segment : compactSegments.values()) {
-          log.trace("Deleting segment: {}", segment);
-          segment.close();
-          segment.delete();
-        }
+        final List<JournalSegment<E>> deleted = new ArrayList<>(compactSegments.values());
+        final CompletableFuture<?>[] released = deleted.stream()
+            .map(JournalSegment::markCompacted)
+            .toArray(CompletableFuture<?>[]::new);
         compactSegments.clear();
         resetHead(segmentEntry.getValue().index());
+        return deleteSegments(deleted, CompletableFuture.allOf(released));
       }
     }
+    return CompletableFuture.completedFuture(0L);
+  }
+
+  /**
+   * Closes and deletes detached segments on the compaction executor, once all references to them have been released.
+   * Deletions are chained, so that they are performed in order and {@link #close()} only needs to wait for the last
+   * one.
+   *
+   * @param deleted The segments to delete.
+   * @param released A future completing once the segments are no longer referenced
+   * @return A future completing with the number of bytes reclaimed
+   */
+  private synchronized CompletableFuture<Long> deleteSegments(List<JournalSegment<E>> deleted,
+      CompletableFuture<Void> released) {
+    final CompletableFuture<Void> ready = pendingCompaction.exceptionally(cause -> 0L)
+        .thenCombine(released, (ignored, unused) -> null);
+    final CompletableFuture<Long> future = ready.thenApplyAsync(ignored -> {
+      final long start = System.nanoTime();
+      long reclaimed = 0;
+      for (JournalSegment<E> segment : deleted) {
+        log.trace("Deleting segment: {}", segment);
+        final long length = segment.file().file().length();
+        segment.close();
+        segment.delete();
+        reclaimed += length;
+      }
+      metrics.compactionTime(System.nanoTime() - start);
+      log.debug("{} - Reclaimed {} bytes from {} segment(s)", name, reclaimed, deleted.size());
+      return reclaimed;
+    }, compactionExecutor);
+    pendingCompaction = future;
+    return future;
+  }
+
+  /**
+   * Waits for segment deletions scheduled by {@link #compact(long)} to finish.
+   */
+  private void awaitCompaction() {
+    final CompletableFuture<Long> future;
+    synchronized (this) {
+      future = pendingCompaction;
+    }
+    try {
+      future.join();
+    } catch (CompletionException e) {
+      log.warn("{} - Failed to delete compacted segments", name, e.getCause());
+    }
   }
 
   @Override
   public void close() {
+    // Readers cannot be used once the journal is closed. Closing them releases their segments, which compaction may
+    // be waiting for.
+    readers.forEach(SegmentedJournalReader::close);
+    awaitCompaction();
     segments.values().forEach(segment -> {
       log.debug("Closing segment: {}", segment);
       segment.close();
     });
+    // Keep the preallocated file, so that the next incarnation does not need to create it
+    final SpareSegment preallocated = takePreallocatedSegment(true);
+    if (preallocated != null) {
+      preallocated.close(log);
+    }
     currentSegment = null;
     open = false;
   }
@@ -660,6 +922,18 @@ public final class SegmentedJournal<E> implements Journal<E> {
     return commitIndex;
   }
 
+  /**
+   * Lazily initialized default preallocation executor. A single thread is enough, as preallocating a file does not
+   * involve writing its contents.
+   */
+  private static final class DefaultPreallocationExecutor {
+    private static final int QUEUE_SIZE = 1024;
+
+    static final Executor INSTANCE = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(QUEUE_SIZE),
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("journal-preallocation-%d").build());
+  }
+
   /**
    * Raft log builder.
    */
@@ -671,6 +945,10 @@ public final class SegmentedJournal<E> implements Journal<E> {
     private static final int DEFAULT_MAX_ENTRY_SIZE = 1024 * 1024;
     private static final int DEFAULT_MAX_ENTRIES_PER_SEGMENT = 1024 * 1024;
     private static final double DEFAULT_INDEX_DENSITY = .005;
+    private static final boolean DEFAULT_DENSE_INDEX = false;
+    private static final boolean DEFAULT_CRC32C = false;
+    private static final boolean DEFAULT_PREALLOCATE = false;
+    private static final Executor DEFAULT_COMPACTION_EXECUTOR = Runnable::run;
 
     private String name = DEFAULT_NAME;
     private StorageLevel storageLevel = StorageLevel.DISK;
@@ -680,6 +958,14 @@ public final class SegmentedJournal<E> implements Journal<E> {
     private int maxEntrySize = DEFAULT_MAX_ENTRY_SIZE;
     private int maxEntriesPerSegment = DEFAULT_MAX_ENTRIES_PER_SEGMENT;
     private double indexDensity = DEFAULT_INDEX_DENSITY;
+    private boolean denseIndex = DEFAULT_DENSE_INDEX;
+    private boolean crc32c = DEFAULT_CRC32C;
+    private DirectBufferPool bufferPool = DirectBufferPool.shared();
+    private MappedBytesBudget mappedBytesBudget = MappedBytesBudget.unlimited();
+    private JournalMetrics metrics = JournalMetrics.NOOP;
+    private boolean preallocate = DEFAULT_PREALLOCATE;
+    private Executor preallocationExecutor;
+    private Executor compactionExecutor = DEFAULT_COMPACTION_EXECUTOR;
     private boolean flushOnCommit = DEFAULT_FLUSH_ON_COMMIT;
 
     protected Builder() {
@@ -819,6 +1105,162 @@ public final class SegmentedJournal<E> implements Journal<E> {
       return this;
     }
 
+    /**
+     * Enables dense indexing of segments, returning the builder for method chaining.
+     * <p>
+     * A dense index records the position of every entry written to a segment in a primitive array, so readers can be
+     * positioned at any index without scanning from the nearest indexed entry. When enabled, the index density is
+     * ignored.
+     *
+     * @return The journal builder.
+     */
+    public Builder<E> withDenseIndex() {
+      return withDenseIndex(true);
+    }
+
+    /**
+     * Sets whether segments should be indexed densely, returning the builder for method chaining.
+     *
+     * @param denseIndex Whether segments should be indexed densely.
+     * @return The journal builder.
+     * @see #withDenseIndex()
+     */
+    public Builder<E> withDenseIndex(boolean denseIndex) {
+      this.denseIndex = denseIndex;
+      return this;
+    }
+
+    /**
+     * Enables CRC32C entry checksums in new segments, returning the builder for method chaining.
+     * <p>
+     * CRC32C is computed by dedicated instructions on most contemporary processors and is therefore considerably
+     * cheaper than CRC32. The checksum algorithm is recorded in each segment's descriptor, hence existing segments
+     * remain readable regardless of this setting.
+     *
+     * @return The journal builder.
+     */
+    public Builder<E> withCrc32c() {
+      return withCrc32c(true);
+    }
+
+    /**
+     * Sets whether new segments should use CRC32C entry checksums, returning the builder for method chaining.
+     *
+     * @param crc32c Whether new segments should use CRC32C entry checksums.
+     * @return The journal builder.
+     * @see #withCrc32c()
+     */
+    public Builder<E> withCrc32c(boolean crc32c) {
+      this.crc32c = crc32c;
+      return this;
+    }
+
+    /**
+     * Sets the pool of direct buffers used to serialize entries and to scan segments, returning the builder for method
+     * chaining.
+     * <p>
+     * By default, all journals share {@link DirectBufferPool#shared()}.
+     *
+     * @param bufferPool The buffer pool.
+     * @return The journal builder.
+     * @throws NullPointerException If the {@code bufferPool} is {@code null}
+     */
+    public Builder<E> withBufferPool(DirectBufferPool bufferPool) {
+      this.bufferPool = requireNonNull(bufferPool, "bufferPool cannot be null");
+      return this;
+    }
+
+    /**
+     * Sets the budget limiting the number of bytes mapped into memory, returning the builder for method chaining. This
+     * setting only applies to {@link StorageLevel#MAPPED} journals.
+     * <p>
+     * By default, each journal has its own unlimited budget. Journals sharing a budget are bounded by its limit in
+     * aggregate, segments which do not fit into it are accessed through their file channel instead.
+     *
+     * @param mappedBytesBudget The mapped bytes budget.
+     * @return The journal builder.
+     * @throws NullPointerException If the {@code mappedBytesBudget} is {@code null}
+     */
+    public Builder<E> withMappedBytesBudget(MappedBytesBudget mappedBytesBudget) {
+      this.mappedBytesBudget = requireNonNull(mappedBytesBudget, "mappedBytesBudget cannot be null");
+      return this;
+    }
+
+    /**
+     * Sets the metrics receiving the time spent in individual phases of writing to the journal, returning the builder
+     * for method chaining.
+     * <p>
+     * By default, no metrics are reported.
+     *
+     * @param metrics The journal metrics.
+     * @return The journal builder.
+     * @throws NullPointerException If the {@code metrics} is {@code null}
+     */
+    public Builder<E> withMetrics(JournalMetrics metrics) {
+      this.metrics = requireNonNull(metrics, "metrics cannot be null");
+      return this;
+    }
+
+    /**
+     * Enables background preallocation of segment files, returning the builder for method chaining.
+     * <p>
+     * When enabled, the file of the next segment is created as a sparse file and opened on the preallocation executor
+     * while the current segment is being written, so that rolling over to a new segment only needs to write the segment
+     * descriptor and rename the file. Rolling over does not wait for a preallocation which is still in progress. The
+     * file is kept when the journal is closed and reused when it is opened again.
+     *
+     * @return The journal builder.
+     */
+    public Builder<E> withSegmentPreallocation() {
+      return withSegmentPreallocation(true);
+    }
+
+    /**
+     * Sets whether segment files should be preallocated in the background, returning the builder for method chaining.
+     *
+     * @param preallocate Whether segment files should be preallocated in the background.
+     * @return The journal builder.
+     * @see #withSegmentPreallocation()
+     */
+    public Builder<E> withSegmentPreallocation(boolean preallocate) {
+      this.preallocate = preallocate;
+      return this;
+    }
+
+    /**
+     * Sets the executor on which segment files are preallocated, returning the builder for method chaining. The executor
+     * must not run tasks in the calling thread.
+     * <p>
+     * By default, segment files of all journals are preallocated by a single background thread. Preallocations which do
+     * not fit into its bounded queue are skipped, the affected journals then create their next segment file when they
+     * roll over.
+     *
+     * @param preallocationExecutor The preallocation executor.
+     * @return The journal builder.
+     * @throws NullPointerException If the {@code preallocationExecutor} is {@code null}
+     * @see #withSegmentPreallocation()
+     */
+    public Builder<E> withPreallocationExecutor(Executor preallocationExecutor) {
+      this.preallocationExecutor = requireNonNull(preallocationExecutor, "preallocationExecutor cannot be null");
+      return this;
+    }
+
+    /**
+     * Sets the executor on which compacted segments are closed and deleted, returning the builder for method chaining.
+     * <p>
+     * By default, segments are deleted by the thread invoking {@link SegmentedJournal#compact(long)}. Deleting files
+     * can take a long time on some file systems, hence callers which also write to the journal should offload it.
+     * Deletions scheduled by a single journal never execute concurrently.
+     *
+     * @param compactionExecutor The compaction executor.
+     * @return The journal builder.
+     * @throws NullPointerException If the {@code compactionExecutor} is {@code null}
+     */
+    public Builder<E> withCompactionExecutor(Executor compactionExecutor) {
+      this.compactionExecutor = requireNonNull(compactionExecutor, "compactionExecutor cannot be null");
+      return this;
+    }
+
     /**
      * Enables flushing buffers to disk when entries are committed to a segment, returning the builder for method
      * chaining.
@@ -862,6 +1304,14 @@ public final class SegmentedJournal<E> implements Journal<E> {
           maxEntrySize,
           maxEntriesPerSegment,
           indexDensity,
+          denseIndex,
+          crc32c,
+          bufferPool,
+          mappedBytesBudget,
+          metrics,
+          preallocate,
+          preallocationExecutor != null ? preallocationExecutor : DefaultPreallocationExecutor.INSTANCE,
+          compactionExecutor,
           flushOnCommit);
     }
   }
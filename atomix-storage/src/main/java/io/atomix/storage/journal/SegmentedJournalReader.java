@@ -91,8 +91,8 @@ public class SegmentedJournalReader<E> implements JournalReader<E> {
 
   @Override
   public void reset(long index) {
-    // If the current segment is not open, it has been replaced. Reset the segments.
-    if (!currentSegment.isOpen()) {
+    // If the current segment is not open or has been compacted, it has been replaced. Reset the segments.
+    if (!currentSegment.isOpen() || currentSegment.isCompacted()) {
       reset();
     }
 
@@ -182,7 +182,10 @@ public class SegmentedJournalReader<E> implements JournalReader<E> {
 
   @Override
   public void close() {
-    currentReader.close();
-    journal.closeReader(this);
+    // Closing the journal closes its readers, hence this may be invoked multiple times
+    if (journal.closeReader(this)) {
+      currentReader.close();
+      currentSegment.release();
+    }
   }
 }
@@ -16,17 +16,21 @@
 package io.atomix.storage.journal;
 
 import java.nio.BufferOverflowException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Raft log writer.
  */
 public class SegmentedJournalWriter<E> implements JournalWriter<E> {
   private final SegmentedJournal<E> journal;
+  private final JournalMetrics metrics;
   private JournalSegment<E> currentSegment;
   private MappableJournalSegmentWriter<E> currentWriter;
 
   public SegmentedJournalWriter(SegmentedJournal<E> journal) {
     this.journal = journal;
+    this.metrics = journal.metrics();
     this.currentSegment = journal.getLastSegment();
     currentSegment.acquire();
     this.currentWriter = currentSegment.writer();
@@ -78,11 +82,7 @@ public class SegmentedJournalWriter<E> implements JournalWriter<E> {
       if (currentSegment.index() == currentWriter.getNextIndex()) {
         throw e;
       }
-      currentWriter.flush();
-      currentSegment.release();
-      currentSegment = journal.getNextSegment();
-      currentSegment.acquire();
-      currentWriter = currentSegment.writer();
+      rollover();
       return currentWriter.append(entry);
     }
   }
@@ -95,15 +95,41 @@ public class SegmentedJournalWriter<E> implements JournalWriter<E> {
       if (currentSegment.index() == currentWriter.getNextIndex()) {
         throw e;
       }
-      currentWriter.flush();
-      currentSegment.release();
-      currentSegment = journal.getNextSegment();
-      currentSegment.acquire();
-      currentWriter = currentSegment.writer();
+      rollover();
       currentWriter.append(entry);
     }
   }
 
+  @Override
+  public <T extends E> List<Indexed<T>> appendAll(List<T> entries) {
+    final List<Indexed<T>> appended = new ArrayList<>(entries.size());
+    int offset = 0;
+    while (offset < entries.size()) {
+      try {
+        offset += currentWriter.appendAll(entries, offset, appended);
+      } catch (BufferOverflowException e) {
+        if (currentSegment.index() == currentWriter.getNextIndex()) {
+          throw e;
+        }
+        rollover();
+      }
+    }
+    return appended;
+  }
+
+  /**
+   * Flushes the current segment and moves on to a new one.
+   */
+  private void rollover() {
+    final long start = System.nanoTime();
+    currentWriter.flush();
+    currentSegment.release();
+    currentSegment = journal.getNextSegment();
+    currentSegment.acquire();
+    currentWriter = currentSegment.writer();
+    metrics.rolloverTime(System.nanoTime() - start);
+  }
+
   @Override
   public void truncate(long index) {
     if (index < journal.getCommitIndex()) {
@@ -128,7 +154,9 @@ public class SegmentedJournalWriter<E> implements JournalWriter<E> {
 
   @Override
   public void flush() {
+    final long start = System.nanoTime();
     currentWriter.flush();
+    metrics.flushTime(System.nanoTime() - start);
   }
 
   @Override
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2023 PANTHEON.tech, s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.storage.journal.index;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Dense index. Unlike {@link SparseJournalIndex}, this index records the position of every entry in a primitive array,
+ * so that {@link #lookup(long)} always returns the exact position of the requested index in constant time and without
+ * boxing. It relies on entries being indexed in order, starting at the first index of the segment.
+ */
+public final class DenseJournalIndex implements JournalIndex {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final long firstIndex;
+
+    private int[] positions = new int[INITIAL_CAPACITY];
+    private int size;
+
+    public DenseJournalIndex(final long firstIndex) {
+        this.firstIndex = firstIndex;
+    }
+
+    @Override
+    public void index(final long index, final int position) {
+        final long offset = index - firstIndex;
+        if (offset < 0 || offset > size) {
+            throw new IllegalArgumentException("Index " + index + " is not contiguous with " + (firstIndex + size));
+        }
+
+        final int slot = (int) offset;
+        if (slot == positions.length) {
+            positions = Arrays.copyOf(positions, slot * 2);
+        }
+        positions[slot] = position;
+        size = slot + 1;
+    }
+
+    @Override
+    public Position lookup(final long index) {
+        final long offset = index - firstIndex;
+        if (offset < 0 || size == 0) {
+            return null;
+        }
+
+        final int slot = offset < size ? (int) offset : size - 1;
+        return new Position(firstIndex + slot, positions[slot]);
+    }
+
+    @Override
+    public void truncate(final long index) {
+        final long offset = index - firstIndex;
+        if (offset < 0) {
+            size = 0;
+        } else if (offset < size) {
+            size = (int) offset + 1;
+        }
+    }
+
+    @Override
+    public void forEach(final Consumer<Position> action) {
+        for (int slot = 0; slot < size; slot++) {
+            action.accept(new Position(firstIndex + slot, positions[slot]));
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package io.atomix.storage.journal.index;
 
+import java.util.function.Consumer;
+
 /**
  * Journal index.
  */
@@ -43,4 +45,11 @@ public interface JournalIndex {
    */
   void truncate(long index);
 
+  /**
+   * Invokes the specified action for each position recorded in this index, in ascending index order.
+   *
+   * @param action the action to invoke
+   */
+  void forEach(Consumer<Position> action);
+
 }
@@ -17,6 +17,7 @@ package io.atomix.storage.journal.index;
 
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.function.Consumer;
 
 /**
  * Sparse index.
@@ -47,4 +48,9 @@ public class SparseJournalIndex implements JournalIndex {
   public void truncate(long index) {
     positions.tailMap(index, false).clear();
   }
+
+  @Override
+  public void forEach(Consumer<Position> action) {
+    positions.forEach((index, position) -> action.accept(new Position(index, position)));
+  }
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2023 PANTHEON.tech, s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.utils.serializer;
+
+import static java.util.Objects.requireNonNull;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.ByteBufferInput;
+import com.esotericsoftware.kryo.io.ByteBufferOutput;
+import com.google.common.base.MoreObjects;
+import io.atomix.storage.journal.JournalSerdes;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link JournalSerdes} bound to a single {@link Kryo} instance and a single pair of {@link ByteBufferInput} and
+ * {@link ByteBufferOutput}, which are reused across invocations. {@link ByteBuffer}-based methods therefore do not
+ * touch any pool, while the remaining methods are delegated to the shared {@link KryoJournalSerdes}.
+ *
+ * <p>
+ * This class is not thread-safe and must not be accessed concurrently.
+ */
+final class ExclusiveKryoJournalSerdes implements JournalSerdes {
+    // Used to release references to user buffers once we are done with them
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final ByteBufferOutput output = new ByteBufferOutput(EMPTY);
+    private final ByteBufferInput input = new ByteBufferInput(EMPTY);
+    private final KryoJournalSerdes shared;
+    private final Kryo kryo;
+
+    ExclusiveKryoJournalSerdes(final KryoJournalSerdes shared, final Kryo kryo) {
+        this.shared = requireNonNull(shared);
+        this.kryo = requireNonNull(kryo);
+    }
+
+    @Override
+    public byte[] serialize(final Object obj) {
+        return shared.serialize(obj);
+    }
+
+    @Override
+    public byte[] serialize(final Object obj, final int bufferSize) {
+        return shared.serialize(obj, bufferSize);
+    }
+
+    @Override
+    public void serialize(final Object obj, final ByteBuffer buffer) {
+        output.setBuffer(buffer);
+        try {
+            kryo.writeClassAndObject(output, obj);
+            output.flush();
+        } finally {
+            output.setBuffer(EMPTY);
+        }
+    }
+
+    @Override
+    public void serialize(final Object obj, final OutputStream stream) {
+        shared.serialize(obj, stream);
+    }
+
+    @Override
+    public void serialize(final Object obj, final OutputStream stream, final int bufferSize) {
+        shared.serialize(obj, stream, bufferSize);
+    }
+
+    @Override
+    public <T> T deserialize(final byte[] bytes) {
+        return shared.deserialize(bytes);
+    }
+
+    @Override
+    public <T> T deserialize(final ByteBuffer buffer) {
+        input.setBuffer(buffer);
+        try {
+            @SuppressWarnings("unchecked")
+            T obj = (T) kryo.readClassAndObject(input);
+            return obj;
+        } finally {
+            input.setBuffer(EMPTY);
+        }
+    }
+
+    @Override
+    public <T> T deserialize(final InputStream stream) {
+        return shared.deserialize(stream);
+    }
+
+    @Override
+    public <T> T deserialize(final InputStream stream, final int bufferSize) {
+        return shared.deserialize(stream, bufferSize);
+    }
+
+    @Override
+    public JournalSerdes forExclusiveUse() {
+        return shared.forExclusiveUse();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).addValue(shared).toString();
+    }
+}
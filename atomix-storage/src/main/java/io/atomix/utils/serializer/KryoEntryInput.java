@@ -62,6 +62,15 @@ final class KryoEntryInput implements EntryInput {
         }
     }
 
+    @Override
+    public byte[] readRemainingBytes() throws IOException {
+        try {
+            return input.readBytes(input.available());
+        } catch (KryoException e) {
+            throw new IOException(e);
+        }
+    }
+
     @Override
     public String readString() throws IOException {
         try {
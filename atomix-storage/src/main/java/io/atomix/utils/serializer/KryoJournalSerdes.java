@@ -58,7 +58,8 @@ final class KryoJournalSerdes implements JournalSerdes, KryoFactory, KryoPool {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(KryoJournalSerdes.class);
 
-    private final KryoPool kryoPool = new KryoPool.Builder(this).softReferences().build();
+    // Strongly referenced, so that pooled instances are not dropped and re-created under memory pressure
+    private final KryoPool kryoPool = new KryoPool.Builder(this).build();
 
     private final KryoOutputPool kryoOutputPool = new KryoOutputPool();
     private final KryoInputPool kryoInputPool = new KryoInputPool();
@@ -172,6 +173,11 @@ final class KryoJournalSerdes implements JournalSerdes, KryoFactory, KryoPool {
         }
     }
 
+    @Override
+    public JournalSerdes forExclusiveUse() {
+        return new ExclusiveKryoJournalSerdes(this, create());
+    }
+
     /**
      * Creates a Kryo instance.
      *
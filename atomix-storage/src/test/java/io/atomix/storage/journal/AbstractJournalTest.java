@@ -22,6 +22,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
@@ -31,6 +32,7 @@ import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -52,7 +54,7 @@ public abstract class AbstractJournalTest {
   protected static final TestEntry ENTRY = new TestEntry(32);
   private static final Path PATH = Paths.get("target/test-logs/");
 
-  private final int maxSegmentSize;
+  protected final int maxSegmentSize;
   protected final int entriesPerSegment;
 
   protected AbstractJournalTest(final int maxSegmentSize) {
@@ -63,6 +65,18 @@ public abstract class AbstractJournalTest {
 
   protected abstract StorageLevel storageLevel();
 
+  protected boolean denseIndex() {
+    return false;
+  }
+
+  protected boolean crc32c() {
+    return false;
+  }
+
+  protected boolean preallocate() {
+    return false;
+  }
+
   @Parameterized.Parameters
   public static List<Object[]> primeNumbers() {
     List<Object[]> runs = new ArrayList<>();
@@ -75,6 +89,10 @@ public abstract class AbstractJournalTest {
   }
 
   protected SegmentedJournal<TestEntry> createJournal() {
+    return journalBuilder().build();
+  }
+
+  protected SegmentedJournal.Builder<TestEntry> journalBuilder() {
     return SegmentedJournal.<TestEntry>builder()
         .withName("test")
         .withDirectory(PATH.toFile())
@@ -82,7 +100,9 @@ public abstract class AbstractJournalTest {
         .withStorageLevel(storageLevel())
         .withMaxSegmentSize(maxSegmentSize)
         .withIndexDensity(.2)
-        .build();
+        .withDenseIndex(denseIndex())
+        .withCrc32c(crc32c())
+        .withSegmentPreallocation(preallocate());
   }
 
   @Test
@@ -365,6 +385,58 @@ public abstract class AbstractJournalTest {
     }
   }
 
+  @Test
+  public void testCompactWhileReading() throws Exception {
+    try (SegmentedJournal<TestEntry> journal = journalBuilder()
+        .withCompactionExecutor(Runnable::run)
+        .build()) {
+      JournalWriter<TestEntry> writer = journal.writer();
+      for (int i = 1; i <= entriesPerSegment * 3; i++) {
+        assertEquals(i, writer.append(ENTRY).index());
+      }
+      writer.commit(entriesPerSegment * 3);
+
+      // A reader on another thread holds a reference to the segment it reads from, while compaction resets it
+      final JournalSegment<TestEntry> first = journal.getFirstSegment();
+      final File file = first.file().file();
+      first.acquire();
+
+      final CompletableFuture<Long> compacted = journal.compact(entriesPerSegment * 2 + 1);
+      assertFalse(compacted.isDone());
+      assertTrue(first.isOpen());
+      assertTrue(file.exists());
+
+      // The segment is deleted once it is released
+      first.release();
+      assertTrue(compacted.get() > 0);
+      assertFalse(first.isOpen());
+      assertFalse(file.exists());
+    }
+  }
+
+  @Test
+  public void testCompactAfterReaderClosed() throws Exception {
+    try (SegmentedJournal<TestEntry> journal = journalBuilder()
+        .withCompactionExecutor(Runnable::run)
+        .build()) {
+      JournalWriter<TestEntry> writer = journal.writer();
+      for (int i = 1; i <= entriesPerSegment * 3; i++) {
+        assertEquals(i, writer.append(ENTRY).index());
+      }
+      writer.commit(entriesPerSegment * 3);
+
+      // A closed reader does not keep its segment from being deleted
+      JournalReader<TestEntry> reader = journal.openReader(1);
+      assertEquals(1, reader.next().index());
+      reader.close();
+
+      final File file = journal.getFirstSegment().file().file();
+      final CompletableFuture<Long> compacted = journal.compact(entriesPerSegment * 2 + 1);
+      assertTrue(compacted.isDone());
+      assertFalse(file.exists());
+    }
+  }
+
   @Before
   @After
   public void cleanupStorage() throws IOException {
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2023 PANTHEON.tech, s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.storage.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Memory mapped journal test, with a budget allowing only a single segment to be mapped at any time.
+ */
+public class BudgetedMappedJournalTest extends MappedJournalTest {
+  private final MappedBytesBudget budget;
+
+  public BudgetedMappedJournalTest(int maxSegmentSize) {
+    super(maxSegmentSize);
+    budget = new MappedBytesBudget(maxSegmentSize);
+  }
+
+  @Override
+  protected SegmentedJournal.Builder<TestEntry> journalBuilder() {
+    return super.journalBuilder().withMappedBytesBudget(budget);
+  }
+
+  @Test
+  public void testBudgetAccounting() {
+    try (SegmentedJournal<TestEntry> journal = createJournal()) {
+      JournalWriter<TestEntry> writer = journal.writer();
+      // The current segment is held by the writer
+      assertEquals(maxSegmentSize, budget.mappedBytes());
+
+      for (int i = 0; i < entriesPerSegment * 3; i++) {
+        writer.append(ENTRY);
+      }
+      assertEquals(maxSegmentSize, budget.mappedBytes());
+
+      // Readers of other segments cannot map them, but can still read all entries
+      try (JournalReader<TestEntry> reader = journal.openReader(1)) {
+        for (int i = 1; i <= entriesPerSegment * 3; i++) {
+          assertTrue(reader.hasNext());
+          assertEquals(i, reader.next().index());
+          assertTrue(budget.mappedBytes() <= budget.maxBytes());
+        }
+      }
+      assertEquals(maxSegmentSize, budget.mappedBytes());
+    }
+    assertEquals(0, budget.mappedBytes());
+  }
+}
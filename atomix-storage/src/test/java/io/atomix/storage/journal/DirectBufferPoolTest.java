@@ -0,0 +1,68 @@
+/*
+ * Copyright 2023 PANTHEON.tech, s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.storage.journal;
+
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Direct buffer pool test.
+ */
+public class DirectBufferPoolTest {
+
+  @Test
+  public void testCapacity() {
+    final DirectBufferPool pool = new DirectBufferPool(0);
+    assertEquals(4096, pool.acquire(1).capacity());
+    assertEquals(4096, pool.acquire(4096).capacity());
+    assertEquals(8192, pool.acquire(4097).capacity());
+    assertEquals(1 << 20, pool.acquire((1 << 20) - 1).capacity());
+    assertThrows(IllegalArgumentException.class, () -> pool.acquire((1 << 30) + 1));
+  }
+
+  @Test
+  public void testReuse() {
+    final DirectBufferPool pool = new DirectBufferPool(8192);
+    final ByteBuffer first = pool.acquire(8192);
+    assertTrue(first.isDirect());
+    first.putInt(1).flip();
+    pool.release(first);
+
+    final ByteBuffer second = pool.acquire(5000);
+    assertSame(first, second);
+    assertEquals(0, second.position());
+    assertEquals(second.capacity(), second.limit());
+    pool.release(second);
+  }
+
+  @Test
+  public void testBounded() {
+    final DirectBufferPool pool = new DirectBufferPool(4096);
+    final ByteBuffer first = pool.acquire(4096);
+    final ByteBuffer second = pool.acquire(4096);
+    pool.release(first);
+    pool.release(second);
+
+    assertSame(first, pool.acquire(4096));
+    assertNotSame(second, pool.acquire(4096));
+  }
+}
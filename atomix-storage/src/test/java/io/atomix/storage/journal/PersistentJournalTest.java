@@ -15,9 +15,19 @@
  */
 package io.atomix.storage.journal;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -63,5 +73,444 @@ public abstract class PersistentJournalTest extends AbstractJournalTest {
     assertEquals(entriesPerSegment + 1, reader.getNextIndex());
     assertEquals(reader.getFirstIndex(), reader.getNextIndex());
     assertEquals(entriesPerSegment + 1, reader.next().index());
+    journal.close();
+  }
+
+  /**
+   * Tests recovering sealed segments from their summaries.
+   */
+  @Test
+  public void testRecoverFromSummaries() throws Exception {
+    final List<File> summaries = writeSealedSegments();
+
+    try (SegmentedJournal<TestEntry> journal = createJournal()) {
+      final List<JournalSegment<TestEntry>> segments = new ArrayList<>(journal.segments());
+      assertEquals(4, segments.size());
+      for (int i = 0; i < 3; i++) {
+        assertNotNull(segments.get(i).summary());
+        assertEquals((i + 1) * entriesPerSegment, segments.get(i).lastIndex());
+      }
+
+      // The active segment is never sealed
+      assertNull(segments.get(3).summary());
+      assertFalse(segments.get(3).file().indexFile().exists());
+      assertJournalContents(journal, entriesPerSegment * 3 + 1);
+    }
+
+    summaries.forEach(file -> assertTrue(file.exists()));
+  }
+
+  /**
+   * Tests recovering sealed segments whose summaries are corrupted.
+   */
+  @Test
+  public void testRecoverFromCorruptedSummaries() throws Exception {
+    final List<File> summaries = writeSealedSegments();
+    for (File file : summaries) {
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        raf.seek(raf.length() / 2);
+        final int value = raf.read();
+        raf.seek(raf.length() / 2);
+        raf.write(value ^ 0xFF);
+      }
+    }
+
+    try (SegmentedJournal<TestEntry> journal = createJournal()) {
+      final List<JournalSegment<TestEntry>> segments = new ArrayList<>(journal.segments());
+      assertEquals(4, segments.size());
+      for (int i = 0; i < 3; i++) {
+        assertNull(segments.get(i).summary());
+        assertEquals((i + 1) * entriesPerSegment, segments.get(i).lastIndex());
+      }
+      assertJournalContents(journal, entriesPerSegment * 3 + 1);
+    }
+  }
+
+  /**
+   * Tests truncating the journal into a sealed segment.
+   */
+  @Test
+  public void testTruncateSealedSegment() throws Exception {
+    writeSealedSegments();
+
+    try (SegmentedJournal<TestEntry> journal = createJournal()) {
+      final JournalWriter<TestEntry> writer = journal.writer();
+      writer.truncate(entriesPerSegment * 2 - 1);
+      assertFalse(journal.getLastSegment().file().indexFile().exists());
+      writer.append(ENTRY);
+      writer.flush();
+    }
+
+    try (SegmentedJournal<TestEntry> journal = createJournal()) {
+      assertNull(journal.getLastSegment().summary());
+      assertJournalContents(journal, entriesPerSegment * 2);
+    }
+  }
+
+  /**
+   * Tests switching the checksum algorithm of an existing journal.
+   */
+  @Test
+  public void testSwitchChecksum() throws Exception {
+    writeSealedSegments();
+
+    try (SegmentedJournal<TestEntry> journal = journalBuilder().withCrc32c(!crc32c()).build()) {
+      final JournalWriter<TestEntry> writer = journal.writer();
+      for (int i = 0; i < entriesPerSegment; i++) {
+        writer.append(ENTRY);
+      }
+      writer.flush();
+      assertJournalContents(journal, entriesPerSegment * 4 + 1);
+
+      final List<JournalSegment<TestEntry>> segments = new ArrayList<>(journal.segments());
+      assertEquals(5, segments.size());
+      assertEquals(crc32c() ? JournalSegmentDescriptor.CRC32C_VERSION : JournalSegmentDescriptor.VERSION,
+          segments.get(3).descriptor().version());
+      assertEquals(crc32c() ? JournalSegmentDescriptor.VERSION : JournalSegmentDescriptor.CRC32C_VERSION,
+          segments.get(4).descriptor().version());
+    }
+
+    try (SegmentedJournal<TestEntry> journal = createJournal()) {
+      assertJournalContents(journal, entriesPerSegment * 4 + 1);
+    }
+  }
+
+  /**
+   * Tests appending entries larger than the initial serialization buffer, as well as entries exceeding the maximum
+   * entry size.
+   */
+  @Test
+  public void testAppendLargeEntries() throws Exception {
+    final TestEntry large = new TestEntry(32 * 1024);
+    try (SegmentedJournal<TestEntry> journal = journalBuilder()
+        .withMaxSegmentSize(1024 * 1024)
+        .withMaxEntrySize(64 * 1024)
+        .build()) {
+      final JournalWriter<TestEntry> writer = journal.writer();
+      writer.append(ENTRY);
+      writer.append(large);
+      writer.append(ENTRY);
+      assertThrows(StorageException.TooLarge.class, () -> writer.append(new TestEntry(128 * 1024)));
+      writer.append(large);
+      writer.flush();
+    }
+
+    try (SegmentedJournal<TestEntry> journal = journalBuilder()
+        .withMaxSegmentSize(1024 * 1024)
+        .withMaxEntrySize(64 * 1024)
+        .build();
+        JournalReader<TestEntry> reader = journal.openReader(1)) {
+      assertEquals(32, reader.next().entry().bytes().length);
+      assertEquals(32 * 1024, reader.next().entry().bytes().length);
+      assertEquals(32, reader.next().entry().bytes().length);
+      assertEquals(32 * 1024, reader.next().entry().bytes().length);
+      assertFalse(reader.hasNext());
+    }
+  }
+
+  /**
+   * Tests appending batches of entries spanning multiple segments.
+   */
+  @Test
+  public void testAppendAll() throws Exception {
+    try (SegmentedJournal<TestEntry> journal = createJournal()) {
+      final JournalWriter<TestEntry> writer = journal.writer();
+      writer.append(ENTRY);
+
+      final List<TestEntry> batch = new ArrayList<>();
+      for (int i = 0; i < entriesPerSegment * 2; i++) {
+        batch.add(ENTRY);
+      }
+      final List<Indexed<TestEntry>> appended = writer.appendAll(batch);
+      assertEquals(batch.size(), appended.size());
+      for (int i = 0; i < appended.size(); i++) {
+        assertEquals(i + 2, appended.get(i).index());
+      }
+      assertEquals(3, journal.segments().size());
+      writer.flush();
+      assertJournalContents(journal, entriesPerSegment * 2 + 1);
+    }
+
+    try (SegmentedJournal<TestEntry> journal = createJournal()) {
+      assertJournalContents(journal, entriesPerSegment * 2 + 1);
+    }
+  }
+
+  /**
+   * Tests appending a batch of entries containing an entry exceeding the maximum entry size.
+   */
+  @Test
+  public void testAppendAllTooLarge() throws Exception {
+    try (SegmentedJournal<TestEntry> journal = journalBuilder()
+        .withMaxSegmentSize(1024 * 1024)
+        .withMaxEntrySize(64 * 1024)
+        .build()) {
+      final JournalWriter<TestEntry> writer = journal.writer();
+      writer.appendAll(List.of(ENTRY, new TestEntry(48 * 1024), new TestEntry(48 * 1024), ENTRY));
+      assertThrows(StorageException.TooLarge.class,
+          () -> writer.appendAll(List.of(ENTRY, new TestEntry(128 * 1024))));
+
+      // The entries preceding the oversized entry may have been written, but the journal remains consistent
+      writer.truncate(4);
+      writer.append(ENTRY);
+      assertEquals(5, writer.getLastIndex());
+      assertEquals(32, writer.getLastEntry().entry().bytes().length);
+    }
+  }
+
+  /**
+   * Tests rolling over to preallocated segment files.
+   */
+  @Test
+  public void testSegmentPreallocation() throws Exception {
+    final File preallocated;
+    try (SegmentedJournal<TestEntry> journal = journalBuilder().withSegmentPreallocation().build()) {
+      preallocated = JournalSegmentFile.createPreallocatedFile(journal.name(), journal.directory());
+      final JournalWriter<TestEntry> writer = journal.writer();
+      for (int i = 0; i < entriesPerSegment * 3 + 1; i++) {
+        writer.append(ENTRY);
+      }
+      writer.flush();
+      assertEquals(4, journal.segments().size());
+      for (JournalSegment<TestEntry> segment : journal.segments()) {
+        assertEquals(maxSegmentSize, segment.file().file().length());
+      }
+    }
+    // The preallocated file is kept for the next incarnation
+    assertEquals(maxSegmentSize, preallocated.length());
+
+    try (SegmentedJournal<TestEntry> journal = createJournal()) {
+      assertEquals(4, journal.segments().size());
+      assertJournalContents(journal, entriesPerSegment * 3 + 1);
+    }
+  }
+
+  /**
+   * Tests reusing a segment file preallocated by a previous incarnation.
+   */
+  @Test
+  public void testReusePreallocatedSegment() throws Exception {
+    final File preallocated;
+    try (SegmentedJournal<TestEntry> journal = journalBuilder().withSegmentPreallocation().build()) {
+      preallocated = JournalSegmentFile.createPreallocatedFile(journal.name(), journal.directory());
+    }
+    assertEquals(maxSegmentSize, preallocated.length());
+
+    // Mark the file within the area holding the descriptor, which is overwritten when the file is used
+    try (RandomAccessFile raf = new RandomAccessFile(preallocated, "rw")) {
+      raf.write(1);
+    }
+
+    final List<Runnable> tasks = new ArrayList<>();
+    try (SegmentedJournal<TestEntry> journal = journalBuilder().withSegmentPreallocation()
+        .withPreallocationExecutor(tasks::add).build()) {
+      assertEquals(1, tasks.size());
+      tasks.remove(0).run();
+
+      // The file has been reused rather than recreated
+      try (RandomAccessFile raf = new RandomAccessFile(preallocated, "r")) {
+        assertEquals(1, raf.read());
+      }
+
+      final JournalWriter<TestEntry> writer = journal.writer();
+      for (int i = 0; i < entriesPerSegment + 1; i++) {
+        writer.append(ENTRY);
+      }
+      writer.flush();
+      assertEquals(2, journal.segments().size());
+      assertFalse(preallocated.exists());
+      tasks.remove(0).run();
+    }
+
+    try (SegmentedJournal<TestEntry> journal = createJournal()) {
+      assertEquals(2, journal.segments().size());
+      assertJournalContents(journal, entriesPerSegment + 1);
+    }
+  }
+
+  /**
+   * Tests deleting compacted segments on the compaction executor.
+   */
+  @Test
+  public void testCompactInBackground() throws Exception {
+    final List<Runnable> tasks = new ArrayList<>();
+    try (SegmentedJournal<TestEntry> journal = journalBuilder().withCompactionExecutor(tasks::add).build()) {
+      final JournalWriter<TestEntry> writer = journal.writer();
+      for (int i = 0; i < entriesPerSegment * 3; i++) {
+        writer.append(ENTRY);
+      }
+      writer.commit(entriesPerSegment * 3);
+
+      final JournalReader<TestEntry> reader = journal.openReader(1, JournalReader.Mode.COMMITS);
+      final List<File> files = new ArrayList<>();
+      journal.segments().forEach(segment -> files.add(segment.file().file()));
+
+      // Segments are detached immediately, but their files remain until the task runs
+      final CompletableFuture<Long> future = journal.compact(entriesPerSegment * 2 + 1);
+      assertEquals(1, journal.segments().size());
+      assertEquals(entriesPerSegment * 2 + 1, reader.getNextIndex());
+      assertEquals(entriesPerSegment * 2 + 1, reader.next().index());
+      assertFalse(future.isDone());
+      assertTrue(files.get(0).exists());
+      assertTrue(files.get(1).exists());
+
+      final long reclaimed = files.get(0).length() + files.get(1).length();
+      assertEquals(1, tasks.size());
+      tasks.remove(0).run();
+      assertEquals(reclaimed, (long) future.get());
+      assertFalse(files.get(0).exists());
+      assertFalse(files.get(1).exists());
+      assertTrue(files.get(2).exists());
+
+      // Nothing left to compact
+      assertEquals(0L, (long) journal.compact(entriesPerSegment * 2 + 1).get());
+      assertTrue(tasks.isEmpty());
+    }
+  }
+
+  @Test
+  public void testMetrics() throws Exception {
+    final CountingMetrics metrics = new CountingMetrics();
+    try (SegmentedJournal<TestEntry> journal = journalBuilder().withMetrics(metrics).build()) {
+      final JournalWriter<TestEntry> writer = journal.writer();
+      for (int i = 0; i < entriesPerSegment * 2; i++) {
+        writer.append(ENTRY);
+      }
+      writer.appendAll(List.of(ENTRY, ENTRY));
+      writer.flush();
+      journal.compact(entriesPerSegment * 2 + 1).get();
+    }
+
+    final int entries = entriesPerSegment * 2 + 2;
+    // Entries which did not fit into a segment are serialized again after rollover
+    assertTrue(metrics.serialize >= entries);
+    assertEquals(entries, metrics.checksum);
+    if (storageLevel() == StorageLevel.MAPPED) {
+      assertEquals(0, metrics.write);
+    } else {
+      assertTrue(metrics.write >= entriesPerSegment * 2 + 1);
+    }
+    assertEquals(1, metrics.flush);
+    assertEquals((entries - 1) / entriesPerSegment, metrics.rollover);
+    assertEquals(1, metrics.compaction);
+  }
+
+  private static final class CountingMetrics implements JournalMetrics {
+    int serialize;
+    int checksum;
+    int write;
+    int flush;
+    int rollover;
+    int compaction;
+
+    @Override
+    public void serializeTime(long nanos) {
+      serialize++;
+    }
+
+    @Override
+    public void checksumTime(long nanos) {
+      checksum++;
+    }
+
+    @Override
+    public void writeTime(long nanos) {
+      write++;
+    }
+
+    @Override
+    public void flushTime(long nanos) {
+      flush++;
+    }
+
+    @Override
+    public void rolloverTime(long nanos) {
+      rollover++;
+    }
+
+    @Override
+    public void compactionTime(long nanos) {
+      compaction++;
+    }
+  }
+
+  /**
+   * Tests that rolling over to a new segment does not wait for a preallocation in progress.
+   */
+  @Test
+  public void testSegmentPreallocationInProgress() throws Exception {
+    final List<Runnable> tasks = new ArrayList<>();
+    final File preallocated;
+    try (SegmentedJournal<TestEntry> journal = journalBuilder().withSegmentPreallocation()
+        .withPreallocationExecutor(tasks::add).build()) {
+      preallocated = JournalSegmentFile.createPreallocatedFile(journal.name(), journal.directory());
+      assertEquals(1, tasks.size());
+
+      // Roll over while the preallocation has not run yet
+      final JournalWriter<TestEntry> writer = journal.writer();
+      for (int i = 0; i < entriesPerSegment + 1; i++) {
+        writer.append(ENTRY);
+      }
+      assertEquals(2, journal.segments().size());
+      assertFalse(preallocated.exists());
+      assertEquals(1, tasks.size());
+
+      // Preallocation creates the whole file
+      tasks.remove(0).run();
+      assertEquals(maxSegmentSize, preallocated.length());
+
+      // The next roll over uses the preallocated file and schedules another preallocation
+      for (int i = 0; i < entriesPerSegment; i++) {
+        writer.append(ENTRY);
+      }
+      writer.flush();
+      assertEquals(3, journal.segments().size());
+      assertFalse(preallocated.exists());
+      assertEquals(1, tasks.size());
+      tasks.remove(0).run();
+      assertTrue(preallocated.exists());
+    }
+    assertTrue(preallocated.exists());
+
+    try (SegmentedJournal<TestEntry> journal = createJournal()) {
+      assertEquals(3, journal.segments().size());
+      assertJournalContents(journal, entriesPerSegment * 2 + 1);
+    }
+  }
+
+  private List<File> writeSealedSegments() throws IOException {
+    final List<File> summaries = new ArrayList<>();
+    try (SegmentedJournal<TestEntry> journal = createJournal()) {
+      final JournalWriter<TestEntry> writer = journal.writer();
+      for (int i = 0; i < entriesPerSegment * 3 + 1; i++) {
+        writer.append(ENTRY);
+      }
+      writer.flush();
+
+      for (JournalSegment<TestEntry> segment : journal.segments()) {
+        summaries.add(segment.file().indexFile());
+      }
+    }
+    summaries.remove(summaries.size() - 1);
+    summaries.forEach(file -> assertTrue(file.exists()));
+    return summaries;
+  }
+
+  private static void assertJournalContents(SegmentedJournal<TestEntry> journal, long lastIndex) {
+    try (JournalReader<TestEntry> reader = journal.openReader(1)) {
+      for (long i = 1; i <= lastIndex; i++) {
+        assertTrue(reader.hasNext());
+        final Indexed<TestEntry> entry = reader.next();
+        assertEquals(i, entry.index());
+        assertEquals(32, entry.entry().bytes().length);
+      }
+      assertFalse(reader.hasNext());
+    }
+
+    final JournalWriter<TestEntry> writer = journal.writer();
+    assertEquals(lastIndex, writer.getLastIndex());
+    final Indexed<TestEntry> lastEntry = writer.getLastEntry();
+    assertEquals(lastIndex, lastEntry.index());
+    assertEquals(32, lastEntry.entry().bytes().length);
   }
 }
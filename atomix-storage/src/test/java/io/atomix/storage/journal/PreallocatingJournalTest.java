@@ -0,0 +1,35 @@
+/*
+ * Copyright 2023 PANTHEON.tech, s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.storage.journal;
+
+/**
+ * Disk journal test with preallocated segment files.
+ */
+public class PreallocatingJournalTest extends PersistentJournalTest {
+    public PreallocatingJournalTest(final int maxSegmentSize) {
+        super(maxSegmentSize);
+    }
+
+    @Override
+    protected StorageLevel storageLevel() {
+        return StorageLevel.DISK;
+    }
+
+    @Override
+    protected boolean preallocate() {
+        return true;
+    }
+}
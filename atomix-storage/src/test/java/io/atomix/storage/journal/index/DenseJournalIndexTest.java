@@ -0,0 +1,67 @@
+/*
+ * Copyright 2023 PANTHEON.tech, s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.storage.journal.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+
+/**
+ * Dense journal index test.
+ */
+public class DenseJournalIndexTest {
+    @Test
+    public void testDenseJournalIndex() {
+        final JournalIndex index = new DenseJournalIndex(101);
+        assertNull(index.lookup(100));
+        assertNull(index.lookup(101));
+
+        for (int i = 0; i < 2048; i++) {
+            index.index(101 + i, 64 + i * 10);
+        }
+        assertNull(index.lookup(100));
+        assertEquals(new Position(101, 64), index.lookup(101));
+        assertEquals(new Position(105, 104), index.lookup(105));
+        assertEquals(new Position(2148, 20534), index.lookup(2148));
+        assertEquals(new Position(2148, 20534), index.lookup(5000));
+
+        index.truncate(110);
+        assertEquals(new Position(110, 154), index.lookup(110));
+        assertEquals(new Position(110, 154), index.lookup(111));
+
+        // Re-indexing an existing entry discards everything after it
+        index.index(105, 1000);
+        assertEquals(new Position(105, 1000), index.lookup(110));
+        index.index(106, 1010);
+        assertEquals(new Position(106, 1010), index.lookup(106));
+
+        index.truncate(100);
+        assertNull(index.lookup(101));
+        index.index(101, 64);
+        assertEquals(new Position(101, 64), index.lookup(101));
+    }
+
+    @Test
+    public void testNonContiguousIndex() {
+        final JournalIndex index = new DenseJournalIndex(1);
+        assertThrows(IllegalArgumentException.class, () -> index.index(2, 64));
+        index.index(1, 64);
+        assertThrows(IllegalArgumentException.class, () -> index.index(3, 74));
+        assertThrows(IllegalArgumentException.class, () -> index.index(0, 54));
+    }
+}
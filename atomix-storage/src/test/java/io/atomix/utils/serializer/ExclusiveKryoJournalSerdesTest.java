@@ -0,0 +1,87 @@
+/*
+ * Copyright 2023 PANTHEON.tech, s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.utils.serializer;
+
+import io.atomix.storage.journal.JournalSerdes;
+import io.atomix.storage.journal.JournalSerdes.EntryInput;
+import io.atomix.storage.journal.JournalSerdes.EntryOutput;
+import io.atomix.storage.journal.JournalSerdes.EntrySerdes;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+public class ExclusiveKryoJournalSerdesTest {
+  private static final class Entry {
+    final String name;
+    final long value;
+
+    Entry(final String name, final long value) {
+      this.name = name;
+      this.value = value;
+    }
+  }
+
+  private static final class EntryEntrySerdes implements EntrySerdes<Entry> {
+    @Override
+    public Entry read(final EntryInput input) throws IOException {
+      return new Entry(input.readString(), input.readLong());
+    }
+
+    @Override
+    public void write(final EntryOutput output, final Entry entry) throws IOException {
+      output.writeString(entry.name);
+      output.writeLong(entry.value);
+    }
+  }
+
+  private final JournalSerdes shared = JournalSerdes.builder()
+      .register(new EntryEntrySerdes(), Entry.class)
+      .build();
+
+  @Test
+  public void exclusiveInstancesAreDistinct() {
+    final JournalSerdes exclusive = shared.forExclusiveUse();
+    assertNotSame(shared, exclusive);
+    assertNotSame(exclusive, exclusive.forExclusiveUse());
+  }
+
+  @Test
+  public void interoperatesWithShared() {
+    final JournalSerdes exclusive = shared.forExclusiveUse();
+    final ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+    // Reuse the same instance for multiple entries written back to back
+    for (int i = 0; i < 10; i++) {
+      exclusive.serialize(new Entry("entry" + i, i), buffer);
+    }
+    buffer.flip();
+    for (int i = 0; i < 10; i++) {
+      final Entry entry = shared.deserialize(buffer);
+      assertEquals("entry" + i, entry.name);
+      assertEquals(i, entry.value);
+    }
+
+    final ByteBuffer other = ByteBuffer.allocate(1024);
+    shared.serialize(new Entry("foo", 42), other);
+    final Entry entry = exclusive.deserialize(other.flip());
+    assertEquals("foo", entry.name);
+    assertEquals(42, entry.value);
+    assertEquals(other.limit(), other.position());
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2023 PANTHEON.tech, s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.utils.serializer;
+
+import io.atomix.storage.journal.JournalSerdes;
+import io.atomix.storage.journal.JournalSerdes.EntryInput;
+import io.atomix.storage.journal.JournalSerdes.EntryOutput;
+import io.atomix.storage.journal.JournalSerdes.EntrySerdes;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class KryoEntryInputTest {
+  private static final class Entry {
+    final String name;
+    final Object value;
+
+    Entry(final String name, final Object value) {
+      this.name = name;
+      this.value = value;
+    }
+  }
+
+  // Writes the value as an object, but reads it back as raw bytes and decodes them separately
+  private static final class RawValueSerdes implements EntrySerdes<Entry> {
+    @Override
+    public Entry read(final EntryInput input) throws IOException {
+      return new Entry(input.readString(), input.readRemainingBytes());
+    }
+
+    @Override
+    public void write(final EntryOutput output, final Entry entry) throws IOException {
+      output.writeString(entry.name);
+      output.writeObject(entry.value);
+    }
+  }
+
+  private final JournalSerdes serdes = JournalSerdes.builder()
+      .register(new RawValueSerdes(), Entry.class)
+      .build();
+
+  @Test
+  public void readRemainingBytesFromArray() throws Exception {
+    final Entry entry = serdes.deserialize(serdes.serialize(new Entry("foo", "bar")));
+    assertEquals("foo", entry.name);
+    assertEquals("bar", decode(entry));
+  }
+
+  @Test
+  public void readRemainingBytesFromBuffer() throws Exception {
+    final ByteBuffer buffer = ByteBuffer.allocate(1024);
+    serdes.serialize(new Entry("foo", 42L), buffer);
+    final int length = buffer.position();
+
+    // Trailing garbage beyond the limit must not be consumed
+    buffer.putLong(-1).flip().limit(length);
+    final Entry entry = serdes.deserialize(buffer);
+    assertEquals("foo", entry.name);
+    assertEquals(42L, decode(entry));
+  }
+
+  private static Object decode(final Entry entry) throws Exception {
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream((byte[]) entry.value))) {
+      return ois.readObject();
+    }
+  }
+}
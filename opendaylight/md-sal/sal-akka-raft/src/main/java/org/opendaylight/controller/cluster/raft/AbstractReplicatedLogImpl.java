@@ -9,6 +9,7 @@ package org.opendaylight.controller.cluster.raft;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -25,14 +26,14 @@ public abstract class AbstractReplicatedLogImpl implements ReplicatedLog {
 
     private final String logContext;
 
-    // We define this as ArrayList so we can use ensureCapacity.
-    private ArrayList<ReplicatedLogEntry> journal;
+    private final ReplicatedLogJournal journal;
+    // Entries appended while their persistence was pending, in index order
+    private final ArrayDeque<ReplicatedLogEntry> pendingEntries = new ArrayDeque<>();
 
     private long snapshotIndex = -1;
     private long snapshotTerm = -1;
 
-    // to be used for rollback during save snapshot failure
-    private ArrayList<ReplicatedLogEntry> snapshottedJournal;
+    // to be used for rollback during save snapshot failure, along with the entries retained by the journal
     private long previousSnapshotIndex = -1;
     private long previousSnapshotTerm = -1;
     private int dataSize = 0;
@@ -43,7 +44,7 @@ public abstract class AbstractReplicatedLogImpl implements ReplicatedLog {
         this.snapshotTerm = snapshotTerm;
         this.logContext = logContext;
 
-        journal = new ArrayList<>(unAppliedEntries.size());
+        journal = new ReplicatedLogJournal(unAppliedEntries.size());
         for (ReplicatedLogEntry entry: unAppliedEntries) {
             append(entry);
         }
@@ -72,6 +73,17 @@ public abstract class AbstractReplicatedLogImpl implements ReplicatedLog {
         return journal.get(adjustedIndex);
     }
 
+    @Override
+    public long getTerm(final long logEntryIndex) {
+        int adjustedIndex = adjustedIndex(logEntryIndex);
+
+        if (adjustedIndex < 0 || adjustedIndex >= journal.size()) {
+            return -1;
+        }
+
+        return journal.getTerm(adjustedIndex);
+    }
+
     @Override
     public ReplicatedLogEntry last() {
         if (journal.isEmpty()) {
@@ -98,7 +110,28 @@ public abstract class AbstractReplicatedLogImpl implements ReplicatedLog {
             // journal are trimmed till lastApplied, so lastTerm = snapshotTerm
             return snapshotTerm;
         }
-        return last().getTerm();
+        return journal.getTerm(journal.size() - 1);
+    }
+
+    @Override
+    public long lastPersistedIndex() {
+        // Completed entries are normally trimmed already, hence this stops at the first entry in most cases
+        for (ReplicatedLogEntry entry : pendingEntries) {
+            if (entry.isPersistencePending()) {
+                return entry.getIndex() - 1;
+            }
+        }
+        return lastIndex();
+    }
+
+    /**
+     * Stop tracking the leading entries whose persistence has completed. This should be invoked once the persistence
+     * callback of an entry has cleared its {@link ReplicatedLogEntry#isPersistencePending()} flag.
+     */
+    protected final void trimPersistedEntries() {
+        while (!pendingEntries.isEmpty() && !pendingEntries.peekFirst().isPersistencePending()) {
+            pendingEntries.removeFirst();
+        }
     }
 
     @Override
@@ -109,11 +142,12 @@ public abstract class AbstractReplicatedLogImpl implements ReplicatedLog {
             return -1;
         }
 
-        for (int i = adjustedIndex; i < journal.size(); i++) {
-            dataSize -= journal.get(i).size();
+        while (!pendingEntries.isEmpty() && pendingEntries.peekLast().getIndex() >= logEntryIndex) {
+            pendingEntries.removeLast();
         }
 
-        journal.subList(adjustedIndex , journal.size()).clear();
+        dataSize -= journal.dataSize(adjustedIndex, journal.size());
+        journal.remove(adjustedIndex, journal.size());
 
         return adjustedIndex;
     }
@@ -122,6 +156,9 @@ public abstract class AbstractReplicatedLogImpl implements ReplicatedLog {
     public boolean append(final ReplicatedLogEntry replicatedLogEntry) {
         if (replicatedLogEntry.getIndex() > lastIndex()) {
             journal.add(replicatedLogEntry);
+            if (replicatedLogEntry.isPersistencePending()) {
+                pendingEntries.addLast(replicatedLogEntry);
+            }
             dataSize += replicatedLogEntry.size();
             return true;
         } else {
@@ -153,7 +190,7 @@ public abstract class AbstractReplicatedLogImpl implements ReplicatedLog {
             }
 
             if (maxDataSize == NO_MAX_SIZE) {
-                return new ArrayList<>(journal.subList(adjustedIndex, maxIndex));
+                return journal.copy(adjustedIndex, maxIndex);
             } else {
                 return copyJournalEntries(adjustedIndex, maxIndex, maxDataSize);
             }
@@ -232,7 +269,7 @@ public abstract class AbstractReplicatedLogImpl implements ReplicatedLog {
 
     @Override
     public void clear(final int startIndex, final int endIndex) {
-        journal.subList(startIndex, endIndex).clear();
+        journal.remove(startIndex, endIndex);
     }
 
     @Override
@@ -240,13 +277,7 @@ public abstract class AbstractReplicatedLogImpl implements ReplicatedLog {
         Preconditions.checkArgument(snapshotCapturedIndex >= snapshotIndex,
                 "snapshotCapturedIndex must be greater than or equal to snapshotIndex");
 
-        snapshottedJournal = new ArrayList<>(journal.size());
-
-        List<ReplicatedLogEntry> snapshotJournalEntries =
-                journal.subList(0, (int) (snapshotCapturedIndex - snapshotIndex));
-
-        snapshottedJournal.addAll(snapshotJournalEntries);
-        snapshotJournalEntries.clear();
+        journal.retainFirst((int) (snapshotCapturedIndex - snapshotIndex));
 
         previousSnapshotIndex = snapshotIndex;
         setSnapshotIndex(snapshotCapturedIndex);
@@ -257,16 +288,13 @@ public abstract class AbstractReplicatedLogImpl implements ReplicatedLog {
 
     @Override
     public void snapshotCommit(final boolean updateDataSize) {
-        snapshottedJournal = null;
+        journal.releaseRetained();
         previousSnapshotIndex = -1;
         previousSnapshotTerm = -1;
 
         if (updateDataSize) {
             // need to recalc the datasize based on the entries left after precommit.
-            int newDataSize = 0;
-            for (ReplicatedLogEntry logEntry : journal) {
-                newDataSize += logEntry.size();
-            }
+            int newDataSize = journal.dataSize(0, journal.size());
             LOG.trace("{}: Updated dataSize from {} to {}", logContext, dataSize, newDataSize);
             dataSize = newDataSize;
         }
@@ -274,9 +302,7 @@ public abstract class AbstractReplicatedLogImpl implements ReplicatedLog {
 
     @Override
     public void snapshotRollback() {
-        snapshottedJournal.addAll(journal);
-        journal = snapshottedJournal;
-        snapshottedJournal = null;
+        journal.restoreRetained();
 
         snapshotIndex = previousSnapshotIndex;
         previousSnapshotIndex = -1;
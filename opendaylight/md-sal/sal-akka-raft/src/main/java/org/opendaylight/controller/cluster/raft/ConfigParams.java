@@ -154,4 +154,32 @@ public interface ConfigParams {
      * @return the threshold in terms of number of journal entries.
      */
     long getSyncIndexThreshold();
+
+    /**
+     * Returns the maximum number of AppendEntries messages carrying log entries which a leader keeps in flight to a
+     * single follower. A value of 1 means the leader waits for a reply before sending more entries. Higher values let
+     * the leader optimistically send subsequent entries before earlier ones are acknowledged, so that replication
+     * throughput is not bounded by the round-trip time to the follower.
+     *
+     * @return the maximum number of in-flight AppendEntries, at least 1
+     */
+    int getMaxInFlightAppendEntries();
+
+    /**
+     * Returns the maximum number of InstallSnapshot chunks which a leader sends to a single follower without waiting
+     * for them to be acknowledged. A value of 1 means each chunk is sent only after the previous one has been
+     * acknowledged. Followers use the same value to bound the number of chunks they accept ahead of a missing one.
+     *
+     * @return the maximum number of in-flight snapshot chunks, at least 1
+     */
+    int getMaxInFlightSnapshotChunks();
+
+    /**
+     * Returns whether a follower keeps the snapshot chunks it receives in a file in the
+     * {@link #getTempFileDirectory() temp directory}, so that an interrupted snapshot install can be resumed, even
+     * after the follower restarts. Otherwise an interrupted install starts over with the first chunk.
+     *
+     * @return true if snapshot installs are resumable
+     */
+    boolean isResumableSnapshotInstall();
 }
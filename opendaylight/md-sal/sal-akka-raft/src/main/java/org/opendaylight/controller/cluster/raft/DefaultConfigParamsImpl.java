@@ -86,6 +86,12 @@ public class DefaultConfigParamsImpl implements ConfigParams {
 
     private long syncIndexThreshold = 10;
 
+    private int maxInFlightAppendEntries = 1;
+
+    private int maxInFlightSnapshotChunks = 1;
+
+    private boolean resumableSnapshotInstall = false;
+
     public void setHeartBeatInterval(final FiniteDuration heartBeatInterval) {
         this.heartBeatInterval = heartBeatInterval;
         electionTimeOutInterval = null;
@@ -245,6 +251,35 @@ public class DefaultConfigParamsImpl implements ConfigParams {
         this.syncIndexThreshold = syncIndexThreshold;
     }
 
+    @Override
+    public int getMaxInFlightAppendEntries() {
+        return maxInFlightAppendEntries;
+    }
+
+    public void setMaxInFlightAppendEntries(final int maxInFlightAppendEntries) {
+        checkArgument(maxInFlightAppendEntries > 0);
+        this.maxInFlightAppendEntries = maxInFlightAppendEntries;
+    }
+
+    @Override
+    public int getMaxInFlightSnapshotChunks() {
+        return maxInFlightSnapshotChunks;
+    }
+
+    public void setMaxInFlightSnapshotChunks(final int maxInFlightSnapshotChunks) {
+        checkArgument(maxInFlightSnapshotChunks > 0);
+        this.maxInFlightSnapshotChunks = maxInFlightSnapshotChunks;
+    }
+
+    @Override
+    public boolean isResumableSnapshotInstall() {
+        return resumableSnapshotInstall;
+    }
+
+    public void setResumableSnapshotInstall(final boolean resumableSnapshotInstall) {
+        this.resumableSnapshotInstall = resumableSnapshotInstall;
+    }
+
     @SuppressWarnings("checkstyle:IllegalCatch")
     private RaftPolicy getPolicy() {
         if (Strings.isNullOrEmpty(DefaultConfigParamsImpl.this.customRaftPolicyImplementationClass)) {
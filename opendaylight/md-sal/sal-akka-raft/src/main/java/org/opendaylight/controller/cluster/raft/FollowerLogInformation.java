@@ -12,10 +12,12 @@ import static java.util.Objects.requireNonNull;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Stopwatch;
+import java.util.ArrayDeque;
 import java.util.concurrent.TimeUnit;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.controller.cluster.raft.behaviors.LeaderInstallSnapshotState;
+import org.opendaylight.controller.cluster.raft.messages.AppendEntriesReply;
 
 /**
  * The state of the followers log as known by the Leader.
@@ -56,6 +58,28 @@ public final class FollowerLogInformation {
 
     private boolean needsLeaderAddress;
 
+    // Pipelined replication: last log index carried by each AppendEntries sent ahead of nextIndex and not yet
+    // acknowledged, in the order they were sent
+    private final ArrayDeque<Long> inFlightIndices = new ArrayDeque<>();
+
+    // Previous log index of each heart beat sent while AppendEntries were in flight and not yet acknowledged
+    private final ArrayDeque<Long> inFlightHeartbeats = new ArrayDeque<>();
+
+    private final Stopwatch inFlightStopwatch = Stopwatch.createUnstarted();
+
+    // AppendEntries which were in flight when the window was last rewound and whose replies are still expected. The
+    // follower rejects each of them without changing its log, hence their replies report the same state as the reply
+    // which caused the rewind.
+    private final ArrayDeque<Long> staleInFlightIndices = new ArrayDeque<>();
+    private long staleReplyTerm;
+    private long staleLogLastIndex;
+    private long staleLogLastTerm;
+
+    // Follower state reported by the AppendEntriesReply being processed
+    private long replyTerm = -1;
+    private long replyLogLastIndex = -1;
+    private long replyLogLastTerm = -1;
+
     /**
      * Constructs an instance.
      *
@@ -92,7 +116,8 @@ public final class FollowerLogInformation {
     }
 
     /**
-     * Decrements the value of the follower's next index, taking into account its reported last log index.
+     * Decrements the value of the follower's next index, taking into account its reported last log index. This also
+     * discards any in-flight AppendEntries, so that pipelining resumes from the new next index.
      *
      * @param followerLastIndex follower's last reported index.
      * @return true if the next index was decremented, i.e. it was previously &gt;= 0, false otherwise.
@@ -109,11 +134,13 @@ public final class FollowerLogInformation {
         } else {
             nextIndex--;
         }
+        rewindInFlight();
         return true;
     }
 
     /**
-     * Sets the index of the follower's next log entry.
+     * Sets the index of the follower's next log entry. If the index moves backwards, any in-flight AppendEntries are
+     * discarded, so that pipelining resumes from the new next index.
      *
      * @param nextIndex the new index.
      * @return true if the new index differed from the current index and the current index was updated, false
@@ -122,6 +149,9 @@ public final class FollowerLogInformation {
     @SuppressWarnings("checkstyle:hiddenField")
     public boolean setNextIndex(final long nextIndex) {
         if (this.nextIndex != nextIndex) {
+            if (nextIndex < this.nextIndex) {
+                rewindInFlight();
+            }
             this.nextIndex = nextIndex;
             return true;
         }
@@ -258,6 +288,151 @@ public final class FollowerLogInformation {
         return true;
     }
 
+    /**
+     * Returns the index of the next log entry to send to the follower when pipelining AppendEntries. This is ahead of
+     * {@link #getNextIndex()} by the number of entries in flight.
+     *
+     * @return index of the next log entry to send
+     */
+    public long getPipelineIndex() {
+        final Long last = inFlightIndices.peekLast();
+        return last != null ? last + 1 : nextIndex;
+    }
+
+    /**
+     * Returns the number of AppendEntries carrying log entries which were sent to the follower and have not been
+     * acknowledged yet.
+     *
+     * @return number of in-flight AppendEntries
+     */
+    public int getInFlightCount() {
+        return inFlightIndices.size();
+    }
+
+    /**
+     * Checks if another AppendEntries can be pipelined to the follower. If no progress was acknowledged within
+     * the election timeout, the in-flight messages are assumed to be lost and are sent again starting at
+     * {@link #getNextIndex()}. The heart beat interval is not used here, as it may well be shorter than the round trip
+     * time of the links pipelining is meant for.
+     *
+     * @param maxInFlight maximum number of in-flight AppendEntries
+     * @return true if it is OK to send, false otherwise
+     */
+    public boolean okToPipeline(final int maxInFlight) {
+        if (peerInfo.getVotingState() == VotingState.VOTING_NOT_INITIALIZED) {
+            return false;
+        }
+
+        if (!inFlightIndices.isEmpty() && inFlightStopwatch.elapsed(TimeUnit.MILLISECONDS)
+                >= context.getConfigParams().getElectionTimeOutInterval().toMillis()) {
+            clearInFlight();
+            staleInFlightIndices.clear();
+        }
+        return inFlightIndices.size() < maxInFlight;
+    }
+
+    /**
+     * Records that an AppendEntries carrying log entries up to the specified index was pipelined to the follower.
+     *
+     * @param lastIndex index of the last entry sent
+     */
+    public void recordInFlight(final long lastIndex) {
+        if (inFlightIndices.isEmpty()) {
+            restartInFlightStopwatch();
+        }
+        inFlightIndices.addLast(lastIndex);
+        // Pipelined AppendEntries double as heartbeats
+        resetLastReplicated();
+    }
+
+    /**
+     * Records that an AppendEntries without log entries was sent to the follower. If AppendEntries are in flight,
+     * its reply is accounted for in the same way as theirs.
+     */
+    public void recordHeartbeat() {
+        if (!inFlightIndices.isEmpty()) {
+            inFlightHeartbeats.addLast(nextIndex - 1);
+        }
+    }
+
+    /**
+     * Acknowledges in-flight AppendEntries up to the follower's reported last index.
+     *
+     * @param followerLastIndex follower's last reported index
+     */
+    public void acknowledgeInFlight(final long followerLastIndex) {
+        boolean progress = false;
+        while (!inFlightIndices.isEmpty() && inFlightIndices.peekFirst() <= followerLastIndex) {
+            inFlightIndices.removeFirst();
+            progress = true;
+        }
+        while (!inFlightHeartbeats.isEmpty() && inFlightHeartbeats.peekFirst() <= followerLastIndex) {
+            inFlightHeartbeats.removeFirst();
+        }
+        if (inFlightIndices.isEmpty()) {
+            inFlightHeartbeats.clear();
+        } else if (progress) {
+            restartInFlightStopwatch();
+        }
+    }
+
+    /**
+     * Discards all in-flight AppendEntries, so that replication resumes from {@link #getNextIndex()}. The reply being
+     * processed answers the oldest of them, replies to the others are recognized by
+     * {@link #isStaleReply(AppendEntriesReply)}.
+     */
+    private void rewindInFlight() {
+        if (!inFlightIndices.isEmpty()) {
+            inFlightIndices.removeFirst();
+            staleInFlightIndices.clear();
+            staleInFlightIndices.addAll(inFlightIndices);
+            staleInFlightIndices.addAll(inFlightHeartbeats);
+            staleReplyTerm = replyTerm;
+            staleLogLastIndex = replyLogLastIndex;
+            staleLogLastTerm = replyLogLastTerm;
+            clearInFlight();
+        }
+    }
+
+    private void clearInFlight() {
+        inFlightIndices.clear();
+        inFlightHeartbeats.clear();
+    }
+
+    /**
+     * Checks whether an AppendEntriesReply answers an AppendEntries which was in flight when the follower's next index
+     * moved backwards. Such a reply is a rejection reporting the same follower state as the reply which caused the
+     * window to be rewound and does not reflect the current state of replication. Any other reply means the follower's
+     * log has changed since, so no further replies are considered stale. This method needs to be invoked for each
+     * reply before it is processed.
+     *
+     * @param reply the reply received from the follower
+     * @return true if the reply is stale, false otherwise
+     */
+    public boolean isStaleReply(final AppendEntriesReply reply) {
+        replyTerm = reply.getTerm();
+        replyLogLastIndex = reply.getLogLastIndex();
+        replyLogLastTerm = reply.getLogLastTerm();
+
+        if (staleInFlightIndices.isEmpty()) {
+            return false;
+        }
+        if (!reply.isSuccess() && !reply.isForceInstallSnapshot() && replyTerm == staleReplyTerm
+                && replyLogLastIndex == staleLogLastIndex && replyLogLastTerm == staleLogLastTerm) {
+            staleInFlightIndices.removeFirst();
+            return true;
+        }
+        staleInFlightIndices.clear();
+        return false;
+    }
+
+    private void restartInFlightStopwatch() {
+        if (inFlightStopwatch.isRunning()) {
+            inFlightStopwatch.reset();
+        }
+        inFlightStopwatch.start();
+    }
+
     private void resetLastReplicated() {
         lastReplicatedIndex = getNextIndex();
         if (lastReplicatedStopwatch.isRunning()) {
@@ -369,7 +544,8 @@ public final class FollowerLogInformation {
     @Override
     public String toString() {
         return "FollowerLogInformation [id=" + getId() + ", nextIndex=" + nextIndex + ", matchIndex=" + matchIndex
-                + ", lastReplicatedIndex=" + lastReplicatedIndex + ", commitIndex=" + sentCommitIndex
+                + ", lastReplicatedIndex=" + lastReplicatedIndex + ", inFlight=" + inFlightIndices.size()
+                + ", commitIndex=" + sentCommitIndex
                 + ", votingState=" + peerInfo.getVotingState()
                 + ", stopwatch=" + stopwatch.elapsed(TimeUnit.MILLISECONDS)
                 + ", followerTimeoutMillis=" + context.getConfigParams().getElectionTimeOutInterval().toMillis() + "]";
@@ -37,6 +37,18 @@ public interface RaftActorSnapshotCohort {
      */
     void createSnapshot(@NonNull ActorRef actorRef, @NonNull Optional<OutputStream> installSnapshotStream);
 
+    /**
+     * This method is called by the RaftActor when a snapshot needs to be created only to be persisted locally. Unlike
+     * {@link #createSnapshot(ActorRef, Optional)}, the implementation may respond with a
+     * {@link org.opendaylight.controller.cluster.raft.persisted.Snapshot.DeltaState}. Default implementation defers to
+     * {@link #createSnapshot(ActorRef, Optional)}.
+     *
+     * @param actorRef the actor to which to respond
+     */
+    default void createLocalSnapshot(final @NonNull ActorRef actorRef) {
+        createSnapshot(actorRef, Optional.empty());
+    }
+
     /**
      * This method is called to apply a snapshot installed by the leader.
      *
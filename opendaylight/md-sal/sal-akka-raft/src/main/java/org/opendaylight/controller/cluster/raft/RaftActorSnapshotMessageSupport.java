@@ -50,8 +50,13 @@ class RaftActorSnapshotMessageSupport {
         this.cohort = cohort;
         log = context.getLogger();
 
-        context.getSnapshotManager().setCreateSnapshotConsumer(
-            outputStream -> cohort.createSnapshot(context.getActor(), outputStream));
+        context.getSnapshotManager().setCreateSnapshotConsumer(outputStream -> {
+            if (outputStream.isPresent()) {
+                cohort.createSnapshot(context.getActor(), outputStream);
+            } else {
+                cohort.createLocalSnapshot(context.getActor());
+            }
+        });
         context.getSnapshotManager().setSnapshotCohort(cohort);
     }
 
@@ -19,7 +19,10 @@ public interface ReplicatedLog {
     long NO_MAX_SIZE = -1;
 
     /**
-     * Return the replicated log entry at the specified index.
+     * Return the replicated log entry at the specified index. The entry is the same instance which was appended to the
+     * log, not a copy. Callers rely on this: the persistence state of an entry is tracked on the instance, see
+     * {@link ReplicatedLogEntry#setPersistencePending(boolean)}, and the state machine may match applied payloads
+     * against the ones it submitted.
      *
      * @param index the index of the log entry
      * @return the ReplicatedLogEntry if found, otherwise null if the adjusted index less than 0 or
@@ -27,6 +30,16 @@ public interface ReplicatedLog {
      */
     @Nullable ReplicatedLogEntry get(long index);
 
+    /**
+     * Return the term of the replicated log entry at the specified index. Unlike {@link #get(long)}, this method does
+     * not need to access the entry itself.
+     *
+     * @param index the index of the log entry
+     * @return the term of the entry if found, otherwise -1 if the adjusted index less than 0 or greater than the size
+     *         of the in-memory journal
+     */
+    long getTerm(long index);
+
     /**
      * Return the last replicated log entry in the log or null of not found.
      *
@@ -48,6 +61,15 @@ public interface ReplicatedLog {
      */
     long lastTerm();
 
+    /**
+     * Return the index of the last entry in the log which, along with all entries preceding it, is not pending
+     * persistence, i.e. {@link ReplicatedLogEntry#isPersistencePending()} is false.
+     *
+     * @return the index of the last persisted entry in the log or {@link #lastIndex()} if no entry is pending
+     *         persistence
+     */
+    long lastPersistedIndex();
+
     /**
      * Removes entries from the in-memory log starting at the given index.
      *
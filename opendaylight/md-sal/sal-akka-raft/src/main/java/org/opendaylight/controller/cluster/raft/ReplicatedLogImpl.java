@@ -128,5 +128,6 @@ final class ReplicatedLogImpl extends AbstractReplicatedLogImpl {
         if (callback != null) {
             callback.accept(persistedLogEntry);
         }
+        trimPersistedEntries();
     }
 }
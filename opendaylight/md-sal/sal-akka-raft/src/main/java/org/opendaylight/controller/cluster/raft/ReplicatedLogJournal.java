@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.raft;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The in-memory journal backing {@link AbstractReplicatedLogImpl}. Entries are kept in a ring buffer, along with
+ * their terms and sizes in primitive arrays, so that trimming the journal after a snapshot does not shift the
+ * remaining entries and the size of the journal can be recalculated without touching the entries.
+ *
+ * <p>
+ * Entries trimmed by {@link #retainFirst(int)} stay in the buffer ahead of the first entry, until they are either
+ * {@link #releaseRetained() released} or {@link #restoreRetained() restored}. This is used to roll back the journal
+ * if saving a snapshot fails, without copying the entries aside.
+ *
+ * <p>
+ * This class is NOT thread-safe.
+ */
+final class ReplicatedLogJournal {
+    private static final int MIN_CAPACITY = 16;
+
+    private ReplicatedLogEntry[] entries;
+    private long[] terms;
+    private int[] sizes;
+    // Physical position of the first entry
+    private int head;
+    // Number of entries
+    private int size;
+    // Number of retained entries immediately preceding head
+    private int retained;
+
+    ReplicatedLogJournal(final int initialCapacity) {
+        allocate(capacityFor(initialCapacity));
+    }
+
+    private void allocate(final int capacity) {
+        entries = new ReplicatedLogEntry[capacity];
+        terms = new long[capacity];
+        sizes = new int[capacity];
+    }
+
+    private static int capacityFor(final int count) {
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, count - 1)) << 1);
+    }
+
+    private int physical(final int offset) {
+        return head + offset & entries.length - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    ReplicatedLogEntry get(final int offset) {
+        return entries[physical(offset)];
+    }
+
+    long getTerm(final int offset) {
+        return terms[physical(offset)];
+    }
+
+    /**
+     * Return the sum of the sizes of the entries in the specified range.
+     *
+     * @param fromOffset the first entry (inclusive)
+     * @param toOffset the last entry (exclusive)
+     * @return the data size
+     */
+    int dataSize(final int fromOffset, final int toOffset) {
+        int dataSize = 0;
+        for (int i = fromOffset; i < toOffset; i++) {
+            dataSize += sizes[physical(i)];
+        }
+        return dataSize;
+    }
+
+    void add(final ReplicatedLogEntry entry) {
+        ensureCapacity(size + 1);
+        final int pos = physical(size);
+        entries[pos] = entry;
+        terms[pos] = entry.getTerm();
+        sizes[pos] = entry.size();
+        size++;
+    }
+
+    void ensureCapacity(final int minSize) {
+        final int required = retained + minSize;
+        if (required <= entries.length) {
+            return;
+        }
+
+        final var oldEntries = entries;
+        final var oldTerms = terms;
+        final var oldSizes = sizes;
+        final int oldMask = oldEntries.length - 1;
+        final int start = head - retained & oldMask;
+        final int count = retained + size;
+
+        allocate(capacityFor(required));
+        for (int i = 0; i < count; i++) {
+            final int pos = start + i & oldMask;
+            entries[i] = oldEntries[pos];
+            terms[i] = oldTerms[pos];
+            sizes[i] = oldSizes[pos];
+        }
+        head = retained;
+    }
+
+    /**
+     * Return a copy of the entries in the specified range.
+     *
+     * @param fromOffset the first entry (inclusive)
+     * @param toOffset the last entry (exclusive)
+     * @return the entries
+     */
+    List<ReplicatedLogEntry> copy(final int fromOffset, final int toOffset) {
+        final var ret = new ArrayList<ReplicatedLogEntry>(toOffset - fromOffset);
+        for (int i = fromOffset; i < toOffset; i++) {
+            ret.add(get(i));
+        }
+        return ret;
+    }
+
+    /**
+     * Remove the entries in the specified range.
+     *
+     * @param fromOffset the first entry (inclusive)
+     * @param toOffset the last entry (exclusive)
+     */
+    void remove(final int fromOffset, final int toOffset) {
+        checkArgument(fromOffset >= 0 && fromOffset <= toOffset && toOffset <= size, "Invalid range %s-%s of %s",
+            fromOffset, toOffset, size);
+        final int count = toOffset - fromOffset;
+        if (count == 0) {
+            return;
+        }
+
+        if (fromOffset == 0 && retained == 0) {
+            clearSlots(0, count);
+            head = physical(count);
+        } else {
+            // Shift the tail down, which is a no-op for the common case of truncating the journal. Retained entries
+            // must stay immediately ahead of the first entry, hence head is not moved while there are any.
+            for (int i = toOffset; i < size; i++) {
+                final int from = physical(i);
+                final int to = physical(i - count);
+                entries[to] = entries[from];
+                terms[to] = terms[from];
+                sizes[to] = sizes[from];
+            }
+            clearSlots(size - count, size);
+        }
+        size -= count;
+    }
+
+    /**
+     * Remove the specified number of entries from the start of the journal, but retain them so they can be restored.
+     * Any entries retained previously are released.
+     *
+     * @param count the number of entries
+     */
+    void retainFirst(final int count) {
+        checkArgument(count >= 0 && count <= size, "Invalid count %s of %s", count, size);
+        releaseRetained();
+        head = physical(count);
+        size -= count;
+        retained = count;
+    }
+
+    /**
+     * Release the entries retained by {@link #retainFirst(int)}.
+     */
+    void releaseRetained() {
+        if (retained != 0) {
+            clearSlots(-retained, 0);
+            retained = 0;
+        }
+    }
+
+    /**
+     * Restore the entries retained by {@link #retainFirst(int)} to the start of the journal.
+     */
+    void restoreRetained() {
+        head = physical(-retained);
+        size += retained;
+        retained = 0;
+    }
+
+    private void clearSlots(final int fromOffset, final int toOffset) {
+        for (int i = fromOffset; i < toOffset; i++) {
+            entries[physical(i)] = null;
+        }
+    }
+}
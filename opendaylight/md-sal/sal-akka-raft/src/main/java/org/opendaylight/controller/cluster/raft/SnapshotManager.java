@@ -262,9 +262,8 @@ public class SnapshotManager implements SnapshotState {
                 log.debug("{}: fakeSnapshot purging log to {} for term {}", persistenceId(), tempMin,
                         context.getTermInformation().getCurrentTerm());
 
-                //use the term of the temp-min, since we check for isPresent, entry will not be null
-                ReplicatedLogEntry entry = context.getReplicatedLog().get(tempMin);
-                context.getReplicatedLog().snapshotPreCommit(tempMin, entry.getTerm());
+                //use the term of the temp-min, since we check for isPresent, the term will be known
+                context.getReplicatedLog().snapshotPreCommit(tempMin, context.getReplicatedLog().getTerm(tempMin));
                 context.getReplicatedLog().snapshotCommit(false);
                 return tempMin;
             }
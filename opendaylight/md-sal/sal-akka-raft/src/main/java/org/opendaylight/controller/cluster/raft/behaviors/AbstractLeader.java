@@ -17,6 +17,7 @@ import com.google.common.io.ByteSource;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -104,6 +105,8 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
     private Cancellable heartbeatSchedule = null;
     private Optional<SnapshotHolder> snapshotHolder = Optional.empty();
     private int minReplicationCount;
+    // Scratch space for selecting the quorum match index
+    private long[] followerMatchIndices = new long[0];
 
     protected AbstractLeader(final RaftActorContext context, final RaftState state,
             final @Nullable AbstractLeader initializeFromLeader) {
@@ -119,6 +122,9 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
             snapshotHolder = initializeFromLeader.snapshotHolder;
             trackers.addAll(initializeFromLeader.trackers);
         } else {
+            // We have been elected, any snapshot install from a previous leader will not be resumed
+            SnapshotTracker.deleteChunkFile(context, log);
+
             for (PeerInfo peerInfo: context.getPeers()) {
                 FollowerLogInformation followerLogInformation = new FollowerLogInformation(peerInfo, context);
                 followerToLog.put(peerInfo.getId(), followerLogInformation);
@@ -233,6 +239,7 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
         followerLogInformation.setPayloadVersion(appendEntriesReply.getPayloadVersion());
         followerLogInformation.setRaftVersion(appendEntriesReply.getRaftVersion());
         followerLogInformation.setNeedsLeaderAddress(appendEntriesReply.isNeedsLeaderAddress());
+        final boolean staleReply = followerLogInformation.isStaleReply(appendEntriesReply);
 
         long followerLastLogIndex = appendEntriesReply.getLogLastIndex();
         boolean updated = false;
@@ -284,6 +291,11 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
             } else {
                 updated = updateFollowerLogInformation(followerLogInformation, appendEntriesReply);
             }
+        } else if (staleReply) {
+            // The follower has rejected an AppendEntries pipelined after one it rejected previously, we have already
+            // moved its next index back
+            log.debug("{}: handleAppendEntriesReply - ignoring unsuccessful reply {} to a pipelined AppendEntries",
+                    logName(), appendEntriesReply);
         } else {
             log.info("{}: handleAppendEntriesReply - received unsuccessful reply: {}, leader snapshotIndex: {}, "
                     + "snapshotTerm: {}, replicatedToAllIndex: {}", logName(), appendEntriesReply,
@@ -341,58 +353,38 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
         //   If there exists an index N such that N > commitIndex, a majority of matchIndex[i] ≥ N,
         //     and log[N].term == currentTerm:
         //   set commitIndex = N (§5.3, §5.4).
-        for (long index = context.getCommitIndex() + 1; ; index++) {
-            ReplicatedLogEntry replicatedLogEntry = context.getReplicatedLog().get(index);
-            if (replicatedLogEntry == null) {
-                log.trace("{}: ReplicatedLogEntry not found for index {} - snapshotIndex: {}, journal size: {}",
-                        logName(), index, context.getReplicatedLog().getSnapshotIndex(),
-                        context.getReplicatedLog().size());
-                break;
-            }
-
-            // Count our entry if it has been persisted.
-            int replicatedCount = replicatedLogEntry.isPersistencePending() ? 0 : 1;
-
-            if (replicatedCount == 0) {
-                // We don't commit and apply a log entry until we've gotten the ack from our local persistence,
-                // even though there *shouldn't* be any issue with updating the commit index if we get a consensus
-                // amongst the followers w/o the local persistence ack.
-                break;
-            }
+        // Rather than checking each N in turn, we select the highest N replicated to a majority directly.
+        final long commitIndex = context.getCommitIndex();
+        final long quorumIndex = followersQuorumMatchIndex();
 
-            log.trace("{}: checking Nth index {}", logName(), index);
-            for (FollowerLogInformation info : followerToLog.values()) {
-                final PeerInfo peerInfo = context.getPeerInfo(info.getId());
-                if (info.getMatchIndex() >= index && peerInfo != null && peerInfo.isVoting()) {
-                    replicatedCount++;
-                } else if (log.isTraceEnabled()) {
-                    log.trace("{}: Not counting follower {} - matchIndex: {}, {}", logName(), info.getId(),
-                            info.getMatchIndex(), peerInfo);
-                }
-            }
+        // We don't commit and apply a log entry until we've gotten the ack from our local persistence, even though
+        // there *shouldn't* be any issue with updating the commit index if we get a consensus amongst the followers
+        // w/o the local persistence ack.
+        final var replicatedLog = context.getReplicatedLog();
+        final long persistedIndex = replicatedLog.lastPersistedIndex();
+        final long index = Math.min(quorumIndex, persistedIndex);
 
-            if (log.isTraceEnabled()) {
-                log.trace("{}: replicatedCount {}, minReplicationCount: {}", logName(), replicatedCount,
-                        minReplicationCount);
-            }
+        if (log.isTraceEnabled()) {
+            log.trace("{}: quorumIndex: {}, persistedIndex: {}, minReplicationCount: {}", logName(), quorumIndex,
+                    persistedIndex, minReplicationCount);
+        }
 
-            if (replicatedCount >= minReplicationCount) {
-                // Don't update the commit index if the log entry is from a previous term, as per §5.4.1:
-                // "Raft never commits log entries from previous terms by counting replicas".
-                // However we keep looping so we can make progress when new entries in the current term
-                // reach consensus, as per §5.4.1: "once an entry from the current term is committed by
-                // counting replicas, then all prior entries are committed indirectly".
-                if (replicatedLogEntry.getTerm() == currentTerm()) {
-                    log.trace("{}: Setting commit index to {}", logName(), index);
-                    context.setCommitIndex(index);
-                } else {
-                    log.debug("{}: Not updating commit index to {} - retrieved log entry with index {}, "
-                            + "term {} does not match the current term {}", logName(), index,
-                            replicatedLogEntry.getIndex(), replicatedLogEntry.getTerm(), currentTerm());
-                }
+        if (index > commitIndex) {
+            // Don't update the commit index if the log entry is from a previous term, as per §5.4.1:
+            // "Raft never commits log entries from previous terms by counting replicas". Terms never decrease along
+            // the log, hence no entry up to N is from the current term either. Prior entries are committed indirectly
+            // once an entry from the current term reaches consensus.
+            final ReplicatedLogEntry replicatedLogEntry = replicatedLog.get(index);
+            if (replicatedLogEntry == null) {
+                log.trace("{}: ReplicatedLogEntry not found for index {} - snapshotIndex: {}, journal size: {}",
+                        logName(), index, replicatedLog.getSnapshotIndex(), replicatedLog.size());
+            } else if (replicatedLogEntry.getTerm() == currentTerm()) {
+                log.trace("{}: Setting commit index to {}", logName(), index);
+                context.setCommitIndex(index);
             } else {
-                log.trace("{}: minReplicationCount not reached, actual {} - breaking", logName(), replicatedCount);
-                break;
+                log.debug("{}: Not updating commit index to {} - retrieved log entry with index {}, "
+                        + "term {} does not match the current term {}", logName(), index,
+                        replicatedLogEntry.getIndex(), replicatedLogEntry.getTerm(), currentTerm());
             }
         }
 
@@ -409,10 +401,63 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
         }
     }
 
+    /**
+     * Return the highest index replicated to enough voting followers to form a majority together with ourselves,
+     * i.e. the {@code (minReplicationCount - 1)}-th highest matchIndex amongst voting followers.
+     *
+     * @return the quorum match index, {@link Long#MAX_VALUE} if we form a majority on our own, or {@code -1} if there
+     *         are not enough voting followers
+     */
+    private long followersQuorumMatchIndex() {
+        final int required = minReplicationCount - 1;
+        if (required <= 0) {
+            return Long.MAX_VALUE;
+        }
+
+        if (followerMatchIndices.length < followerToLog.size()) {
+            followerMatchIndices = new long[followerToLog.size()];
+        }
+
+        int count = 0;
+        for (FollowerLogInformation info : followerToLog.values()) {
+            final PeerInfo peerInfo = context.getPeerInfo(info.getId());
+            if (peerInfo != null && peerInfo.isVoting()) {
+                followerMatchIndices[count++] = info.getMatchIndex();
+            } else if (log.isTraceEnabled()) {
+                log.trace("{}: Not counting follower {} - matchIndex: {}, {}", logName(), info.getId(),
+                        info.getMatchIndex(), peerInfo);
+            }
+        }
+
+        if (count < required) {
+            log.trace("{}: minReplicationCount {} not reachable with {} voting followers", logName(),
+                    minReplicationCount, count);
+            return -1;
+        }
+
+        return quorumMatchIndex(followerMatchIndices, count, required);
+    }
+
+    /**
+     * Select the {@code required}-th highest of the first {@code count} match indices. The array is reordered in the
+     * process.
+     *
+     * @param matchIndices match indices of voting followers
+     * @param count number of valid elements in {@code matchIndices}
+     * @param required number of followers which need to have replicated the index
+     * @return the selected match index
+     */
+    @VisibleForTesting
+    static long quorumMatchIndex(final long[] matchIndices, final int count, final int required) {
+        Arrays.sort(matchIndices, 0, count);
+        return matchIndices[count - required];
+    }
+
     private boolean updateFollowerLogInformation(final FollowerLogInformation followerLogInformation,
             final AppendEntriesReply appendEntriesReply) {
         boolean updated = followerLogInformation.setMatchIndex(appendEntriesReply.getLogLastIndex());
         updated = followerLogInformation.setNextIndex(appendEntriesReply.getLogLastIndex() + 1) || updated;
+        followerLogInformation.acknowledgeInFlight(appendEntriesReply.getLogLastIndex());
 
         if (updated && log.isDebugEnabled()) {
             log.debug(
@@ -562,67 +607,111 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
             return;
         }
 
-        installSnapshotState.resetChunkTimer();
         followerLogInformation.markFollowerActive();
 
-        if (installSnapshotState.getChunkIndex() == reply.getChunkIndex()) {
-            boolean wasLastChunk = false;
-            if (reply.isSuccess()) {
-                if (installSnapshotState.isLastChunk(reply.getChunkIndex())) {
-                    //this was the last chunk reply
-
-                    long followerMatchIndex = snapshotHolder.orElseThrow().getLastIncludedIndex();
-                    followerLogInformation.setMatchIndex(followerMatchIndex);
-                    followerLogInformation.setNextIndex(followerMatchIndex + 1);
-                    followerLogInformation.clearLeaderInstallSnapshotState();
-
-                    log.info("{}: Snapshot successfully installed on follower {} (last chunk {}) - "
-                        + "matchIndex set to {}, nextIndex set to {}", logName(), followerId, reply.getChunkIndex(),
-                        followerLogInformation.getMatchIndex(), followerLogInformation.getNextIndex());
-
-                    if (!anyFollowersInstallingSnapshot()) {
-                        // once there are no pending followers receiving snapshots
-                        // we can remove snapshot from the memory
-                        setSnapshotHolder(null);
-                    }
+        final int chunkIndex = reply.getChunkIndex();
+        if (chunkIndex == LeaderInstallSnapshotState.INVALID_CHUNK_INDEX) {
+            if (installSnapshotState.consumeStaleReply()) {
+                log.debug("{}: Ignoring InstallSnapshotReply from follower {} for a chunk sent before reset",
+                    logName(), followerId);
+                return;
+            }
 
-                    wasLastChunk = true;
-                    if (context.getPeerInfo(followerId).getVotingState() == VotingState.VOTING_NOT_INITIALIZED) {
-                        UnInitializedFollowerSnapshotReply unInitFollowerSnapshotSuccess =
-                                             new UnInitializedFollowerSnapshotReply(followerId);
-                        context.getActor().tell(unInitFollowerSnapshotSuccess, context.getActor());
-                        log.debug("Sent message UnInitializedFollowerSnapshotReply to self");
-                    }
-                } else {
-                    installSnapshotState.markSendStatus(true);
-                }
-            } else {
-                log.warn("{}: Received failed InstallSnapshotReply - will retry: {}", logName(), reply);
+            log.error("{}: Chunk index {} in InstallSnapshotReply from follower {} is invalid, expected index {}",
+                    logName(), chunkIndex, followerId, installSnapshotState.getChunkIndex());
+
+            // Since the Follower did not find this index to be valid we should reset the follower snapshot
+            // so that Installing the snapshot can resume from the beginning
+            installSnapshotState.reset();
+            return;
+        }
 
-                installSnapshotState.markSendStatus(false);
+        if (chunkIndex > installSnapshotState.getTotalChunks()) {
+            log.error("{}: Chunk index {} in InstallSnapshotReply from follower {} does not match expected index {}",
+                    logName(), chunkIndex, followerId, installSnapshotState.getChunkIndex());
+            return;
+        }
+
+        final ActorSelection followerActor = context.getPeerActorSelection(followerId);
+        if (!reply.isSuccess()) {
+            log.warn("{}: Received failed InstallSnapshotReply - will retry: {}", logName(), reply);
+
+            if (followerActor != null) {
+                resendSnapshotChunk(followerActor, followerLogInformation);
             }
+            return;
+        }
 
-            if (wasLastChunk) {
-                if (!context.getSnapshotManager().isCapturing()) {
-                    // Since the follower is now caught up try to purge the log.
-                    purgeInMemoryLog();
-                }
-            } else {
-                ActorSelection followerActor = context.getPeerActorSelection(followerId);
-                if (followerActor != null) {
-                    sendSnapshotChunk(followerActor, followerLogInformation);
-                }
+        if (chunkIndex > installSnapshotState.getChunkIndex() && !installSnapshotState.isLastChunk(chunkIndex)) {
+            // The follower has retained chunks of this snapshot from an earlier install, continue from there
+            log.info("{}: Follower {} already has {} of {} snapshot chunks, resuming install", logName(), followerId,
+                chunkIndex, installSnapshotState.getTotalChunks());
+            try {
+                installSnapshotState.resumeAfter(chunkIndex);
+            } catch (IOException e) {
+                log.warn("{}: Unable to resume install after chunk {}. Reseting snapshot progress. Snapshot state: {}",
+                    logName(), chunkIndex, installSnapshotState, e);
+                installSnapshotState.reset();
+                return;
             }
 
-        } else {
-            log.error("{}: Chunk index {} in InstallSnapshotReply from follower {} does not match expected index {}",
-                    logName(), reply.getChunkIndex(), followerId,
-                    installSnapshotState.getChunkIndex());
+            installSnapshotState.resetChunkTimer();
+            if (followerActor != null) {
+                sendSnapshotChunk(followerActor, followerLogInformation);
+            }
+            return;
+        }
 
-            if (reply.getChunkIndex() == LeaderInstallSnapshotState.INVALID_CHUNK_INDEX) {
-                // Since the Follower did not find this index to be valid we should reset the follower snapshot
-                // so that Installing the snapshot can resume from the beginning
-                installSnapshotState.reset();
+        if (installSnapshotState.isLastChunk(chunkIndex)) {
+            //this was the last chunk reply
+            installSnapshotState.resetChunkTimer();
+
+            long followerMatchIndex = snapshotHolder.orElseThrow().getLastIncludedIndex();
+            followerLogInformation.setMatchIndex(followerMatchIndex);
+            followerLogInformation.setNextIndex(followerMatchIndex + 1);
+            followerLogInformation.clearLeaderInstallSnapshotState();
+
+            log.info("{}: Snapshot successfully installed on follower {} (last chunk {}) - "
+                + "matchIndex set to {}, nextIndex set to {}", logName(), followerId, chunkIndex,
+                followerLogInformation.getMatchIndex(), followerLogInformation.getNextIndex());
+
+            if (!anyFollowersInstallingSnapshot()) {
+                // once there are no pending followers receiving snapshots
+                // we can remove snapshot from the memory
+                setSnapshotHolder(null);
+            }
+
+            if (context.getPeerInfo(followerId).getVotingState() == VotingState.VOTING_NOT_INITIALIZED) {
+                UnInitializedFollowerSnapshotReply unInitFollowerSnapshotSuccess =
+                                     new UnInitializedFollowerSnapshotReply(followerId);
+                context.getActor().tell(unInitFollowerSnapshotSuccess, context.getActor());
+                log.debug("Sent message UnInitializedFollowerSnapshotReply to self");
+            }
+
+            if (!context.getSnapshotManager().isCapturing()) {
+                // Since the follower is now caught up try to purge the log.
+                purgeInMemoryLog();
+            }
+            return;
+        }
+
+        if (installSnapshotState.acknowledgeChunks(chunkIndex)) {
+            // The follower has made progress, restart the timer for the chunks still in flight and fill the window
+            installSnapshotState.resetChunkTimer();
+            if (installSnapshotState.getChunksInFlight() > 0) {
+                installSnapshotState.startChunkTimer();
+            }
+            if (followerActor != null) {
+                sendSnapshotChunk(followerActor, followerLogInformation);
+            }
+        } else {
+            // A duplicate acknowledgement means the follower has received a chunk out of order, i.e. the next chunk
+            // it expects has been lost: send it again without waiting for the timeout.
+            final var chunk = installSnapshotState.getChunkToRetransmit();
+            if (chunk != null && followerActor != null) {
+                log.debug("{}: Duplicate InstallSnapshotReply for chunk {} from follower {}, resending chunk {}",
+                    logName(), chunkIndex, followerId, chunk.index());
+                sendSnapshotChunk(followerActor, followerLogInformation, chunk);
             }
         }
     }
@@ -727,7 +816,12 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
                     log.debug("{}: sendAppendEntries: {} is present for follower {}", logName(),
                             followerNextIndex, followerId);
 
-                    if (followerLogInformation.okToReplicate(context.getCommitIndex())) {
+                    final int maxInFlight = context.getConfigParams().getMaxInFlightAppendEntries();
+                    if (maxInFlight > 1) {
+                        // If there is nothing more to pipeline, we may still need to send a heartbeat
+                        sendAppendEntries = !pipelineEntries(followerActor, followerLogInformation, maxInFlight)
+                            && followerLogInformation.okToReplicate(context.getCommitIndex());
+                    } else if (followerLogInformation.okToReplicate(context.getCommitIndex())) {
                         entries = getEntriesToSend(followerLogInformation, followerActor);
                         sendAppendEntries = true;
                     }
@@ -769,6 +863,47 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
         }
     }
 
+    /**
+     * Sends AppendEntries to a follower starting at its pipeline index, without waiting for replies, until either all
+     * entries have been sent or the maximum number of AppendEntries are in flight. A log entry which needs to be
+     * sliced is sent only once all previous AppendEntries have been acknowledged.
+     *
+     * @return true if an AppendEntries was sent, false otherwise
+     */
+    private boolean pipelineEntries(final ActorSelection followerActor,
+            final FollowerLogInformation followerLogInformation, final int maxInFlight) {
+        final int maxDataSize = context.getConfigParams().getSnapshotChunkSize();
+        boolean sent = false;
+        while (followerLogInformation.okToPipeline(maxInFlight)) {
+            final long pipelineIndex = followerLogInformation.getPipelineIndex();
+            if (!context.getReplicatedLog().isPresent(pipelineIndex)) {
+                break;
+            }
+
+            final List<ReplicatedLogEntry> entries;
+            if (followerLogInformation.getInFlightCount() == 0) {
+                // Nothing is in flight, hence pipelineIndex is the same as nextIndex and we can send normally, which
+                // takes care of slicing
+                entries = getEntriesToSend(followerLogInformation, followerActor);
+                if (entries.isEmpty()) {
+                    sendAppendEntriesToFollower(followerActor, entries, followerLogInformation);
+                    return true;
+                }
+            } else {
+                entries = context.getReplicatedLog().getFrom(pipelineIndex,
+                    (int) context.getReplicatedLog().size(), maxDataSize);
+                if (entries.size() == 1 && entries.get(0).getData().serializedSize() > maxDataSize) {
+                    break;
+                }
+            }
+
+            sendAppendEntriesToFollower(followerActor, entries, followerLogInformation, pipelineIndex);
+            followerLogInformation.recordInFlight(entries.get(entries.size() - 1).getIndex());
+            sent = true;
+        }
+        return sent;
+    }
+
     private List<ReplicatedLogEntry> getEntriesToSend(final FollowerLogInformation followerLogInfo,
             final ActorSelection followerActor) {
         // Try to get all the entries in the journal but not exceeding the max data size for a single AppendEntries
@@ -841,6 +976,12 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
 
     private void sendAppendEntriesToFollower(final ActorSelection followerActor, final List<ReplicatedLogEntry> entries,
             final FollowerLogInformation followerLogInformation) {
+        sendAppendEntriesToFollower(followerActor, entries, followerLogInformation,
+            followerLogInformation.getNextIndex());
+    }
+
+    private void sendAppendEntriesToFollower(final ActorSelection followerActor, final List<ReplicatedLogEntry> entries,
+            final FollowerLogInformation followerLogInformation, final long followerNextIndex) {
         // In certain cases outlined below we don't want to send the actual commit index to prevent the follower from
         // possibly committing and applying conflicting entries (those with same index, different term) from a prior
         // term that weren't replicated to a majority, which would be a violation of raft.
@@ -854,7 +995,6 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
         long leaderCommitIndex = isInstallingSnaphot || followerLogInformation.isLogEntrySlicingInProgress()
                 || !followerLogInformation.isFollowerActive() ? -1 : context.getCommitIndex();
 
-        long followerNextIndex = followerLogInformation.getNextIndex();
         AppendEntries appendEntries = new AppendEntries(currentTerm(), context.getId(),
             getLogEntryIndex(followerNextIndex - 1),
             getLogEntryTerm(followerNextIndex - 1), entries,
@@ -867,6 +1007,9 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
         }
 
         followerLogInformation.setSentCommitIndex(leaderCommitIndex);
+        if (entries.isEmpty()) {
+            followerLogInformation.recordHeartbeat();
+        }
         followerActor.tell(appendEntries, actor());
     }
 
@@ -905,7 +1048,8 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
             getReplicatedToAllIndex(), followerId);
         if (captureInitiated) {
             followerLogInfo.setLeaderInstallSnapshotState(new LeaderInstallSnapshotState(
-                context.getConfigParams().getSnapshotChunkSize(), logName()));
+                context.getConfigParams().getSnapshotChunkSize(),
+                context.getConfigParams().getMaxInFlightSnapshotChunks(), logName()));
         }
 
         return captureInitiated;
@@ -948,7 +1092,7 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
             LeaderInstallSnapshotState installSnapshotState = followerLogInfo.getInstallSnapshotState();
             if (installSnapshotState == null) {
                 installSnapshotState = new LeaderInstallSnapshotState(context.getConfigParams().getSnapshotChunkSize(),
-                        logName());
+                        context.getConfigParams().getMaxInFlightSnapshotChunks(), logName());
                 followerLogInfo.setLeaderInstallSnapshotState(installSnapshotState);
             }
 
@@ -956,26 +1100,17 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
                 // Ensure the snapshot bytes are set - this is a no-op.
                 installSnapshotState.setSnapshotBytes(snapshotHolder.orElseThrow().getSnapshotBytes());
 
-                if (!installSnapshotState.canSendNextChunk()) {
-                    return;
-                }
+                while (installSnapshotState.canSendNextChunk()) {
+                    final var chunk = installSnapshotState.nextChunk();
 
-                byte[] nextSnapshotChunk = installSnapshotState.getNextChunk();
+                    log.debug("{}: next snapshot chunk size for follower {}: {}", logName(), followerLogInfo.getId(),
+                            chunk.data().length);
 
-                log.debug("{}: next snapshot chunk size for follower {}: {}", logName(), followerLogInfo.getId(),
-                        nextSnapshotChunk.length);
+                    sendSnapshotChunk(followerActor, followerLogInfo, chunk);
 
-                int nextChunkIndex = installSnapshotState.incrementChunkIndex();
-                Optional<ServerConfigurationPayload> serverConfig = Optional.empty();
-                if (installSnapshotState.isLastChunk(nextChunkIndex)) {
-                    serverConfig = Optional.ofNullable(context.getPeerServerInfo(true));
+                    log.debug("{}: InstallSnapshot sent to follower {}, Chunk: {}/{}", logName(),
+                            followerActor.path(), chunk.index(), installSnapshotState.getTotalChunks());
                 }
-
-                sendSnapshotChunk(followerActor, followerLogInfo, nextSnapshotChunk, nextChunkIndex, serverConfig);
-
-                log.debug("{}: InstallSnapshot sent to follower {}, Chunk: {}/{}", logName(), followerActor.path(),
-                        installSnapshotState.getChunkIndex(), installSnapshotState.getTotalChunks());
-
             } catch (IOException e) {
                 log.warn("{}: Unable to send chunk: {}/{}. Reseting snapshot progress. Snapshot state: {}", logName(),
                         installSnapshotState.getChunkIndex(), installSnapshotState.getTotalChunks(),
@@ -986,19 +1121,23 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
     }
 
     private void sendSnapshotChunk(final ActorSelection followerActor, final FollowerLogInformation followerLogInfo,
-                                   final byte[] snapshotChunk, final int chunkIndex,
-                                   final Optional<ServerConfigurationPayload> serverConfig) {
+                                   final LeaderInstallSnapshotState.Chunk chunk) {
         LeaderInstallSnapshotState installSnapshotState = followerLogInfo.getInstallSnapshotState();
 
+        Optional<ServerConfigurationPayload> serverConfig = Optional.empty();
+        if (installSnapshotState.isLastChunk(chunk.index())) {
+            serverConfig = Optional.ofNullable(context.getPeerServerInfo(true));
+        }
+
         installSnapshotState.startChunkTimer();
         followerActor.tell(
                 new InstallSnapshot(currentTerm(), context.getId(),
                         snapshotHolder.orElseThrow().getLastIncludedIndex(),
                         snapshotHolder.orElseThrow().getLastIncludedTerm(),
-                        snapshotChunk,
-                        chunkIndex,
+                        chunk.data(),
+                        chunk.index(),
                         installSnapshotState.getTotalChunks(),
-                        OptionalInt.of(installSnapshotState.getLastChunkHashCode()),
+                        OptionalInt.of(chunk.lastChunkHashCode()),
                         serverConfig,
                         followerLogInfo.getRaftVersion()),
                 actor()
@@ -1018,7 +1157,9 @@ public abstract class AbstractLeader extends AbstractRaftActorBehavior {
         LeaderInstallSnapshotState installSnapshotState = followerLogInfo.getInstallSnapshotState();
         // we are resending, timer needs to be reset
         installSnapshotState.resetChunkTimer();
-        installSnapshotState.markSendStatus(false);
+        for (var chunk : installSnapshotState.getChunksToResend()) {
+            sendSnapshotChunk(followerActor, followerLogInfo, chunk);
+        }
 
         sendSnapshotChunk(followerActor, followerLogInfo);
 
@@ -325,12 +325,7 @@ public abstract class AbstractRaftActorBehavior implements RaftActorBehavior {
             return context.getReplicatedLog().getSnapshotIndex();
         }
 
-        ReplicatedLogEntry entry = context.getReplicatedLog().get(index);
-        if (entry != null) {
-            return entry.getIndex();
-        }
-
-        return -1;
+        return context.getReplicatedLog().getTerm(index) != -1 ? index : -1;
     }
 
     /**
@@ -343,12 +338,7 @@ public abstract class AbstractRaftActorBehavior implements RaftActorBehavior {
             return context.getReplicatedLog().getSnapshotTerm();
         }
 
-        ReplicatedLogEntry entry = context.getReplicatedLog().get(index);
-        if (entry != null) {
-            return entry.getTerm();
-        }
-
-        return -1;
+        return context.getReplicatedLog().getTerm(index);
     }
 
     /**
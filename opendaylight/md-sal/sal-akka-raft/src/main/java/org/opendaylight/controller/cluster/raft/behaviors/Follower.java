@@ -85,6 +85,8 @@ public class Follower extends AbstractRaftActorBehavior {
                 .fileBackedStreamFactory(context.getFileBackedOutputStreamFactory())
                 .assembledMessageCallback((message, sender) -> handleMessage(sender, message)).build();
 
+        SnapshotTracker.deleteStaleChunkFile(context, log);
+
         if (context.getPeerIds().isEmpty() && getLeaderId() == null) {
             actor().tell(TimeoutNow.INSTANCE, actor());
         } else {
@@ -125,9 +127,7 @@ public class Follower extends AbstractRaftActorBehavior {
             return true;
         }
 
-        ReplicatedLogEntry entry = context.getReplicatedLog().get(index);
-        return entry != null;
-
+        return context.getReplicatedLog().getTerm(index) != -1;
     }
 
     private void updateInitialSyncStatus(final long currentLeaderCommit, final String newLeaderId) {
@@ -618,19 +618,35 @@ public class Follower extends AbstractRaftActorBehavior {
 
         leaderId = installSnapshot.getLeaderId();
 
-        if (snapshotTracker == null) {
-            snapshotTracker = new SnapshotTracker(log, installSnapshot.getTotalChunks(), installSnapshot.getLeaderId(),
-                    context);
-        }
-
         updateInitialSyncStatus(installSnapshot.getLastIncludedIndex(), installSnapshot.getLeaderId());
 
         try {
+            if (snapshotTracker != null) {
+                if (!snapshotTracker.isInstallOf(installSnapshot)) {
+                    log.info("{}: Discarding install of a different snapshot in favor of {}", logName(),
+                        installSnapshot);
+                    discardSnapshotTracker();
+                } else if (!snapshotTracker.getLeaderId().equals(leaderId)) {
+                    // The snapshot is the same, resume the install if possible
+                    closeSnapshotTracker();
+                }
+            }
+
+            if (snapshotTracker == null) {
+                snapshotTracker = new SnapshotTracker(log, installSnapshot.getLeaderId(),
+                    installSnapshot.getLastIncludedIndex(), installSnapshot.getLastIncludedTerm(),
+                    installSnapshot.getTotalChunks(), context);
+            }
+
+            final boolean sealed = snapshotTracker.addChunk(installSnapshot.getChunkIndex(),
+                installSnapshot.getData(), installSnapshot.getLastChunkHashCode());
+
+            // Acknowledge all chunks received so far, which repeats the previous acknowledgement if this chunk has
+            // arrived ahead of a missing one
             final InstallSnapshotReply reply = new InstallSnapshotReply(
-                    currentTerm(), context.getId(), installSnapshot.getChunkIndex(), true);
+                    currentTerm(), context.getId(), snapshotTracker.getLastChunkIndex(), true);
 
-            if (snapshotTracker.addChunk(installSnapshot.getChunkIndex(), installSnapshot.getData(),
-                    installSnapshot.getLastChunkHashCode())) {
+            if (sealed) {
 
                 log.info("{}: Snapshot installed from leader: {}", logName(), installSnapshot.getLeaderId());
 
@@ -661,7 +677,7 @@ public class Follower extends AbstractRaftActorBehavior {
 
                 actor().tell(new ApplySnapshot(snapshot, applySnapshotCallback), actor());
 
-                closeSnapshotTracker();
+                discardSnapshotTracker();
             } else {
                 log.debug("{}: handleInstallSnapshot returning: {}", logName(), reply);
 
@@ -672,7 +688,7 @@ public class Follower extends AbstractRaftActorBehavior {
 
             sender.tell(new InstallSnapshotReply(currentTerm(), context.getId(), -1, false), actor());
 
-            closeSnapshotTracker();
+            discardSnapshotTracker();
         }
     }
 
@@ -683,6 +699,13 @@ public class Follower extends AbstractRaftActorBehavior {
         }
     }
 
+    private void discardSnapshotTracker() {
+        if (snapshotTracker != null) {
+            snapshotTracker.discard();
+            snapshotTracker = null;
+        }
+    }
+
     @Override
     public void close() {
         closeSnapshotTracker();
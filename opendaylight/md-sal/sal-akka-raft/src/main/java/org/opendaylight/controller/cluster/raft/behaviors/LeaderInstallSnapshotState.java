@@ -7,19 +7,35 @@
  */
 package org.opendaylight.controller.cluster.raft.behaviors;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Stopwatch;
 import com.google.common.io.ByteSource;
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import org.opendaylight.controller.cluster.io.SliceableByteSource;
+import org.opendaylight.controller.cluster.io.SliceableByteSource.SliceReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import scala.concurrent.duration.FiniteDuration;
 
 /**
  * Encapsulates the leader state and logic for sending snapshot chunks to a follower.
+ *
+ * <p>
+ * Up to {@code maxChunksInFlight} chunks are sent without waiting for the follower to acknowledge them. Followers
+ * acknowledge chunks cumulatively, i.e. a reply for a chunk index acknowledges all chunks up to and including that
+ * index. Chunks which have been sent but not acknowledged are retained, so they can be sent again should they be
+ * lost.
+ *
+ * <p>
+ * A follower may acknowledge more chunks than have been sent, if it has retained them from an earlier install of the
+ * same snapshot. Sending then {@link #resumeAfter(int) resumes} after the last chunk the follower has.
  */
 public final class LeaderInstallSnapshotState implements AutoCloseable {
     private static final Logger LOG = LoggerFactory.getLogger(LeaderInstallSnapshotState.class);
@@ -30,30 +46,47 @@ public final class LeaderInstallSnapshotState implements AutoCloseable {
     // The index that the follower should respond with if it needs the install snapshot to be reset
     static final int INVALID_CHUNK_INDEX = -1;
 
-    static final int INITIAL_OFFSET = -1;
-
     // This would be passed as the hash code of the last chunk when sending the first chunk
     static final int INITIAL_LAST_CHUNK_HASH_CODE = -1;
 
+    /**
+     * A chunk of the snapshot, along with the hash code of the chunk preceding it.
+     *
+     * @param index chunk index
+     * @param data chunk data
+     * @param lastChunkHashCode hash code of the previous chunk
+     */
+    record Chunk(int index, byte[] data, int lastChunkHashCode) {
+        // Nothing else
+    }
+
+    private final ArrayDeque<Chunk> chunksInFlight = new ArrayDeque<>();
+    private final Stopwatch chunkTimer = Stopwatch.createUnstarted();
     private final int snapshotChunkSize;
+    private final int maxChunksInFlight;
     private final String logName;
+
     private ByteSource snapshotBytes;
-    private long offset = INITIAL_OFFSET;
-    // the next snapshot chunk is sent only if the replyReceivedForOffset matches offset
-    private long replyReceivedForOffset = -1;
-    // if replyStatus is false, the previous chunk is attempted
-    private boolean replyStatus = false;
-    private int chunkIndex = FIRST_CHUNK_INDEX;
+    private SliceReader snapshotReader;
+    private long snapshotSize;
     private int totalChunks;
+    // The index of the next chunk to be read from the snapshot
+    private int nextChunkIndex = FIRST_CHUNK_INDEX;
+    // The hash code of the last chunk read from the snapshot
     private int lastChunkHashCode = INITIAL_LAST_CHUNK_HASH_CODE;
-    private int nextChunkHashCode = INITIAL_LAST_CHUNK_HASH_CODE;
-    private long snapshotSize;
-    private InputStream snapshotInputStream;
-    private final Stopwatch chunkTimer = Stopwatch.createUnstarted();
-    private byte[] currentChunk = null;
+    // The index of the last chunk we have resent due to a duplicate acknowledgement
+    private int retransmittedChunkIndex = INVALID_CHUNK_INDEX;
+    // The number of replies to chunks sent before the last reset
+    private int staleReplies;
 
     LeaderInstallSnapshotState(final int snapshotChunkSize, final String logName) {
+        this(snapshotChunkSize, 1, logName);
+    }
+
+    LeaderInstallSnapshotState(final int snapshotChunkSize, final int maxChunksInFlight, final String logName) {
+        checkArgument(maxChunksInFlight > 0, "Invalid maximum chunks in flight %s", maxChunksInFlight);
         this.snapshotChunkSize = snapshotChunkSize;
+        this.maxChunksInFlight = maxChunksInFlight;
         this.logName = logName;
     }
 
@@ -63,38 +96,19 @@ public final class LeaderInstallSnapshotState implements AutoCloseable {
         }
 
         snapshotSize = snapshotBytes.size();
-        snapshotInputStream = snapshotBytes.openStream();
+        snapshotReader = SliceableByteSource.openSliceReader(snapshotBytes);
 
         this.snapshotBytes = snapshotBytes;
 
         totalChunks = (int) (snapshotSize / snapshotChunkSize + (snapshotSize % snapshotChunkSize > 0 ? 1 : 0));
 
         LOG.debug("{}: Snapshot {} bytes, total chunks to send: {}", logName, snapshotSize, totalChunks);
-
-        replyReceivedForOffset = INITIAL_OFFSET;
-        chunkIndex = FIRST_CHUNK_INDEX;
-    }
-
-    private long incrementOffset() {
-        // if offset is -1 doesn't matter whether it was the initial value or reset, move the offset to 0 to begin with
-        if (offset == INITIAL_OFFSET) {
-            offset = 0;
-        } else {
-            offset = offset + snapshotChunkSize;
-        }
-        return offset;
-    }
-
-    int incrementChunkIndex() {
-        if (replyStatus) {
-            // if prev chunk failed, we would want to send the same chunk again
-            chunkIndex =  chunkIndex + 1;
-        }
-        return chunkIndex;
     }
 
     void startChunkTimer() {
-        chunkTimer.start();
+        if (!chunkTimer.isRunning()) {
+            chunkTimer.start();
+        }
     }
 
     void resetChunkTimer() {
@@ -105,121 +119,178 @@ public final class LeaderInstallSnapshotState implements AutoCloseable {
         return chunkTimer.elapsed(TimeUnit.SECONDS) > timeout.toSeconds();
     }
 
+    /**
+     * Return the index of the last chunk read from the snapshot, or {@link #FIRST_CHUNK_INDEX} if no chunk has been
+     * read yet.
+     *
+     * @return chunk index
+     */
     int getChunkIndex() {
-        return chunkIndex;
+        return Math.max(FIRST_CHUNK_INDEX, nextChunkIndex - 1);
     }
 
     int getTotalChunks() {
         return totalChunks;
     }
 
+    int getChunksInFlight() {
+        return chunksInFlight.size();
+    }
+
     boolean canSendNextChunk() {
-        // we only send a false if a chunk is sent but we have not received a reply yet
-        return snapshotBytes != null && (nextChunkHashCode == INITIAL_LAST_CHUNK_HASH_CODE
-                || replyReceivedForOffset == offset);
+        return snapshotBytes != null && nextChunkIndex <= totalChunks && chunksInFlight.size() < maxChunksInFlight;
     }
 
     boolean isLastChunk(final int index) {
         return totalChunks == index;
     }
 
-    void markSendStatus(final boolean success) {
-        if (success) {
-            // if the chunk sent was successful
-            replyReceivedForOffset = offset;
-            replyStatus = true;
-            lastChunkHashCode = nextChunkHashCode;
-        } else {
-            // if the chunk sent was failure, revert offset to previous so we can retry
-            offset = replyReceivedForOffset;
-            replyStatus = false;
-        }
+    /**
+     * Read the next chunk from the snapshot and record it as being in flight.
+     *
+     * @return the next chunk
+     * @throws IOException if the chunk cannot be read
+     */
+    Chunk nextChunk() throws IOException {
+        checkState(nextChunkIndex <= totalChunks, "All %s chunks have already been sent", totalChunks);
+
+        final long start = chunkOffset(nextChunkIndex);
+        final byte[] data = readChunk(start);
+
+        final var chunk = new Chunk(nextChunkIndex, data, lastChunkHashCode);
+        lastChunkHashCode = Arrays.hashCode(data);
+        nextChunkIndex++;
+        chunksInFlight.addLast(chunk);
+
+        LOG.debug("{}: Next chunk: total length={}, offset={}, size={}, hashCode={}", logName, snapshotSize, start,
+            data.length, lastChunkHashCode);
+        return chunk;
     }
 
-    byte[] getNextChunk() throws IOException {
-        // increment offset to indicate next chunk is in flight, canSendNextChunk() wont let us hit this again until,
-        // markSendStatus() is called with either success or failure
-        final var start = incrementOffset();
-        if (replyStatus || currentChunk == null) {
-            int size = snapshotChunkSize;
-            if (snapshotChunkSize > snapshotSize) {
-                size = (int) snapshotSize;
-            } else if (start + snapshotChunkSize > snapshotSize) {
-                size = (int) (snapshotSize - start);
-            }
+    /**
+     * Continue sending with the chunk following the specified one, which the follower already has. Any chunks in flight
+     * are forgotten. The follower verifies its copy of the specified chunk against the hash code sent with the next
+     * chunk, hence the install starts over if the follower has retained chunks of a different snapshot.
+     *
+     * @param chunkIndex the last chunk the follower has
+     * @throws IOException if the snapshot cannot be read
+     */
+    void resumeAfter(final int chunkIndex) throws IOException {
+        checkArgument(chunkIndex >= FIRST_CHUNK_INDEX && chunkIndex < totalChunks, "Invalid chunk index %s of %s",
+            chunkIndex, totalChunks);
 
-            currentChunk = new byte[size];
-            final var numRead = snapshotInputStream.read(currentChunk);
-            if (numRead != size) {
-                throw new IOException(String.format(
-                        "The # of bytes read from the input stream, %d, does not match the expected # %d",
-                        numRead, size));
-            }
+        lastChunkHashCode = Arrays.hashCode(readChunk(chunkOffset(chunkIndex)));
+        nextChunkIndex = chunkIndex + 1;
+        chunksInFlight.clear();
+        retransmittedChunkIndex = INVALID_CHUNK_INDEX;
+
+        LOG.debug("{}: Resuming after chunk {} of {}", logName, chunkIndex, totalChunks);
+    }
+
+    private long chunkOffset(final int chunkIndex) {
+        return (long) (chunkIndex - FIRST_CHUNK_INDEX) * snapshotChunkSize;
+    }
+
+    private byte[] readChunk(final long start) throws IOException {
+        return snapshotReader.read(start, (int) Math.min(snapshotChunkSize, snapshotSize - start));
+    }
+
+    /**
+     * Record the follower's acknowledgement of all chunks up to and including the specified index.
+     *
+     * @param chunkIndex the last chunk index acknowledged
+     * @return true if any chunks in flight were acknowledged, false if this is a duplicate acknowledgement
+     */
+    boolean acknowledgeChunks(final int chunkIndex) {
+        boolean progress = false;
+        while (!chunksInFlight.isEmpty() && chunksInFlight.peekFirst().index() <= chunkIndex) {
+            chunksInFlight.removeFirst();
+            progress = true;
+        }
+        return progress;
+    }
 
-            nextChunkHashCode = Arrays.hashCode(currentChunk);
+    /**
+     * Return the chunks which have been sent, but not acknowledged yet, in the order they were sent.
+     *
+     * @return chunks in flight
+     */
+    List<Chunk> getChunksToResend() {
+        return List.copyOf(chunksInFlight);
+    }
 
-            LOG.debug("{}: Next chunk: total length={}, offset={}, size={}, hashCode={}", logName,
-                    snapshotSize, start, size, nextChunkHashCode);
+    /**
+     * Return the first unacknowledged chunk if it should be sent again in response to a duplicate acknowledgement.
+     * Each chunk is resent this way at most once, as a single lost chunk causes a duplicate acknowledgement for each
+     * subsequent chunk in flight.
+     *
+     * @return the chunk to resend, or null
+     */
+    Chunk getChunkToRetransmit() {
+        final var first = chunksInFlight.peekFirst();
+        if (first == null || first.index() == retransmittedChunkIndex) {
+            return null;
         }
+        retransmittedChunkIndex = first.index();
+        return first;
+    }
 
-        return currentChunk;
+    /**
+     * Check whether an invalid chunk reply is caused by a chunk sent before the last {@link #reset()}. The follower
+     * rejects each chunk in flight once it has reset its state.
+     *
+     * @return true if the reply is stale
+     */
+    boolean consumeStaleReply() {
+        if (staleReplies > 0) {
+            staleReplies--;
+            return true;
+        }
+        return false;
     }
 
     /**
      * Reset should be called when the Follower needs to be sent the snapshot from the beginning.
      */
     void reset() {
-        closeStream();
         chunkTimer.reset();
 
-        offset = INITIAL_OFFSET;
-        replyStatus = false;
-        replyReceivedForOffset = INITIAL_OFFSET;
-        chunkIndex = FIRST_CHUNK_INDEX;
-        currentChunk = null;
+        // The reply triggering this reset accounts for one of the chunks
+        staleReplies = Math.max(0, chunksInFlight.size() - 1);
+        chunksInFlight.clear();
+        nextChunkIndex = FIRST_CHUNK_INDEX;
         lastChunkHashCode = INITIAL_LAST_CHUNK_HASH_CODE;
-        nextChunkHashCode = INITIAL_LAST_CHUNK_HASH_CODE;
-
-        try {
-            snapshotInputStream = snapshotBytes.openStream();
-        } catch (IOException e) {
-            throw new IllegalStateException(e);
-        }
+        retransmittedChunkIndex = INVALID_CHUNK_INDEX;
     }
 
     @Override
     public void close() {
-        closeStream();
+        closeReader();
+        chunksInFlight.clear();
         snapshotBytes = null;
     }
 
-    private void closeStream() {
-        if (snapshotInputStream != null) {
+    private void closeReader() {
+        if (snapshotReader != null) {
             try {
-                snapshotInputStream.close();
+                snapshotReader.close();
             } catch (IOException e) {
                 LOG.warn("{}: Error closing snapshot stream", logName, e);
             }
 
-            snapshotInputStream = null;
+            snapshotReader = null;
         }
     }
 
-    int getLastChunkHashCode() {
-        return lastChunkHashCode;
-    }
-
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
                 .add("snapshotChunkSize", snapshotChunkSize)
-                .add("offset", offset)
-                .add("replyReceivedForOffset", replyReceivedForOffset)
-                .add("replyStatus", replyStatus)
-                .add("chunkIndex", chunkIndex)
+                .add("maxChunksInFlight", maxChunksInFlight)
+                .add("nextChunkIndex", nextChunkIndex)
+                .add("chunksInFlight", chunksInFlight.size())
                 .add("totalChunks", totalChunks)
                 .add("lastChunkHashCode", lastChunkHashCode)
-                .add("nextChunkHashCode", nextChunkHashCode)
                 .add("snapshotSize", snapshotSize)
                 .add("chunkTimer", chunkTimer)
                 .toString();
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.raft.behaviors;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.io.ByteSource;
+import com.google.common.io.MoreFiles;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.OptionalLong;
+
+/**
+ * A file holding the chunks of a snapshot being installed on a Follower, which have been received in order. The file
+ * starts with a header identifying the snapshot by its last included index and term and its total number of chunks,
+ * and recording the progress of the install. The header is updated only after the chunk data has been forced to
+ * storage, hence an interrupted install can be resumed from the recorded progress, even after a restart.
+ *
+ * <p>
+ * Resuming verifies only that the header matches the snapshot being installed. The hash code of the last chunk is
+ * checked against the leader's when the next chunk arrives, but the data of earlier chunks is not verified again: it
+ * is trusted to be intact, as it was forced to storage before the header covering it was written.
+ *
+ * <p>
+ * This class is NOT thread-safe.
+ */
+final class SnapshotChunkFile implements AutoCloseable {
+    private static final int MAGIC = 0x49534331;
+    // magic, lastIncludedIndex, lastIncludedTerm, totalChunks, lastChunkIndex, lastChunkHashCode, dataLength
+    private static final int HEADER_SIZE = Integer.BYTES * 4 + Long.BYTES * 3;
+
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    private final FileChannel channel;
+    private final Path path;
+    private final long lastIncludedIndex;
+    private final long lastIncludedTerm;
+    private final int totalChunks;
+
+    private int lastChunkIndex;
+    private int lastChunkHashCode;
+    private long dataLength;
+
+    private SnapshotChunkFile(final Path path, final FileChannel channel, final long lastIncludedIndex,
+            final long lastIncludedTerm, final int totalChunks) {
+        this.path = requireNonNull(path);
+        this.channel = requireNonNull(channel);
+        this.lastIncludedIndex = lastIncludedIndex;
+        this.lastIncludedTerm = lastIncludedTerm;
+        this.totalChunks = totalChunks;
+        lastChunkIndex = LeaderInstallSnapshotState.FIRST_CHUNK_INDEX - 1;
+        lastChunkHashCode = LeaderInstallSnapshotState.INITIAL_LAST_CHUNK_HASH_CODE;
+    }
+
+    /**
+     * Open the chunk file for a snapshot. If the file holds an incomplete install of the same snapshot, its chunks are
+     * retained, otherwise the file is truncated.
+     *
+     * @param path file path
+     * @param lastIncludedIndex the snapshot's last included index
+     * @param lastIncludedTerm the snapshot's last included term
+     * @param totalChunks the total number of chunks of the snapshot
+     * @return A SnapshotChunkFile
+     * @throws IOException if an I/O error occurs
+     */
+    static SnapshotChunkFile open(final Path path, final long lastIncludedIndex, final long lastIncludedTerm,
+            final int totalChunks) throws IOException {
+        final var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        final var file = new SnapshotChunkFile(path, channel, lastIncludedIndex, lastIncludedTerm, totalChunks);
+        try {
+            if (!file.resume()) {
+                channel.truncate(0);
+                file.writeHeader();
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return file;
+    }
+
+    /**
+     * Read the last included index of the snapshot whose chunks are held in a file, without opening it for writing.
+     *
+     * @param path file path
+     * @return the snapshot's last included index, or empty if the file does not exist or holds no valid header
+     * @throws IOException if an I/O error occurs
+     */
+    static OptionalLong readLastIncludedIndex(final Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return OptionalLong.empty();
+        }
+
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final var buf = ByteBuffer.allocate(Integer.BYTES + Long.BYTES);
+            while (buf.hasRemaining()) {
+                if (channel.read(buf, buf.position()) < 0) {
+                    return OptionalLong.empty();
+                }
+            }
+            buf.flip();
+            return buf.getInt() == MAGIC ? OptionalLong.of(buf.getLong()) : OptionalLong.empty();
+        }
+    }
+
+    private boolean resume() throws IOException {
+        final long size = channel.size();
+        if (size < HEADER_SIZE) {
+            return false;
+        }
+
+        header.clear();
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                return false;
+            }
+        }
+        header.flip();
+
+        if (header.getInt() != MAGIC || header.getLong() != lastIncludedIndex || header.getLong() != lastIncludedTerm
+                || header.getInt() != totalChunks) {
+            return false;
+        }
+
+        final int chunkIndex = header.getInt();
+        final int chunkHashCode = header.getInt();
+        final long length = header.getLong();
+        if (chunkIndex < LeaderInstallSnapshotState.FIRST_CHUNK_INDEX || chunkIndex >= totalChunks || length < 0
+                || HEADER_SIZE + length > size) {
+            return false;
+        }
+
+        // Discard any data written after the header was last updated
+        channel.truncate(HEADER_SIZE + length);
+        lastChunkIndex = chunkIndex;
+        lastChunkHashCode = chunkHashCode;
+        dataLength = length;
+        return true;
+    }
+
+    int lastChunkIndex() {
+        return lastChunkIndex;
+    }
+
+    int lastChunkHashCode() {
+        return lastChunkHashCode;
+    }
+
+    /**
+     * Append the next chunk.
+     *
+     * @param chunk chunk data
+     * @param chunkHashCode hash code of the chunk
+     * @throws IOException if an I/O error occurs
+     */
+    void append(final byte[] chunk, final int chunkHashCode) throws IOException {
+        final var buf = ByteBuffer.wrap(chunk);
+        while (buf.hasRemaining()) {
+            channel.write(buf, HEADER_SIZE + dataLength + buf.position());
+        }
+        channel.force(false);
+
+        dataLength += chunk.length;
+        lastChunkIndex++;
+        lastChunkHashCode = chunkHashCode;
+        writeHeader();
+    }
+
+    /**
+     * Return the received snapshot data.
+     *
+     * @return A ByteSource
+     */
+    ByteSource asByteSource() {
+        return MoreFiles.asByteSource(path).slice(HEADER_SIZE, dataLength);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Close and delete this file.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    void delete() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        header.clear();
+        header.putInt(MAGIC).putLong(lastIncludedIndex).putLong(lastIncludedTerm).putInt(totalChunks)
+            .putInt(lastChunkIndex).putInt(lastChunkHashCode).putLong(dataLength).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("path", path).add("lastIncludedIndex", lastIncludedIndex)
+            .add("lastIncludedTerm", lastIncludedTerm).add("lastChunkIndex", lastChunkIndex)
+            .add("totalChunks", totalChunks).add("dataLength", dataLength).toString();
+    }
+}
@@ -9,35 +9,159 @@ package org.opendaylight.controller.cluster.raft.behaviors;
 
 import static java.util.Objects.requireNonNull;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.io.ByteSource;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.TreeMap;
 import org.opendaylight.controller.cluster.io.FileBackedOutputStream;
 import org.opendaylight.controller.cluster.raft.RaftActorContext;
+import org.opendaylight.controller.cluster.raft.messages.InstallSnapshot;
 import org.slf4j.Logger;
 
 /**
  * Helper class that maintains state for a snapshot that is being installed in chunks on a Follower.
+ *
+ * <p>
+ * The leader may have multiple chunks in flight, hence once the first chunk has been received, chunks which arrive
+ * ahead of a missing one are retained, as long as they are within the configured window. They are appended once the
+ * missing chunk arrives. Chunks which have already been received, or which are beyond the window, are ignored.
+ *
+ * <p>
+ * An install is identified by the snapshot's last included index and term and its total number of chunks. If
+ * {@link org.opendaylight.controller.cluster.raft.ConfigParams#isResumableSnapshotInstall()} is enabled, chunks are
+ * kept in a {@link SnapshotChunkFile}, which is retained when the tracker is closed, so that a subsequent tracker for
+ * the same install resumes from the chunks received so far. Retained chunks are deleted once the member becomes
+ * leader or has applied state past the snapshot, see {@link #deleteChunkFile(RaftActorContext, Logger)} and
+ * {@link #deleteStaleChunkFile(RaftActorContext, Logger)}.
  */
 class SnapshotTracker implements AutoCloseable {
+    private record PendingChunk(byte[] data, OptionalInt lastChunkHashCode) {
+        // Nothing else
+    }
+
+    private final TreeMap<Integer, PendingChunk> pendingChunks = new TreeMap<>();
     private final Logger log;
     private final int totalChunks;
+    private final int maxChunksInFlight;
     private final String leaderId;
+    private final long lastIncludedIndex;
+    private final long lastIncludedTerm;
     private final BufferedOutputStream bufferedStream;
     private final FileBackedOutputStream fileBackedStream;
+    private final SnapshotChunkFile chunkFile;
     private int lastChunkIndex = LeaderInstallSnapshotState.FIRST_CHUNK_INDEX - 1;
     private boolean sealed = false;
     private int lastChunkHashCode = LeaderInstallSnapshotState.INITIAL_LAST_CHUNK_HASH_CODE;
     private long count;
 
-    SnapshotTracker(final Logger log, final int totalChunks, final String leaderId, final RaftActorContext context) {
+    @VisibleForTesting
+    SnapshotTracker(final Logger log, final int totalChunks, final String leaderId, final RaftActorContext context)
+            throws IOException {
+        this(log, leaderId, -1, -1, totalChunks, context);
+    }
+
+    SnapshotTracker(final Logger log, final String leaderId, final long lastIncludedIndex, final long lastIncludedTerm,
+            final int totalChunks, final RaftActorContext context) throws IOException {
         this.log = log;
         this.totalChunks = totalChunks;
         this.leaderId = requireNonNull(leaderId);
-        fileBackedStream = context.getFileBackedOutputStreamFactory().newInstance();
-        bufferedStream = new BufferedOutputStream(fileBackedStream);
+        this.lastIncludedIndex = lastIncludedIndex;
+        this.lastIncludedTerm = lastIncludedTerm;
+        maxChunksInFlight = context.getConfigParams().getMaxInFlightSnapshotChunks();
+
+        if (context.getConfigParams().isResumableSnapshotInstall()) {
+            final var path = chunkFilePath(context);
+            Files.createDirectories(path.getParent());
+            chunkFile = SnapshotChunkFile.open(path, lastIncludedIndex, lastIncludedTerm, totalChunks);
+            fileBackedStream = null;
+            bufferedStream = null;
+
+            lastChunkIndex = chunkFile.lastChunkIndex();
+            lastChunkHashCode = chunkFile.lastChunkHashCode();
+            if (lastChunkIndex >= LeaderInstallSnapshotState.FIRST_CHUNK_INDEX) {
+                log.info("Resuming install of snapshot at index {} term {} from leader {} with {} of {} chunks "
+                    + "already received", lastIncludedIndex, lastIncludedTerm, leaderId, lastChunkIndex, totalChunks);
+            }
+        } else {
+            chunkFile = null;
+            fileBackedStream = context.getFileBackedOutputStreamFactory().newInstance();
+            bufferedStream = new BufferedOutputStream(fileBackedStream);
+        }
+    }
+
+    private static Path chunkFilePath(final RaftActorContext context) {
+        final var tempFileDirectory = context.getConfigParams().getTempFileDirectory();
+        final var dir = Path.of(tempFileDirectory.isEmpty() ? System.getProperty("java.io.tmpdir")
+            : tempFileDirectory);
+        return dir.resolve(context.getId().replaceAll("[^A-Za-z0-9._-]", "_") + ".snapshot-install");
+    }
+
+    /**
+     * Delete the chunks retained from an interrupted install, if any. This should be invoked when this member becomes
+     * leader, as it will not install a snapshot from another leader without becoming a follower again, at which point
+     * the leader has most probably taken a different snapshot.
+     *
+     * @param context the raft actor context
+     * @param log the logger
+     */
+    static void deleteChunkFile(final RaftActorContext context, final Logger log) {
+        if (context.getConfigParams().isResumableSnapshotInstall()) {
+            final var path = chunkFilePath(context);
+            try {
+                if (Files.deleteIfExists(path)) {
+                    log.info("{}: Deleted snapshot chunks retained from an interrupted install", context.getId());
+                }
+            } catch (IOException e) {
+                log.warn("{}: Error deleting snapshot chunk file {}", context.getId(), path, e);
+            }
+        }
+    }
+
+    /**
+     * Delete the chunks retained from an interrupted install, if the snapshot being installed has already been
+     * superseded by the state this member has applied. Such an install can never be resumed, as the leader will not
+     * send the same snapshot again.
+     *
+     * @param context the raft actor context
+     * @param log the logger
+     */
+    static void deleteStaleChunkFile(final RaftActorContext context, final Logger log) {
+        if (context.getConfigParams().isResumableSnapshotInstall()) {
+            final var path = chunkFilePath(context);
+            final OptionalLong lastIncludedIndex;
+            try {
+                lastIncludedIndex = SnapshotChunkFile.readLastIncludedIndex(path);
+            } catch (IOException e) {
+                log.warn("{}: Error reading snapshot chunk file {}, deleting it", context.getId(), path, e);
+                deleteChunkFile(context, log);
+                return;
+            }
+
+            if (lastIncludedIndex.isPresent() && lastIncludedIndex.orElseThrow() > context.getLastApplied()
+                    && lastIncludedIndex.orElseThrow() > context.getReplicatedLog().getSnapshotIndex()) {
+                // The install can still be resumed
+                return;
+            }
+            deleteChunkFile(context, log);
+        }
+    }
+
+    /**
+     * Check whether an InstallSnapshot message belongs to the install tracked by this object.
+     *
+     * @param installSnapshot the message
+     * @return true if the message is for the same snapshot
+     */
+    boolean isInstallOf(final InstallSnapshot installSnapshot) {
+        return installSnapshot.getLastIncludedIndex() == lastIncludedIndex
+            && installSnapshot.getLastIncludedTerm() == lastIncludedTerm
+            && installSnapshot.getTotalChunks() == totalChunks;
     }
 
     /**
@@ -47,7 +171,7 @@ class SnapshotTracker implements AutoCloseable {
      * @param chunk the chunk data
      * @param lastChunkHashCode the optional hash code for the chunk
      * @return true if this is the last chunk is received
-     * @throws InvalidChunkException if the chunk index is invalid or out of order
+     * @throws InvalidChunkException if the chunk index is invalid or arrives ahead of the first chunk
      * @throws IOException if there is a problem writing to the stream
      */
     boolean addChunk(final int chunkIndex, final byte[] chunk, final OptionalInt maybeLastChunkHashCode)
@@ -60,23 +184,73 @@ class SnapshotTracker implements AutoCloseable {
                     + " all chunks already received");
         }
 
+        if (chunkIndex < LeaderInstallSnapshotState.FIRST_CHUNK_INDEX || chunkIndex > totalChunks) {
+            throw new InvalidChunkException("Invalid chunkIndex " + chunkIndex + " of " + totalChunks + " chunks");
+        }
+
+        if (chunkIndex <= lastChunkIndex) {
+            log.debug("addChunk: ignoring duplicate chunkIndex={}", chunkIndex);
+            return false;
+        }
+
         if (lastChunkIndex + 1 != chunkIndex) {
-            throw new InvalidChunkException("Expected chunkIndex " + (lastChunkIndex + 1) + " got " + chunkIndex);
+            // Chunks ahead of the first one are not retained, as they may have been sent before the leader has reset
+            if (lastChunkIndex < LeaderInstallSnapshotState.FIRST_CHUNK_INDEX) {
+                throw new InvalidChunkException("Expected chunkIndex " + (lastChunkIndex + 1) + " got " + chunkIndex);
+            }
+
+            // The leader may be configured with a larger window than ours. Its chunks are legitimate, but we do not
+            // retain them: the leader sends them again once we have caught up.
+            if (chunkIndex > lastChunkIndex + maxChunksInFlight) {
+                log.debug("addChunk: ignoring chunkIndex={} beyond window of {} chunks after chunkIndex={}",
+                    chunkIndex, maxChunksInFlight, lastChunkIndex);
+                return false;
+            }
+
+            log.debug("addChunk: retaining chunkIndex={} until chunkIndex={} is received", chunkIndex,
+                lastChunkIndex + 1);
+            pendingChunks.putIfAbsent(chunkIndex, new PendingChunk(chunk, maybeLastChunkHashCode));
+            return false;
         }
 
+        appendChunk(chunk, maybeLastChunkHashCode);
+
+        // Append any retained chunks which are now in order
+        while (!pendingChunks.isEmpty() && pendingChunks.firstKey() == lastChunkIndex + 1) {
+            final var pending = pendingChunks.pollFirstEntry().getValue();
+            appendChunk(pending.data(), pending.lastChunkHashCode());
+        }
+        return sealed;
+    }
+
+    private void appendChunk(final byte[] chunk, final OptionalInt maybeLastChunkHashCode) throws IOException {
         if (maybeLastChunkHashCode.isPresent() && maybeLastChunkHashCode.orElseThrow() != lastChunkHashCode) {
             throw new InvalidChunkException("The hash code of the recorded last chunk does not match "
                     + "the senders hash code, expected " + lastChunkHashCode + " was "
                     + maybeLastChunkHashCode.orElseThrow());
         }
 
-        bufferedStream.write(chunk);
+        final int chunkHashCode = Arrays.hashCode(chunk);
+        if (chunkFile != null) {
+            chunkFile.append(chunk, chunkHashCode);
+        } else {
+            bufferedStream.write(chunk);
+        }
 
         count += chunk.length;
-        sealed = chunkIndex == totalChunks;
-        lastChunkIndex = chunkIndex;
-        lastChunkHashCode = Arrays.hashCode(chunk);
-        return sealed;
+        lastChunkIndex++;
+        sealed = lastChunkIndex == totalChunks;
+        lastChunkHashCode = chunkHashCode;
+    }
+
+    /**
+     * Return the index of the last chunk appended to the snapshot. All chunks up to and including this index have
+     * been received.
+     *
+     * @return the last chunk index, or {@code 0} if no chunk has been appended
+     */
+    int getLastChunkIndex() {
+        return lastChunkIndex;
     }
 
     ByteSource getSnapshotBytes() throws IOException {
@@ -84,6 +258,10 @@ class SnapshotTracker implements AutoCloseable {
             throw new IllegalStateException("lastChunk not received yet");
         }
 
+        if (chunkFile != null) {
+            return chunkFile.asByteSource();
+        }
+
         bufferedStream.close();
         return fileBackedStream.asByteSource();
     }
@@ -92,9 +270,37 @@ class SnapshotTracker implements AutoCloseable {
         return leaderId;
     }
 
+    /**
+     * Close this tracker. The chunks received so far are retained if the install is resumable.
+     */
     @Override
     public void close() {
-        fileBackedStream.cleanup();
+        pendingChunks.clear();
+        if (chunkFile != null) {
+            try {
+                chunkFile.close();
+            } catch (IOException e) {
+                log.warn("Error closing snapshot chunk file {}", chunkFile, e);
+            }
+        } else {
+            fileBackedStream.cleanup();
+        }
+    }
+
+    /**
+     * Close this tracker and discard the chunks received so far.
+     */
+    void discard() {
+        pendingChunks.clear();
+        if (chunkFile != null) {
+            try {
+                chunkFile.delete();
+            } catch (IOException e) {
+                log.warn("Error deleting snapshot chunk file {}", chunkFile, e);
+            }
+        } else {
+            fileBackedStream.cleanup();
+        }
     }
 
     public static class InvalidChunkException extends IOException {
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.raft.persisted;
+
+import static java.util.Objects.requireNonNull;
+
+import akka.actor.ExtendedActorSystem;
+import akka.serialization.JSerializer;
+import akka.serialization.Serialization;
+import akka.serialization.SerializationExtension;
+import akka.serialization.Serializer;
+import akka.serialization.Serializers;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import java.io.DataInput;
+import java.io.IOException;
+import org.opendaylight.controller.cluster.raft.messages.Payload;
+import org.opendaylight.yangtools.concepts.WritableObjects;
+import scala.util.Try;
+
+/**
+ * Serializer for {@link SimpleReplicatedLogEntry} which does not use Java serialization. Entries are written in
+ * a compact binary format: a format byte, index and term, followed by the payload serialized through Akka
+ * serialization, i.e. the identifier of its serializer, the serializer manifest and the serialized bytes. Payloads
+ * with a dedicated serializer are therefore not subject to Java serialization.
+ *
+ * <p>
+ * This serializer is not bound by default, as {@link SimpleReplicatedLogEntrySerializer} defines the format used by
+ * remoting and persistence. Binding it changes that format, which members without this serializer cannot read.
+ */
+public final class CompactReplicatedLogEntrySerializer extends JSerializer {
+    private static final byte FORMAT_V1 = 1;
+
+    private final ExtendedActorSystem system;
+
+    public CompactReplicatedLogEntrySerializer(final ExtendedActorSystem system) {
+        this.system = requireNonNull(system);
+    }
+
+    @Override
+    public int identifier() {
+        return 97439503;
+    }
+
+    @Override
+    public boolean includeManifest() {
+        return false;
+    }
+
+    @Override
+    public byte[] toBinary(final Object obj) {
+        if (!(obj instanceof SimpleReplicatedLogEntry replicatedLogEntry)) {
+            throw new IllegalArgumentException("Unsupported object type " + obj.getClass());
+        }
+
+        final Payload payload = replicatedLogEntry.getData();
+        final Serialization serialization = SerializationExtension.get(system);
+        final Serializer serializer = serialization.findSerializerFor(payload);
+        final String manifest = Serializers.manifestFor(serializer, payload);
+        final Try<byte[]> serialized = serialization.serialize(payload);
+        if (serialized.isFailure()) {
+            throw new IllegalArgumentException("Failed to serialize payload " + payload, serialized.failed().get());
+        }
+        final byte[] payloadBytes = serialized.get();
+
+        final ByteArrayDataOutput out = ByteStreams.newDataOutput(payloadBytes.length + 32);
+        try {
+            out.writeByte(FORMAT_V1);
+            WritableObjects.writeLongs(out, replicatedLogEntry.getIndex(), replicatedLogEntry.getTerm());
+            out.writeInt(serializer.identifier());
+            out.writeUTF(manifest);
+            out.writeInt(payloadBytes.length);
+            out.write(payloadBytes);
+        } catch (IOException e) {
+            // ByteArrayDataOutput does not throw IOException
+            throw new IllegalStateException("Failed to serialize " + obj, e);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object fromBinaryJava(final byte[] bytes, final Class<?> manifest) {
+        final DataInput in = ByteStreams.newDataInput(bytes);
+        try {
+            final byte format = in.readByte();
+            if (format != FORMAT_V1) {
+                throw new IOException("Unhandled format " + format);
+            }
+            final byte hdr = WritableObjects.readLongHeader(in);
+            final long index = WritableObjects.readFirstLong(in, hdr);
+            final long term = WritableObjects.readSecondLong(in, hdr);
+            final int serializerId = in.readInt();
+            final String serializerManifest = in.readUTF();
+            final int size = in.readInt();
+            if (size < 0 || size > bytes.length) {
+                throw new IOException("Invalid payload size " + size);
+            }
+            final byte[] payloadBytes = new byte[size];
+            in.readFully(payloadBytes);
+
+            final Try<Object> payload = SerializationExtension.get(system).deserialize(payloadBytes, serializerId,
+                serializerManifest);
+            if (payload.isFailure()) {
+                throw new IOException("Failed to deserialize payload with serializer " + serializerId,
+                    payload.failed().get());
+            }
+            return new SimpleReplicatedLogEntry(index, term, (Payload) payload.get());
+        } catch (IOException | IllegalStateException | ClassCastException e) {
+            throw new IllegalStateException("Failed to deserialize object", e);
+        }
+    }
+}
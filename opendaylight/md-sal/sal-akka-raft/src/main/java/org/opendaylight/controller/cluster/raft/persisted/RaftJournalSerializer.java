@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.raft.persisted;
+
+import akka.serialization.SerializerWithStringManifest;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import org.opendaylight.yangtools.concepts.WritableObjects;
+
+/**
+ * Specialized serializer for the small messages persisted by RAFT actors: {@link ApplyJournalEntries},
+ * {@link DeleteEntries} and {@link UpdateElectionTerm}. These are written in a compact binary format, without going
+ * through Java serialization. It is meant to be used by journals which persist payloads through Akka serialization.
+ * It is not bound by default, as binding it changes the format used by remoting and by all persistence plugins.
+ */
+public final class RaftJournalSerializer extends SerializerWithStringManifest {
+    private static final String APPLY_JOURNAL_ENTRIES = "AJE";
+    private static final String DELETE_ENTRIES = "DE";
+    private static final String UPDATE_ELECTION_TERM = "UT";
+
+    @Override
+    public int identifier() {
+        return 97439501;
+    }
+
+    @Override
+    public String manifest(final Object obj) {
+        if (obj instanceof ApplyJournalEntries) {
+            return APPLY_JOURNAL_ENTRIES;
+        } else if (obj instanceof DeleteEntries) {
+            return DELETE_ENTRIES;
+        } else if (obj instanceof UpdateElectionTerm) {
+            return UPDATE_ELECTION_TERM;
+        } else {
+            throw new IllegalArgumentException("Unsupported object type " + obj.getClass());
+        }
+    }
+
+    @Override
+    public byte[] toBinary(final Object obj) {
+        final ByteArrayDataOutput out = ByteStreams.newDataOutput();
+        try {
+            if (obj instanceof ApplyJournalEntries applyEntries) {
+                WritableObjects.writeLong(out, applyEntries.getToIndex());
+            } else if (obj instanceof DeleteEntries deleteEntries) {
+                WritableObjects.writeLong(out, deleteEntries.getFromIndex());
+            } else if (obj instanceof UpdateElectionTerm updateTerm) {
+                WritableObjects.writeLong(out, updateTerm.getCurrentTerm());
+                final String votedFor = updateTerm.getVotedFor();
+                out.writeBoolean(votedFor != null);
+                if (votedFor != null) {
+                    out.writeUTF(votedFor);
+                }
+            } else {
+                throw new IllegalArgumentException("Unsupported object type " + obj.getClass());
+            }
+        } catch (IOException e) {
+            // ByteArrayDataOutput does not throw IOException
+            throw new IllegalStateException("Failed to serialize " + obj, e);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object fromBinary(final byte[] bytes, final String manifest) throws NotSerializableException {
+        final DataInput in = ByteStreams.newDataInput(bytes);
+        try {
+            switch (manifest) {
+                case APPLY_JOURNAL_ENTRIES:
+                    return new ApplyJournalEntries(WritableObjects.readLong(in));
+                case DELETE_ENTRIES:
+                    return new DeleteEntries(WritableObjects.readLong(in));
+                case UPDATE_ELECTION_TERM:
+                    return new UpdateElectionTerm(WritableObjects.readLong(in), in.readBoolean() ? in.readUTF() : null);
+                default:
+                    break;
+            }
+        } catch (IOException | IllegalStateException e) {
+            final NotSerializableException ex = new NotSerializableException("Failed to deserialize " + manifest);
+            ex.initCause(e);
+            throw ex;
+        }
+        throw new NotSerializableException("Unhandled manifest " + manifest);
+    }
+}
@@ -14,6 +14,8 @@ import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.Serializable;
 import java.util.List;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.controller.cluster.persistence.IncrementalSnapshot;
 import org.opendaylight.controller.cluster.raft.ReplicatedLogEntry;
 import org.opendaylight.controller.cluster.raft.messages.Payload;
 
@@ -22,7 +24,7 @@ import org.opendaylight.controller.cluster.raft.messages.Payload;
  *
  * @author Thomas Pantelis
  */
-public sealed class Snapshot implements Serializable {
+public sealed class Snapshot implements IncrementalSnapshot, Serializable {
     /**
      * Implementations of this interface are used as the state payload for a snapshot.
      *
@@ -40,6 +42,22 @@ public sealed class Snapshot implements Serializable {
         }
     }
 
+    /**
+     * A {@link State} which captures only the changes since the last full snapshot persisted by the same actor. Such
+     * states are produced only for local persistence and rely on the snapshot store to retain that full snapshot and
+     * to merge it with the delta on recovery, as LocalSnapshotStore does.
+     */
+    public interface DeltaState extends State {
+        /**
+         * Merge this delta with the state of the full snapshot it was taken against.
+         *
+         * @param base state of the full snapshot
+         * @return merged state
+         * @throws IOException if the base state is not compatible with this delta
+         */
+        @NonNull State mergeWith(@NonNull State base) throws IOException;
+    }
+
     @Deprecated(since = "7.0.0", forRemoval = true)
     private static final class Legacy extends Snapshot implements LegacySerializable {
         @java.io.Serial
@@ -186,6 +204,23 @@ public sealed class Snapshot implements Serializable {
         return serverConfig;
     }
 
+    @Override
+    public final boolean isDelta() {
+        return state instanceof DeltaState;
+    }
+
+    @Override
+    public final Snapshot mergeWith(final Object base) throws IOException {
+        if (!(state instanceof DeltaState delta)) {
+            throw new IllegalStateException("Snapshot " + this + " is not a delta");
+        }
+        if (!(base instanceof Snapshot baseSnapshot)) {
+            throw new IOException("Unexpected base snapshot " + base);
+        }
+        return create(delta.mergeWith(baseSnapshot.state), unAppliedEntries, lastIndex, lastTerm, lastAppliedIndex,
+            lastAppliedTerm, electionTerm, electionVotedFor, serverConfig);
+    }
+
     @java.io.Serial
     public final Object writeReplace() {
         return new SS(this);
@@ -12,6 +12,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.HashMap;
@@ -256,6 +257,156 @@ public class AbstractReplicatedLogImplTest {
         assertNotNull("get(3)", replicatedLogImpl.get(3));
     }
 
+    @Test
+    public void testSnapshotRollbackWithEntriesAppended() {
+        // Trim and append repeatedly, so the journal wraps around and has to grow while entries are retained
+        long lastIndex = 3;
+        for (int i = 0; i < 10; i++) {
+            takeSnapshot(2);
+            for (int j = 0; j < 3; j++) {
+                lastIndex++;
+                replicatedLogImpl.append(new SimpleReplicatedLogEntry(lastIndex, 3, new MockPayload("E")));
+            }
+        }
+
+        final long snapshotIndex = replicatedLogImpl.getSnapshotIndex();
+        final long size = replicatedLogImpl.size();
+        replicatedLogImpl.snapshotPreCommit(snapshotIndex + size - 1, 3);
+        assertEquals("size", 1, replicatedLogImpl.size());
+
+        for (int i = 0; i < 20; i++) {
+            lastIndex++;
+            replicatedLogImpl.append(new SimpleReplicatedLogEntry(lastIndex, 3, new MockPayload("F")));
+        }
+
+        replicatedLogImpl.snapshotRollback();
+
+        assertEquals("size", size + 20, replicatedLogImpl.size());
+        assertEquals("getSnapshotIndex", snapshotIndex, replicatedLogImpl.getSnapshotIndex());
+        assertEquals("lastIndex", lastIndex, replicatedLogImpl.lastIndex());
+        assertEquals("lastTerm", 3, replicatedLogImpl.lastTerm());
+        for (long index = snapshotIndex + 1; index <= lastIndex; index++) {
+            assertEquals("get(" + index + ")", index, replicatedLogImpl.get(index).getIndex());
+        }
+    }
+
+    @Test
+    public void testSnapshotRollbackAfterRemoveFrom() {
+        replicatedLogImpl.snapshotPreCommit(1, 1);
+
+        // A conflicting leader replaces the entries following the snapshot before the snapshot is saved
+        replicatedLogImpl.removeFrom(2);
+        assertEquals("size", 0, replicatedLogImpl.size());
+        replicatedLogImpl.append(new SimpleReplicatedLogEntry(2, 3, new MockPayload("X")));
+        replicatedLogImpl.append(new SimpleReplicatedLogEntry(3, 3, new MockPayload("Y")));
+        replicatedLogImpl.append(new SimpleReplicatedLogEntry(4, 3, new MockPayload("Z")));
+
+        replicatedLogImpl.snapshotRollback();
+
+        assertEquals("size", 5, replicatedLogImpl.size());
+        assertEquals("getSnapshotIndex", -1, replicatedLogImpl.getSnapshotIndex());
+        final String[] expectedData = { "A", "B", "X", "Y", "Z" };
+        final long[] expectedTerms = { 1, 1, 3, 3, 3 };
+        for (int i = 0; i < expectedData.length; i++) {
+            final ReplicatedLogEntry entry = replicatedLogImpl.get(i);
+            assertNotNull("get(" + i + ")", entry);
+            assertEquals("getIndex", i, entry.getIndex());
+            assertEquals("getTerm", expectedTerms[i], entry.getTerm());
+            assertEquals("getData", expectedData[i], entry.getData().toString());
+        }
+        assertEquals("lastTerm", 3, replicatedLogImpl.lastTerm());
+
+        // Commit after the same sequence releases the snapshotted entries only
+        replicatedLogImpl.snapshotPreCommit(1, 1);
+        replicatedLogImpl.removeFrom(2);
+        replicatedLogImpl.append(new SimpleReplicatedLogEntry(2, 4, new MockPayload("W")));
+        replicatedLogImpl.snapshotCommit();
+
+        assertEquals("size", 1, replicatedLogImpl.size());
+        assertNull("get(1)", replicatedLogImpl.get(1));
+        assertEquals("get(2)", "W", replicatedLogImpl.get(2).getData().toString());
+    }
+
+    @Test
+    public void testLastPersistedIndex() {
+        assertEquals("lastPersistedIndex", 3, replicatedLogImpl.lastPersistedIndex());
+
+        final ReplicatedLogEntry[] pending = new ReplicatedLogEntry[3];
+        for (int i = 0; i < pending.length; i++) {
+            pending[i] = new SimpleReplicatedLogEntry(4 + i, 2, new MockPayload("P"));
+            pending[i].setPersistencePending(true);
+            replicatedLogImpl.append(pending[i]);
+        }
+        assertEquals("lastPersistedIndex", 3, replicatedLogImpl.lastPersistedIndex());
+
+        // Persistence of a later entry does not count until the preceding entries are persisted
+        pending[1].setPersistencePending(false);
+        assertEquals("lastPersistedIndex", 3, replicatedLogImpl.lastPersistedIndex());
+        pending[0].setPersistencePending(false);
+        assertEquals("lastPersistedIndex", 5, replicatedLogImpl.lastPersistedIndex());
+
+        // Removing the pending entry leaves the remaining log persisted
+        replicatedLogImpl.removeFrom(6);
+        assertEquals("lastPersistedIndex", 5, replicatedLogImpl.lastPersistedIndex());
+    }
+
+    @Test
+    public void testLastPersistedIndexWithSnapshot() {
+        final ReplicatedLogEntry[] pending = new ReplicatedLogEntry[2];
+        for (int i = 0; i < pending.length; i++) {
+            pending[i] = new SimpleReplicatedLogEntry(4 + i, 2, new MockPayload("P"));
+            pending[i].setPersistencePending(true);
+            replicatedLogImpl.append(pending[i]);
+        }
+
+        // Snapshotting a pending entry does not make it persisted
+        replicatedLogImpl.snapshotPreCommit(4, 2);
+        assertEquals("size", 1, replicatedLogImpl.size());
+        assertEquals("lastPersistedIndex", 3, replicatedLogImpl.lastPersistedIndex());
+
+        replicatedLogImpl.snapshotRollback();
+        assertEquals("size", 6, replicatedLogImpl.size());
+        assertEquals("lastPersistedIndex", 3, replicatedLogImpl.lastPersistedIndex());
+
+        pending[0].setPersistencePending(false);
+        replicatedLogImpl.trimPersistedEntries();
+        assertEquals("lastPersistedIndex", 4, replicatedLogImpl.lastPersistedIndex());
+
+        // Persistence completing after the pending entry was snapshotted
+        replicatedLogImpl.snapshotPreCommit(4, 2);
+        replicatedLogImpl.snapshotCommit();
+        assertEquals("size", 1, replicatedLogImpl.size());
+        assertEquals("lastPersistedIndex", 4, replicatedLogImpl.lastPersistedIndex());
+
+        pending[1].setPersistencePending(false);
+        replicatedLogImpl.trimPersistedEntries();
+        assertEquals("lastPersistedIndex", 5, replicatedLogImpl.lastPersistedIndex());
+    }
+
+    @Test
+    public void testGetReturnsAppendedEntry() {
+        final ReplicatedLogEntry entry = new SimpleReplicatedLogEntry(4, 2, new MockPayload("E"));
+        replicatedLogImpl.append(entry);
+        assertSame("get", entry, replicatedLogImpl.get(4));
+        assertSame("last", entry, replicatedLogImpl.last());
+        assertSame("getFrom", entry, replicatedLogImpl.getFrom(4).get(0));
+
+        // Trimming the log does not copy the remaining entries
+        takeSnapshot(2);
+        assertSame("get", entry, replicatedLogImpl.get(4));
+    }
+
+    @Test
+    public void testGetTerm() {
+        assertEquals("getTerm", 1, replicatedLogImpl.getTerm(2));
+        assertEquals("getTerm", 2, replicatedLogImpl.getTerm(3));
+        assertEquals("getTerm", -1, replicatedLogImpl.getTerm(4));
+
+        takeSnapshot(2);
+        assertEquals("getTerm", -1, replicatedLogImpl.getTerm(1));
+        assertEquals("getTerm", 1, replicatedLogImpl.getTerm(2));
+    }
+
     @Test
     public void testIsPresent() {
         assertTrue(replicatedLogImpl.isPresent(0));
@@ -15,6 +15,7 @@ import com.google.common.base.Stopwatch;
 import com.google.common.util.concurrent.Uninterruptibles;
 import java.util.concurrent.TimeUnit;
 import org.junit.Test;
+import org.opendaylight.controller.cluster.raft.messages.AppendEntriesReply;
 import scala.concurrent.duration.FiniteDuration;
 
 public class FollowerLogInformationTest {
@@ -131,4 +132,64 @@ public class FollowerLogInformationTest {
         assertFalse(followerLogInformation.decrNextIndex(1));
         assertEquals("getNextIndex", -1, followerLogInformation.getNextIndex());
     }
+
+    @Test
+    public void testPipelining() {
+        MockRaftActorContext context = new MockRaftActorContext();
+        context.setCommitIndex(1);
+        DefaultConfigParamsImpl configParams = new DefaultConfigParamsImpl();
+        configParams.setHeartBeatInterval(new FiniteDuration(50, TimeUnit.MILLISECONDS));
+        configParams.setElectionTimeoutFactor(4);
+        context.setConfigParams(configParams);
+        FollowerLogInformation followerLogInformation =
+                new FollowerLogInformation(new PeerInfo("follower1", null, VotingState.VOTING), 0, context);
+
+        assertTrue(followerLogInformation.okToPipeline(2));
+        assertEquals("getPipelineIndex", 1, followerLogInformation.getPipelineIndex());
+        followerLogInformation.recordInFlight(3);
+        assertEquals("getPipelineIndex", 4, followerLogInformation.getPipelineIndex());
+        assertTrue(followerLogInformation.okToPipeline(2));
+        followerLogInformation.recordInFlight(5);
+        assertEquals("getInFlightCount", 2, followerLogInformation.getInFlightCount());
+        assertFalse(followerLogInformation.okToPipeline(2));
+
+        // Acknowledge the first AppendEntries
+        assertFalse(followerLogInformation.isStaleReply(new AppendEntriesReply("follower1", 1, true, 3, 1, (short)0)));
+        followerLogInformation.setNextIndex(4);
+        followerLogInformation.acknowledgeInFlight(3);
+        assertEquals("getInFlightCount", 1, followerLogInformation.getInFlightCount());
+        assertEquals("getPipelineIndex", 6, followerLogInformation.getPipelineIndex());
+        assertTrue(followerLogInformation.okToPipeline(2));
+        followerLogInformation.recordInFlight(7);
+        followerLogInformation.recordHeartbeat();
+
+        // A rejection rewinds to nextIndex, the replies to the other in-flight AppendEntries and to the heart beat
+        // report the same follower state and are stale
+        final AppendEntriesReply rejection = new AppendEntriesReply("follower1", 1, false, 3, 1, (short)0);
+        assertFalse(followerLogInformation.isStaleReply(rejection));
+        assertTrue(followerLogInformation.decrNextIndex(-1));
+        assertEquals("getInFlightCount", 0, followerLogInformation.getInFlightCount());
+        assertEquals("getPipelineIndex", 3, followerLogInformation.getPipelineIndex());
+        assertTrue(followerLogInformation.isStaleReply(rejection));
+        assertTrue(followerLogInformation.isStaleReply(rejection));
+
+        // The reply to an AppendEntries sent after the rewind is not
+        assertFalse(followerLogInformation.isStaleReply(rejection));
+
+        // Successful replies are never stale and mean the follower's log has changed
+        followerLogInformation.recordInFlight(5);
+        followerLogInformation.recordInFlight(7);
+        assertTrue(followerLogInformation.decrNextIndex(-1));
+        assertFalse(followerLogInformation.isStaleReply(new AppendEntriesReply("follower1", 1, true, 3, 1, (short)0)));
+        assertFalse(followerLogInformation.isStaleReply(rejection));
+
+        // Unacknowledged AppendEntries are resent after the election timeout rather than the heart beat interval
+        followerLogInformation.recordInFlight(4);
+        assertFalse(followerLogInformation.okToPipeline(1));
+        Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+        assertFalse(followerLogInformation.okToPipeline(1));
+        Uninterruptibles.sleepUninterruptibly(150, TimeUnit.MILLISECONDS);
+        assertTrue(followerLogInformation.okToPipeline(1));
+        assertEquals("getPipelineIndex", 2, followerLogInformation.getPipelineIndex());
+    }
 }
@@ -552,10 +552,8 @@ public class SnapshotManagerTest extends AbstractActorTest {
     public void testTrimLogWhenTrimIndexLessThanLastApplied() {
         doReturn(20L).when(mockRaftActorContext).getLastApplied();
 
-        ReplicatedLogEntry replicatedLogEntry = mock(ReplicatedLogEntry.class);
         doReturn(true).when(mockReplicatedLog).isPresent(10);
-        doReturn(replicatedLogEntry).when(mockReplicatedLog).get(10);
-        doReturn(5L).when(replicatedLogEntry).getTerm();
+        doReturn(5L).when(mockReplicatedLog).getTerm(10);
 
         long retIndex = snapshotManager.trimLog(10);
         assertEquals("return index", 10L, retIndex);
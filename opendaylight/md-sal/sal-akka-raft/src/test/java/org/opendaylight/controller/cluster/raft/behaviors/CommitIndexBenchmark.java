@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.raft.behaviors;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.controller.cluster.raft.FollowerLogInformation;
+import org.opendaylight.controller.cluster.raft.MockRaftActorContext;
+import org.opendaylight.controller.cluster.raft.PeerInfo;
+import org.opendaylight.controller.cluster.raft.ReplicatedLog;
+import org.opendaylight.controller.cluster.raft.ReplicatedLogEntry;
+import org.opendaylight.controller.cluster.raft.VotingState;
+import org.opendaylight.controller.cluster.raft.persisted.SimpleReplicatedLogEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the cost of advancing the leader's commit index by checking each index in turn, as
+ * {@link AbstractLeader} used to do, with selecting the majority match index directly. Each invocation starts from
+ * the same commit index, with all followers having acknowledged {@link #batchSize} entries.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CommitIndexBenchmark {
+    private static final long TERM = 1;
+    private static final long COMMIT_INDEX = 0;
+
+    // Followers of a 3, 5 and 7 node cluster
+    @Param({ "2", "4", "6" })
+    public int followerCount;
+
+    // Entries acknowledged by the AppendEntriesReply which triggers the update
+    @Param({ "1", "100", "1000" })
+    public int batchSize;
+
+    private final Map<String, PeerInfo> peers = new HashMap<>();
+    private final List<FollowerLogInformation> followers = new ArrayList<>();
+    private ReplicatedLog replicatedLog;
+    private int minReplicationCount;
+    private long[] matchIndices;
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CommitIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup() {
+        final MockRaftActorContext context = new MockRaftActorContext();
+        replicatedLog = new MockRaftActorContext.SimpleReplicatedLog();
+        for (int i = 0; i <= batchSize; i++) {
+            replicatedLog.append(new SimpleReplicatedLogEntry(i, TERM, new MockRaftActorContext.MockPayload("foo")));
+        }
+
+        peers.clear();
+        followers.clear();
+        for (int i = 0; i < followerCount; i++) {
+            final PeerInfo peerInfo = new PeerInfo("follower-" + i, null, VotingState.VOTING);
+            peers.put(peerInfo.getId(), peerInfo);
+
+            final FollowerLogInformation info = new FollowerLogInformation(peerInfo, context);
+            info.setMatchIndex(COMMIT_INDEX + batchSize);
+            followers.add(info);
+        }
+
+        // Same as AbstractRaftActorBehavior.getMajorityVoteCount()
+        minReplicationCount = (followerCount + 1) / 2 + 1;
+        matchIndices = new long[followerCount];
+    }
+
+    @Benchmark
+    public long perIndexScan() {
+        long commitIndex = COMMIT_INDEX;
+        for (long index = COMMIT_INDEX + 1; ; index++) {
+            final ReplicatedLogEntry entry = replicatedLog.get(index);
+            if (entry == null || entry.isPersistencePending()) {
+                break;
+            }
+
+            int replicatedCount = 1;
+            for (FollowerLogInformation info : followers) {
+                final PeerInfo peerInfo = peers.get(info.getId());
+                if (info.getMatchIndex() >= index && peerInfo != null && peerInfo.isVoting()) {
+                    replicatedCount++;
+                }
+            }
+
+            if (replicatedCount < minReplicationCount) {
+                break;
+            }
+            if (entry.getTerm() == TERM) {
+                commitIndex = index;
+            }
+        }
+        return commitIndex;
+    }
+
+    @Benchmark
+    public long quorumSelection() {
+        int count = 0;
+        for (FollowerLogInformation info : followers) {
+            final PeerInfo peerInfo = peers.get(info.getId());
+            if (peerInfo != null && peerInfo.isVoting()) {
+                matchIndices[count++] = info.getMatchIndex();
+            }
+        }
+
+        final long index = Math.min(AbstractLeader.quorumMatchIndex(matchIndices, count, minReplicationCount - 1),
+            replicatedLog.lastPersistedIndex());
+        if (index > COMMIT_INDEX) {
+            final ReplicatedLogEntry entry = replicatedLog.get(index);
+            if (entry != null && entry.getTerm() == TERM) {
+                return index;
+            }
+        }
+        return COMMIT_INDEX;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.raft.behaviors;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Verifies both algorithms compared by {@link CommitIndexBenchmark} reach the same commit index.
+ */
+public class CommitIndexBenchmarkTest {
+    @Test
+    public void testSameCommitIndex() {
+        final var benchmark = new CommitIndexBenchmark();
+        for (int followerCount : new int[] { 2, 4, 6 }) {
+            for (int batchSize : new int[] { 1, 100, 1000 }) {
+                benchmark.followerCount = followerCount;
+                benchmark.batchSize = batchSize;
+                benchmark.setup();
+
+                assertEquals(batchSize, benchmark.perIndexScan());
+                assertEquals(batchSize, benchmark.quorumSelection());
+            }
+        }
+    }
+}
@@ -28,10 +28,16 @@ import akka.testkit.javadsl.TestKit;
 import com.google.common.base.Stopwatch;
 import com.google.common.io.ByteSource;
 import com.google.common.util.concurrent.Uninterruptibles;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import org.junit.After;
@@ -816,7 +822,6 @@ public class FollowerTest extends AbstractRaftActorBehaviorTest<Follower> {
                     chunkData, chunkIndex, totalChunks);
             follower.handleMessage(leaderActor, lastInstallSnapshot);
             offset = offset + 50;
-            lastIncludedIndex++;
             chunkIndex++;
         }
 
@@ -965,7 +970,6 @@ public class FollowerTest extends AbstractRaftActorBehaviorTest<Follower> {
                     chunkData, chunkIndex, totalChunks);
             follower.handleMessage(leaderActor, lastInstallSnapshot);
             offset = offset + 50;
-            lastIncludedIndex++;
             chunkIndex++;
         }
 
@@ -1018,6 +1022,62 @@ public class FollowerTest extends AbstractRaftActorBehaviorTest<Follower> {
         assertNull("Expected null SnapshotTracker", follower.getSnapshotTracker());
     }
 
+    @Test
+    public void testResumeInstallSnapshotAfterRestart() throws IOException {
+        logStart("testResumeInstallSnapshotAfterRestart");
+
+        MockRaftActorContext context = createActorContext();
+        context.getTermInformation().update(1, "leader");
+        ((DefaultConfigParamsImpl) context.getConfigParams()).setResumableSnapshotInstall(true);
+        ((DefaultConfigParamsImpl) context.getConfigParams()).setTempFileDirectory("target");
+        final Path chunkFile = Path.of("target", context.getId() + ".snapshot-install");
+        Files.deleteIfExists(chunkFile);
+
+        follower = createBehavior(context);
+
+        ByteString bsSnapshot = createSnapshot();
+        int chunkSize = 20;
+        int totalChunks = bsSnapshot.size() / chunkSize + (bsSnapshot.size() % chunkSize > 0 ? 1 : 0);
+        assertTrue(totalChunks > 2);
+        List<InstallSnapshot> installSnapshots = new ArrayList<>();
+        int lastChunkHashCode = LeaderInstallSnapshotState.INITIAL_LAST_CHUNK_HASH_CODE;
+        for (int i = 0; i < totalChunks; i++) {
+            byte[] chunkData = getNextChunk(bsSnapshot, i * chunkSize, chunkSize);
+            installSnapshots.add(new InstallSnapshot(1, "leader", 3, 1, chunkData, i + 1, totalChunks,
+                OptionalInt.of(lastChunkHashCode), Optional.empty(), RaftVersions.CURRENT_VERSION));
+            lastChunkHashCode = Arrays.hashCode(chunkData);
+        }
+
+        follower.handleMessage(leaderActor, installSnapshots.get(0));
+        follower.handleMessage(leaderActor, installSnapshots.get(1));
+
+        // Restart the follower, the chunks received so far are retained
+        follower.close();
+        assertTrue("Chunk file exists", Files.exists(chunkFile));
+        MessageCollectorActor.clearMessages(leaderActor);
+        follower = createBehavior(context);
+
+        // A leader starting over is told where to resume
+        follower.handleMessage(leaderActor, installSnapshots.get(0));
+
+        InstallSnapshotReply reply = MessageCollectorActor.expectFirstMatching(leaderActor,
+                InstallSnapshotReply.class);
+        assertEquals("isSuccess", true, reply.isSuccess());
+        assertEquals("getChunkIndex", 2, reply.getChunkIndex());
+
+        for (InstallSnapshot installSnapshot : installSnapshots.subList(2, totalChunks)) {
+            follower.handleMessage(leaderActor, installSnapshot);
+        }
+
+        ApplySnapshot applySnapshot = MessageCollectorActor.expectFirstMatching(followerActor,
+                ApplySnapshot.class);
+        assertArrayEquals("getState", bsSnapshot.toByteArray(),
+            ((ByteState)applySnapshot.getSnapshot().getState()).getBytes());
+
+        assertNull("Expected null SnapshotTracker", follower.getSnapshotTracker());
+        assertFalse("Chunk file exists", Files.exists(chunkFile));
+    }
+
     @Test
     public void testFollowerSchedulesElectionTimeoutImmediatelyWhenItHasNoPeers() {
         MockRaftActorContext context = createActorContext();
@@ -38,13 +38,10 @@ public class LeaderInstallSnapshotStateTest {
                     offset = SIZE;
                 }
                 chunkIndex ++;
-                final byte[] chunk = fts.getNextChunk();
+                final byte[] chunk = fts.nextChunk().data();
                 assertEquals("byte size not matching for chunk:", expectedChunkSize, chunk.length);
                 assertEquals("chunk index not matching", chunkIndex, fts.getChunkIndex());
-                fts.markSendStatus(true);
-                if (!fts.isLastChunk(chunkIndex)) {
-                    fts.incrementChunkIndex();
-                }
+                fts.acknowledgeChunks(chunkIndex);
             }
 
             assertEquals("totalChunks not matching", chunkIndex, fts.getTotalChunks());
@@ -53,6 +53,7 @@ import org.opendaylight.controller.cluster.raft.ReplicatedLogEntry;
 import org.opendaylight.controller.cluster.raft.VotingState;
 import org.opendaylight.controller.cluster.raft.base.messages.ApplyState;
 import org.opendaylight.controller.cluster.raft.base.messages.CaptureSnapshot;
+import org.opendaylight.controller.cluster.raft.base.messages.CheckConsensusReached;
 import org.opendaylight.controller.cluster.raft.base.messages.ElectionTimeout;
 import org.opendaylight.controller.cluster.raft.base.messages.Replicate;
 import org.opendaylight.controller.cluster.raft.base.messages.SendHeartBeat;
@@ -343,6 +344,141 @@ public class LeaderTest extends AbstractLeaderTest<Leader> {
         assertEquals("The number of append entries collected should be 1", 1, allMessages.size());
     }
 
+    @Test
+    public void testMultipleReplicateArePipelined() {
+        logStart("testMultipleReplicateArePipelined");
+
+        MockRaftActorContext actorContext = createActorContextWithFollower();
+        DefaultConfigParamsImpl configParams = new DefaultConfigParamsImpl() {
+            @Override
+            public FiniteDuration getHeartBeatInterval() {
+                return FiniteDuration.apply(5, TimeUnit.SECONDS);
+            }
+        };
+        configParams.setMaxInFlightAppendEntries(3);
+        actorContext.setConfigParams(configParams);
+
+        long term = 1;
+        actorContext.getTermInformation().update(term, "");
+
+        leader = new Leader(actorContext);
+
+        // Leader will send an immediate heartbeat - ignore it.
+        MessageCollectorActor.expectFirstMatching(followerActor, AppendEntries.class);
+
+        // The follower would normally reply - simulate that explicitly here.
+        long lastIndex = actorContext.getReplicatedLog().lastIndex();
+        leader.handleMessage(followerActor, new AppendEntriesReply(
+                FOLLOWER_ID, term, true, lastIndex, term, (short)0));
+
+        followerActor.underlyingActor().clear();
+
+        for (int i = 0; i < 5; i++) {
+            sendReplicate(actorContext, lastIndex + i + 1);
+        }
+
+        // Only three AppendEntries are sent without waiting for replies, each picking up where the previous one ended
+        List<AppendEntries> allMessages = MessageCollectorActor.getAllMatching(followerActor, AppendEntries.class);
+        assertEquals("The number of append entries collected", 3, allMessages.size());
+        for (int i = 0; i < 3; i++) {
+            final AppendEntries appendEntries = allMessages.get(i);
+            assertEquals("getPrevLogIndex", lastIndex + i, appendEntries.getPrevLogIndex());
+            assertEquals("Entries size", 1, appendEntries.getEntries().size());
+            assertEquals("Entry getIndex", lastIndex + i + 1, appendEntries.getEntries().get(0).getIndex());
+        }
+
+        // Acknowledging the first two opens the window for the remaining entries
+        leader.handleMessage(followerActor, new AppendEntriesReply(
+                FOLLOWER_ID, term, true, lastIndex + 2, term, (short)0));
+
+        allMessages = MessageCollectorActor.getAllMatching(followerActor, AppendEntries.class);
+        assertEquals("The number of append entries collected", 4, allMessages.size());
+        final AppendEntries appendEntries = allMessages.get(3);
+        assertEquals("getPrevLogIndex", lastIndex + 3, appendEntries.getPrevLogIndex());
+        assertEquals("Entries size", 2, appendEntries.getEntries().size());
+        assertEquals("Entry getIndex", lastIndex + 4, appendEntries.getEntries().get(0).getIndex());
+        assertEquals("getInFlightCount", 2, leader.getFollower(FOLLOWER_ID).getInFlightCount());
+    }
+
+    @Test
+    public void testPipelinedAppendEntriesRejected() {
+        logStart("testPipelinedAppendEntriesRejected");
+
+        MockRaftActorContext actorContext = createActorContextWithFollower();
+        DefaultConfigParamsImpl configParams = new DefaultConfigParamsImpl() {
+            @Override
+            public FiniteDuration getHeartBeatInterval() {
+                return FiniteDuration.apply(5, TimeUnit.SECONDS);
+            }
+        };
+        configParams.setMaxInFlightAppendEntries(3);
+        actorContext.setConfigParams(configParams);
+
+        long term = 1;
+        actorContext.getTermInformation().update(term, "");
+
+        leader = new Leader(actorContext);
+
+        // Leader will send an immediate heartbeat - ignore it.
+        MessageCollectorActor.expectFirstMatching(followerActor, AppendEntries.class);
+
+        long lastIndex = actorContext.getReplicatedLog().lastIndex();
+        leader.handleMessage(followerActor, new AppendEntriesReply(
+                FOLLOWER_ID, term, true, lastIndex, term, (short)0));
+
+        followerActor.underlyingActor().clear();
+
+        for (int i = 0; i < 3; i++) {
+            sendReplicate(actorContext, lastIndex + i + 1);
+        }
+
+        List<AppendEntries> allMessages = MessageCollectorActor.getAllMatching(followerActor, AppendEntries.class);
+        assertEquals("The number of append entries collected", 3, allMessages.size());
+        FollowerLogInformation followerInfo = leader.getFollower(FOLLOWER_ID);
+        assertEquals("getInFlightCount", 3, followerInfo.getInFlightCount());
+
+        // The follower's last entry conflicts, hence it rejects all three AppendEntries reporting the same state. The
+        // first rejection moves the next index back and replication resumes from there.
+        final AppendEntriesReply rejection = new AppendEntriesReply(FOLLOWER_ID, term, false, lastIndex, term + 5,
+            (short)0);
+        leader.handleMessage(followerActor, rejection);
+
+        assertEquals("getNextIndex", lastIndex, followerInfo.getNextIndex());
+        allMessages = MessageCollectorActor.getAllMatching(followerActor, AppendEntries.class);
+        assertEquals("The number of append entries collected", 4, allMessages.size());
+        AppendEntries appendEntries = allMessages.get(3);
+        assertEquals("getPrevLogIndex", lastIndex - 1, appendEntries.getPrevLogIndex());
+        assertEquals("Entries size", 4, appendEntries.getEntries().size());
+        assertEquals("getInFlightCount", 1, followerInfo.getInFlightCount());
+
+        // The rejections of the other two pipelined AppendEntries are ignored
+        leader.handleMessage(followerActor, rejection);
+        leader.handleMessage(followerActor, rejection);
+
+        assertEquals("getNextIndex", lastIndex, followerInfo.getNextIndex());
+        assertEquals("getInFlightCount", 1, followerInfo.getInFlightCount());
+        assertEquals("The number of append entries collected", 4,
+            MessageCollectorActor.getAllMatching(followerActor, AppendEntries.class).size());
+
+        // The rejection of the AppendEntries sent after moving back is not
+        leader.handleMessage(followerActor, rejection);
+
+        assertEquals("getNextIndex", lastIndex - 1, followerInfo.getNextIndex());
+        allMessages = MessageCollectorActor.getAllMatching(followerActor, AppendEntries.class);
+        assertEquals("The number of append entries collected", 5, allMessages.size());
+        appendEntries = allMessages.get(4);
+        assertEquals("getPrevLogIndex", lastIndex - 2, appendEntries.getPrevLogIndex());
+        assertEquals("Entries size", 5, appendEntries.getEntries().size());
+
+        // The follower finally accepts it
+        leader.handleMessage(followerActor, new AppendEntriesReply(
+                FOLLOWER_ID, term, true, lastIndex + 3, term, (short)0));
+
+        assertEquals("getNextIndex", lastIndex + 4, followerInfo.getNextIndex());
+        assertEquals("getMatchIndex", lastIndex + 3, followerInfo.getMatchIndex());
+        assertEquals("getInFlightCount", 0, followerInfo.getInFlightCount());
+    }
+
     @Test
     public void testMultipleReplicateWithReplyShouldResultInAppendEntries() {
         logStart("testMultipleReplicateWithReplyShouldResultInAppendEntries");
@@ -617,8 +753,7 @@ public class LeaderTest extends AbstractLeaderTest<Leader> {
         leader.getFollower(FOLLOWER_ID).setLeaderInstallSnapshotState(fts);
 
         //send first chunk and no InstallSnapshotReply received yet
-        fts.getNextChunk();
-        fts.incrementChunkIndex();
+        fts.nextChunk();
 
         Uninterruptibles.sleepUninterruptibly(actorContext.getConfigParams().getHeartBeatInterval().toMillis(),
                 TimeUnit.MILLISECONDS);
@@ -630,7 +765,7 @@ public class LeaderTest extends AbstractLeaderTest<Leader> {
         assertTrue("AppendEntries should be sent with empty entries", ae.getEntries().isEmpty());
 
         //InstallSnapshotReply received
-        fts.markSendStatus(true);
+        fts.acknowledgeChunks(fts.getChunkIndex());
 
         leader.handleMessage(leaderActor, SendHeartBeat.INSTANCE);
 
@@ -979,9 +1114,8 @@ public class LeaderTest extends AbstractLeaderTest<Leader> {
                 actorContext.getConfigParams().getSnapshotChunkSize(), leader.logName());
         fts.setSnapshotBytes(ByteSource.wrap(bs.toByteArray()));
         leader.getFollower(FOLLOWER_ID).setLeaderInstallSnapshotState(fts);
-        while (!fts.isLastChunk(fts.getChunkIndex())) {
-            fts.getNextChunk();
-            fts.incrementChunkIndex();
+        while (fts.canSendNextChunk()) {
+            fts.acknowledgeChunks(fts.nextChunk().index());
         }
 
         //clears leaders log
@@ -1077,6 +1211,155 @@ public class LeaderTest extends AbstractLeaderTest<Leader> {
         assertNull(installSnapshot);
     }
 
+    @Test
+    public void testSendSnapshotChunksWithinWindow() {
+        logStart("testSendSnapshotChunksWithinWindow");
+
+        MockRaftActorContext actorContext = createActorContextWithFollower();
+
+        final int commitIndex = 3;
+        final int snapshotIndex = 2;
+        final int snapshotTerm = 1;
+        final int currentTerm = 2;
+
+        DefaultConfigParamsImpl configParams = new DefaultConfigParamsImpl() {
+            @Override
+            public int getSnapshotChunkSize() {
+                return 50;
+            }
+        };
+        configParams.setHeartBeatInterval(new FiniteDuration(9, TimeUnit.SECONDS));
+        configParams.setIsolatedLeaderCheckInterval(new FiniteDuration(10, TimeUnit.SECONDS));
+        configParams.setMaxInFlightSnapshotChunks(2);
+
+        actorContext.setConfigParams(configParams);
+        actorContext.setCommitIndex(commitIndex);
+
+        leader = new Leader(actorContext);
+        actorContext.setCurrentBehavior(leader);
+
+        leader.getFollower(FOLLOWER_ID).setMatchIndex(-1);
+        leader.getFollower(FOLLOWER_ID).setNextIndex(0);
+
+        // set the snapshot variables in replicatedlog
+        actorContext.getReplicatedLog().setSnapshotIndex(snapshotIndex);
+        actorContext.getReplicatedLog().setSnapshotTerm(snapshotTerm);
+        actorContext.getTermInformation().update(currentTerm, leaderActor.path().toString());
+
+        Map<String, String> leadersSnapshot = new HashMap<>();
+        leadersSnapshot.put("1", "A");
+        leadersSnapshot.put("2", "B");
+        leadersSnapshot.put("3", "C");
+
+        ByteString bs = toByteString(leadersSnapshot);
+        Snapshot snapshot = Snapshot.create(ByteState.of(bs.toByteArray()),
+                List.of(), commitIndex, snapshotTerm, commitIndex, snapshotTerm, -1, null, null);
+
+        leader.handleMessage(leaderActor, new SendInstallSnapshot(snapshot, ByteSource.wrap(bs.toByteArray())));
+
+        // The first two chunks are sent without waiting for a reply
+        List<InstallSnapshot> installSnapshots = MessageCollectorActor.expectMatching(followerActor,
+                InstallSnapshot.class, 2);
+        assertEquals(1, installSnapshots.get(0).getChunkIndex());
+        assertEquals(2, installSnapshots.get(1).getChunkIndex());
+        assertEquals(3, installSnapshots.get(1).getTotalChunks());
+
+        // Acknowledging the first chunk opens the window for the last one
+        followerActor.underlyingActor().clear();
+        leader.handleMessage(followerActor, new InstallSnapshotReply(currentTerm, FOLLOWER_ID, 1, true));
+
+        InstallSnapshot installSnapshot = MessageCollectorActor.expectFirstMatching(followerActor,
+                InstallSnapshot.class);
+        assertEquals(3, installSnapshot.getChunkIndex());
+
+        // A duplicate acknowledgement means the second chunk has been lost, it is resent once
+        followerActor.underlyingActor().clear();
+        leader.handleMessage(followerActor, new InstallSnapshotReply(currentTerm, FOLLOWER_ID, 1, true));
+
+        installSnapshot = MessageCollectorActor.expectFirstMatching(followerActor, InstallSnapshot.class);
+        assertEquals(2, installSnapshot.getChunkIndex());
+        assertEquals(installSnapshots.get(1).getLastChunkHashCode(), installSnapshot.getLastChunkHashCode());
+
+        followerActor.underlyingActor().clear();
+        leader.handleMessage(followerActor, new InstallSnapshotReply(currentTerm, FOLLOWER_ID, 1, true));
+        assertNull(MessageCollectorActor.getFirstMatching(followerActor, InstallSnapshot.class));
+
+        // The follower acknowledges all chunks at once
+        leader.handleMessage(followerActor, new InstallSnapshotReply(currentTerm, FOLLOWER_ID, 3, true));
+
+        FollowerLogInformation fli = leader.getFollower(FOLLOWER_ID);
+        assertNull(fli.getInstallSnapshotState());
+        assertEquals(commitIndex, fli.getMatchIndex());
+        assertEquals(commitIndex + 1, fli.getNextIndex());
+        assertNull(MessageCollectorActor.getFirstMatching(followerActor, InstallSnapshot.class));
+    }
+
+    @Test
+    public void testResumeInstallSnapshot() {
+        logStart("testResumeInstallSnapshot");
+
+        MockRaftActorContext actorContext = createActorContextWithFollower();
+
+        final int commitIndex = 3;
+        final int snapshotIndex = 2;
+        final int snapshotTerm = 1;
+        final int currentTerm = 2;
+
+        DefaultConfigParamsImpl configParams = new DefaultConfigParamsImpl() {
+            @Override
+            public int getSnapshotChunkSize() {
+                return 50;
+            }
+        };
+        configParams.setHeartBeatInterval(new FiniteDuration(9, TimeUnit.SECONDS));
+        configParams.setIsolatedLeaderCheckInterval(new FiniteDuration(10, TimeUnit.SECONDS));
+
+        actorContext.setConfigParams(configParams);
+        actorContext.setCommitIndex(commitIndex);
+
+        leader = new Leader(actorContext);
+        actorContext.setCurrentBehavior(leader);
+
+        leader.getFollower(FOLLOWER_ID).setMatchIndex(-1);
+        leader.getFollower(FOLLOWER_ID).setNextIndex(0);
+
+        // set the snapshot variables in replicatedlog
+        actorContext.getReplicatedLog().setSnapshotIndex(snapshotIndex);
+        actorContext.getReplicatedLog().setSnapshotTerm(snapshotTerm);
+        actorContext.getTermInformation().update(currentTerm, leaderActor.path().toString());
+
+        Map<String, String> leadersSnapshot = new HashMap<>();
+        leadersSnapshot.put("1", "A");
+        leadersSnapshot.put("2", "B");
+        leadersSnapshot.put("3", "C");
+
+        ByteString bs = toByteString(leadersSnapshot);
+        Snapshot snapshot = Snapshot.create(ByteState.of(bs.toByteArray()),
+                List.of(), commitIndex, snapshotTerm, commitIndex, snapshotTerm, -1, null, null);
+
+        leader.handleMessage(leaderActor, new SendInstallSnapshot(snapshot, ByteSource.wrap(bs.toByteArray())));
+
+        InstallSnapshot installSnapshot = MessageCollectorActor.expectFirstMatching(followerActor,
+                InstallSnapshot.class);
+        assertEquals(1, installSnapshot.getChunkIndex());
+        assertEquals(3, installSnapshot.getTotalChunks());
+
+        // The follower has retained the first two chunks from an earlier install
+        followerActor.underlyingActor().clear();
+        leader.handleMessage(followerActor, new InstallSnapshotReply(currentTerm, FOLLOWER_ID, 2, true));
+
+        installSnapshot = MessageCollectorActor.expectFirstMatching(followerActor, InstallSnapshot.class);
+        assertEquals(3, installSnapshot.getChunkIndex());
+        assertEquals(OptionalInt.of(Arrays.hashCode(Arrays.copyOfRange(bs.toByteArray(), 50, 100))),
+                installSnapshot.getLastChunkHashCode());
+
+        leader.handleMessage(followerActor, new InstallSnapshotReply(currentTerm, FOLLOWER_ID, 3, true));
+
+        FollowerLogInformation fli = leader.getFollower(FOLLOWER_ID);
+        assertNull(fli.getInstallSnapshotState());
+        assertEquals(commitIndex, fli.getMatchIndex());
+        assertEquals(commitIndex + 1, fli.getNextIndex());
+    }
 
     @Test
     public void testHandleInstallSnapshotReplyWithInvalidChunkIndex() {
@@ -1231,14 +1514,11 @@ public class LeaderTest extends AbstractLeaderTest<Leader> {
                 length = barray.length;
             }
 
-            byte[] chunk = fts.getNextChunk();
+            byte[] chunk = fts.nextChunk().data();
             assertEquals("bytestring size not matching for chunk:" + chunkIndex, length - i, chunk.length);
             assertEquals("chunkindex not matching", chunkIndex, fts.getChunkIndex());
 
-            fts.markSendStatus(true);
-            if (!fts.isLastChunk(chunkIndex)) {
-                fts.incrementChunkIndex();
-            }
+            assertTrue(fts.acknowledgeChunks(chunkIndex));
         }
 
         assertEquals("totalChunks not matching", chunkIndex, fts.getTotalChunks());
@@ -2099,6 +2379,60 @@ public class LeaderTest extends AbstractLeaderTest<Leader> {
         MessageCollectorActor.expectFirstMatching(leaderActor, ApplyState.class);
     }
 
+    @Test
+    public void testCommitIndexAdvancedToMajorityMatchIndex() {
+        logStart("testCommitIndexAdvancedToMajorityMatchIndex");
+
+        final String[] followerIds = { "follower-1", "follower-2", "follower-3", "follower-4" };
+        final Map<String, String> peerAddresses = new HashMap<>();
+        for (String followerId : followerIds) {
+            peerAddresses.put(followerId, actorFactory.createActor(MessageCollectorActor.props(),
+                actorFactory.generateActorId(followerId)).path().toString());
+        }
+
+        MockRaftActorContext leaderActorContext = createActorContext();
+        leaderActorContext.setPeerAddresses(peerAddresses);
+        ((DefaultConfigParamsImpl)leaderActorContext.getConfigParams()).setHeartBeatInterval(
+                new FiniteDuration(1000, TimeUnit.SECONDS));
+
+        // Entries 0-2 are from a previous term, 3-5 from the current term
+        leaderActorContext.setReplicatedLog(new MockRaftActorContext.MockReplicatedLogBuilder()
+            .createEntries(0, 3, 1).createEntries(3, 6, 2).build());
+        leaderActorContext.getTermInformation().update(2, "");
+        leaderActorContext.setCommitIndex(-1);
+        leaderActorContext.setLastApplied(-1);
+
+        leader = new Leader(leaderActorContext);
+        leaderActorContext.setCurrentBehavior(leader);
+
+        // A majority has index 2, which is from a previous term, hence it is not committed by counting replicas
+        leader.handleMessage(leaderActor, new AppendEntriesReply(followerIds[0], 2, true, 2, 1, (short)0));
+        leader.handleMessage(leaderActor, new AppendEntriesReply(followerIds[1], 2, true, 2, 1, (short)0));
+        assertEquals("Commit index", -1, leaderActorContext.getCommitIndex());
+
+        leader.handleMessage(leaderActor, new AppendEntriesReply(followerIds[2], 2, true, 5, 2, (short)0));
+        assertEquals("Commit index", -1, leaderActorContext.getCommitIndex());
+
+        // The leader, follower-3 and follower-4 have index 4, committing all entries up to it
+        leader.handleMessage(leaderActor, new AppendEntriesReply(followerIds[3], 2, true, 4, 2, (short)0));
+        assertEquals("Commit index", 4, leaderActorContext.getCommitIndex());
+
+        leader.handleMessage(leaderActor, new AppendEntriesReply(followerIds[0], 2, true, 5, 2, (short)0));
+        assertEquals("Commit index", 5, leaderActorContext.getCommitIndex());
+
+        // An entry replicated to a majority of followers is not committed until it has been persisted locally
+        final var pendingEntry = new SimpleReplicatedLogEntry(6, 2, new MockRaftActorContext.MockPayload("6"));
+        pendingEntry.setPersistencePending(true);
+        leaderActorContext.getReplicatedLog().append(pendingEntry);
+        leader.handleMessage(leaderActor, new AppendEntriesReply(followerIds[2], 2, true, 6, 2, (short)0));
+        leader.handleMessage(leaderActor, new AppendEntriesReply(followerIds[3], 2, true, 6, 2, (short)0));
+        assertEquals("Commit index", 5, leaderActorContext.getCommitIndex());
+
+        pendingEntry.setPersistencePending(false);
+        leader.handleMessage(leaderActor, CheckConsensusReached.INSTANCE);
+        assertEquals("Commit index", 6, leaderActorContext.getCommitIndex());
+    }
+
     @Test
     public void testTransferLeadershipWithFollowerInSync() {
         logStart("testTransferLeadershipWithFollowerInSync");
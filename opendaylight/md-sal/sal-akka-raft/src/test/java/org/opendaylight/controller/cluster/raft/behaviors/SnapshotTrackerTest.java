@@ -8,7 +8,10 @@
 package org.opendaylight.controller.cluster.raft.behaviors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
@@ -16,6 +19,8 @@ import static org.mockito.Mockito.verify;
 import akka.protobuf.ByteString;
 import com.google.common.io.ByteSource;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.OptionalInt;
@@ -27,7 +32,9 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.opendaylight.controller.cluster.io.FileBackedOutputStream;
 import org.opendaylight.controller.cluster.io.FileBackedOutputStreamFactory;
+import org.opendaylight.controller.cluster.raft.DefaultConfigParamsImpl;
 import org.opendaylight.controller.cluster.raft.RaftActorContext;
+import org.opendaylight.controller.cluster.raft.ReplicatedLog;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,6 +43,7 @@ public class SnapshotTrackerTest {
     private static final Logger LOG = LoggerFactory.getLogger(SnapshotTrackerTest.class);
 
     private final HashMap<String, String> data = new HashMap<>();
+    private final DefaultConfigParamsImpl configParams = new DefaultConfigParamsImpl();
 
     @Mock
     private RaftActorContext mockContext;
@@ -59,7 +67,9 @@ public class SnapshotTrackerTest {
         fbos = spy(new FileBackedOutputStream(100000000, "target"));
         FileBackedOutputStreamFactory mockFactory = mock(FileBackedOutputStreamFactory.class);
         doReturn(fbos).when(mockFactory).newInstance();
-        doReturn(mockFactory).when(mockContext).getFileBackedOutputStreamFactory();
+        // Not used by resumable installs
+        lenient().doReturn(mockFactory).when(mockContext).getFileBackedOutputStreamFactory();
+        doReturn(configParams).when(mockContext).getConfigParams();
     }
 
     @Test
@@ -100,6 +110,112 @@ public class SnapshotTrackerTest {
         }
     }
 
+    @Test
+    public void testOutOfSequenceChunkWithinWindow() throws IOException {
+        configParams.setMaxInFlightSnapshotChunks(2);
+
+        try (SnapshotTracker tracker = new SnapshotTracker(LOG, 3, "leader", mockContext)) {
+            assertFalse(tracker.addChunk(1, chunk1,
+                OptionalInt.of(LeaderInstallSnapshotState.INITIAL_LAST_CHUNK_HASH_CODE)));
+            assertFalse(tracker.addChunk(3, chunk3, OptionalInt.of(Arrays.hashCode(chunk2))));
+            assertEquals(1, tracker.getLastChunkIndex());
+
+            // Duplicate chunks are ignored
+            assertFalse(tracker.addChunk(1, chunk1,
+                OptionalInt.of(LeaderInstallSnapshotState.INITIAL_LAST_CHUNK_HASH_CODE)));
+            assertEquals(1, tracker.getLastChunkIndex());
+
+            assertTrue(tracker.addChunk(2, chunk2, OptionalInt.of(Arrays.hashCode(chunk1))));
+            assertEquals(3, tracker.getLastChunkIndex());
+
+            ByteSource snapshotBytes = tracker.getSnapshotBytes();
+            assertEquals("Deserialized", data, SerializationUtils.deserialize(snapshotBytes.read()));
+        }
+    }
+
+    @Test
+    public void testOutOfSequenceChunkBeyondWindow() throws IOException {
+        configParams.setMaxInFlightSnapshotChunks(1);
+
+        try (SnapshotTracker tracker = new SnapshotTracker(LOG, 3, "leader", mockContext)) {
+            tracker.addChunk(1, chunk1, OptionalInt.of(LeaderInstallSnapshotState.INITIAL_LAST_CHUNK_HASH_CODE));
+
+            // A leader with a larger window may send chunks beyond ours, they are ignored rather than failing
+            assertFalse(tracker.addChunk(3, chunk3, OptionalInt.of(Arrays.hashCode(chunk2))));
+            assertEquals(1, tracker.getLastChunkIndex());
+
+            assertFalse(tracker.addChunk(2, chunk2, OptionalInt.of(Arrays.hashCode(chunk1))));
+            assertEquals(2, tracker.getLastChunkIndex());
+            assertTrue(tracker.addChunk(3, chunk3, OptionalInt.of(Arrays.hashCode(chunk2))));
+
+            ByteSource snapshotBytes = tracker.getSnapshotBytes();
+            assertEquals("Deserialized", data, SerializationUtils.deserialize(snapshotBytes.read()));
+        }
+    }
+
+    @Test
+    public void testResumeFromChunkFile() throws IOException {
+        configParams.setResumableSnapshotInstall(true);
+        configParams.setTempFileDirectory("target");
+        doReturn("tracker-test").when(mockContext).getId();
+        final var chunkFile = Path.of("target", "tracker-test.snapshot-install");
+        Files.deleteIfExists(chunkFile);
+
+        try (SnapshotTracker tracker = new SnapshotTracker(LOG, "leader", 10, 2, 3, mockContext)) {
+            tracker.addChunk(1, chunk1, OptionalInt.of(LeaderInstallSnapshotState.INITIAL_LAST_CHUNK_HASH_CODE));
+            tracker.addChunk(2, chunk2, OptionalInt.of(Arrays.hashCode(chunk1)));
+        }
+        assertTrue(Files.exists(chunkFile));
+
+        // A different snapshot starts over
+        try (SnapshotTracker tracker = new SnapshotTracker(LOG, "leader", 11, 2, 3, mockContext)) {
+            assertEquals(0, tracker.getLastChunkIndex());
+            tracker.addChunk(1, chunk1, OptionalInt.of(LeaderInstallSnapshotState.INITIAL_LAST_CHUNK_HASH_CODE));
+        }
+
+        try (SnapshotTracker tracker = new SnapshotTracker(LOG, "leader", 11, 2, 3, mockContext)) {
+            assertEquals(1, tracker.getLastChunkIndex());
+            tracker.addChunk(2, chunk2, OptionalInt.of(Arrays.hashCode(chunk1)));
+            assertTrue(tracker.addChunk(3, chunk3, OptionalInt.of(Arrays.hashCode(chunk2))));
+
+            ByteSource snapshotBytes = tracker.getSnapshotBytes();
+            assertEquals("Deserialized", data, SerializationUtils.deserialize(snapshotBytes.read()));
+            tracker.discard();
+        }
+        assertFalse(Files.exists(chunkFile));
+    }
+
+    @Test
+    public void testDeleteStaleChunkFile() throws IOException {
+        configParams.setResumableSnapshotInstall(true);
+        configParams.setTempFileDirectory("target");
+        doReturn("stale-test").when(mockContext).getId();
+        final var chunkFile = Path.of("target", "stale-test.snapshot-install");
+        Files.deleteIfExists(chunkFile);
+
+        try (SnapshotTracker tracker = new SnapshotTracker(LOG, "leader", 10, 2, 3, mockContext)) {
+            tracker.addChunk(1, chunk1, OptionalInt.of(LeaderInstallSnapshotState.INITIAL_LAST_CHUNK_HASH_CODE));
+        }
+
+        // The install can still be resumed
+        doReturn(mock(ReplicatedLog.class)).when(mockContext).getReplicatedLog();
+        doReturn(9L).when(mockContext).getLastApplied();
+        SnapshotTracker.deleteStaleChunkFile(mockContext, LOG);
+        assertTrue(Files.exists(chunkFile));
+
+        // The snapshot has been superseded
+        doReturn(10L).when(mockContext).getLastApplied();
+        SnapshotTracker.deleteStaleChunkFile(mockContext, LOG);
+        assertFalse(Files.exists(chunkFile));
+
+        // Becoming leader deletes any retained chunks
+        try (SnapshotTracker tracker = new SnapshotTracker(LOG, "leader", 10, 2, 3, mockContext)) {
+            tracker.addChunk(1, chunk1, OptionalInt.of(LeaderInstallSnapshotState.INITIAL_LAST_CHUNK_HASH_CODE));
+        }
+        SnapshotTracker.deleteChunkFile(mockContext, LOG);
+        assertFalse(Files.exists(chunkFile));
+    }
+
     @Test(expected = SnapshotTracker.InvalidChunkException.class)
     public void testInvalidLastChunkHashCode() throws IOException {
         try (SnapshotTracker tracker = new SnapshotTracker(LOG, 2, "leader", mockContext)) {
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.raft.persisted;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+
+import akka.actor.ExtendedActorSystem;
+import akka.testkit.javadsl.TestKit;
+import java.io.NotSerializableException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.controller.cluster.raft.MockRaftActorContext;
+
+/**
+ * Unit tests for CompactReplicatedLogEntrySerializer.
+ */
+public class CompactReplicatedLogEntrySerializerTest {
+    private ExtendedActorSystem system;
+    private CompactReplicatedLogEntrySerializer serializer;
+
+    @Before
+    public void before() {
+        system = (ExtendedActorSystem) ExtendedActorSystem.create("test");
+        serializer = new CompactReplicatedLogEntrySerializer(system);
+    }
+
+    @After
+    public void after() {
+        TestKit.shutdownActorSystem(system);
+    }
+
+    @Test
+    public void testToAndFromBinary() throws NotSerializableException {
+        final SimpleReplicatedLogEntry expected = new SimpleReplicatedLogEntry(0, 1,
+            new MockRaftActorContext.MockPayload("A"));
+
+        final byte[] bytes = serializer.toBinary(expected);
+        assertNotEquals("Java serialization stream", (byte) 0xAC, bytes[0]);
+
+        final SimpleReplicatedLogEntry actual = (SimpleReplicatedLogEntry) serializer.fromBinary(bytes,
+            SimpleReplicatedLogEntry.class);
+        assertEquals("getTerm", expected.getTerm(), actual.getTerm());
+        assertEquals("getIndex", expected.getIndex(), actual.getIndex());
+        assertEquals("getData", expected.getData(), actual.getData());
+    }
+
+    @Test
+    public void testUnknownFormat() {
+        final byte[] bytes = serializer.toBinary(new SimpleReplicatedLogEntry(0, 1,
+            new MockRaftActorContext.MockPayload("A")));
+        bytes[0] = 2;
+
+        final IllegalStateException ex = assertThrows(IllegalStateException.class,
+            () -> serializer.fromBinary(bytes, SimpleReplicatedLogEntry.class));
+        assertEquals("Unhandled format 2", ex.getCause().getMessage());
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.raft.persisted;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+import java.io.NotSerializableException;
+import org.junit.Test;
+
+/**
+ * Unit tests for RaftJournalSerializer.
+ */
+public class RaftJournalSerializerTest {
+    private final RaftJournalSerializer serializer = new RaftJournalSerializer();
+
+    @Test
+    public void testApplyJournalEntries() throws NotSerializableException {
+        final var bytes = serializer.toBinary(new ApplyJournalEntries(1));
+        assertEquals(2, bytes.length);
+        final var cloned = (ApplyJournalEntries) serializer.fromBinary(bytes, "AJE");
+        assertEquals(1, cloned.getToIndex());
+    }
+
+    @Test
+    public void testDeleteEntries() throws NotSerializableException {
+        final var bytes = serializer.toBinary(new DeleteEntries(-1));
+        assertEquals("DE", serializer.manifest(new DeleteEntries(-1)));
+        final var cloned = (DeleteEntries) serializer.fromBinary(bytes, "DE");
+        assertEquals(-1, cloned.getFromIndex());
+    }
+
+    @Test
+    public void testUpdateElectionTerm() throws NotSerializableException {
+        final var expected = new UpdateElectionTerm(5, "leader");
+        final var bytes = serializer.toBinary(expected);
+        assertEquals(11, bytes.length);
+        final var cloned = (UpdateElectionTerm) serializer.fromBinary(bytes, serializer.manifest(expected));
+        assertEquals(5, cloned.getCurrentTerm());
+        assertEquals("leader", cloned.getVotedFor());
+
+        final var noVote = (UpdateElectionTerm) serializer.fromBinary(
+            serializer.toBinary(new UpdateElectionTerm(5, null)), "UT");
+        assertNull(noVote.getVotedFor());
+    }
+
+    @Test
+    public void testUnknownManifest() {
+        assertThrows(NotSerializableException.class, () -> serializer.fromBinary(new byte[0], "XX"));
+        assertThrows(IllegalArgumentException.class, () -> serializer.toBinary("foo"));
+    }
+}
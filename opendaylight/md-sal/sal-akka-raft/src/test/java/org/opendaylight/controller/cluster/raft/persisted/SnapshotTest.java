@@ -7,8 +7,14 @@
  */
 package org.opendaylight.controller.cluster.raft.persisted;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
 import java.util.List;
 import org.apache.commons.lang3.SerializationUtils;
 import org.junit.Test;
@@ -28,6 +34,50 @@ public class SnapshotTest {
         testSerialization(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9}, List.of(), 345);
     }
 
+    @Test
+    public void testMergeWith() throws IOException {
+        final var unapplied = List.<ReplicatedLogEntry>of(new SimpleReplicatedLogEntry(6, 2, new MockPayload("p")));
+        final var base = Snapshot.create(ByteState.of(new byte[] { 1, 2 }), List.of(), 3, 1, 3, 1, 1, "member-1",
+            null);
+        final var delta = Snapshot.create(new AppendState(new byte[] { 3 }), unapplied, 6, 2, 5, 2, 2, "member-2",
+            null);
+        assertFalse(base.isDelta());
+        assertTrue(delta.isDelta());
+        assertThrows(IllegalStateException.class, () -> base.mergeWith(base));
+        assertThrows(IOException.class, () -> delta.mergeWith("foo"));
+
+        final var merged = delta.mergeWith(base);
+        assertFalse(merged.isDelta());
+        assertArrayEquals(new byte[] { 1, 2, 3 }, ((ByteState) merged.getState()).getBytes());
+        assertSame(unapplied, merged.getUnAppliedEntries());
+        assertEquals(6, merged.getLastIndex());
+        assertEquals(2, merged.getLastTerm());
+        assertEquals(5, merged.getLastAppliedIndex());
+        assertEquals(2, merged.getLastAppliedTerm());
+        assertEquals(2, merged.getElectionTerm());
+        assertEquals("member-2", merged.getElectionVotedFor());
+    }
+
+    private static final class AppendState implements Snapshot.DeltaState {
+        @java.io.Serial
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] bytes;
+
+        AppendState(final byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public Snapshot.State mergeWith(final Snapshot.State base) {
+            final byte[] baseBytes = ((ByteState) base).getBytes();
+            final byte[] merged = new byte[baseBytes.length + bytes.length];
+            System.arraycopy(baseBytes, 0, merged, 0, baseBytes.length);
+            System.arraycopy(bytes, 0, merged, baseBytes.length, bytes.length);
+            return ByteState.of(merged);
+        }
+    }
+
     private static void testSerialization(final byte[] state, final List<ReplicatedLogEntry> unapplied,
             final int expectedSize) {
         long lastIndex = 6;
@@ -10,6 +10,7 @@ package org.opendaylight.controller.akka.segjournal;
 import static java.util.Objects.requireNonNull;
 
 import com.codahale.metrics.Histogram;
+import java.util.concurrent.CompletionStage;
 import org.eclipse.jdt.annotation.NonNull;
 import org.opendaylight.controller.akka.segjournal.SegmentedJournalActor.ReplayMessages;
 import org.opendaylight.controller.akka.segjournal.SegmentedJournalActor.WriteMessages;
@@ -57,11 +58,13 @@ abstract class DataJournal {
     abstract void deleteTo(long sequenceNr);
 
     /**
-     * Delete all messages up to specified sequence number.
+     * Delete all messages up to specified sequence number. Storage backing the messages may be reclaimed
+     * asynchronously.
      *
      * @param sequenceNr Sequence number to compact to.
+     * @return A future completing with the number of bytes reclaimed
      */
-    abstract void compactTo(long sequenceNr);
+    abstract CompletionStage<Long> compactTo(long sequenceNr);
 
     /**
      * Close this journal, freeing up resources associated with it.
@@ -77,10 +80,23 @@ abstract class DataJournal {
     abstract void handleReplayMessages(@NonNull ReplayMessages message, long fromSequenceNr);
 
     /**
-     * Handle a request to store some messages.
+     * Handle a request to store some messages. Requests which fail are completed immediately, successful requests are
+     * left pending until a subsequent {@link #flush()} makes them durable.
      *
      * @param message Request message
      * @return number of bytes written
      */
     abstract long handleWriteMessages(@NonNull WriteMessages message);
+
+    /**
+     * Flush all messages written so far to persistent storage.
+     */
+    abstract void flush();
+
+    /**
+     * Discard all messages written after specified sequence number.
+     *
+     * @param sequenceNr Sequence number of the last message to retain
+     */
+    abstract void truncateTo(long sequenceNr);
 }
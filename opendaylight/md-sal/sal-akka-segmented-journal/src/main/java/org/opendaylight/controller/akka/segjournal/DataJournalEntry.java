@@ -7,10 +7,23 @@
  */
 package org.opendaylight.controller.akka.segjournal;
 
+import static com.google.common.base.Verify.verify;
 import static java.util.Objects.requireNonNull;
 
+import akka.actor.ExtendedActorSystem;
 import akka.persistence.PersistentRepr;
+import akka.serialization.JavaSerializer;
+import akka.serialization.Serialization;
+import akka.util.ClassLoaderObjectInputStream;
 import io.atomix.storage.journal.JournalSegment;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.concurrent.Callable;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import scala.util.Try;
 
 /**
  * A single entry in the data journal. We do not store {@code persistenceId} for each entry, as that is a
@@ -25,32 +38,188 @@ abstract class DataJournalEntry {
      */
     static final class ToPersistence extends DataJournalEntry {
         private final PersistentRepr repr;
+        private final long index;
 
-        ToPersistence(final PersistentRepr repr) {
+        ToPersistence(final PersistentRepr repr, final long index) {
             this.repr = requireNonNull(repr);
+            this.index = index;
         }
 
         PersistentRepr repr() {
             return repr;
         }
+
+        /**
+         * Return the journal index this entry is expected to be stored at.
+         *
+         * @return journal index
+         */
+        long index() {
+            return index;
+        }
     }
 
     /**
-     * A single data journal entry on its way from the backing file.
+     * A single data journal entry on its way from the backing file. The payload is kept in its serialized form until
+     * {@link #toRepr(String, long)} is invoked, so that it can be decoded outside of the journal actor.
      */
-    static final class FromPersistence extends DataJournalEntry {
+    abstract static class FromPersistence extends DataJournalEntry {
         private final String manifest;
         private final String writerUuid;
-        private final Object payload;
 
-        FromPersistence(final String manifest, final String writerUuid, final Object payload) {
+        FromPersistence(final String manifest, final String writerUuid) {
             this.manifest = manifest;
             this.writerUuid = requireNonNull(writerUuid);
+        }
+
+        final PersistentRepr toRepr(final String persistenceId, final long sequenceNr) throws IOException {
+            return PersistentRepr.apply(readPayload(), sequenceNr, persistenceId, manifest, false, null, writerUuid);
+        }
+
+        final String manifest() {
+            return manifest;
+        }
+
+        final String writerUuid() {
+            return writerUuid;
+        }
+
+        abstract Object readPayload() throws IOException;
+    }
+
+    /**
+     * A {@link FromPersistence} with a payload in Java serialization format, as stored by {@link DataJournalV0}.
+     */
+    static final class JavaFromPersistence extends FromPersistence {
+        private final ExtendedActorSystem actorSystem;
+        private final byte[] payload;
+
+        JavaFromPersistence(final ExtendedActorSystem actorSystem, final String manifest, final String writerUuid,
+                final byte[] payload) {
+            super(manifest, writerUuid);
+            this.actorSystem = requireNonNull(actorSystem);
             this.payload = requireNonNull(payload);
         }
 
-        PersistentRepr toRepr(final String persistenceId, final long sequenceNr) {
-            return PersistentRepr.apply(payload, sequenceNr, persistenceId, manifest, false, null, writerUuid);
+        @Override
+        Object readPayload() throws IOException {
+            try (ObjectInputStream ois = new ClassLoaderObjectInputStream(actorSystem.dynamicAccess().classLoader(),
+                    new ByteArrayInputStream(payload))) {
+                return JavaSerializer.currentSystem().withValue(actorSystem, (Callable<Object>) ois::readObject);
+            }
+        }
+    }
+
+    /**
+     * A {@link FromPersistence} with a payload serialized by an Akka serializer, as stored by {@link DataJournalV1}.
+     * The payload may additionally be compressed with LZ4, in which case it is decompressed along with being decoded.
+     *
+     * <p>
+     * The entry may also take its writer UUID and/or manifest from a dictionary entry, which is an earlier entry in
+     * the same segment, identified by its distance from this entry. Such an entry needs to be resolved via
+     * {@link #resolve(FromPersistence)} before it can be turned into a {@link PersistentRepr}.
+     */
+    static final class SerializedFromPersistence extends FromPersistence {
+        /**
+         * Value of {@code uncompressedSize} indicating the payload is not compressed.
+         */
+        static final int NOT_COMPRESSED = -1;
+
+        private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
+        private final Serialization serialization;
+        private final int serializerId;
+        private final String serializerManifest;
+        private final byte[] payload;
+        private final int uncompressedSize;
+        private final long dictionaryDistance;
+        private final boolean dictionaryManifest;
+        private final boolean dictionaryWriterUuid;
+
+        SerializedFromPersistence(final Serialization serialization, final String manifest, final String writerUuid,
+                final int serializerId, final String serializerManifest, final byte[] payload,
+                final int uncompressedSize) {
+            this(serialization, 0, manifest, false, writerUuid, false, serializerId, serializerManifest, payload,
+                uncompressedSize);
+        }
+
+        /**
+         * Construct an entry, which may take its manifest and/or writer UUID from a dictionary entry. Values taken
+         * from the dictionary entry are passed as empty strings.
+         *
+         * @param dictionaryDistance distance of the dictionary entry from this entry, {@code 0} if there is none
+         */
+        SerializedFromPersistence(final Serialization serialization, final long dictionaryDistance,
+                final String manifest, final boolean dictionaryManifest, final String writerUuid,
+                final boolean dictionaryWriterUuid, final int serializerId, final String serializerManifest,
+                final byte[] payload, final int uncompressedSize) {
+            super(manifest, writerUuid);
+            this.serialization = requireNonNull(serialization);
+            this.dictionaryDistance = dictionaryDistance;
+            this.dictionaryManifest = dictionaryManifest;
+            this.dictionaryWriterUuid = dictionaryWriterUuid;
+            this.serializerId = serializerId;
+            this.serializerManifest = requireNonNull(serializerManifest);
+            this.payload = requireNonNull(payload);
+            this.uncompressedSize = uncompressedSize;
+        }
+
+        /**
+         * Return the distance of the dictionary entry from this entry.
+         *
+         * @return distance of the dictionary entry, {@code 0} if {@link #resolve(FromPersistence)} does not need to be
+         *         invoked
+         */
+        long dictionaryDistance() {
+            return dictionaryDistance;
+        }
+
+        /**
+         * Resolve values taken from the dictionary entry.
+         *
+         * @param dictionary the dictionary entry, which must not refer to a dictionary entry itself
+         * @return an entry which does not refer to a dictionary entry
+         */
+        SerializedFromPersistence resolve(final FromPersistence dictionary) {
+            verify(!(dictionary instanceof SerializedFromPersistence serialized
+                && serialized.dictionaryDistance() != 0), "Dictionary entry %s refers to a dictionary", dictionary);
+            return new SerializedFromPersistence(serialization, dictionaryManifest ? dictionary.manifest() : manifest(),
+                dictionaryWriterUuid ? dictionary.writerUuid() : writerUuid(), serializerId, serializerManifest,
+                payload, uncompressedSize);
+        }
+
+        @Override
+        Object readPayload() throws IOException {
+            if (dictionaryDistance != 0) {
+                throw new IOException("Entry values taken from its dictionary entry have not been resolved");
+            }
+            final Try<Object> result = serialization.deserialize(payloadBytes(), serializerId, serializerManifest);
+            if (result.isFailure()) {
+                throw new IOException("Failed to deserialize payload with serializer " + serializerId,
+                    result.failed().get());
+            }
+            return result.get();
+        }
+
+        private byte[] payloadBytes() throws IOException {
+            if (uncompressedSize == NOT_COMPRESSED) {
+                return payload;
+            }
+            if (uncompressedSize < 0) {
+                throw new IOException("Invalid uncompressed payload size " + uncompressedSize);
+            }
+
+            final byte[] bytes = new byte[uncompressedSize];
+            final int size;
+            try {
+                size = DECOMPRESSOR.decompress(payload, 0, payload.length, bytes, 0);
+            } catch (LZ4Exception e) {
+                throw new IOException("Failed to decompress payload", e);
+            }
+            if (size != uncompressedSize) {
+                throw new IOException("Payload decompressed to " + size + " bytes, expected " + uncompressedSize);
+            }
+            return bytes;
         }
     }
 }
@@ -17,8 +17,8 @@ import io.atomix.storage.journal.JournalSerdes.EntryInput;
 import io.atomix.storage.journal.JournalSerdes.EntryOutput;
 import io.atomix.storage.journal.JournalSerdes.EntrySerdes;
 import java.io.IOException;
-import java.util.concurrent.Callable;
 import org.opendaylight.controller.akka.segjournal.DataJournalEntry.FromPersistence;
+import org.opendaylight.controller.akka.segjournal.DataJournalEntry.JavaFromPersistence;
 import org.opendaylight.controller.akka.segjournal.DataJournalEntry.ToPersistence;
 
 /**
@@ -53,8 +53,7 @@ final class DataJournalEntrySerializer implements EntrySerdes<DataJournalEntry>
     public DataJournalEntry read(final EntryInput input) throws IOException {
         final String manifest = input.readString();
         final String uuid = input.readString();
-        final Object payload = akka.serialization.JavaSerializer.currentSystem().withValue(actorSystem,
-            (Callable<Object>) input::readObject);
-        return new FromPersistence(manifest, uuid, payload);
+        // The payload is the last item in the entry, decoding it is deferred to FromPersistence.toRepr()
+        return new JavaFromPersistence(actorSystem, manifest, uuid, input.readRemainingBytes());
     }
 }
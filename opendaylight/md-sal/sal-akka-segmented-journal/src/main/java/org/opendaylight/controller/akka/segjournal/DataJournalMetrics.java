@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.akka.segjournal;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import io.atomix.storage.journal.JournalMetrics;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JournalMetrics} of a single data journal, reported through Dropwizard {@link Timer}s registered alongside the
+ * other metrics of a {@link SegmentedJournalActor}.
+ */
+final class DataJournalMetrics implements JournalMetrics {
+    private final Timer serializeTime;
+    private final Timer checksumTime;
+    private final Timer channelWriteTime;
+    private final Timer flushTime;
+    private final Timer segmentRolloverTime;
+    private final Timer compactionTime;
+
+    DataJournalMetrics(final MetricRegistry registry, final String actorName) {
+        serializeTime = registry.timer(MetricRegistry.name(actorName, "serializeTime"));
+        checksumTime = registry.timer(MetricRegistry.name(actorName, "checksumTime"));
+        channelWriteTime = registry.timer(MetricRegistry.name(actorName, "channelWriteTime"));
+        flushTime = registry.timer(MetricRegistry.name(actorName, "flushTime"));
+        segmentRolloverTime = registry.timer(MetricRegistry.name(actorName, "segmentRolloverTime"));
+        compactionTime = registry.timer(MetricRegistry.name(actorName, "compactionTime"));
+    }
+
+    @Override
+    public void serializeTime(final long nanos) {
+        serializeTime.update(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void checksumTime(final long nanos) {
+        checksumTime.update(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void writeTime(final long nanos) {
+        channelWriteTime.update(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void flushTime(final long nanos) {
+        flushTime.update(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void rolloverTime(final long nanos) {
+        segmentRolloverTime.update(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void compactionTime(final long nanos) {
+        compactionTime.update(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -7,145 +7,69 @@
  */
 package org.opendaylight.controller.akka.segjournal;
 
-import static com.google.common.base.Verify.verify;
-
 import akka.actor.ActorSystem;
-import akka.persistence.AtomicWrite;
-import akka.persistence.PersistentRepr;
 import com.codahale.metrics.Histogram;
-import io.atomix.storage.journal.Indexed;
-import io.atomix.storage.journal.JournalSerdes;
-import io.atomix.storage.journal.SegmentedJournal;
-import io.atomix.storage.journal.SegmentedJournalReader;
-import io.atomix.storage.journal.SegmentedJournalWriter;
+import io.atomix.storage.journal.JournalMetrics;
+import io.atomix.storage.journal.JournalSegmentFile;
+import io.atomix.storage.journal.MappedBytesBudget;
 import io.atomix.storage.journal.StorageLevel;
 import java.io.File;
-import java.io.Serializable;
-import java.util.List;
-import org.opendaylight.controller.akka.segjournal.DataJournalEntry.FromPersistence;
-import org.opendaylight.controller.akka.segjournal.DataJournalEntry.ToPersistence;
-import org.opendaylight.controller.akka.segjournal.SegmentedJournalActor.ReplayMessages;
-import org.opendaylight.controller.akka.segjournal.SegmentedJournalActor.WriteMessages;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import scala.jdk.javaapi.CollectionConverters;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.concurrent.Executor;
 
 /**
- * Version 0 data journal, where every journal entry maps to exactly one segmented file entry.
+ * Version 0 data journal, where every journal entry maps to exactly one segmented file entry. Each entry carries its
+ * manifest and writer UUID as strings, followed by the Java-serialized payload. New entries are always written to
+ * a {@link DataJournalV1}, this format is retained to read journals created by previous versions, see
+ * {@link UpgradingDataJournal}.
  *
  * @author Robert Varga
  */
-final class DataJournalV0 extends DataJournal {
-    private static final Logger LOG = LoggerFactory.getLogger(DataJournalV0.class);
-
-    private final SegmentedJournal<DataJournalEntry> entries;
+final class DataJournalV0 extends SegmentedDataJournal {
+    static final String NAME = "data";
 
     DataJournalV0(final String persistenceId, final Histogram messageSize, final ActorSystem system,
-            final StorageLevel storage, final File directory, final int maxEntrySize, final int maxSegmentSize) {
-        super(persistenceId, messageSize);
-        entries = SegmentedJournal.<DataJournalEntry>builder()
-                .withStorageLevel(storage).withDirectory(directory).withName("data")
-                .withNamespace(JournalSerdes.builder()
-                    .register(new DataJournalEntrySerializer(system), FromPersistence.class, ToPersistence.class)
-                    .build())
-                .withMaxEntrySize(maxEntrySize).withMaxSegmentSize(maxSegmentSize)
-                .build();
-    }
-
-    @Override
-    long lastWrittenSequenceNr() {
-        return entries.writer().getLastIndex();
-    }
-
-    @Override
-    void deleteTo(final long sequenceNr) {
-        entries.writer().commit(sequenceNr);
+            final StorageLevel storage, final File directory, final int maxEntrySize, final int maxSegmentSize,
+            final MappedBytesBudget mappedBytesBudget, final JournalMetrics metrics,
+            final Executor compactionExecutor, final Executor replayExecutor) {
+        super(persistenceId, messageSize, storage, directory, NAME, new DataJournalEntrySerializer(system),
+            maxEntrySize, maxSegmentSize, mappedBytesBudget, metrics, compactionExecutor, replayExecutor);
     }
 
-    @Override
-    void compactTo(final long sequenceNr) {
-        entries.compact(sequenceNr + 1);
+    /**
+     * Check whether a directory contains a version 0 data journal.
+     *
+     * @param directory Journal directory
+     * @return {@code true} if the directory contains segments of a version 0 data journal
+     */
+    static boolean exists(final File directory) {
+        final File[] files = directory.listFiles(file -> file.isFile() && JournalSegmentFile.isSegmentFile(NAME, file));
+        return files != null && files.length != 0;
     }
 
-    @Override
-    void close() {
-        entries.close();
-    }
-
-    @Override
-    @SuppressWarnings("checkstyle:illegalCatch")
-    void handleReplayMessages(final ReplayMessages message, final long fromSequenceNr) {
-        try (SegmentedJournalReader<DataJournalEntry> reader = entries.openReader(fromSequenceNr)) {
-            int count = 0;
-            while (reader.hasNext() && count < message.max) {
-                final Indexed<DataJournalEntry> next = reader.next();
-                if (next.index() > message.toSequenceNr) {
-                    break;
+    /**
+     * Delete all files of a version 0 data journal. The journal must not be open.
+     *
+     * @param directory Journal directory
+     * @return Number of bytes reclaimed
+     * @throws UncheckedIOException if a file cannot be deleted
+     */
+    static long delete(final File directory) {
+        final File[] files = directory.listFiles(file -> file.isFile() && file.getName().startsWith(NAME + "-"));
+        long reclaimed = 0;
+        if (files != null) {
+            for (File file : files) {
+                final long size = file.length();
+                try {
+                    Files.delete(file.toPath());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to delete " + file, e);
                 }
-
-                LOG.trace("{}: replay {}", persistenceId, next);
-                updateLargestSize(next.size());
-                final DataJournalEntry entry = next.entry();
-                verify(entry instanceof FromPersistence, "Unexpected entry %s", entry);
-
-                final PersistentRepr repr = ((FromPersistence) entry).toRepr(persistenceId, next.index());
-                LOG.debug("{}: replaying {}", persistenceId, repr);
-                message.replayCallback.accept(repr);
-                count++;
-            }
-            LOG.debug("{}: successfully replayed {} entries", persistenceId, count);
-        } catch (Exception e) {
-            LOG.warn("{}: failed to replay messages for {}", persistenceId, message, e);
-            message.promise.failure(e);
-        } finally {
-            message.promise.success(null);
-        }
-    }
-
-    @Override
-    @SuppressWarnings("checkstyle:illegalCatch")
-    long handleWriteMessages(final WriteMessages message) {
-        final int count = message.size();
-        final SegmentedJournalWriter<DataJournalEntry> writer = entries.writer();
-        long bytes = 0;
-
-        for (int i = 0; i < count; ++i) {
-            final long mark = writer.getLastIndex();
-            final AtomicWrite request = message.getRequest(i);
-
-            final List<PersistentRepr> reprs = CollectionConverters.asJava(request.payload());
-            LOG.trace("{}: append {}/{}: {} items at mark {}", persistenceId, i, count, reprs.size(), mark);
-            try {
-                bytes += writePayload(writer, reprs);
-            } catch (Exception e) {
-                LOG.warn("{}: failed to write out request {}/{} reverting to {}", persistenceId, i, count, mark, e);
-                message.setFailure(i, e);
-                writer.truncate(mark);
-                continue;
+                reclaimed += size;
             }
-
-            message.setSuccess(i);
-        }
-        writer.flush();
-        return bytes;
-    }
-
-    private long writePayload(final SegmentedJournalWriter<DataJournalEntry> writer, final List<PersistentRepr> reprs) {
-        long bytes = 0;
-        for (PersistentRepr repr : reprs) {
-            final Object payload = repr.payload();
-            if (!(payload instanceof Serializable)) {
-                throw new UnsupportedOperationException("Non-serializable payload encountered "
-                        + payload.getClass());
-            }
-
-            LOG.trace("{}: starting append of {}", persistenceId, payload);
-            final var entry = writer.append(new ToPersistence(repr));
-            final int size = entry.size();
-            LOG.trace("{}: finished append of {} with {} bytes at {}", persistenceId, payload, size, entry.index());
-            recordMessageSize(size);
-            bytes += size;
         }
-        return bytes;
+        return reclaimed;
     }
 }
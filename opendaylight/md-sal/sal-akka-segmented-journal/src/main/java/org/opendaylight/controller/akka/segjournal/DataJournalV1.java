@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.akka.segjournal;
+
+import akka.actor.ActorSystem;
+import com.codahale.metrics.Histogram;
+import io.atomix.storage.journal.JournalMetrics;
+import io.atomix.storage.journal.MappedBytesBudget;
+import io.atomix.storage.journal.StorageLevel;
+import java.io.File;
+import java.util.concurrent.Executor;
+
+/**
+ * Version 1 data journal, where every journal entry maps to exactly one segmented file entry. Entries use a compact
+ * binary header and payloads are serialized through Akka serialization, hence types with a dedicated serializer bound
+ * in {@code akka.actor.serialization-bindings} are not subject to Java serialization. See
+ * {@link DataJournalV1EntrySerializer} for details, including how writer UUIDs and manifests are stored in
+ * dictionary entries.
+ */
+final class DataJournalV1 extends SegmentedDataJournal {
+    // Must not start with DataJournalV0.NAME, so the two journals never mistake each other's segments for their own
+    static final String NAME = "entries";
+
+    DataJournalV1(final String persistenceId, final Histogram messageSize, final ActorSystem system,
+            final StorageLevel storage, final File directory, final int maxEntrySize, final int maxSegmentSize,
+            final int compressionThreshold, final MappedBytesBudget mappedBytesBudget,
+            final JournalMetrics metrics, final Executor compactionExecutor, final Executor replayExecutor) {
+        super(persistenceId, messageSize, storage, directory, NAME, new DataJournalV1EntrySerializer(system,
+            compressionThreshold, maxEntrySize), maxEntrySize, maxSegmentSize, mappedBytesBudget, metrics,
+            compactionExecutor, replayExecutor);
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.akka.segjournal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Verify.verify;
+import static org.opendaylight.controller.akka.segjournal.DataJournalEntry.SerializedFromPersistence.NOT_COMPRESSED;
+
+import akka.actor.ActorSystem;
+import akka.persistence.PersistentRepr;
+import akka.serialization.Serialization;
+import akka.serialization.SerializationExtension;
+import akka.serialization.Serializer;
+import akka.serialization.Serializers;
+import io.atomix.storage.journal.JournalSerdes.EntryInput;
+import io.atomix.storage.journal.JournalSerdes.EntryOutput;
+import io.atomix.storage.journal.JournalSerdes.EntrySerdes;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import org.opendaylight.controller.akka.segjournal.DataJournalEntry.SerializedFromPersistence;
+import org.opendaylight.controller.akka.segjournal.DataJournalEntry.ToPersistence;
+import scala.util.Try;
+
+/**
+ * Kryo serializer for {@link DataJournalEntry} in {@link DataJournalV1} format. Like
+ * {@link DataJournalEntrySerializer}, it is asymmetric by design. Each entry is laid out as follows:
+ * <ul>
+ *     <li>a variable-length flags field, see {@code FLAG_*} constants</li>
+ *     <li>variable-length distance to the dictionary entry, only if any value is taken from it</li>
+ *     <li>writer UUID, either as 16 raw bytes if it is a canonical UUID, or as a string, only if it is not taken
+ *         from the dictionary entry</li>
+ *     <li>{@link PersistentRepr#manifest()} as a string, only if it is not empty and not taken from the dictionary
+ *         entry</li>
+ *     <li>variable-length identifier of the Akka serializer used for the payload</li>
+ *     <li>serializer manifest, only if it is not empty</li>
+ *     <li>variable-length size of the serialized payload, only if it is compressed</li>
+ *     <li>serialized payload, possibly LZ4-compressed, extending to the end of the entry</li>
+ * </ul>
+ *
+ * <p>
+ * Payloads are compressed only if a compression threshold is set, their serialized form is at least that large, but
+ * no larger than the maximum entry size, and compression actually makes them smaller. Entries are decodable regardless
+ * of the threshold in effect. The uncompressed size is validated against the maximum entry size before anything is
+ * allocated for it, so that a corrupted entry is reported as an {@link IOException}.
+ *
+ * <p>
+ * The writer UUID and manifest rarely change, hence they are stored in full only in a dictionary entry. Subsequent
+ * entries with the same values store the distance to the dictionary entry instead, see
+ * {@link SerializedFromPersistence#resolve(DataJournalEntry.FromPersistence)}. Entries are therefore decodable without
+ * any knowledge of the segment they are in. The dictionary entry must be in the same segment as the entries referring
+ * to it, otherwise it could be compacted away before them. Rather than being told about segment changes, the
+ * serializer starts a new dictionary entry whenever an entry is not written immediately after the previous one: the
+ * journal writes an entry again as the first entry of the next segment if it does not fit into its segment, and a
+ * truncated or reset journal continues at an index we have already written or have not seen. Every entry which stores
+ * all of its values in full becomes the dictionary entry for the entries following it.
+ */
+final class DataJournalV1EntrySerializer implements EntrySerdes<DataJournalEntry> {
+    // Writer UUID is stored as 16 bytes, otherwise it is a string
+    private static final long FLAG_BINARY_UUID = 0x01;
+    // Entry manifest is present, otherwise it is empty
+    private static final long FLAG_MANIFEST = 0x02;
+    // Serializer manifest is present, otherwise it is empty
+    private static final long FLAG_SERIALIZER_MANIFEST = 0x04;
+    // Payload is compressed with LZ4 block compression and preceded by its uncompressed size
+    private static final long FLAG_LZ4 = 0x08;
+    // Writer UUID is the same as in the dictionary entry and is not present
+    private static final long FLAG_DICTIONARY_UUID = 0x10;
+    // Entry manifest is the same as in the dictionary entry and is not present
+    private static final long FLAG_DICTIONARY_MANIFEST = 0x20;
+    private static final int UUID_BYTES = 2 * Long.BYTES;
+
+    private final Serialization serialization;
+    private final LZ4Compressor compressor;
+    private final int compressionThreshold;
+    private final int maxEntrySize;
+
+    // Index of the last entry written, 0 if none
+    private long lastIndex;
+    // Index of the dictionary entry, 0 if there is none
+    private long dictionaryIndex;
+    // Values stored in the dictionary entry, valid only if dictionaryIndex is set
+    private String dictionaryWriterUuid;
+    private String dictionaryManifest;
+
+    /**
+     * Construct a new serializer.
+     *
+     * @param actorSystem actor system providing Akka serialization
+     * @param compressionThreshold minimum size of serialized payloads to be compressed, {@code 0} to disable
+     *                             compression
+     * @param maxEntrySize maximum size of an entry, which also bounds the uncompressed size of payloads
+     */
+    DataJournalV1EntrySerializer(final ActorSystem actorSystem, final int compressionThreshold,
+            final int maxEntrySize) {
+        checkArgument(compressionThreshold >= 0, "Invalid compression threshold %s", compressionThreshold);
+        checkArgument(maxEntrySize > 0, "Invalid maximum entry size %s", maxEntrySize);
+        serialization = SerializationExtension.get(actorSystem);
+        this.compressionThreshold = compressionThreshold;
+        this.maxEntrySize = maxEntrySize;
+        compressor = compressionThreshold != 0 ? LZ4Factory.fastestInstance().fastCompressor() : null;
+    }
+
+    @Override
+    public void write(final EntryOutput output, final DataJournalEntry entry) throws IOException {
+        verify(entry instanceof ToPersistence);
+        final ToPersistence toPersistence = (ToPersistence) entry;
+        final long index = toPersistence.index();
+        final PersistentRepr repr = toPersistence.repr();
+        final Object payload = repr.payload();
+        final Serializer serializer = serialization.findSerializerFor(payload);
+        final String serializerManifest = Serializers.manifestFor(serializer, payload);
+        final String manifest = repr.manifest();
+        final String writerUuid = repr.writerUuid();
+        if (index != lastIndex + 1) {
+            // The entry may be landing in a different segment than the dictionary entry, or the dictionary entry may
+            // have been truncated
+            dictionaryIndex = 0;
+        }
+        lastIndex = index;
+
+        final boolean useDictionaryUuid = dictionaryIndex != 0 && writerUuid.equals(dictionaryWriterUuid);
+        final boolean useDictionaryManifest = dictionaryIndex != 0 && Objects.equals(manifest, dictionaryManifest);
+        final byte[] uuidBytes = useDictionaryUuid ? null : uuidBytes(writerUuid);
+
+        // Serialization.serialize() uses the serializer we have found and sets up transport information for ActorRefs
+        final Try<byte[]> serialized = serialization.serialize(payload);
+        if (serialized.isFailure()) {
+            throw new IOException("Failed to serialize payload with serializer " + serializer.identifier(),
+                serialized.failed().get());
+        }
+        final byte[] bytes = serialized.get();
+        final byte[] compressed = compress(bytes);
+
+        long flags = 0;
+        if (useDictionaryUuid) {
+            flags |= FLAG_DICTIONARY_UUID;
+        } else if (uuidBytes != null) {
+            flags |= FLAG_BINARY_UUID;
+        }
+        final boolean hasManifest = !useDictionaryManifest && (manifest == null || !manifest.isEmpty());
+        if (useDictionaryManifest) {
+            flags |= FLAG_DICTIONARY_MANIFEST;
+        } else if (hasManifest) {
+            flags |= FLAG_MANIFEST;
+        }
+        if (!serializerManifest.isEmpty()) {
+            flags |= FLAG_SERIALIZER_MANIFEST;
+        }
+        if (compressed != null) {
+            flags |= FLAG_LZ4;
+        }
+
+        output.writeLong(flags);
+        if (useDictionaryUuid || useDictionaryManifest) {
+            output.writeLong(index - dictionaryIndex);
+        }
+        if (uuidBytes != null) {
+            output.writeBytes(uuidBytes);
+        } else if (!useDictionaryUuid) {
+            output.writeString(writerUuid);
+        }
+        if (hasManifest) {
+            output.writeString(manifest);
+        }
+        output.writeLong(serializer.identifier());
+        if (!serializerManifest.isEmpty()) {
+            output.writeString(serializerManifest);
+        }
+        if (compressed != null) {
+            output.writeLong(bytes.length);
+            output.writeBytes(compressed);
+        } else {
+            output.writeBytes(bytes);
+        }
+
+        if (!useDictionaryUuid && !useDictionaryManifest) {
+            dictionaryIndex = index;
+            dictionaryWriterUuid = writerUuid;
+            dictionaryManifest = manifest;
+        }
+    }
+
+    @Override
+    public DataJournalEntry read(final EntryInput input) throws IOException {
+        final long flags = input.readLong();
+        final boolean useDictionaryUuid = (flags & FLAG_DICTIONARY_UUID) != 0;
+        final boolean useDictionaryManifest = (flags & FLAG_DICTIONARY_MANIFEST) != 0;
+        final long dictionaryDistance;
+        if (useDictionaryUuid || useDictionaryManifest) {
+            dictionaryDistance = input.readLong();
+            if (dictionaryDistance <= 0) {
+                throw new IOException("Invalid dictionary entry distance " + dictionaryDistance);
+            }
+        } else {
+            dictionaryDistance = 0;
+        }
+        final String writerUuid;
+        if (useDictionaryUuid) {
+            writerUuid = "";
+        } else if ((flags & FLAG_BINARY_UUID) != 0) {
+            final ByteBuffer bytes = ByteBuffer.wrap(input.readBytes(UUID_BYTES));
+            writerUuid = new UUID(bytes.getLong(), bytes.getLong()).toString();
+        } else {
+            writerUuid = input.readString();
+        }
+        final String manifest = (flags & FLAG_MANIFEST) != 0 ? input.readString() : "";
+        final int serializerId = (int) input.readLong();
+        final String serializerManifest = (flags & FLAG_SERIALIZER_MANIFEST) != 0 ? input.readString() : "";
+        final int uncompressedSize = (flags & FLAG_LZ4) != 0 ? readUncompressedSize(input) : NOT_COMPRESSED;
+        return new SerializedFromPersistence(serialization, dictionaryDistance, manifest, useDictionaryManifest,
+            writerUuid, useDictionaryUuid, serializerId, serializerManifest, input.readRemainingBytes(),
+            uncompressedSize);
+    }
+
+    private int readUncompressedSize(final EntryInput input) throws IOException {
+        final long size = input.readLong();
+        if (size <= 0 || size > maxEntrySize) {
+            throw new IOException("Invalid uncompressed payload size " + size + ", maximum is " + maxEntrySize);
+        }
+        return (int) size;
+    }
+
+    private byte[] compress(final byte[] bytes) {
+        // Payloads larger than an entry are never compressed, so that readers can bound the size of the payload
+        if (compressor == null || bytes.length < compressionThreshold || bytes.length > maxEntrySize) {
+            return null;
+        }
+        final byte[] buffer = new byte[compressor.maxCompressedLength(bytes.length)];
+        final int size = compressor.compress(bytes, 0, bytes.length, buffer, 0, buffer.length);
+        // Do not bother with payloads which do not compress
+        return size < bytes.length ? Arrays.copyOf(buffer, size) : null;
+    }
+
+    private static byte[] uuidBytes(final String str) {
+        final UUID uuid;
+        try {
+            uuid = UUID.fromString(str);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        // UUID.fromString() is lenient, make sure we can reproduce the string exactly
+        if (!str.equals(uuid.toString())) {
+            return null;
+        }
+        return ByteBuffer.allocate(UUID_BYTES)
+            .putLong(uuid.getMostSignificantBits())
+            .putLong(uuid.getLeastSignificantBits())
+            .array();
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2019, 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.akka.segjournal;
+
+import static com.google.common.base.Verify.verify;
+import static java.util.Objects.requireNonNull;
+
+import akka.persistence.AtomicWrite;
+import akka.persistence.PersistentRepr;
+import com.codahale.metrics.Histogram;
+import io.atomix.storage.journal.Indexed;
+import io.atomix.storage.journal.JournalMetrics;
+import io.atomix.storage.journal.JournalSerdes;
+import io.atomix.storage.journal.JournalSerdes.EntrySerdes;
+import io.atomix.storage.journal.MappedBytesBudget;
+import io.atomix.storage.journal.SegmentedJournal;
+import io.atomix.storage.journal.SegmentedJournalReader;
+import io.atomix.storage.journal.SegmentedJournalWriter;
+import io.atomix.storage.journal.StorageLevel;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import org.opendaylight.controller.akka.segjournal.DataJournalEntry.FromPersistence;
+import org.opendaylight.controller.akka.segjournal.DataJournalEntry.SerializedFromPersistence;
+import org.opendaylight.controller.akka.segjournal.DataJournalEntry.ToPersistence;
+import org.opendaylight.controller.akka.segjournal.SegmentedJournalActor.ReplayMessages;
+import org.opendaylight.controller.akka.segjournal.SegmentedJournalActor.WriteMessages;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scala.jdk.javaapi.CollectionConverters;
+
+/**
+ * A data journal backed by a {@link SegmentedJournal}, where every journal entry maps to exactly one segmented file
+ * entry. Subclasses define the name of the journal and the format of its entries.
+ *
+ * <p>
+ * Replay reads entries sequentially, but payloads are decoded on a replay executor. Up to {@value #REPLAY_READ_AHEAD}
+ * entries are decoded ahead of the one being replayed, while the replay callback is still invoked in order. Entries
+ * which take values from a dictionary entry are resolved before they are handed to the executor.
+ *
+ * @author Robert Varga
+ */
+abstract class SegmentedDataJournal extends DataJournal {
+    private static final Logger LOG = LoggerFactory.getLogger(SegmentedDataJournal.class);
+    private static final int REPLAY_READ_AHEAD = 256;
+
+    private final SegmentedJournal<DataJournalEntry> entries;
+    private final Executor replayExecutor;
+
+    SegmentedDataJournal(final String persistenceId, final Histogram messageSize, final StorageLevel storage,
+            final File directory, final String name, final EntrySerdes<DataJournalEntry> serdes,
+            final int maxEntrySize, final int maxSegmentSize,
+            final MappedBytesBudget mappedBytesBudget, final JournalMetrics metrics, final Executor compactionExecutor,
+            final Executor replayExecutor) {
+        super(persistenceId, messageSize);
+        this.replayExecutor = requireNonNull(replayExecutor);
+        entries = SegmentedJournal.<DataJournalEntry>builder()
+                .withStorageLevel(storage).withDirectory(directory).withName(name)
+                .withNamespace(JournalSerdes.builder()
+                    .register(serdes, FromPersistence.class, ToPersistence.class)
+                    .build())
+                .withMaxEntrySize(maxEntrySize).withMaxSegmentSize(maxSegmentSize).withDenseIndex().withCrc32c()
+                .withSegmentPreallocation().withCompactionExecutor(compactionExecutor)
+                .withMappedBytesBudget(mappedBytesBudget).withMetrics(metrics)
+                .build();
+    }
+
+    @Override
+    final long lastWrittenSequenceNr() {
+        return entries.writer().getLastIndex();
+    }
+
+    @Override
+    final void deleteTo(final long sequenceNr) {
+        entries.writer().commit(sequenceNr);
+    }
+
+    @Override
+    final CompletionStage<Long> compactTo(final long sequenceNr) {
+        return entries.compact(sequenceNr + 1);
+    }
+
+    @Override
+    final void close() {
+        entries.close();
+    }
+
+    /**
+     * Make this journal continue after the specified sequence number, i.e. the next entry written will have the
+     * sequence number following it. Any entries in this journal are discarded, hence it should be empty.
+     *
+     * @param sequenceNr Sequence number of the last entry stored elsewhere
+     */
+    final void continueAfter(final long sequenceNr) {
+        entries.writer().reset(sequenceNr + 1);
+    }
+
+    @Override
+    @SuppressWarnings("checkstyle:illegalCatch")
+    final void handleReplayMessages(final ReplayMessages message, final long fromSequenceNr) {
+        try {
+            final long count = replayMessages(message, fromSequenceNr, message.max);
+            LOG.debug("{}: successfully replayed {} entries", persistenceId, count);
+        } catch (Exception e) {
+            LOG.warn("{}: failed to replay messages for {}", persistenceId, message, e);
+            message.promise.failure(e);
+        } finally {
+            message.promise.success(null);
+        }
+    }
+
+    /**
+     * Replay entries for a request, without completing it.
+     *
+     * @param message Request message
+     * @param fromSequenceNr Sequence number to replay from
+     * @param max Maximum number of entries to replay
+     * @return Number of entries replayed
+     * @throws Exception if replay fails
+     */
+    final long replayMessages(final ReplayMessages message, final long fromSequenceNr, final long max)
+            throws Exception {
+        try (SegmentedJournalReader<DataJournalEntry> reader = entries.openReader(fromSequenceNr)) {
+            final Deque<CompletableFuture<PersistentRepr>> pending = new ArrayDeque<>(REPLAY_READ_AHEAD);
+            final DictionaryEntry dictionary = new DictionaryEntry();
+            long count = 0;
+            while (reader.hasNext() && count < max) {
+                final Indexed<DataJournalEntry> next = reader.next();
+                if (next.index() > message.toSequenceNr) {
+                    break;
+                }
+
+                LOG.trace("{}: replay {}", persistenceId, next);
+                updateLargestSize(next.size());
+                final DataJournalEntry entry = next.entry();
+                verify(entry instanceof FromPersistence, "Unexpected entry %s", entry);
+
+                final FromPersistence resolved;
+                if (entry instanceof SerializedFromPersistence serialized && serialized.dictionaryDistance() != 0) {
+                    resolved = serialized.resolve(dictionary.lookup(next.index(), serialized.dictionaryDistance()));
+                } else {
+                    resolved = (FromPersistence) entry;
+                }
+
+                pending.add(decodeEntry(resolved, next.index()));
+                if (pending.size() == REPLAY_READ_AHEAD) {
+                    replayEntry(message, pending.remove());
+                }
+                count++;
+            }
+            while (!pending.isEmpty()) {
+                replayEntry(message, pending.remove());
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Lookup of dictionary entries, remembering the last entry looked up, as replay typically goes through a number of
+     * entries referring to the same dictionary entry.
+     */
+    private final class DictionaryEntry {
+        private long index;
+        private FromPersistence entry;
+
+        FromPersistence lookup(final long entryIndex, final long distance) throws IOException {
+            final long dictionaryIndex = entryIndex - distance;
+            if (dictionaryIndex < 1) {
+                throw new IOException("Entry " + entryIndex + " refers to invalid dictionary entry " + dictionaryIndex);
+            }
+            if (dictionaryIndex != index) {
+                entry = read(dictionaryIndex);
+                index = dictionaryIndex;
+            }
+            return entry;
+        }
+
+        private FromPersistence read(final long dictionaryIndex) throws IOException {
+            try (SegmentedJournalReader<DataJournalEntry> reader = entries.openReader(dictionaryIndex)) {
+                if (!reader.hasNext()) {
+                    throw new IOException("Dictionary entry " + dictionaryIndex + " not found");
+                }
+                final Indexed<DataJournalEntry> found = reader.next();
+                if (found.index() == dictionaryIndex && found.entry() instanceof FromPersistence dictionary
+                    && !(dictionary instanceof SerializedFromPersistence serialized
+                        && serialized.dictionaryDistance() != 0)) {
+                    return dictionary;
+                }
+                throw new IOException("Unexpected dictionary entry " + found + " at " + dictionaryIndex);
+            }
+        }
+    }
+
+    private CompletableFuture<PersistentRepr> decodeEntry(final FromPersistence entry, final long sequenceNr) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return entry.toRepr(persistenceId, sequenceNr);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, replayExecutor);
+    }
+
+    private void replayEntry(final ReplayMessages message, final CompletableFuture<PersistentRepr> future)
+            throws Exception {
+        final PersistentRepr repr;
+        try {
+            repr = future.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            throw cause instanceof Exception ex ? ex : e;
+        }
+        LOG.debug("{}: replaying {}", persistenceId, repr);
+        message.replayCallback.accept(repr);
+    }
+
+    @Override
+    @SuppressWarnings("checkstyle:illegalCatch")
+    final long handleWriteMessages(final WriteMessages message) {
+        final int count = message.size();
+        final SegmentedJournalWriter<DataJournalEntry> writer = entries.writer();
+        long bytes = 0;
+
+        for (int i = 0; i < count; ++i) {
+            final long mark = writer.getLastIndex();
+            final AtomicWrite request = message.getRequest(i);
+
+            final List<PersistentRepr> reprs = CollectionConverters.asJava(request.payload());
+            LOG.trace("{}: append {}/{}: {} items at mark {}", persistenceId, i, count, reprs.size(), mark);
+            try {
+                bytes += writePayload(writer, reprs);
+            } catch (Exception e) {
+                LOG.warn("{}: failed to write out request {}/{} reverting to {}", persistenceId, i, count, mark, e);
+                message.setFailure(i, e);
+                writer.truncate(mark);
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    final void flush() {
+        entries.writer().flush();
+    }
+
+    @Override
+    final void truncateTo(final long sequenceNr) {
+        entries.writer().truncate(sequenceNr);
+    }
+
+    private long writePayload(final SegmentedJournalWriter<DataJournalEntry> writer, final List<PersistentRepr> reprs) {
+        final List<ToPersistence> entries = new ArrayList<>(reprs.size());
+        long index = writer.getNextIndex();
+        for (PersistentRepr repr : reprs) {
+            final Object payload = repr.payload();
+            if (!(payload instanceof Serializable)) {
+                throw new UnsupportedOperationException("Non-serializable payload encountered "
+                        + payload.getClass());
+            }
+            entries.add(new ToPersistence(repr, index++));
+        }
+
+        LOG.trace("{}: starting append of {} entries", persistenceId, entries.size());
+        long bytes = 0;
+        for (var entry : writer.appendAll(entries)) {
+            final int size = entry.size();
+            LOG.trace("{}: finished append of {} with {} bytes at {}", persistenceId, entry.entry().repr().payload(),
+                size, entry.index());
+            recordMessageSize(size);
+            bytes += size;
+        }
+        return bytes;
+    }
+}
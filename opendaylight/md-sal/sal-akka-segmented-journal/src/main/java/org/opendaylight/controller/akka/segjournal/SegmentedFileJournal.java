@@ -16,8 +16,10 @@ import akka.dispatch.Futures;
 import akka.persistence.AtomicWrite;
 import akka.persistence.PersistentRepr;
 import akka.persistence.journal.japi.AsyncWriteJournal;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigMemorySize;
+import io.atomix.storage.journal.MappedBytesBudget;
 import io.atomix.storage.journal.SegmentedJournal;
 import io.atomix.storage.journal.StorageLevel;
 import java.io.File;
@@ -28,6 +30,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import org.opendaylight.controller.akka.segjournal.SegmentedJournalActor.AsyncMessage;
 import org.opendaylight.controller.akka.segjournal.SegmentedJournalActor.WriteMessages;
@@ -49,14 +54,28 @@ public class SegmentedFileJournal extends AsyncWriteJournal {
     public static final String STORAGE_MAX_SEGMENT_SIZE = "max-segment-size";
     public static final int STORAGE_MAX_SEGMENT_SIZE_DEFAULT = STORAGE_MAX_ENTRY_SIZE_DEFAULT * 8;
     public static final String STORAGE_MEMORY_MAPPED = "memory-mapped";
+    public static final String STORAGE_COMPRESSION_THRESHOLD = "compression-threshold";
+    public static final String STORAGE_MAX_MAPPED_BYTES = "max-mapped-bytes";
 
     private static final Logger LOG = LoggerFactory.getLogger(SegmentedFileJournal.class);
 
     private final Map<String, ActorRef> handlers = new HashMap<>();
+    // Number of WriteMessages sent to each handler, which it has not processed yet
+    private final Map<ActorRef, AtomicInteger> queuedWrites = new HashMap<>();
+    // Shared by all handlers, so that deleting compacted segments does not stall writes
+    private final ExecutorService compactionExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+        .setNameFormat("segmented-journal-compaction-%d").setDaemon(true).build());
+    // Shared by all handlers to decode replayed payloads
+    private final ExecutorService replayExecutor = Executors.newFixedThreadPool(
+        Math.min(4, Runtime.getRuntime().availableProcessors()),
+        new ThreadFactoryBuilder().setNameFormat("segmented-journal-replay-%d").setDaemon(true).build());
     private final File rootDir;
     private final StorageLevel storage;
     private final int maxEntrySize;
     private final int maxSegmentSize;
+    private final int compressionThreshold;
+    // Shared by all handlers, bounding the total size of mapped segments
+    private final MappedBytesBudget mappedBytesBudget;
 
     public SegmentedFileJournal(final Config config) {
         rootDir = new File(config.getString(STORAGE_ROOT_DIRECTORY));
@@ -68,14 +87,28 @@ public class SegmentedFileJournal extends AsyncWriteJournal {
 
         maxEntrySize = getBytes(config, STORAGE_MAX_ENTRY_SIZE, STORAGE_MAX_ENTRY_SIZE_DEFAULT);
         maxSegmentSize = getBytes(config, STORAGE_MAX_SEGMENT_SIZE, STORAGE_MAX_SEGMENT_SIZE_DEFAULT);
+        // Compression is disabled unless a threshold is configured
+        compressionThreshold = getBytes(config, STORAGE_COMPRESSION_THRESHOLD, 0);
 
         if (config.hasPath(STORAGE_MEMORY_MAPPED)) {
             storage = config.getBoolean(STORAGE_MEMORY_MAPPED) ? StorageLevel.MAPPED : StorageLevel.DISK;
         } else {
             storage = StorageLevel.DISK;
         }
+        mappedBytesBudget = config.hasPath(STORAGE_MAX_MAPPED_BYTES)
+            ? new MappedBytesBudget(config.getMemorySize(STORAGE_MAX_MAPPED_BYTES).toBytes())
+                : MappedBytesBudget.unlimited();
 
-        LOG.info("Initialized with root directory {} with storage {}", rootDir, storage);
+        LOG.info("Initialized with root directory {} with storage {}, compression threshold {}, mapped bytes limit {}",
+            rootDir, storage, compressionThreshold, mappedBytesBudget.maxBytes());
+    }
+
+    @Override
+    public void postStop() throws Exception {
+        // Handlers have been stopped already and have waited for their compactions to finish
+        compactionExecutor.shutdown();
+        replayExecutor.shutdown();
+        super.postStop();
     }
 
     @Override
@@ -92,6 +125,7 @@ public class SegmentedFileJournal extends AsyncWriteJournal {
         // Send requests to actors and zip the futures back
         map.forEach((handler, message) -> {
             LOG.trace("Sending {} to {}", message, handler);
+            queuedWrites.get(handler).incrementAndGet();
             handler.tell(message, noSender());
         });
         return Futures.sequence(result, context().dispatcher());
@@ -120,8 +154,11 @@ public class SegmentedFileJournal extends AsyncWriteJournal {
         final File directory = new File(rootDir, directoryName);
         LOG.debug("Creating handler for {} in directory {}", persistenceId, directory);
 
+        final AtomicInteger handlerQueuedWrites = new AtomicInteger();
         final ActorRef handler = context().actorOf(SegmentedJournalActor.props(persistenceId, directory, storage,
-            maxEntrySize, maxSegmentSize));
+            maxEntrySize, maxSegmentSize, compressionThreshold, mappedBytesBudget, compactionExecutor,
+            replayExecutor, handlerQueuedWrites));
+        queuedWrites.put(handler, handlerQueuedWrites);
         LOG.debug("Directory {} handled by {}", directory, handler);
         return handler;
     }
@@ -11,6 +11,7 @@ import static com.google.common.base.Verify.verifyNotNull;
 import static java.util.Objects.requireNonNull;
 
 import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
 import akka.actor.Props;
 import akka.persistence.AtomicWrite;
 import akka.persistence.PersistentRepr;
@@ -18,10 +19,12 @@ import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Stopwatch;
 import io.atomix.storage.journal.Indexed;
 import io.atomix.storage.journal.JournalSerdes;
+import io.atomix.storage.journal.MappedBytesBudget;
 import io.atomix.storage.journal.SegmentedJournal;
 import io.atomix.storage.journal.SegmentedJournalWriter;
 import io.atomix.storage.journal.StorageLevel;
@@ -29,7 +32,9 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import org.opendaylight.controller.cluster.common.actor.MeteringBehavior;
 import org.opendaylight.controller.cluster.reporting.MetricsReporter;
@@ -58,6 +63,17 @@ import scala.concurrent.Promise;
  * Split-file approach allows us to treat sequence numbers and indices as equivalent, without maintaining any explicit
  * mapping information. The only additional information we need to maintain is the last deleted sequence number.
  *
+ * <p>
+ * Writes are group-committed: each {@link WriteMessages} batch is appended to the data journal as soon as it arrives.
+ * If no other batch is queued behind it, it is flushed right away. Otherwise its requests are completed only after a
+ * subsequent flush, which is scheduled behind the queued batches, so that they share a single durability barrier.
+ * Should the flush fail, the batches are discarded from the data journal before their requests are failed, so that
+ * they are not replayed later.
+ *
+ * <p>
+ * Compaction does not block writes: segments made obsolete by a delete are detached from the journals by this actor,
+ * but their files are closed and deleted on a separate compaction executor.
+ *
  * @author Robert Varga
  */
 final class SegmentedJournalActor extends AbstractActor {
@@ -120,11 +136,29 @@ final class SegmentedJournalActor extends AbstractActor {
 
         void setFailure(final int index, final Exception cause) {
             results.get(index).success(Optional.of(cause));
+        }
 
+        /**
+         * Complete all requests which have not failed as successful. This method must be invoked only after the
+         * writes have been made durable.
+         */
+        void setSuccess() {
+            for (Promise<Optional<Exception>> result : results) {
+                result.trySuccess(Optional.empty());
+            }
         }
 
-        void setSuccess(final int index) {
-            results.get(index).success(Optional.empty());
+        /**
+         * Complete all requests which have not failed with specified cause. This method is invoked when we fail to
+         * make the writes durable.
+         *
+         * @param cause Failure cause
+         */
+        void setFailure(final Exception cause) {
+            final Optional<Exception> failure = Optional.of(cause);
+            for (Promise<Optional<Exception>> result : results) {
+                result.trySuccess(failure);
+            }
         }
 
         @Override
@@ -133,6 +167,19 @@ final class SegmentedJournalActor extends AbstractActor {
         }
     }
 
+    /**
+     * Self-message requesting flush of all {@link WriteMessages} processed since the last flush. It is enqueued when
+     * the first unflushed batch is written while more batches are queued, hence all writes already present in the
+     * mailbox at that time share the same durability barrier.
+     */
+    private static final class FlushMessages {
+        static final FlushMessages INSTANCE = new FlushMessages();
+
+        private FlushMessages() {
+            // Hidden on purpose
+        }
+    }
+
     private static final class DeleteMessagesTo extends AsyncMessage<Void> {
         final long toSequenceNr;
 
@@ -156,7 +203,16 @@ final class SegmentedJournalActor extends AbstractActor {
     private final StorageLevel storage;
     private final int maxSegmentSize;
     private final int maxEntrySize;
+    private final int compressionThreshold;
+    private final MappedBytesBudget mappedBytesBudget;
     private final File directory;
+    private final Executor compactionExecutor;
+    private final Executor replayExecutor;
+    // Number of WriteMessages sent to us which we have not processed yet, maintained by the sender
+    private final AtomicInteger queuedWrites;
+
+    // Batches which have been written to the data journal, but have not been flushed yet
+    private final List<WriteMessages> unflushedWrites = new ArrayList<>();
 
     // Tracks the time it took us to write a batch of messages
     private Timer batchWriteTime;
@@ -164,24 +220,42 @@ final class SegmentedJournalActor extends AbstractActor {
     private Meter messageWriteCount;
     // Tracks the size distribution of messages
     private Histogram messageSize;
+    // Tracks the number of batches made durable by a single flush
+    private Histogram flushBatchCount;
+    // Tracks the number of bytes reclaimed by compaction
+    private Meter compactionReclaimedBytes;
+    // Tracks the time spent in individual phases of writing to the data journal
+    private DataJournalMetrics dataJournalMetrics;
 
     private DataJournal dataJournal;
     private SegmentedJournal<Long> deleteJournal;
     private long lastDelete;
+    // The last sequence number known to be durable in the data journal
+    private long lastFlushed;
 
     SegmentedJournalActor(final String persistenceId, final File directory, final StorageLevel storage,
-            final int maxEntrySize, final int maxSegmentSize) {
+            final int maxEntrySize, final int maxSegmentSize, final int compressionThreshold,
+            final MappedBytesBudget mappedBytesBudget, final Executor compactionExecutor,
+            final Executor replayExecutor, final AtomicInteger queuedWrites) {
         this.persistenceId = requireNonNull(persistenceId);
         this.directory = requireNonNull(directory);
         this.storage = requireNonNull(storage);
         this.maxEntrySize = maxEntrySize;
         this.maxSegmentSize = maxSegmentSize;
+        this.compressionThreshold = compressionThreshold;
+        this.mappedBytesBudget = requireNonNull(mappedBytesBudget);
+        this.compactionExecutor = requireNonNull(compactionExecutor);
+        this.replayExecutor = requireNonNull(replayExecutor);
+        this.queuedWrites = requireNonNull(queuedWrites);
     }
 
     static Props props(final String persistenceId, final File directory, final StorageLevel storage,
-            final int maxEntrySize, final int maxSegmentSize) {
+            final int maxEntrySize, final int maxSegmentSize, final int compressionThreshold,
+            final MappedBytesBudget mappedBytesBudget, final Executor compactionExecutor,
+            final Executor replayExecutor, final AtomicInteger queuedWrites) {
         return Props.create(SegmentedJournalActor.class, requireNonNull(persistenceId), directory, storage,
-            maxEntrySize, maxSegmentSize);
+            maxEntrySize, maxSegmentSize, compressionThreshold, mappedBytesBudget, compactionExecutor,
+            replayExecutor, queuedWrites);
     }
 
     @Override
@@ -191,6 +265,7 @@ final class SegmentedJournalActor extends AbstractActor {
                 .match(ReadHighestSequenceNr.class, this::handleReadHighestSequenceNr)
                 .match(ReplayMessages.class, this::handleReplayMessages)
                 .match(WriteMessages.class, this::handleWriteMessages)
+                .match(FlushMessages.class, this::handleFlushMessages)
                 .matchAny(this::handleUnknown)
                 .build();
     }
@@ -206,11 +281,17 @@ final class SegmentedJournalActor extends AbstractActor {
         batchWriteTime = registry.timer(MetricRegistry.name(actorName, "batchWriteTime"));
         messageWriteCount = registry.meter(MetricRegistry.name(actorName, "messageWriteCount"));
         messageSize = registry.histogram(MetricRegistry.name(actorName, "messageSize"));
+        flushBatchCount = registry.histogram(MetricRegistry.name(actorName, "flushBatchCount"));
+        compactionReclaimedBytes = registry.meter(MetricRegistry.name(actorName, "compactionReclaimedBytes"));
+        dataJournalMetrics = new DataJournalMetrics(registry, actorName);
     }
 
     @Override
     public void postStop() throws Exception {
         LOG.debug("{}: actor stopping", persistenceId);
+        if (!unflushedWrites.isEmpty()) {
+            flushWrites();
+        }
         if (dataJournal != null) {
             dataJournal.close();
             LOG.debug("{}: data journal closed", persistenceId);
@@ -255,9 +336,16 @@ final class SegmentedJournalActor extends AbstractActor {
             dataJournal.deleteTo(lastDelete);
 
             LOG.debug("{}: compaction started", persistenceId);
-            dataJournal.compactTo(lastDelete);
-            deleteJournal.compact(entry.index());
-            LOG.debug("{}: compaction finished", persistenceId);
+            final Stopwatch sw = Stopwatch.createStarted();
+            dataJournal.compactTo(lastDelete).thenCombine(deleteJournal.compact(entry.index()), Long::sum)
+                .whenComplete((reclaimed, cause) -> {
+                    if (cause != null) {
+                        LOG.warn("{}: compaction failed", persistenceId, cause);
+                    } else {
+                        compactionReclaimedBytes.mark(reclaimed);
+                        LOG.debug("{}: compaction reclaimed {} bytes in {}", persistenceId, reclaimed, sw);
+                    }
+                });
         } else {
             LOG.debug("{}: entries up to {} already deleted", persistenceId, lastDelete);
         }
@@ -290,6 +378,7 @@ final class SegmentedJournalActor extends AbstractActor {
     }
 
     private void handleWriteMessages(final WriteMessages message) {
+        queuedWrites.decrementAndGet();
         ensureOpen();
 
         final Stopwatch sw = Stopwatch.createStarted();
@@ -302,12 +391,77 @@ final class SegmentedJournalActor extends AbstractActor {
 
         // log message after statistics are updated
         LOG.debug("{}: write of {} bytes completed in {}", persistenceId, bytes, sw);
+
+        unflushedWrites.add(message);
+        if (queuedWrites.get() <= 0) {
+            // There is nothing to share the flush with, do not bother going through our mailbox
+            flushWrites();
+        } else if (unflushedWrites.size() == 1) {
+            // This is the first batch since last flush: schedule a flush behind the writes already in our mailbox, so
+            // they can piggy-back on it
+            self().tell(FlushMessages.INSTANCE, ActorRef.noSender());
+        }
+    }
+
+    private void handleFlushMessages(final FlushMessages message) {
+        if (!unflushedWrites.isEmpty()) {
+            flushWrites();
+        }
+    }
+
+    @SuppressWarnings("checkstyle:illegalCatch")
+    private void flushWrites() {
+        final int batches = unflushedWrites.size();
+        final Stopwatch sw = Stopwatch.createStarted();
+        try {
+            dataJournal.flush();
+        } catch (Exception e) {
+            LOG.error("{}: failed to flush {} write batches", persistenceId, batches, e);
+            discardUnflushedWrites();
+            unflushedWrites.forEach(write -> write.setFailure(e));
+            unflushedWrites.clear();
+            return;
+        }
+        sw.stop();
+
+        lastFlushed = dataJournal.lastWrittenSequenceNr();
+        flushBatchCount.update(batches);
+        unflushedWrites.forEach(WriteMessages::setSuccess);
+        unflushedWrites.clear();
+        LOG.debug("{}: flush of {} write batches completed in {}", persistenceId, batches, sw);
+    }
+
+    @SuppressWarnings("checkstyle:illegalCatch")
+    private void discardUnflushedWrites() {
+        // Deleted entries cannot be truncated, but they will not be replayed either
+        final long retained = Long.max(lastFlushed, lastDelete);
+        try {
+            dataJournal.truncateTo(retained);
+            dataJournal.flush();
+        } catch (Exception e) {
+            // We cannot guarantee that failed writes will not be replayed, do not accept any further requests
+            LOG.error("{}: failed to discard writes after {}, stopping", persistenceId, retained, e);
+            context().stop(self());
+            return;
+        }
+        LOG.info("{}: discarded unflushed writes after {}", persistenceId, retained);
     }
 
     private void handleUnknown(final Object message) {
         LOG.error("{}: Received unknown message {}", persistenceId, message);
     }
 
+    @VisibleForTesting
+    DataJournal dataJournal() {
+        ensureOpen();
+        return dataJournal;
+    }
+
+    @VisibleForTesting
+    void setDataJournal(final DataJournal dataJournal) {
+        this.dataJournal = requireNonNull(dataJournal);
+    }
+
     private void ensureOpen() {
         if (dataJournal != null) {
             verifyNotNull(deleteJournal);
@@ -316,13 +470,22 @@ final class SegmentedJournalActor extends AbstractActor {
 
         final Stopwatch sw = Stopwatch.createStarted();
         deleteJournal = SegmentedJournal.<Long>builder().withDirectory(directory).withName("delete")
-                .withNamespace(DELETE_NAMESPACE).withMaxSegmentSize(DELETE_SEGMENT_SIZE).build();
+                .withNamespace(DELETE_NAMESPACE).withMaxSegmentSize(DELETE_SEGMENT_SIZE)
+                .withCompactionExecutor(compactionExecutor).build();
         final Indexed<Long> lastEntry = deleteJournal.writer().getLastEntry();
         lastDelete = lastEntry == null ? 0 : lastEntry.entry();
 
-        dataJournal = new DataJournalV0(persistenceId, messageSize, context().system(), storage, directory,
-            maxEntrySize, maxSegmentSize);
+        final DataJournalV1 v1 = new DataJournalV1(persistenceId, messageSize, context().system(), storage, directory,
+            maxEntrySize, maxSegmentSize, compressionThreshold, mappedBytesBudget, dataJournalMetrics,
+            compactionExecutor, replayExecutor);
+        // Existing data in version 0 format is read from there, until it is deleted
+        dataJournal = DataJournalV0.exists(directory)
+            ? new UpgradingDataJournal(persistenceId, messageSize, directory, new DataJournalV0(persistenceId,
+                messageSize, context().system(), storage, directory, maxEntrySize, maxSegmentSize, mappedBytesBudget,
+                dataJournalMetrics, compactionExecutor, replayExecutor), v1, compactionExecutor)
+            : v1;
         dataJournal.deleteTo(lastDelete);
+        lastFlushed = dataJournal.lastWrittenSequenceNr();
         LOG.debug("{}: journal open in {} with last index {}, deleted to {}", persistenceId, sw,
             dataJournal.lastWrittenSequenceNr(), lastDelete);
     }
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.akka.segjournal;
+
+import static java.util.Objects.requireNonNull;
+
+import com.codahale.metrics.Histogram;
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import org.opendaylight.controller.akka.segjournal.SegmentedJournalActor.ReplayMessages;
+import org.opendaylight.controller.akka.segjournal.SegmentedJournalActor.WriteMessages;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A data journal upgrading a directory which contains a {@link DataJournalV0} to {@link DataJournalV1}. Entries
+ * stored in the version 0 journal are only ever read, while new entries are written to the version 1 journal,
+ * continuing the sequence. Once compaction passes the last version 0 entry, the version 0 journal is closed and its
+ * files are deleted on the compaction executor.
+ */
+final class UpgradingDataJournal extends DataJournal {
+    private static final Logger LOG = LoggerFactory.getLogger(UpgradingDataJournal.class);
+
+    private final DataJournalV1 current;
+    private final File directory;
+    private final Executor compactionExecutor;
+    // Last sequence number stored in the version 0 journal
+    private final long lastPreviousSequenceNr;
+
+    // Version 0 journal, null once it has been deleted
+    private DataJournalV0 previous;
+
+    UpgradingDataJournal(final String persistenceId, final Histogram messageSize, final File directory,
+            final DataJournalV0 previous, final DataJournalV1 current, final Executor compactionExecutor) {
+        super(persistenceId, messageSize);
+        this.directory = requireNonNull(directory);
+        this.previous = requireNonNull(previous);
+        this.current = requireNonNull(current);
+        this.compactionExecutor = requireNonNull(compactionExecutor);
+
+        lastPreviousSequenceNr = previous.lastWrittenSequenceNr();
+        if (current.lastWrittenSequenceNr() < lastPreviousSequenceNr) {
+            LOG.info("{}: upgrading journal with {} entries in version 0 format", persistenceId,
+                lastPreviousSequenceNr);
+            current.continueAfter(lastPreviousSequenceNr);
+        }
+    }
+
+    @Override
+    long lastWrittenSequenceNr() {
+        return current.lastWrittenSequenceNr();
+    }
+
+    @Override
+    void deleteTo(final long sequenceNr) {
+        if (previous != null) {
+            previous.deleteTo(Long.min(sequenceNr, lastPreviousSequenceNr));
+        }
+        current.deleteTo(sequenceNr);
+    }
+
+    @Override
+    CompletionStage<Long> compactTo(final long sequenceNr) {
+        final CompletionStage<Long> compacted = current.compactTo(sequenceNr);
+        if (previous == null) {
+            return compacted;
+        }
+        if (sequenceNr < lastPreviousSequenceNr) {
+            return previous.compactTo(sequenceNr).thenCombine(compacted, Long::sum);
+        }
+
+        // All version 0 entries are deleted. Closing the journal waits for its pending compactions, after which its
+        // files can be deleted.
+        LOG.info("{}: deleting journal in version 0 format", persistenceId);
+        previous.close();
+        previous = null;
+        return CompletableFuture.supplyAsync(() -> DataJournalV0.delete(directory), compactionExecutor)
+            .thenCombine(compacted, Long::sum);
+    }
+
+    @Override
+    void close() {
+        if (previous != null) {
+            previous.close();
+        }
+        current.close();
+    }
+
+    @Override
+    @SuppressWarnings("checkstyle:illegalCatch")
+    void handleReplayMessages(final ReplayMessages message, final long fromSequenceNr) {
+        try {
+            long count = 0;
+            if (previous != null && fromSequenceNr <= lastPreviousSequenceNr) {
+                count = previous.replayMessages(message, fromSequenceNr, message.max);
+            }
+            if (count < message.max) {
+                count += current.replayMessages(message, Long.max(fromSequenceNr, lastPreviousSequenceNr + 1),
+                    message.max - count);
+            }
+            LOG.debug("{}: successfully replayed {} entries", persistenceId, count);
+        } catch (Exception e) {
+            LOG.warn("{}: failed to replay messages for {}", persistenceId, message, e);
+            message.promise.failure(e);
+        } finally {
+            message.promise.success(null);
+        }
+    }
+
+    @Override
+    long handleWriteMessages(final WriteMessages message) {
+        return current.handleWriteMessages(message);
+    }
+
+    @Override
+    void flush() {
+        current.flush();
+    }
+
+    @Override
+    void truncateTo(final long sequenceNr) {
+        // Unflushed writes are never in the version 0 journal
+        current.truncateTo(Long.max(sequenceNr, lastPreviousSequenceNr));
+    }
+}
@@ -10,10 +10,17 @@ package org.opendaylight.controller.akka.segjournal;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -22,8 +29,17 @@ import akka.actor.ActorSystem;
 import akka.actor.PoisonPill;
 import akka.persistence.AtomicWrite;
 import akka.persistence.PersistentRepr;
+import akka.serialization.SerializationExtension;
 import akka.testkit.CallingThreadDispatcher;
+import akka.testkit.TestActorRef;
 import akka.testkit.javadsl.TestKit;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.atomix.storage.journal.JournalMetrics;
+import io.atomix.storage.journal.JournalSerdes.EntryInput;
+import io.atomix.storage.journal.JournalSerdes.EntryOutput;
+import io.atomix.storage.journal.MappedBytesBudget;
+import io.atomix.storage.journal.StorageException;
 import io.atomix.storage.journal.StorageLevel;
 import java.io.File;
 import java.io.IOException;
@@ -33,6 +49,8 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.apache.commons.io.FileUtils;
@@ -42,8 +60,10 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.opendaylight.controller.akka.segjournal.DataJournalEntry.ToPersistence;
 import org.opendaylight.controller.akka.segjournal.SegmentedJournalActor.AsyncMessage;
 import org.opendaylight.controller.akka.segjournal.SegmentedJournalActor.WriteMessages;
 import scala.concurrent.Future;
@@ -53,11 +73,19 @@ public class SegmentedFileJournalTest {
     private static final File DIRECTORY = new File("target/sfj-test");
     private static final int SEGMENT_SIZE = 1024 * 1024;
     private static final int MESSAGE_SIZE = 512 * 1024;
+    private static final String WRITER_UUID = "0b2f8f2c-6d6b-4d3a-9a55-3c8e2b7f4a10";
 
     private static ActorSystem SYSTEM;
 
+    // Maintained by SegmentedFileJournal, tests sending writes directly need to update it
+    private final AtomicInteger queuedWrites = new AtomicInteger();
+
     @Mock
     private Consumer<PersistentRepr> firstCallback;
+    @Mock
+    private EntryInput entryInput;
+    @Mock
+    private EntryOutput entryOutput;
 
     private TestKit kit;
     private ActorRef actor;
@@ -187,6 +215,110 @@ public class SegmentedFileJournalTest {
         assertReplayCount(0);
     }
 
+    @Test
+    public void testGroupCommit() {
+        final TestActorRef<SegmentedJournalActor> testActor = testActor();
+        final DataJournal journal = spyDataJournal(testActor);
+
+        final WriteMessages first = new WriteMessages();
+        final Future<Optional<Exception>> firstResult = addWrite(first, 1);
+        final WriteMessages second = new WriteMessages();
+        final Future<Optional<Exception>> secondResult = addWrite(second, 2);
+        final WriteMessages third = new WriteMessages();
+        final Future<Optional<Exception>> thirdResult = addWrite(third, 3);
+
+        // Enqueue the second and third batch while the first one is being written, so they arrive before the flush
+        doAnswer(invocation -> {
+            queueWrite(testActor, second);
+            queueWrite(testActor, third);
+            return invocation.callRealMethod();
+        }).doCallRealMethod().when(journal).handleWriteMessages(any(WriteMessages.class));
+
+        queueWrite(testActor, first);
+
+        verify(journal, times(3)).handleWriteMessages(any(WriteMessages.class));
+        verify(journal).flush();
+        assertFalse(getFuture(firstResult).isPresent());
+        assertFalse(getFuture(secondResult).isPresent());
+        assertFalse(getFuture(thirdResult).isPresent());
+
+        // A batch with nothing queued behind it is flushed on its own
+        final WriteMessages fourth = new WriteMessages();
+        final Future<Optional<Exception>> fourthResult = addWrite(fourth, 4);
+        queueWrite(testActor, fourth);
+        verify(journal, times(2)).flush();
+        assertFalse(getFuture(fourthResult).isPresent());
+        assertEquals(0, queuedWrites.get());
+
+        actor = testActor;
+        assertHighestSequenceNr(4);
+        assertReplayCount(4);
+    }
+
+    @Test
+    public void testGroupCommitFlushFailure() {
+        final TestActorRef<SegmentedJournalActor> testActor = testActor();
+        final WriteMessages first = new WriteMessages();
+        final Future<Optional<Exception>> firstResult = addWrite(first, 1);
+        testActor.tell(first, ActorRef.noSender());
+        assertFalse(getFuture(firstResult).isPresent());
+
+        final DataJournal journal = spyDataJournal(testActor);
+        final StorageException cause = new StorageException("flush failed");
+        doThrow(cause).doCallRealMethod().when(journal).flush();
+
+        final WriteMessages second = new WriteMessages();
+        final Future<Optional<Exception>> secondResult = addWrite(second, 2);
+        final Future<Optional<Exception>> thirdResult = addWrite(second, 3);
+        testActor.tell(second, ActorRef.noSender());
+
+        // Both requests fail and their entries are discarded from the journal
+        assertEquals(Optional.of(cause), getFuture(secondResult));
+        assertEquals(Optional.of(cause), getFuture(thirdResult));
+        verify(journal).truncateTo(1);
+
+        actor = testActor;
+        assertHighestSequenceNr(1);
+        assertReplayCount(1);
+
+        // Discarded entries must not be resurrected after restart
+        restartActor();
+        assertHighestSequenceNr(1);
+        assertReplayCount(1);
+
+        // ... and their sequence numbers are available again
+        final WriteMessages retry = new WriteMessages();
+        final Future<Optional<Exception>> retryResult = addWrite(retry, 2);
+        actor.tell(retry, ActorRef.noSender());
+        assertFalse(getFuture(retryResult).isPresent());
+        assertHighestSequenceNr(2);
+        assertReplayCount(2);
+    }
+
+    private TestActorRef<SegmentedJournalActor> testActor() {
+        actor.tell(PoisonPill.getInstance(), ActorRef.noSender());
+        return TestActorRef.create(SYSTEM, SegmentedJournalActor.props("foo", DIRECTORY, StorageLevel.DISK,
+            MESSAGE_SIZE, SEGMENT_SIZE, 0, MappedBytesBudget.unlimited(), MoreExecutors.directExecutor(),
+            ForkJoinPool.commonPool(), queuedWrites), kit.getRef());
+    }
+
+    private void queueWrite(final ActorRef target, final WriteMessages write) {
+        queuedWrites.incrementAndGet();
+        target.tell(write, ActorRef.noSender());
+    }
+
+    private static DataJournal spyDataJournal(final TestActorRef<SegmentedJournalActor> testActor) {
+        final SegmentedJournalActor underlying = testActor.underlyingActor();
+        final DataJournal journal = spy(underlying.dataJournal());
+        underlying.setDataJournal(journal);
+        return journal;
+    }
+
+    private Future<Optional<Exception>> addWrite(final WriteMessages write, final long sequenceNr) {
+        return write.add(AtomicWrite.apply(PersistentRepr.apply("entry" + sequenceNr, sequenceNr, "foo", null, false,
+            kit.getRef(), "uuid")));
+    }
+
     private void restartActor() {
         actor.tell(PoisonPill.getInstance(), ActorRef.noSender());
         actor = actor();
@@ -208,9 +340,302 @@ public class SegmentedFileJournalTest {
         requests.forEach(future -> assertFalse(getFuture(future).isPresent()));
     }
 
+    @Test
+    public void testCompression() throws IOException {
+        actor.tell(PoisonPill.getInstance(), ActorRef.noSender());
+        actor = actor(1024);
+
+        final LargePayload payload = new LargePayload();
+        final WriteMessages write = new WriteMessages();
+        final List<Future<Optional<Exception>>> requests = new ArrayList<>();
+
+        // Uncompressed, these would take up three segments, but they compress very well
+        for (int i = 1; i <= SEGMENT_SIZE * 3 / MESSAGE_SIZE; ++i) {
+            requests.add(write.add(AtomicWrite.apply(PersistentRepr.apply(payload, i, "foo", null, false, kit.getRef(),
+                "uuid"))));
+        }
+
+        actor.tell(write, ActorRef.noSender());
+        requests.forEach(future -> assertFalse(getFuture(future).isPresent()));
+        assertFileCount(1, 1);
+
+        // Restart without compression, entries must still be readable
+        actor.tell(PoisonPill.getInstance(), ActorRef.noSender());
+        actor = actor();
+
+        assertHighestSequenceNr(requests.size());
+        assertReplayCount(requests.size());
+        final ArgumentCaptor<PersistentRepr> captor = ArgumentCaptor.forClass(PersistentRepr.class);
+        verify(firstCallback, times(requests.size())).accept(captor.capture());
+        captor.getAllValues().forEach(
+            repr -> assertEquals(MESSAGE_SIZE / 2, ((LargePayload) repr.payload()).bytes.length));
+    }
+
+    @Test
+    public void testCorruptedUncompressedSize() throws IOException {
+        final DataJournalV1EntrySerializer serializer = new DataJournalV1EntrySerializer(SYSTEM, 1024, MESSAGE_SIZE);
+
+        // LZ4-compressed entry with a string writer UUID, no manifests and a bogus uncompressed size
+        doReturn(0x08L, 1L, -5L).when(entryInput).readLong();
+        doReturn("uuid").when(entryInput).readString();
+
+        final IOException negative = assertThrows(IOException.class, () -> serializer.read(entryInput));
+        assertEquals("Invalid uncompressed payload size -5, maximum is " + MESSAGE_SIZE, negative.getMessage());
+
+        doReturn(0x08L, 1L, MESSAGE_SIZE + 1L).when(entryInput).readLong();
+        final IOException tooLarge = assertThrows(IOException.class, () -> serializer.read(entryInput));
+        assertEquals("Invalid uncompressed payload size " + (MESSAGE_SIZE + 1) + ", maximum is " + MESSAGE_SIZE,
+            tooLarge.getMessage());
+        verify(entryInput, never()).readRemainingBytes();
+    }
+
+    @Test
+    public void testUpgradeV0Journal() throws IOException {
+        // Populate the directory with a version 0 journal, as written by previous versions
+        actor.tell(PoisonPill.getInstance(), ActorRef.noSender());
+        FileUtils.deleteQuietly(DIRECTORY);
+
+        final DataJournalV0 v0 = new DataJournalV0("foo", new MetricRegistry().histogram("messageSize"), SYSTEM,
+            StorageLevel.DISK, DIRECTORY, MESSAGE_SIZE, SEGMENT_SIZE, MappedBytesBudget.unlimited(),
+            JournalMetrics.NOOP, MoreExecutors.directExecutor(), ForkJoinPool.commonPool());
+        final WriteMessages write = new WriteMessages();
+        final Future<Optional<Exception>> first = write.add(AtomicWrite.apply(PersistentRepr.apply("first", 1, "foo",
+            "manifest", false, kit.getRef(), "uuid")));
+        final Future<Optional<Exception>> second = write.add(AtomicWrite.apply(PersistentRepr.apply("second", 2,
+            "foo", "manifest", false, kit.getRef(), "uuid")));
+        v0.handleWriteMessages(write);
+        v0.flush();
+        v0.close();
+        write.setSuccess();
+        assertFalse(getFuture(first).isPresent());
+        assertFalse(getFuture(second).isPresent());
+
+        // The journal is picked up and its entries are decoded from Java serialization
+        actor = actor();
+        assertHighestSequenceNr(2);
+        List<PersistentRepr> replayed = replay();
+        assertEquals(List.of("first", "second"), replayed.stream().map(PersistentRepr::payload).toList());
+        replayed.forEach(repr -> {
+            assertEquals("manifest", repr.manifest());
+            assertEquals("uuid", repr.writerUuid());
+        });
+
+        // New entries are written in version 1 format, continuing the sequence, and are replayed after the version 0
+        // entries
+        final WriteMessages third = new WriteMessages();
+        final Future<Optional<Exception>> thirdResult = addWrite(third, 3);
+        actor.tell(third, ActorRef.noSender());
+        assertFalse(getFuture(thirdResult).isPresent());
+        assertFileCount(1, 1);
+        assertTrue(DataJournalV0.exists(DIRECTORY));
+
+        restartActor();
+        assertHighestSequenceNr(3);
+        assertEquals(List.of("first", "second", "entry3"), replay().stream().map(PersistentRepr::payload).toList());
+
+        // Replay limits apply across both journals
+        final List<PersistentRepr> limited = replay(2, 2);
+        assertEquals(List.of("second", "entry3"), limited.stream().map(PersistentRepr::payload).toList());
+
+        // The version 0 journal is kept while it has entries which are not deleted
+        deleteEntries(1);
+        assertTrue(DataJournalV0.exists(DIRECTORY));
+        assertEquals(List.of("second", "entry3"), replay().stream().map(PersistentRepr::payload).toList());
+
+        // ... and deleted once all of them are
+        deleteEntries(2);
+        assertFalse(DataJournalV0.exists(DIRECTORY));
+        assertEquals(List.of("entry3"), replay().stream().map(PersistentRepr::payload).toList());
+
+        // The sequence continues after restart
+        restartActor();
+        assertHighestSequenceNr(3);
+        final WriteMessages fourth = new WriteMessages();
+        final Future<Optional<Exception>> fourthResult = addWrite(fourth, 4);
+        actor.tell(fourth, ActorRef.noSender());
+        assertFalse(getFuture(fourthResult).isPresent());
+        assertEquals(List.of("entry3", "entry4"), replay().stream().map(PersistentRepr::payload).toList());
+        assertFileCount(1, 1);
+    }
+
+    @Test
+    public void testSegmentValues() throws IOException {
+        // Three entries fit into a segment. Writer UUID and manifest vary, so that some of entries store them in full
+        // and some refer to a dictionary entry.
+        final LargePayload payload = new LargePayload();
+        final WriteMessages write = new WriteMessages();
+        final List<Future<Optional<Exception>>> requests = new ArrayList<>();
+        for (int i = 1; i <= 9; ++i) {
+            requests.add(write.add(AtomicWrite.apply(PersistentRepr.apply(payload, i, "foo", segmentManifest(i),
+                false, kit.getRef(), segmentWriterUuid(i)))));
+        }
+        actor.tell(write, ActorRef.noSender());
+        requests.forEach(future -> assertFalse(getFuture(future).isPresent()));
+        assertFileCount(3, 1);
+        assertSegmentValues(1, 9);
+
+        // Drop the first segment and the first entry of the second one, so replay starts in the middle of a segment
+        deleteEntries(4);
+        assertFileCount(2, 1);
+        assertSegmentValues(5, 9);
+
+        // The dictionary is not known after restart, the next entry written becomes the dictionary entry
+        restartActor();
+        assertSegmentValues(5, 9);
+
+        final WriteMessages more = new WriteMessages();
+        final List<Future<Optional<Exception>>> moreRequests = new ArrayList<>();
+        for (int i = 10; i <= 12; ++i) {
+            moreRequests.add(more.add(AtomicWrite.apply(PersistentRepr.apply(payload, i, "foo", segmentManifest(i),
+                false, kit.getRef(), segmentWriterUuid(i)))));
+        }
+        actor.tell(more, ActorRef.noSender());
+        moreRequests.forEach(future -> assertFalse(getFuture(future).isPresent()));
+        assertSegmentValues(5, 12);
+
+        restartActor();
+        assertSegmentValues(5, 12);
+    }
+
+    @Test
+    public void testDictionaryReferences() throws IOException {
+        final DataJournalV1EntrySerializer serializer = new DataJournalV1EntrySerializer(SYSTEM, 0, MESSAGE_SIZE);
+        final long serializerId = SerializationExtension.get(SYSTEM).findSerializerFor("entry").identifier();
+
+        serializer.write(entryOutput, toPersistence(1));
+        serializer.write(entryOutput, toPersistence(2));
+        // Written again, as if it did not fit into its segment
+        serializer.write(entryOutput, toPersistence(2));
+        serializer.write(entryOutput, toPersistence(3));
+        // Not following the last entry, as if the journal has been reset
+        serializer.write(entryOutput, toPersistence(5));
+
+        // Entries storing all values in full have binary UUID and manifest flags, the others have dictionary flags
+        // followed by the distance to their dictionary entry
+        final ArgumentCaptor<Long> longs = ArgumentCaptor.forClass(Long.class);
+        verify(entryOutput, atLeast(0)).writeLong(longs.capture());
+        assertEquals(List.of(0x03L, serializerId, 0x30L, 1L, serializerId, 0x03L, serializerId, 0x30L, 1L,
+            serializerId, 0x03L, serializerId), longs.getAllValues());
+    }
+
+    private static ToPersistence toPersistence(final long index) {
+        return new ToPersistence(PersistentRepr.apply("entry", index, "foo", "manifest", false, null, WRITER_UUID),
+            index);
+    }
+
+    @Test
+    public void testDictionaryAfterTruncation() throws IOException {
+        actor.tell(PoisonPill.getInstance(), ActorRef.noSender());
+        FileUtils.deleteQuietly(DIRECTORY);
+
+        // Entry 2 is the dictionary entry for entry 3. Truncating to entry 1 and writing entry 2 with the same values
+        // must not make it refer to itself.
+        DataJournalV1 v1 = dataJournalV1();
+        writeEntries(v1, 1, 1, WRITER_UUID);
+        writeEntries(v1, 2, 3, "uuid");
+        v1.truncateTo(1);
+        writeEntries(v1, 2, 3, "uuid");
+        v1.close();
+        assertWriterUuids(WRITER_UUID, "uuid", "uuid");
+
+        // Entry 1 must not refer to entry 4, which is no longer there
+        v1 = dataJournalV1();
+        writeEntries(v1, 4, 4, "uuid");
+        v1.truncateTo(0);
+        writeEntries(v1, 1, 3, "uuid");
+        v1.close();
+        assertWriterUuids("uuid", "uuid", "uuid");
+    }
+
+    @Test
+    public void testDictionaryAfterRestart() throws IOException {
+        final LargePayload payload = new LargePayload();
+        writePayloads(payload, 1, 2, "uuid");
+
+        // The journal continues in the middle of the first segment, entry 3 becomes its dictionary entry. Entry 4
+        // does not fit and starts the second segment, where it becomes the dictionary entry for entry 5.
+        restartActor();
+        writePayloads(payload, 3, 5, WRITER_UUID);
+        assertFileCount(2, 1);
+        assertWriterUuids("uuid", "uuid", WRITER_UUID, WRITER_UUID, WRITER_UUID);
+
+        // The first segment is gone, entry 5 must still be resolved
+        deleteEntries(3);
+        assertFileCount(1, 1);
+        restartActor();
+        final List<PersistentRepr> replayed = replay();
+        assertEquals(List.of(4L, 5L), replayed.stream().map(PersistentRepr::sequenceNr).toList());
+        replayed.forEach(repr -> assertEquals(WRITER_UUID, repr.writerUuid()));
+    }
+
+    private static DataJournalV1 dataJournalV1() {
+        return new DataJournalV1("foo", new MetricRegistry().histogram("messageSize"), SYSTEM, StorageLevel.DISK,
+            DIRECTORY, MESSAGE_SIZE, SEGMENT_SIZE, 0, MappedBytesBudget.unlimited(), JournalMetrics.NOOP,
+            MoreExecutors.directExecutor(), ForkJoinPool.commonPool());
+    }
+
+    private void writeEntries(final DataJournal journal, final long fromSequenceNr, final long toSequenceNr,
+            final String writerUuid) {
+        final WriteMessages write = new WriteMessages();
+        final List<Future<Optional<Exception>>> requests = new ArrayList<>();
+        for (long i = fromSequenceNr; i <= toSequenceNr; ++i) {
+            requests.add(write.add(AtomicWrite.apply(PersistentRepr.apply("entry" + i, i, "foo", "manifest", false,
+                kit.getRef(), writerUuid))));
+        }
+        journal.handleWriteMessages(write);
+        journal.flush();
+        write.setSuccess();
+        requests.forEach(future -> assertFalse(getFuture(future).isPresent()));
+    }
+
+    private void writePayloads(final LargePayload payload, final long fromSequenceNr, final long toSequenceNr,
+            final String writerUuid) {
+        final WriteMessages write = new WriteMessages();
+        final List<Future<Optional<Exception>>> requests = new ArrayList<>();
+        for (long i = fromSequenceNr; i <= toSequenceNr; ++i) {
+            requests.add(write.add(AtomicWrite.apply(PersistentRepr.apply(payload, i, "foo", "manifest", false,
+                kit.getRef(), writerUuid))));
+        }
+        actor.tell(write, ActorRef.noSender());
+        requests.forEach(future -> assertFalse(getFuture(future).isPresent()));
+    }
+
+    private void assertWriterUuids(final String... expected) {
+        actor = actor();
+        final List<PersistentRepr> replayed = replay();
+        actor.tell(PoisonPill.getInstance(), ActorRef.noSender());
+        assertEquals(List.of(expected), replayed.stream().map(PersistentRepr::writerUuid).toList());
+        replayed.forEach(repr -> assertEquals("manifest", repr.manifest()));
+    }
+
+    private static String segmentWriterUuid(final long sequenceNr) {
+        return sequenceNr < 5 || sequenceNr >= 10 ? "uuid" : WRITER_UUID;
+    }
+
+    private static String segmentManifest(final long sequenceNr) {
+        return sequenceNr == 2 || sequenceNr == 12 ? "other" : "manifest";
+    }
+
+    private void assertSegmentValues(final long fromSequenceNr, final long toSequenceNr) {
+        final List<PersistentRepr> replayed = replay();
+        assertEquals(toSequenceNr - fromSequenceNr + 1, replayed.size());
+        long sequenceNr = fromSequenceNr;
+        for (PersistentRepr repr : replayed) {
+            assertEquals(sequenceNr, repr.sequenceNr());
+            assertEquals(segmentManifest(sequenceNr), repr.manifest());
+            assertEquals(segmentWriterUuid(sequenceNr), repr.writerUuid());
+            sequenceNr++;
+        }
+    }
+
     private ActorRef actor() {
+        return actor(0);
+    }
+
+    private ActorRef actor(final int compressionThreshold) {
         return kit.childActorOf(SegmentedJournalActor.props("foo", DIRECTORY, StorageLevel.DISK, MESSAGE_SIZE,
-            SEGMENT_SIZE).withDispatcher(CallingThreadDispatcher.Id()));
+            SEGMENT_SIZE, compressionThreshold, MappedBytesBudget.unlimited(), MoreExecutors.directExecutor(),
+            ForkJoinPool.commonPool(), queuedWrites).withDispatcher(CallingThreadDispatcher.Id()));
     }
 
     private void deleteEntries(final long deleteTo) {
@@ -236,9 +661,31 @@ public class SegmentedFileJournalTest {
         verify(firstCallback, times(expected)).accept(any(PersistentRepr.class));
     }
 
+    private List<PersistentRepr> replay() {
+        return replay(0, Long.MAX_VALUE);
+    }
+
+    private List<PersistentRepr> replay(final long fromSequenceNr, final long max) {
+        // Cast fixes an Eclipse warning 'generic array created'
+        reset((Object) firstCallback);
+        doNothing().when(firstCallback).accept(any(PersistentRepr.class));
+        AsyncMessage<Void> replay = SegmentedJournalActor.replayMessages(fromSequenceNr, Long.MAX_VALUE, max,
+            firstCallback);
+        actor.tell(replay, ActorRef.noSender());
+        assertNull(get(replay));
+        final ArgumentCaptor<PersistentRepr> captor = ArgumentCaptor.forClass(PersistentRepr.class);
+        verify(firstCallback, atLeast(0)).accept(captor.capture());
+        return captor.getAllValues();
+    }
+
     private static void assertFileCount(final long dataFiles, final long deleteFiles) throws IOException {
-        List<File> contents = Files.list(DIRECTORY.toPath()).map(Path::toFile).collect(Collectors.toList());
-        assertEquals(dataFiles, contents.stream().filter(file -> file.getName().startsWith("data-")).count());
+        // Only count segment files, ignoring summaries of sealed segments
+        List<File> contents = Files.list(DIRECTORY.toPath()).map(Path::toFile)
+            .filter(file -> file.getName().endsWith(".log"))
+            .collect(Collectors.toList());
+        assertEquals(dataFiles, contents.stream()
+            .filter(file -> file.getName().startsWith(DataJournalV1.NAME + "-"))
+            .count());
         assertEquals(deleteFiles, contents.stream().filter(file -> file.getName().startsWith("delete-")).count());
     }
 
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.math.IntMath.ceilingPowerOfTwo;
+import static com.google.common.math.IntMath.isPowerOfTwo;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import java.util.ArrayDeque;
+
+/**
+ * A source of {@code byte[]} chunks for {@link ChunkedOutputStream}s producing similarly-sized results, such as
+ * serialized payloads of a single shard. It serves two purposes:
+ * <ul>
+ *   <li>it predicts the initial capacity of a new stream from the sizes recently produced, so that a typical stream
+ *       fits into its first chunk instead of growing through several smaller ones, and</li>
+ *   <li>it pools chunks which a stream discards when it is closed, i.e. those which have been copied into the final
+ *       result, in power-of-two size classes.</li>
+ * </ul>
+ * Chunks which end up being part of a stream's result are never pooled, as their lifecycle is not known.
+ *
+ * <p>
+ * This class is NOT thread-safe.
+ */
+@Beta
+public final class ChunkAllocator {
+    // Each recorded size decays the previous estimate by 1/DECAY_FACTOR
+    private static final int DECAY_FACTOR = 8;
+
+    private final ArrayDeque<byte[]>[] pools;
+    private final int maxChunkSize;
+    private final int maxPooledChunks;
+
+    private int estimate;
+
+    /**
+     * Create a new allocator.
+     *
+     * @param initialCapacity initial capacity used until sizes are recorded
+     * @param maxChunkSize maximum chunk size, must match the one used by streams
+     * @param maxPooledChunks maximum number of chunks pooled for each size
+     * @throws IllegalArgumentException if any argument is invalid
+     */
+    @SuppressWarnings("unchecked")
+    public ChunkAllocator(final int initialCapacity, final int maxChunkSize, final int maxPooledChunks) {
+        checkArgument(isPowerOfTwo(maxChunkSize), "Maximum chunk size %s is not a power of two", maxChunkSize);
+        checkArgument(maxChunkSize >= ChunkedOutputStream.MIN_ARRAY_SIZE, "Maximum chunk size %s is too small",
+            maxChunkSize);
+        checkArgument(maxPooledChunks >= 0, "Invalid maximum pooled chunks %s", maxPooledChunks);
+        this.maxChunkSize = maxChunkSize;
+        this.maxPooledChunks = maxPooledChunks;
+        estimate = Math.max(0, initialCapacity);
+        pools = new ArrayDeque[sizeClass(maxChunkSize) + 1];
+    }
+
+    /**
+     * Return the predicted capacity for a new stream.
+     *
+     * @return predicted capacity
+     */
+    public int initialCapacity() {
+        return estimate;
+    }
+
+    /**
+     * Record the size of a stream's result. The estimate tracks the recent maximum, decaying slowly so that a single
+     * large result does not inflate allocations for long.
+     *
+     * @param size result size
+     */
+    void recordSize(final int size) {
+        estimate = Math.max(size, estimate - estimate / DECAY_FACTOR);
+    }
+
+    /**
+     * Allocate a chunk. Pooled chunks are not cleared.
+     *
+     * @param size chunk size, must be a power of two
+     * @return a chunk
+     */
+    byte[] allocate(final int size) {
+        if (size <= maxChunkSize) {
+            final ArrayDeque<byte[]> pool = pools[sizeClass(size)];
+            if (pool != null) {
+                final byte[] pooled = pool.pollLast();
+                if (pooled != null) {
+                    return pooled;
+                }
+            }
+        }
+        return new byte[size];
+    }
+
+    /**
+     * Return a chunk which is no longer referenced to the pool.
+     *
+     * @param chunk the chunk
+     */
+    void release(final byte[] chunk) {
+        final int size = chunk.length;
+        if (size < ChunkedOutputStream.MIN_ARRAY_SIZE || size > maxChunkSize || !isPowerOfTwo(size)) {
+            return;
+        }
+
+        final int sizeClass = sizeClass(size);
+        ArrayDeque<byte[]> pool = pools[sizeClass];
+        if (pool == null) {
+            pool = new ArrayDeque<>(maxPooledChunks);
+            pools[sizeClass] = pool;
+        }
+        if (pool.size() < maxPooledChunks) {
+            pool.addLast(chunk);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("estimate", estimate).add("maxChunkSize", maxChunkSize)
+            .add("maxPooledChunks", maxPooledChunks).toString();
+    }
+
+    private static int sizeClass(final int size) {
+        return Integer.numberOfTrailingZeros(ceilingPowerOfTwo(size))
+            - Integer.numberOfTrailingZeros(ChunkedOutputStream.MIN_ARRAY_SIZE);
+    }
+}
@@ -12,6 +12,7 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.math.IntMath.ceilingPowerOfTwo;
 import static com.google.common.math.IntMath.isPowerOfTwo;
+import static java.util.Objects.requireNonNull;
 
 import com.google.common.annotations.Beta;
 import com.google.common.annotations.VisibleForTesting;
@@ -24,6 +25,8 @@ import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Deque;
 import java.util.Iterator;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.yangtools.concepts.Either;
 
 /**
@@ -60,8 +63,9 @@ import org.opendaylight.yangtools.concepts.Either;
  */
 @Beta
 public final class ChunkedOutputStream extends OutputStream {
-    private static final int MIN_ARRAY_SIZE = 32;
+    static final int MIN_ARRAY_SIZE = 32;
 
+    private final ChunkAllocator allocator;
     private final int maxChunkSize;
 
     // byte[] or a List
@@ -74,10 +78,28 @@ public final class ChunkedOutputStream extends OutputStream {
     private int size;
 
     public ChunkedOutputStream(final int requestedInitialCapacity, final int maxChunkSize) {
+        this(requestedInitialCapacity, maxChunkSize, null);
+    }
+
+    /**
+     * Create a new stream, which allocates its chunks from a {@link ChunkAllocator}, taking its initial capacity from
+     * {@link ChunkAllocator#initialCapacity()}. The size of the result is reported to the allocator when this stream
+     * is closed, at which point any chunks which have not become part of the result are returned to the allocator.
+     *
+     * @param allocator the allocator to use
+     * @param maxChunkSize maximum chunk size
+     */
+    public ChunkedOutputStream(final @NonNull ChunkAllocator allocator, final int maxChunkSize) {
+        this(allocator.initialCapacity(), maxChunkSize, requireNonNull(allocator));
+    }
+
+    private ChunkedOutputStream(final int requestedInitialCapacity, final int maxChunkSize,
+            final @Nullable ChunkAllocator allocator) {
         checkArgument(isPowerOfTwo(maxChunkSize), "Maximum chunk size %s is not a power of two", maxChunkSize);
         checkArgument(maxChunkSize > 0, "Maximum chunk size %s is not positive", maxChunkSize);
         this.maxChunkSize = maxChunkSize;
-        currentChunk = new byte[initialCapacity(requestedInitialCapacity, maxChunkSize)];
+        this.allocator = allocator;
+        currentChunk = allocate(initialCapacity(requestedInitialCapacity, maxChunkSize));
     }
 
     @Override
@@ -117,6 +139,9 @@ public final class ChunkedOutputStream extends OutputStream {
             result = computeResult();
             prevChunks = null;
             currentChunk = null;
+            if (allocator != null) {
+                allocator.recordSize(size);
+            }
         }
     }
 
@@ -147,6 +172,7 @@ public final class ChunkedOutputStream extends OutputStream {
             final byte[] singleChunk;
             if (currentOffset == 0 && prevChunks.size() == 1) {
                 // ... which we have readily available
+                release(currentChunk);
                 return prevChunks.getFirst();
             }
 
@@ -156,8 +182,10 @@ public final class ChunkedOutputStream extends OutputStream {
             for (byte[] chunk : prevChunks) {
                 System.arraycopy(chunk, 0, singleChunk, offset, chunk.length);
                 offset += chunk.length;
+                release(chunk);
             }
             System.arraycopy(currentChunk, 0, singleChunk, offset, currentOffset);
+            release(currentChunk);
             return singleChunk;
         }
 
@@ -184,12 +212,14 @@ public final class ChunkedOutputStream extends OutputStream {
             final byte[] chunk = prevChunks.removeFirst();
             System.arraycopy(chunk, 0, head, offset, chunk.length);
             offset += chunk.length;
+            release(chunk);
         }
         verify(offset == head.length);
         prevChunks.addFirst(head);
 
         // Now append the current chunk if need be, potentially trimming it
         if (currentOffset == 0) {
+            release(currentChunk);
             return ImmutableList.copyOf(prevChunks);
         }
 
@@ -224,10 +254,21 @@ public final class ChunkedOutputStream extends OutputStream {
         }
 
         prevChunks.addLast(currentChunk);
-        currentChunk = new byte[chunkSize];
+        currentChunk = allocate(chunkSize);
         currentOffset = 0;
     }
 
+    private byte[] allocate(final int chunkSize) {
+        return allocator != null ? allocator.allocate(chunkSize) : new byte[chunkSize];
+    }
+
+    // Release a chunk which is not part of the result
+    private void release(final byte[] chunk) {
+        if (allocator != null) {
+            allocator.release(chunk);
+        }
+    }
+
     private void checkClosed() {
         checkState(result != null, "Stream has not been closed yet");
     }
@@ -257,7 +298,12 @@ public final class ChunkedOutputStream extends OutputStream {
         return ceilingPowerOfTwo(requestedSize);
     }
 
-    private static byte[] trimChunk(final byte[] chunk, final int length) {
-        return chunk.length == length ? chunk : Arrays.copyOf(chunk, length);
+    private byte[] trimChunk(final byte[] chunk, final int length) {
+        if (chunk.length == length) {
+            return chunk;
+        }
+        final byte[] ret = Arrays.copyOf(chunk, length);
+        release(chunk);
+        return ret;
     }
 }
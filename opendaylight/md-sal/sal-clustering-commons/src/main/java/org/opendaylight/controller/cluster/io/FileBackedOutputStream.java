@@ -11,13 +11,19 @@ import com.google.common.io.ByteSource;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.ref.Cleaner;
 import java.lang.ref.Cleaner.Cleanable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
 import org.checkerframework.checker.lock.qual.GuardedBy;
 import org.checkerframework.checker.lock.qual.Holding;
 import org.eclipse.jdt.annotation.NonNull;
@@ -56,7 +62,11 @@ public class FileBackedOutputStream extends OutputStream {
     private Cleanable fileCleanup;
 
     @GuardedBy("this")
-    private ByteSource source;
+    private SliceableByteSource source;
+
+    // Shared by all slice reads, as positional reads do not modify the channel's position
+    @GuardedBy("this")
+    private FileChannel readChannel;
 
     private volatile long count;
 
@@ -75,7 +85,9 @@ public class FileBackedOutputStream extends OutputStream {
 
     /**
      * Returns a readable {@link ByteSource} view of the data that has been written to this stream. This stream is
-     * closed and further attempts to write to it will result in an IOException.
+     * closed and further attempts to write to it will result in an IOException. The returned source is a
+     * {@link SliceableByteSource}, whose slices of data buffered to a file are read from that file by position,
+     * through a single channel which is kept open until {@link #cleanup()}.
      *
      * @return a ByteSource instance
      * @throws IOException if close fails
@@ -84,10 +96,11 @@ public class FileBackedOutputStream extends OutputStream {
         close();
 
         if (source == null) {
-            source = new ByteSource() {
+            source = new SliceableByteSource() {
                 @Override
                 public InputStream openStream() throws IOException {
                     synchronized (FileBackedOutputStream.this) {
+                        checkNotCleanedUp();
                         if (file != null) {
                             return Files.newInputStream(file.toPath());
                         } else {
@@ -96,6 +109,11 @@ public class FileBackedOutputStream extends OutputStream {
                     }
                 }
 
+                @Override
+                public byte[] read(final long offset, final int length) throws IOException {
+                    return FileBackedOutputStream.this.read(offset, length);
+                }
+
                 @Override
                 public long size() {
                     return count;
@@ -106,6 +124,40 @@ public class FileBackedOutputStream extends OutputStream {
         return source;
     }
 
+    private byte[] read(final long offset, final int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, count);
+
+        final FileChannel channel;
+        synchronized (this) {
+            checkNotCleanedUp();
+            if (file == null) {
+                return Arrays.copyOfRange(memory.buf(), (int) offset, (int) offset + length);
+            }
+            if (readChannel == null) {
+                readChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            }
+            channel = readChannel;
+        }
+
+        // Positional reads may proceed concurrently, hence the channel is used without holding the lock. A concurrent
+        // cleanup() closes the channel, failing the read.
+        final byte[] ret = new byte[length];
+        final ByteBuffer dst = ByteBuffer.wrap(ret);
+        while (dst.hasRemaining()) {
+            if (channel.read(dst, offset + dst.position()) < 0) {
+                throw new EOFException("Unexpected end of file at " + (offset + dst.position()));
+            }
+        }
+        return ret;
+    }
+
+    @Holding("this")
+    private void checkNotCleanedUp() throws IOException {
+        if (file == null && memory == null) {
+            throw new IOException("The data buffered to a file has been discarded by cleanup()");
+        }
+    }
+
     @Override
     @SuppressFBWarnings(value = "VO_VOLATILE_INCREMENT", justification = "Findbugs erroneously complains that the "
         + "increment of count needs to be atomic even though it is inside a synchronized block.")
@@ -148,11 +200,20 @@ public class FileBackedOutputStream extends OutputStream {
     }
 
     /**
-     * Calls {@link #close} if not already closed and, if data was buffered to a file, deletes the file.
+     * Calls {@link #close} if not already closed and, if data was buffered to a file, deletes the file. Subsequent
+     * attempts to read the data from the file fail with an IOException.
      */
     public synchronized void cleanup() {
         LOG.debug("In cleanup");
         closeQuietly();
+        if (readChannel != null) {
+            try {
+                readChannel.close();
+            } catch (IOException e) {
+                LOG.warn("Error closing read channel of {}", file, e);
+            }
+            readChannel = null;
+        }
         if (fileCleanup != null) {
             fileCleanup.clean();
         }
@@ -7,6 +7,7 @@
  */
 package org.opendaylight.controller.cluster.io;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
 import com.google.common.annotations.Beta;
@@ -20,6 +21,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.Executor;
 import net.jpountz.lz4.LZ4FrameOutputStream;
 import org.eclipse.jdt.annotation.NonNull;
 
@@ -41,6 +43,24 @@ public abstract class InputOutputStreamFactory {
         return new LZ4InputOutputStreamSupport(requireNonNull(blockSize));
     }
 
+    /**
+     * Return a factory which writes files as a sequence of independently LZ4-compressed and checksummed chunks, which
+     * are compressed on specified executor while the caller continues to produce data. When reading such files,
+     * chunks are decompressed ahead of the caller on the same executor. Files in the format produced by
+     * {@link #lz4(String)} are read as well.
+     *
+     * @param blockSize chunk size, same as {@link #lz4(String)}
+     * @param executor executor to run compression and decompression on
+     * @param parallelism number of threads available in the executor
+     * @return a factory
+     */
+    public static @NonNull InputOutputStreamFactory parallelLz4(final String blockSize, final Executor executor,
+            final int parallelism) {
+        checkArgument(parallelism > 0, "Invalid parallelism %s", parallelism);
+        return new LZ4InputOutputStreamSupport(LZ4FrameOutputStream.BLOCKSIZE.valueOf("SIZE_" + blockSize),
+            requireNonNull(executor), parallelism);
+    }
+
     public abstract @NonNull InputStream createInputStream(ByteSource input) throws IOException;
 
     public abstract @NonNull InputStream createInputStream(File file) throws IOException;
@@ -8,12 +8,14 @@
 package org.opendaylight.controller.cluster.io;
 
 import com.google.common.io.ByteSource;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.Executor;
 import net.jpountz.lz4.LZ4Factory;
 import net.jpountz.lz4.LZ4FrameInputStream;
 import net.jpountz.lz4.LZ4FrameOutputStream;
@@ -28,16 +30,28 @@ final class LZ4InputOutputStreamSupport extends InputOutputStreamFactory {
     private static final XXHashFactory HASH_FACTORY = XXHashFactory.fastestInstance();
 
     private final LZ4FrameOutputStream.BLOCKSIZE blocksize;
+    // Non-null if files should be written in ParallelLZ4OutputStream format
+    private final Executor executor;
+    private final int parallelism;
 
     LZ4InputOutputStreamSupport(final LZ4FrameOutputStream.BLOCKSIZE blocksize) {
         this.blocksize = blocksize;
+        executor = null;
+        parallelism = 1;
+    }
+
+    LZ4InputOutputStreamSupport(final LZ4FrameOutputStream.BLOCKSIZE blocksize, final Executor executor,
+            final int parallelism) {
+        this.blocksize = blocksize;
+        this.executor = executor;
+        this.parallelism = parallelism;
     }
 
     @Override
     public InputStream createInputStream(final ByteSource input) throws IOException {
-        final InputStream stream = input.openStream();
+        final InputStream stream = input.openBufferedStream();
         try {
-            return new LZ4FrameInputStream(stream, LZ4_FACTORY.safeDecompressor(), HASH_FACTORY.hash32());
+            return createInputStream(stream);
         } catch (IOException e) {
             stream.close();
             LOG.warn("Error loading with lz4 decompression, using default one", e);
@@ -47,9 +61,9 @@ final class LZ4InputOutputStreamSupport extends InputOutputStreamFactory {
 
     @Override
     public InputStream createInputStream(final File file) throws IOException {
-        final FileInputStream fileInput = new FileInputStream(file);
+        final BufferedInputStream fileInput = defaultCreateInputStream(file);
         try {
-            return new LZ4FrameInputStream(fileInput, LZ4_FACTORY.safeDecompressor(), HASH_FACTORY.hash32());
+            return createInputStream(fileInput);
         } catch (IOException e) {
             fileInput.close();
             LOG.warn("Error loading file with lz4 decompression, using default one", e);
@@ -59,6 +73,10 @@ final class LZ4InputOutputStreamSupport extends InputOutputStreamFactory {
 
     @Override
     public OutputStream createOutputStream(final File file) throws IOException {
+        if (executor != null) {
+            return new ParallelLZ4OutputStream(new FileOutputStream(file), executor, blockBytes(),
+                2 * parallelism);
+        }
         return new LZ4FrameOutputStream(new FileOutputStream(file), blocksize, -1, LZ4_FACTORY.fastCompressor(),
             HASH_FACTORY.hash32(), Bits.BLOCK_INDEPENDENCE);
     }
@@ -68,4 +86,18 @@ final class LZ4InputOutputStreamSupport extends InputOutputStreamFactory {
         return new LZ4FrameOutputStream(output, blocksize, -1, LZ4_FACTORY.fastCompressor(), HASH_FACTORY.hash32(),
             Bits.BLOCK_INDEPENDENCE);
     }
+
+    // Files written in either format are recognized, so that the executor can be turned on and off at will
+    private InputStream createInputStream(final InputStream stream) throws IOException {
+        if (ParallelLZ4InputStream.startsWithMagic(stream)) {
+            return executor != null ? new ParallelLZ4InputStream(stream, executor, 2 * parallelism)
+                : new ParallelLZ4InputStream(stream, MoreExecutors.directExecutor(), 1);
+        }
+        return new LZ4FrameInputStream(stream, LZ4_FACTORY.safeDecompressor(), HASH_FACTORY.hash32());
+    }
+
+    private int blockBytes() {
+        // 64KB has indicator 4, each subsequent size is 4 times larger
+        return 1 << (2 * blocksize.getIndicator() + 8);
+    }
 }
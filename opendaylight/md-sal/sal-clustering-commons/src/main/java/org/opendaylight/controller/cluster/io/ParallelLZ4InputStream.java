@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.primitives.Ints;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32C;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+/**
+ * An {@link InputStream} reading the format produced by {@link ParallelLZ4OutputStream}. Chunks are read from the
+ * underlying stream by the consuming thread, but are verified and decompressed on an {@link Executor}, staying a
+ * number of chunks ahead of the consumer. This class is not thread-safe.
+ */
+final class ParallelLZ4InputStream extends InputStream {
+    private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
+    private final Deque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+    private final DataInputStream in;
+    private final Executor executor;
+    private final int readAhead;
+
+    private byte[] chunk;
+    private int position;
+    private boolean eof;
+    private boolean closed;
+
+    ParallelLZ4InputStream(final InputStream in, final Executor executor, final int readAhead) throws IOException {
+        checkArgument(readAhead > 0, "Invalid read-ahead %s", readAhead);
+        this.in = new DataInputStream(requireNonNull(in));
+        this.executor = requireNonNull(executor);
+        this.readAhead = readAhead;
+
+        final int magic = this.in.readInt();
+        if (magic != ParallelLZ4OutputStream.MAGIC) {
+            throw new IOException("Unexpected stream magic " + Integer.toHexString(magic));
+        }
+    }
+
+    /**
+     * Check whether a stream starts with {@link ParallelLZ4OutputStream#MAGIC}. The stream is reset to its current
+     * position before this method returns.
+     *
+     * @param in stream to check, must support {@link InputStream#mark(int)}
+     * @return {@code true} if the stream starts with the magic
+     * @throws IOException if an I/O error occurs
+     */
+    static boolean startsWithMagic(final InputStream in) throws IOException {
+        checkArgument(in.markSupported(), "Stream %s does not support mark", in);
+        in.mark(Integer.BYTES);
+        try {
+            final byte[] bytes = in.readNBytes(Integer.BYTES);
+            return bytes.length == Integer.BYTES && Ints.fromByteArray(bytes) == ParallelLZ4OutputStream.MAGIC;
+        } finally {
+            in.reset();
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        return ensureChunk() ? chunk[position++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureChunk()) {
+            return -1;
+        }
+
+        final int count = Math.min(len, chunk.length - position);
+        System.arraycopy(chunk, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return chunk == null ? 0 : chunk.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            chunk = null;
+            pending.forEach(future -> future.cancel(false));
+            pending.clear();
+            in.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+
+    private boolean ensureChunk() throws IOException {
+        ensureOpen();
+        while (chunk == null || position == chunk.length) {
+            fillPending();
+            final CompletableFuture<byte[]> next = pending.pollFirst();
+            if (next == null) {
+                return false;
+            }
+            // Keep decompressing ahead while the consumer works through this chunk
+            fillPending();
+            chunk = awaitChunk(next);
+            position = 0;
+        }
+        return true;
+    }
+
+    private void fillPending() throws IOException {
+        while (!eof && pending.size() < readAhead) {
+            final int length = in.readInt();
+            if (length == 0) {
+                eof = true;
+                return;
+            }
+
+            final int stored = in.readInt();
+            final int checksum = in.readInt();
+            if (length < 0 || stored < 0 || stored > length) {
+                throw new IOException("Invalid chunk size " + length + " stored as " + stored);
+            }
+            final byte[] bytes = new byte[stored];
+            in.readFully(bytes);
+            pending.addLast(CompletableFuture.supplyAsync(() -> decompress(bytes, length, checksum), executor));
+        }
+    }
+
+    private static byte[] awaitChunk(final CompletableFuture<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for chunk decompression");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException uioe) {
+                throw uioe.getCause();
+            }
+            throw new IOException("Failed to decompress chunk", cause);
+        }
+    }
+
+    private static byte[] decompress(final byte[] bytes, final int length, final int checksum) {
+        final CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        if ((int) crc.getValue() != checksum) {
+            throw new UncheckedIOException(new IOException("Chunk checksum mismatch"));
+        }
+        if (bytes.length == length) {
+            // Stored as-is
+            return bytes;
+        }
+
+        final byte[] ret = new byte[length];
+        final int size;
+        try {
+            size = DECOMPRESSOR.decompress(bytes, 0, bytes.length, ret, 0, length);
+        } catch (LZ4Exception e) {
+            throw new UncheckedIOException(new IOException("Corrupted chunk", e));
+        }
+        if (size != length) {
+            throw new UncheckedIOException(new IOException("Chunk decompressed to " + size + " instead of "
+                + length + " bytes"));
+        }
+        return ret;
+    }
+}
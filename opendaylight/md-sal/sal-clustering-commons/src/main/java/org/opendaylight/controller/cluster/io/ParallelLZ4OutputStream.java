@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32C;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+
+/**
+ * An {@link OutputStream} which splits the data written to it into fixed-size chunks, each of which is compressed
+ * with LZ4 block compression and checksummed independently on an {@link Executor}. This allows the thread producing
+ * data, typically an {@link java.io.ObjectOutputStream}, to continue serializing while previous chunks are being
+ * compressed. Chunks are written to the underlying stream in order by the producing thread. The format is:
+ * <ul>
+ *     <li>{@link #MAGIC}</li>
+ *     <li>any number of chunks, each consisting of its uncompressed size, its stored size, CRC32C of the stored bytes
+ *         and the stored bytes themselves. Chunks which do not compress are stored as-is, which is indicated by
+ *         stored size being equal to uncompressed size</li>
+ *     <li>uncompressed size of {@code 0}, indicating the end of the stream</li>
+ * </ul>
+ *
+ * <p>
+ * All integers are written in big-endian byte order. This class is not thread-safe.
+ */
+final class ParallelLZ4OutputStream extends OutputStream {
+    // "ODLZ", collides with neither LZ4 frame nor Java serialization stream magic
+    static final int MAGIC = 0x4F444C5A;
+    static final int CHUNK_HEADER_BYTES = 3 * Integer.BYTES;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+
+    private final Deque<CompletableFuture<ByteBuffer>> pending = new ArrayDeque<>();
+    private final DataOutputStream out;
+    private final Executor executor;
+    private final int chunkSize;
+    private final int maxPending;
+
+    private byte[] buffer;
+    private int position;
+    private boolean closed;
+
+    ParallelLZ4OutputStream(final OutputStream out, final Executor executor, final int chunkSize,
+            final int maxPending) throws IOException {
+        checkArgument(chunkSize > 0, "Invalid chunk size %s", chunkSize);
+        checkArgument(maxPending > 0, "Invalid maximum pending chunks %s", maxPending);
+        this.out = new DataOutputStream(requireNonNull(out));
+        this.executor = requireNonNull(executor);
+        this.chunkSize = chunkSize;
+        this.maxPending = maxPending;
+        buffer = new byte[chunkSize];
+        this.out.writeInt(MAGIC);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        ensureOpen();
+        buffer[position++] = (byte) b;
+        if (position == chunkSize) {
+            submitChunk();
+        }
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        ensureOpen();
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            final int count = Math.min(remaining, chunkSize - position);
+            System.arraycopy(b, offset, buffer, position, count);
+            position += count;
+            offset += count;
+            remaining -= count;
+            if (position == chunkSize) {
+                submitChunk();
+            }
+        }
+    }
+
+    /**
+     * Flushes chunks which have already been compressed to the underlying stream. Data which does not form a complete
+     * chunk is retained until either more data is written or this stream is closed.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        while (!pending.isEmpty() && pending.peekFirst().isDone()) {
+            writeChunk(pending.removeFirst());
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            if (position != 0) {
+                submitChunk();
+            }
+            while (!pending.isEmpty()) {
+                writeChunk(pending.removeFirst());
+            }
+            out.writeInt(0);
+        } finally {
+            buffer = null;
+            out.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+
+    private void submitChunk() throws IOException {
+        final byte[] chunk = buffer;
+        final int length = position;
+        pending.addLast(CompletableFuture.supplyAsync(() -> compress(chunk, length), executor));
+
+        buffer = new byte[chunkSize];
+        position = 0;
+
+        // Apply backpressure to the producer
+        while (pending.size() > maxPending) {
+            writeChunk(pending.removeFirst());
+        }
+    }
+
+    private void writeChunk(final CompletableFuture<ByteBuffer> future) throws IOException {
+        final ByteBuffer chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for chunk compression");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to compress chunk", e.getCause());
+        }
+        out.write(chunk.array(), chunk.arrayOffset(), chunk.remaining());
+    }
+
+    private static ByteBuffer compress(final byte[] chunk, final int length) {
+        final byte[] bytes = new byte[CHUNK_HEADER_BYTES + COMPRESSOR.maxCompressedLength(length)];
+        int stored = COMPRESSOR.compress(chunk, 0, length, bytes, CHUNK_HEADER_BYTES);
+        if (stored >= length) {
+            // Does not compress, store it as-is
+            System.arraycopy(chunk, 0, bytes, CHUNK_HEADER_BYTES, length);
+            stored = length;
+        }
+
+        final CRC32C crc = new CRC32C();
+        crc.update(bytes, CHUNK_HEADER_BYTES, stored);
+        return ByteBuffer.wrap(bytes, 0, CHUNK_HEADER_BYTES + stored)
+            .putInt(length)
+            .putInt(stored)
+            .putInt((int) crc.getValue())
+            .rewind();
+    }
+}
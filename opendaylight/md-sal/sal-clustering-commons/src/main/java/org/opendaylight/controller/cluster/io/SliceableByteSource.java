@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.io;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * A {@link ByteSource} which provides random access to its contents. Unlike {@link #openStream()}, reading a slice
+ * does not require reading or skipping the contents preceding it: the slice is copied directly out of the underlying
+ * storage, for example by a positional read of a file.
+ */
+public abstract class SliceableByteSource extends ByteSource {
+    /**
+     * Reader of consecutive slices of a {@link ByteSource}, see {@link #openSliceReader(ByteSource)}. Instances are
+     * NOT thread-safe.
+     */
+    @FunctionalInterface
+    public interface SliceReader extends Closeable {
+        /**
+         * Return a copy of a range of the source's contents. Reading the range following the one read last is
+         * efficient for any source, other ranges may require the source to be read again from its start.
+         *
+         * @param offset offset of the first byte
+         * @param length number of bytes
+         * @return A byte array of {@code length} bytes
+         * @throws IOException if an I/O error occurs or the source ends before the end of the range
+         */
+        byte @NonNull [] read(long offset, int length) throws IOException;
+
+        @Override
+        default void close() throws IOException {
+            // Nothing by default
+        }
+    }
+
+    /**
+     * A {@link SliceReader} of a source which only provides sequential access, holding a stream positioned after the
+     * slice read last.
+     */
+    private static final class StreamSliceReader implements SliceReader {
+        private final ByteSource source;
+
+        private InputStream stream;
+        private long position;
+
+        StreamSliceReader(final ByteSource source) throws IOException {
+            this.source = requireNonNull(source);
+            stream = source.openStream();
+        }
+
+        @Override
+        public byte[] read(final long offset, final int length) throws IOException {
+            if (stream == null || offset < position) {
+                close();
+                stream = source.openStream();
+                position = 0;
+            }
+
+            ByteStreams.skipFully(stream, offset - position);
+            position = offset;
+
+            final byte[] ret = new byte[length];
+            final int numRead = ByteStreams.read(stream, ret, 0, length);
+            position += numRead;
+            if (numRead != length) {
+                throw new IOException(String.format(
+                    "The # of bytes read from the input stream, %d, does not match the expected # %d", numRead,
+                    length));
+            }
+            return ret;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (stream != null) {
+                final InputStream closeMe = stream;
+                stream = null;
+                closeMe.close();
+            }
+        }
+    }
+
+    /**
+     * Return a copy of a range of this source's contents.
+     *
+     * @param offset offset of the first byte
+     * @param length number of bytes
+     * @return A byte array of {@code length} bytes
+     * @throws IndexOutOfBoundsException if the range is not within this source's contents
+     * @throws IOException if an I/O error occurs
+     */
+    public abstract byte @NonNull [] read(long offset, int length) throws IOException;
+
+    /**
+     * Open a reader of slices of the specified source. Slices of a {@link SliceableByteSource} are read directly,
+     * otherwise the source is read sequentially through a stream, which is opened immediately.
+     *
+     * @param source the source
+     * @return A SliceReader, which must be closed once it is no longer needed
+     * @throws IOException if an I/O error occurs
+     */
+    public static @NonNull SliceReader openSliceReader(final ByteSource source) throws IOException {
+        return source instanceof SliceableByteSource sliceable ? sliceable::read : new StreamSliceReader(source);
+    }
+}
@@ -9,10 +9,11 @@ package org.opendaylight.controller.cluster.messaging;
 
 import com.google.common.io.ByteSource;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.Arrays;
 import java.util.function.Consumer;
 import org.opendaylight.controller.cluster.io.FileBackedOutputStream;
+import org.opendaylight.controller.cluster.io.SliceableByteSource;
+import org.opendaylight.controller.cluster.io.SliceableByteSource.SliceReader;
 import org.opendaylight.yangtools.concepts.Identifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,7 +37,7 @@ public class SlicedMessageState<T> implements AutoCloseable {
     private final int messageSliceSize;
     private final FileBackedOutputStream fileBackedStream;
     private final T replyTarget;
-    private final ByteSource messageBytes;
+    private final SliceReader messageReader;
     private final int totalSlices;
     private final long totalMessageSize;
     private final int maxRetries;
@@ -48,7 +49,6 @@ public class SlicedMessageState<T> implements AutoCloseable {
     private int lastSliceHashCode = INITIAL_SLICE_HASH_CODE;
     private int currentSliceHashCode = INITIAL_SLICE_HASH_CODE;
     private int tryCount = 1;
-    private InputStream messageInputStream;
 
     /**
      * Constructor.
@@ -73,9 +73,9 @@ public class SlicedMessageState<T> implements AutoCloseable {
         this.onFailureCallback = onFailureCallback;
         this.logContext = logContext;
 
-        messageBytes = fileBackedStream.asByteSource();
+        final ByteSource messageBytes = fileBackedStream.asByteSource();
         totalMessageSize = messageBytes.size();
-        messageInputStream = messageBytes.openStream();
+        messageReader = SliceableByteSource.openSliceReader(messageBytes);
 
         totalSlices = (int)(totalMessageSize / messageSliceSize + (totalMessageSize % messageSliceSize > 0 ? 1 : 0));
 
@@ -182,12 +182,7 @@ public class SlicedMessageState<T> implements AutoCloseable {
         LOG.debug("{}: getNextSlice: total size: {}, offset: {}, size: {}, index: {}", logContext, totalMessageSize,
                 start, size, currentSliceIndex);
 
-        byte[] nextSlice = new byte[size];
-        int numRead = messageInputStream.read(nextSlice);
-        if (numRead != size) {
-            throw new IOException(String.format(
-                    "The # of bytes read from the input stream, %d, does not match the expected # %d", numRead, size));
-        }
+        final byte[] nextSlice = messageReader.read(start, size);
 
         lastSliceHashCode = currentSliceHashCode;
         currentSliceHashCode = Arrays.hashCode(nextSlice);
@@ -201,15 +196,11 @@ public class SlicedMessageState<T> implements AutoCloseable {
      * @throws IOException if an error occurs resetting the input stream
      */
     public void reset() throws IOException {
-        closeStream();
-
         tryCount++;
         currentByteOffset = 0;
         currentSliceIndex = FIRST_SLICE_INDEX - 1;
         lastSliceHashCode = INITIAL_SLICE_HASH_CODE;
         currentSliceHashCode = INITIAL_SLICE_HASH_CODE;
-
-        messageInputStream = messageBytes.openStream();
     }
 
     private int incrementByteOffset() {
@@ -217,21 +208,17 @@ public class SlicedMessageState<T> implements AutoCloseable {
         return currentByteOffset;
     }
 
-    private void closeStream() {
-        if (messageInputStream != null) {
-            try {
-                messageInputStream.close();
-            } catch (IOException e) {
-                LOG.warn("{}: Error closing message stream", logContext, e);
-            }
-
-            messageInputStream = null;
+    private void closeReader() {
+        try {
+            messageReader.close();
+        } catch (IOException e) {
+            LOG.warn("{}: Error closing message stream", logContext, e);
         }
     }
 
     @Override
     public void close() {
-        closeStream();
+        closeReader();
         fileBackedStream.cleanup();
     }
 }
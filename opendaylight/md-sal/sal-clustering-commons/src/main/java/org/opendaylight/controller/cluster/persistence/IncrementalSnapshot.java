@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.persistence;
+
+import java.io.IOException;
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * A snapshot which may be expressed as a delta against the last full snapshot saved for the same persistence id.
+ * {@link LocalSnapshotStore} retains that full snapshot for as long as it is the base of saved deltas and reconstructs
+ * the complete snapshot when a delta is loaded. Saving a delta fails if the store does not know of a base snapshot,
+ * for example because the last attempt to save a full snapshot has failed.
+ */
+public interface IncrementalSnapshot {
+    /**
+     * Return {@code true} if this snapshot is a delta against the last full snapshot.
+     *
+     * @return {@code true} if this snapshot is a delta
+     */
+    boolean isDelta();
+
+    /**
+     * Reconstruct the complete snapshot from this delta and the full snapshot it was taken against.
+     *
+     * @param base the full snapshot
+     * @return the complete snapshot
+     * @throws IOException if the base snapshot is not compatible with this delta
+     * @throws IllegalStateException if this snapshot is not a delta
+     */
+    @NonNull Object mergeWith(@NonNull Object base) throws IOException;
+}
@@ -20,6 +20,7 @@ import akka.persistence.snapshot.japi.SnapshotStore;
 import akka.serialization.JavaSerializer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.typesafe.config.Config;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.BufferedInputStream;
@@ -29,6 +30,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -42,6 +44,10 @@ import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -61,11 +67,36 @@ import scala.concurrent.Future;
  * @author Thomas Pantelis
  */
 public class LocalSnapshotStore extends SnapshotStore {
+    /**
+     * On-disk form of an {@link IncrementalSnapshot} delta, recording the full snapshot it needs to be merged with.
+     */
+    private static final class Delta implements Serializable {
+        @java.io.Serial
+        private static final long serialVersionUID = 1L;
+
+        private final long baseSequenceNr;
+        private final long baseTimestamp;
+        @SuppressFBWarnings(value = "SE_BAD_FIELD", justification = "Snapshots are required to be Serializable")
+        private final IncrementalSnapshot snapshot;
+
+        Delta(final SnapshotMetadata base, final IncrementalSnapshot snapshot) {
+            baseSequenceNr = base.sequenceNr();
+            baseTimestamp = base.timestamp();
+            this.snapshot = snapshot;
+        }
+    }
+
     private static final Logger LOG = LoggerFactory.getLogger(LocalSnapshotStore.class);
     private static final int PERSISTENCE_ID_START_INDEX = "snapshot-".length();
 
+    // Last full IncrementalSnapshot saved or loaded for each persistence id. These are retained when older snapshots
+    // are deleted, as deltas saved after them need them to be loaded.
+    private final ConcurrentMap<String, SnapshotMetadata> incrementalBases = new ConcurrentHashMap<>();
+
     private final InputOutputStreamFactory streamFactory;
     private final ExecutionContext executionContext;
+    // Non-null if snapshots are compressed in parallel with their serialization
+    private final ExecutorService compressionExecutor;
     private final int maxLoadAttempts;
     private final File snapshotDir;
 
@@ -77,11 +108,23 @@ public class LocalSnapshotStore extends SnapshotStore {
         final int localMaxLoadAttempts = config.getInt("max-load-attempts");
         maxLoadAttempts = localMaxLoadAttempts > 0 ? localMaxLoadAttempts : 1;
 
+        final int compressionThreads = config.hasPath("lz4-compression-threads")
+            ? config.getInt("lz4-compression-threads") : 0;
         if (config.getBoolean("use-lz4-compression")) {
             final String size = config.getString("lz4-blocksize");
-            streamFactory = InputOutputStreamFactory.lz4(size);
-            LOG.debug("Using LZ4 Input/Output Stream, blocksize: {}", size);
+            if (compressionThreads > 0) {
+                compressionExecutor = Executors.newFixedThreadPool(compressionThreads, new ThreadFactoryBuilder()
+                    .setNameFormat("snapshot-lz4-%d").setDaemon(true).build());
+                streamFactory = InputOutputStreamFactory.parallelLz4(size, compressionExecutor, compressionThreads);
+                LOG.debug("Using parallel LZ4 Input/Output Stream, blocksize: {}, threads: {}", size,
+                    compressionThreads);
+            } else {
+                compressionExecutor = null;
+                streamFactory = InputOutputStreamFactory.lz4(size);
+                LOG.debug("Using LZ4 Input/Output Stream, blocksize: {}", size);
+            }
         } else {
+            compressionExecutor = null;
             streamFactory = InputOutputStreamFactory.simple();
             LOG.debug("Using plain Input/Output Stream");
         }
@@ -101,6 +144,14 @@ public class LocalSnapshotStore extends SnapshotStore {
         super.preStart();
     }
 
+    @Override
+    public void postStop() throws Exception {
+        if (compressionExecutor != null) {
+            compressionExecutor.shutdown();
+        }
+        super.postStop();
+    }
+
     @Override
     public Future<Optional<SelectedSnapshot>> doLoadAsync(final String persistenceId,
                                                           final SnapshotSelectionCriteria criteria) {
@@ -131,6 +182,17 @@ public class LocalSnapshotStore extends SnapshotStore {
 
         try {
             Object data = deserialize(file);
+            if (data instanceof Delta delta) {
+                final SnapshotMetadata base = new SnapshotMetadata(metadata.persistenceId(), delta.baseSequenceNr,
+                    delta.baseTimestamp);
+                final File baseFile = toSnapshotFile(base);
+                LOG.debug("Merging delta with base snapshot {}", baseFile);
+
+                data = delta.snapshot.mergeWith(deserialize(baseFile));
+                incrementalBases.put(metadata.persistenceId(), base);
+            } else if (data instanceof IncrementalSnapshot) {
+                incrementalBases.put(metadata.persistenceId(), metadata);
+            }
 
             LOG.debug("deserialized data: {}", data);
 
@@ -182,13 +244,35 @@ public class LocalSnapshotStore extends SnapshotStore {
     }
 
     private Void doSave(final SnapshotMetadata metadata, final Object snapshot) throws IOException {
+        final String persistenceId = metadata.persistenceId();
+        final Object toWrite;
+        final boolean newBase;
+        if (snapshot instanceof IncrementalSnapshot incremental) {
+            if (incremental.isDelta()) {
+                final SnapshotMetadata base = incrementalBases.get(persistenceId);
+                if (base == null) {
+                    throw new IOException("No base snapshot available for delta " + metadata);
+                }
+                toWrite = new Delta(base, incremental);
+                newBase = false;
+            } else {
+                // The previous base is not usable anymore, regardless of whether the save succeeds
+                incrementalBases.remove(persistenceId);
+                toWrite = snapshot;
+                newBase = true;
+            }
+        } else {
+            toWrite = snapshot;
+            newBase = false;
+        }
+
         final File actual = toSnapshotFile(metadata);
         final File temp = File.createTempFile(actual.getName(), null, snapshotDir);
 
         LOG.debug("Saving to temp file: {}", temp);
 
         try (ObjectOutputStream out = new ObjectOutputStream(streamFactory.createOutputStream(temp))) {
-            out.writeObject(snapshot);
+            out.writeObject(toWrite);
         } catch (IOException e) {
             LOG.error("Error saving snapshot file {}. Deleting file..", temp, e);
             if (!temp.delete()) {
@@ -208,6 +292,9 @@ public class LocalSnapshotStore extends SnapshotStore {
             throw e;
         }
 
+        if (newBase) {
+            incrementalBases.put(persistenceId, metadata);
+        }
         return null;
     }
 
@@ -230,7 +317,9 @@ public class LocalSnapshotStore extends SnapshotStore {
     }
 
     private Void doDelete(final String persistenceId, final SnapshotSelectionCriteria criteria) {
+        final SnapshotMetadata base = incrementalBases.get(persistenceId);
         final List<File> files = getSnapshotMetadatas(persistenceId, criteria).stream()
+                .filter(md -> base == null || !isSameSnapshot(md, base))
                 .flatMap(md -> Stream.of(toSnapshotFile(md))).collect(Collectors.toList());
 
         LOG.debug("Deleting files: {}", files);
@@ -246,7 +335,10 @@ public class LocalSnapshotStore extends SnapshotStore {
     }
 
     private Void doDelete(final SnapshotMetadata metadata) {
-        final Collection<File> files = getSnapshotFiles(metadata);
+        final SnapshotMetadata base = incrementalBases.get(metadata.persistenceId());
+        final List<File> files = getSnapshotFiles(metadata).stream()
+                .filter(file -> base == null || !isSameSnapshot(extractMetadata(file), base))
+                .collect(Collectors.toList());
 
         LOG.debug("Deleting files: {}", files);
 
@@ -324,6 +416,10 @@ public class LocalSnapshotStore extends SnapshotStore {
             metadata.sequenceNr(), metadata.timestamp()));
     }
 
+    private static boolean isSameSnapshot(final SnapshotMetadata first, final SnapshotMetadata second) {
+        return first.sequenceNr() == second.sequenceNr() && first.timestamp() == second.timestamp();
+    }
+
     private static <T> Collector<T, ?, List<T>> reverse() {
         return Collectors.collectingAndThen(Collectors.toList(), list -> {
             Collections.reverse(list);
@@ -9,6 +9,8 @@ package org.opendaylight.controller.cluster.io;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import java.io.IOException;
 import java.util.List;
@@ -77,6 +79,48 @@ public class ChunkedOutputStreamTest {
         }
     }
 
+    @Test
+    public void testAllocator() throws IOException {
+        final var allocator = new ChunkAllocator(INITIAL_SIZE, MAX_ARRAY_SIZE, 2);
+
+        // Grows to a second chunk, both of which are copied into the result and released
+        final byte[] first = createArray(INITIAL_SIZE + 44);
+        final var firstStream = new ChunkedOutputStream(allocator, MAX_ARRAY_SIZE);
+        firstStream.write(first);
+        firstStream.close();
+        assertArrayEquals(first, firstStream.toChunkedByteArray().getChunks().get(0));
+        assertEquals(first.length, allocator.initialCapacity());
+
+        // Fits into the predicted initial chunk, which is recycled from the pool
+        final byte[] second = createArray(INITIAL_SIZE * 2);
+        final var secondStream = new ChunkedOutputStream(allocator, MAX_ARRAY_SIZE);
+        secondStream.write(second);
+        secondStream.close();
+        final byte[] result = secondStream.toChunkedByteArray().getChunks().get(0);
+        assertArrayEquals(second, result);
+        assertNotSame(result, allocator.allocate(INITIAL_SIZE * 2));
+        assertEquals(INITIAL_SIZE * 2, allocator.initialCapacity());
+
+        // Smaller results decay the estimate gradually
+        final var thirdStream = new ChunkedOutputStream(allocator, MAX_ARRAY_SIZE);
+        thirdStream.write(1);
+        thirdStream.close();
+        assertEquals(INITIAL_SIZE * 2 - INITIAL_SIZE / 4, allocator.initialCapacity());
+    }
+
+    @Test
+    public void testAllocatorPool() {
+        final var allocator = new ChunkAllocator(0, MAX_ARRAY_SIZE, 1);
+        final byte[] chunk = new byte[INITIAL_SIZE];
+        final byte[] other = new byte[INITIAL_SIZE];
+        allocator.release(chunk);
+        allocator.release(other);
+        allocator.release(new byte[INITIAL_SIZE + 1]);
+        assertSame(chunk, allocator.allocate(INITIAL_SIZE));
+        assertNotSame(other, allocator.allocate(INITIAL_SIZE));
+        assertEquals(INITIAL_SIZE + 1, allocator.allocate(INITIAL_SIZE + 1).length);
+    }
+
     private List<byte[]> assertFinishedStream(final int expectedSize, final int expectedChunks) {
         stream.close();
         final ChunkedByteArray array = stream.toChunkedByteArray();
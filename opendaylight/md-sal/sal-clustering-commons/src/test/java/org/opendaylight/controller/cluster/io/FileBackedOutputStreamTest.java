@@ -11,6 +11,7 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -136,6 +137,49 @@ public class FileBackedOutputStreamTest {
         LOG.info("testFileThresholdReachedWithWriteByte ending");
     }
 
+    @Test
+    public void testSlice() throws IOException {
+        LOG.info("testSlice starting");
+        final byte[] bytes = new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14};
+        for (int threshold : new int[] { 100, 10 }) {
+            try (FileBackedOutputStream fbos = new FileBackedOutputStream(threshold, TEMP_DIR)) {
+                fbos.write(bytes);
+
+                final SliceableByteSource source = (SliceableByteSource) fbos.asByteSource();
+                assertArrayEquals("Slice bytes", Arrays.copyOfRange(bytes, 3, 8), source.read(3, 5));
+                assertArrayEquals("All bytes", bytes, source.read(0, bytes.length));
+                assertArrayEquals("Empty slice", new byte[0], source.read(bytes.length, 0));
+
+                assertThrows(IndexOutOfBoundsException.class, () -> source.read(10, 6));
+                fbos.cleanup();
+            }
+        }
+
+        LOG.info("testSlice ending");
+    }
+
+    @Test
+    public void testSliceAfterCleanup() throws IOException {
+        LOG.info("testSliceAfterCleanup starting");
+        final byte[] bytes = new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14};
+        try (FileBackedOutputStream fbos = new FileBackedOutputStream(10, TEMP_DIR)) {
+            fbos.write(bytes);
+
+            final SliceableByteSource source = (SliceableByteSource) fbos.asByteSource();
+            final byte[] slice = source.read(3, 5);
+            fbos.cleanup();
+
+            assertNull("Found unexpected temp file", findTempFileName(TEMP_DIR));
+
+            // Slices read before cleanup are copies, further reads fail
+            assertArrayEquals("Slice bytes", Arrays.copyOfRange(bytes, 3, 8), slice);
+            assertThrows(IOException.class, () -> source.read(0, 5));
+            assertThrows(IOException.class, source::openStream);
+        }
+
+        LOG.info("testSliceAfterCleanup ending");
+    }
+
     @Test(expected = IOException.class)
     public void testWriteAfterAsByteSource() throws IOException {
         LOG.info("testWriteAfterAsByteSource starting");
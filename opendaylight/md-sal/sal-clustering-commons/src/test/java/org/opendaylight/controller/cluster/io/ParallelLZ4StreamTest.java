@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Test;
+
+public class ParallelLZ4StreamTest {
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @After
+    public void after() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        // Half compressible, half random data spanning multiple chunks and a partial one
+        final byte[] data = new byte[CHUNK_SIZE * 5 + 123];
+        new Random(42).nextBytes(data);
+        for (int i = 0; i < data.length / 2; ++i) {
+            data[i] = (byte) (i % 7);
+        }
+
+        final byte[] written = write(data);
+        assertTrue(ParallelLZ4InputStream.startsWithMagic(new ByteArrayInputStream(written)));
+        assertTrue(written.length < data.length);
+
+        try (InputStream in = new ParallelLZ4InputStream(new ByteArrayInputStream(written), executor, 4)) {
+            assertArrayEquals(data, ByteStreams.toByteArray(in));
+        }
+
+        // Read byte-by-byte with a direct executor
+        try (InputStream in = new ParallelLZ4InputStream(new ByteArrayInputStream(written), Runnable::run, 1)) {
+            for (byte b : data) {
+                assertEquals(b & 0xFF, in.read());
+            }
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        try (InputStream in = new ParallelLZ4InputStream(new ByteArrayInputStream(write(new byte[0])), executor, 2)) {
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void testCorruptedChunk() throws IOException {
+        final byte[] written = write(new byte[CHUNK_SIZE]);
+        // Flip a bit in the stored bytes of the first chunk
+        written[Integer.BYTES + ParallelLZ4OutputStream.CHUNK_HEADER_BYTES] ^= 1;
+
+        try (InputStream in = new ParallelLZ4InputStream(new ByteArrayInputStream(written), executor, 2)) {
+            final IOException ex = assertThrows(IOException.class, () -> ByteStreams.toByteArray(in));
+            assertEquals("Chunk checksum mismatch", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testTruncated() throws IOException {
+        final byte[] written = write(new byte[CHUNK_SIZE * 2]);
+        final byte[] truncated = new byte[written.length - Integer.BYTES];
+        System.arraycopy(written, 0, truncated, 0, truncated.length);
+
+        try (InputStream in = new ParallelLZ4InputStream(new ByteArrayInputStream(truncated), executor, 2)) {
+            assertThrows(IOException.class, () -> ByteStreams.toByteArray(in));
+        }
+    }
+
+    @Test
+    public void testFactoryInterop() throws IOException {
+        final byte[] data = new byte[CHUNK_SIZE * 3];
+        new Random(7).nextBytes(data);
+
+        final InputOutputStreamFactory parallel = InputOutputStreamFactory.parallelLz4("64KB", executor, 2);
+        final InputOutputStreamFactory frame = InputOutputStreamFactory.lz4("64KB");
+
+        final File file = File.createTempFile("parallel-lz4", null);
+        try {
+            try (OutputStream out = parallel.createOutputStream(file)) {
+                out.write(data);
+            }
+            assertTrue(isParallel(file));
+            assertFileContents(data, parallel, file);
+            assertFileContents(data, frame, file);
+
+            try (OutputStream out = frame.createOutputStream(file)) {
+                out.write(data);
+            }
+            assertFalse(isParallel(file));
+            assertFileContents(data, parallel, file);
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    private static boolean isParallel(final File file) throws IOException {
+        return ParallelLZ4InputStream.startsWithMagic(new ByteArrayInputStream(Files.readAllBytes(file.toPath())));
+    }
+
+    private static void assertFileContents(final byte[] expected, final InputOutputStreamFactory factory,
+            final File file) throws IOException {
+        try (InputStream in = factory.createInputStream(file)) {
+            assertArrayEquals(expected, ByteStreams.toByteArray(in));
+        }
+        try (InputStream in = factory.createInputStream(com.google.common.io.Files.asByteSource(file))) {
+            assertArrayEquals(expected, ByteStreams.toByteArray(in));
+        }
+    }
+
+    private byte[] write(final byte[] data) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (OutputStream out = new ParallelLZ4OutputStream(bos, executor, CHUNK_SIZE, 2)) {
+            // Write in odd-sized pieces to exercise chunk boundaries
+            int offset = 0;
+            while (offset < data.length) {
+                final int count = Math.min(1000, data.length - offset);
+                out.write(data, offset, count);
+                offset += count;
+            }
+        }
+        return bos.toByteArray();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.io.ByteSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import org.junit.Test;
+import org.opendaylight.controller.cluster.io.SliceableByteSource.SliceReader;
+
+public class SliceableByteSourceTest {
+    private static final byte[] BYTES = new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14};
+
+    private static final class CountingByteSource extends ByteSource {
+        int opened;
+
+        @Override
+        public InputStream openStream() {
+            opened++;
+            return new ByteArrayInputStream(BYTES);
+        }
+    }
+
+    @Test
+    public void testStreamSliceReader() throws IOException {
+        final var source = new CountingByteSource();
+        try (SliceReader reader = SliceableByteSource.openSliceReader(source)) {
+            assertArrayEquals(Arrays.copyOfRange(BYTES, 0, 5), reader.read(0, 5));
+            assertArrayEquals(Arrays.copyOfRange(BYTES, 5, 10), reader.read(5, 5));
+            assertArrayEquals(Arrays.copyOfRange(BYTES, 12, 15), reader.read(12, 3));
+            assertEquals("Consecutive slices are read from one stream", 1, source.opened);
+
+            assertArrayEquals(Arrays.copyOfRange(BYTES, 3, 8), reader.read(3, 5));
+            assertEquals("Preceding slice reopens the stream", 2, source.opened);
+
+            assertThrows(IOException.class, () -> reader.read(10, 6));
+        }
+    }
+
+    @Test
+    public void testSliceableSliceReader() throws IOException {
+        try (FileBackedOutputStream fbos = new FileBackedOutputStream(10, null)) {
+            fbos.write(BYTES);
+
+            try (SliceReader reader = SliceableByteSource.openSliceReader(fbos.asByteSource())) {
+                assertArrayEquals(Arrays.copyOfRange(BYTES, 10, 15), reader.read(10, 5));
+                assertArrayEquals(Arrays.copyOfRange(BYTES, 3, 8), reader.read(3, 5));
+            }
+            fbos.cleanup();
+        }
+    }
+}
@@ -102,7 +102,7 @@ public class MessageSlicerTest extends AbstractMessagingTest {
 
     @Test
     public void testSliceWithInputStreamFailure() throws IOException {
-        doReturn(0).when(mockInputStream).read(any(byte[].class));
+        doReturn(-1).when(mockInputStream).read(any(byte[].class), anyInt(), anyInt());
 
         try (MessageSlicer slicer = newMessageSlicer("testSliceWithInputStreamFailure", 2)) {
             final boolean wasSliced = slice(slicer, IDENTIFIER, new BytesMessage(new byte[]{}), testProbe.ref(),
@@ -126,7 +126,7 @@ public class MessageSlicerTest extends AbstractMessagingTest {
 
     @Test
     public void testCloseAllSlicedMessageState() throws IOException {
-        doReturn(1).when(mockInputStream).read(any(byte[].class));
+        doReturn(1).when(mockInputStream).read(any(byte[].class), anyInt(), anyInt());
 
         final MessageSlicer slicer = newMessageSlicer("testCloseAllSlicedMessageState", 1);
         slice(slicer, IDENTIFIER, new BytesMessage(new byte[]{1, 2}), testProbe.ref(), testProbe.ref(),
@@ -140,7 +140,7 @@ public class MessageSlicerTest extends AbstractMessagingTest {
 
     @Test
     public void testCancelSlicing() throws IOException {
-        doReturn(1).when(mockInputStream).read(any(byte[].class));
+        doReturn(1).when(mockInputStream).read(any(byte[].class), anyInt(), anyInt());
 
         final MessageSlicer slicer = newMessageSlicer("testCloseAllSlicedMessageState", 1);
         slicer.slice(SliceOptions.builder().identifier(IDENTIFIER).fileBackedOutputStream(mockFiledBackedStream)
@@ -161,7 +161,7 @@ public class MessageSlicerTest extends AbstractMessagingTest {
 
     @Test
     public void testCheckExpiredSlicedMessageState() throws IOException {
-        doReturn(1).when(mockInputStream).read(any(byte[].class));
+        doReturn(1).when(mockInputStream).read(any(byte[].class), anyInt(), anyInt());
 
         final int expiryDuration = 200;
         try (MessageSlicer slicer = MessageSlicer.builder().messageSliceSize(1)
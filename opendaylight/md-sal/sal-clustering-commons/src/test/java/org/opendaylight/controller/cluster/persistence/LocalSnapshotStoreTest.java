@@ -17,13 +17,20 @@ import static org.opendaylight.controller.cluster.persistence.LocalSnapshotStore
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.actor.ExtendedActorSystem;
+import akka.persistence.DeleteSnapshotSuccess;
+import akka.persistence.DeleteSnapshotsSuccess;
 import akka.persistence.Persistence;
+import akka.persistence.SaveSnapshotFailure;
+import akka.persistence.SaveSnapshotSuccess;
 import akka.persistence.SelectedSnapshot;
 import akka.persistence.SnapshotMetadata;
 import akka.persistence.SnapshotProtocol;
+import akka.persistence.SnapshotProtocol.DeleteSnapshot;
+import akka.persistence.SnapshotProtocol.DeleteSnapshots;
 import akka.persistence.SnapshotProtocol.LoadSnapshot;
 import akka.persistence.SnapshotProtocol.LoadSnapshotFailed;
 import akka.persistence.SnapshotProtocol.LoadSnapshotResult;
+import akka.persistence.SnapshotProtocol.SaveSnapshot;
 import akka.persistence.SnapshotSelectionCriteria;
 import akka.persistence.serialization.Snapshot;
 import akka.persistence.serialization.SnapshotSerializer;
@@ -32,6 +39,7 @@ import com.typesafe.config.ConfigFactory;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.Serializable;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import org.apache.commons.io.FileUtils;
@@ -185,6 +193,57 @@ public class LocalSnapshotStoreTest {
         assertEquals("SelectedSnapshot snapshot", "one", possibleSnapshot.get().snapshot());
     }
 
+    @Test
+    public void testIncrementalSnapshots() {
+        final TestKit probe = new TestKit(system);
+
+        // A delta without a base cannot be saved
+        snapshotStore.tell(new SaveSnapshot(new SnapshotMetadata(PERSISTENCE_ID, 1, 0),
+            new TestIncrementalSnapshot("a", true)), probe.getRef());
+        probe.expectMsgClass(SaveSnapshotFailure.class);
+
+        final SnapshotMetadata base = saveSnapshot(probe, 1, new TestIncrementalSnapshot("a", false));
+        saveSnapshot(probe, 2, new TestIncrementalSnapshot("b", true));
+        final SnapshotMetadata last = saveSnapshot(probe, 3, new TestIncrementalSnapshot("bc", true));
+
+        // Deleting older snapshots must retain the base
+        deleteSnapshots(probe, last.timestamp() - 1);
+        assertEquals(2, SNAPSHOT_DIR.list().length);
+
+        // Explicitly deleting the base must retain it, too
+        snapshotStore.tell(new DeleteSnapshot(base), probe.getRef());
+        probe.expectMsgClass(DeleteSnapshotSuccess.class);
+        assertEquals(2, SNAPSHOT_DIR.list().length);
+
+        snapshotStore.tell(new LoadSnapshot(PERSISTENCE_ID, SnapshotSelectionCriteria.latest(), Long.MAX_VALUE),
+            probe.getRef());
+        final Option<SelectedSnapshot> possibleSnapshot = probe.expectMsgClass(LoadSnapshotResult.class).snapshot();
+        assertEquals("SelectedSnapshot present", TRUE, possibleSnapshot.nonEmpty());
+        assertEquals("SelectedSnapshot metadata", last, possibleSnapshot.get().metadata());
+        assertEquals("SelectedSnapshot snapshot", new TestIncrementalSnapshot("abc", false),
+            possibleSnapshot.get().snapshot());
+
+        // A new full snapshot replaces the base
+        final SnapshotMetadata full = saveSnapshot(probe, 4, new TestIncrementalSnapshot("d", false));
+        deleteSnapshots(probe, full.timestamp() - 1);
+        assertEquals(1, SNAPSHOT_DIR.list().length);
+    }
+
+    private static SnapshotMetadata saveSnapshot(final TestKit probe, final long seqNr, final Object snapshot) {
+        snapshotStore.tell(new SaveSnapshot(new SnapshotMetadata(PERSISTENCE_ID, seqNr, 0), snapshot),
+            probe.getRef());
+        final SnapshotMetadata metadata = probe.expectMsgClass(SaveSnapshotSuccess.class).metadata();
+        // Make sure the next snapshot gets a different timestamp
+        probe.awaitCond(() -> System.currentTimeMillis() > metadata.timestamp());
+        return metadata;
+    }
+
+    private static void deleteSnapshots(final TestKit probe, final long maxTimestamp) {
+        snapshotStore.tell(new DeleteSnapshots(PERSISTENCE_ID,
+            new SnapshotSelectionCriteria(Long.MAX_VALUE, maxTimestamp, 0, 0)), probe.getRef());
+        probe.expectMsgClass(DeleteSnapshotsSuccess.class);
+    }
+
     private static void createSnapshotFile(final String persistenceId, final String payload, final int seqNr,
             final int timestamp) throws IOException {
         String name = toSnapshotName(persistenceId, seqNr, timestamp);
@@ -198,4 +257,43 @@ public class LocalSnapshotStoreTest {
     private static String toSnapshotName(final String persistenceId, final int seqNr, final int timestamp) {
         return "snapshot-" + URLEncoder.encode(persistenceId, StandardCharsets.UTF_8) + "-" + seqNr + "-" + timestamp;
     }
+
+    private static final class TestIncrementalSnapshot implements IncrementalSnapshot, Serializable {
+        @java.io.Serial
+        private static final long serialVersionUID = 1L;
+
+        private final String value;
+        private final boolean delta;
+
+        TestIncrementalSnapshot(final String value, final boolean delta) {
+            this.value = value;
+            this.delta = delta;
+        }
+
+        @Override
+        public boolean isDelta() {
+            return delta;
+        }
+
+        @Override
+        public Object mergeWith(final Object base) {
+            // Deltas are cumulative, hence only the base value is retained
+            return new TestIncrementalSnapshot(((TestIncrementalSnapshot) base).value + value, false);
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof TestIncrementalSnapshot other && value.equals(other.value) && delta == other.delta;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
 }
@@ -71,6 +71,9 @@ public class DatastoreContext implements ClientActorConfig {
     public static final String DEFAULT_RECOVERY_EXPORT_BASE_DIR = "persistence-export";
 
     public static final long DEFAULT_SYNC_INDEX_THRESHOLD = 10;
+    public static final int DEFAULT_MAX_IN_FLIGHT_APPEND_ENTRIES = 1;
+    public static final int DEFAULT_MAX_IN_FLIGHT_SNAPSHOT_CHUNKS = 1;
+    public static final boolean DEFAULT_RESUMABLE_SNAPSHOT_INSTALL = false;
 
     private static final Logger LOG = LoggerFactory.getLogger(DatastoreContext.class);
 
@@ -106,6 +109,7 @@ public class DatastoreContext implements ClientActorConfig {
     private long noProgressTimeout = AbstractClientConnection.DEFAULT_NO_PROGRESS_TIMEOUT_NANOS;
     private int initialPayloadSerializedBufferCapacity = DEFAULT_INITIAL_PAYLOAD_SERIALIZED_BUFFER_CAPACITY;
     private boolean useLz4Compression = false;
+    private int maxIncrementalSnapshots = 0;
     private ExportOnRecovery exportOnRecovery = DEFAULT_EXPORT_ON_RECOVERY;
     private String recoveryExportBaseDir = DEFAULT_RECOVERY_EXPORT_BASE_DIR;
 
@@ -124,6 +128,9 @@ public class DatastoreContext implements ClientActorConfig {
         setElectionTimeoutFactor(DEFAULT_SHARD_ELECTION_TIMEOUT_FACTOR);
         setCandidateElectionTimeoutDivisor(DEFAULT_SHARD_CANDIDATE_ELECTION_TIMEOUT_DIVISOR);
         setSyncIndexThreshold(DEFAULT_SYNC_INDEX_THRESHOLD);
+        setMaxInFlightAppendEntries(DEFAULT_MAX_IN_FLIGHT_APPEND_ENTRIES);
+        setMaxInFlightSnapshotChunks(DEFAULT_MAX_IN_FLIGHT_SNAPSHOT_CHUNKS);
+        setResumableSnapshotInstall(DEFAULT_RESUMABLE_SNAPSHOT_INSTALL);
         setMaximumMessageSliceSize(DEFAULT_MAX_MESSAGE_SLICE_SIZE);
     }
 
@@ -154,6 +161,7 @@ public class DatastoreContext implements ClientActorConfig {
         noProgressTimeout = other.noProgressTimeout;
         initialPayloadSerializedBufferCapacity = other.initialPayloadSerializedBufferCapacity;
         useLz4Compression = other.useLz4Compression;
+        maxIncrementalSnapshots = other.maxIncrementalSnapshots;
         exportOnRecovery = other.exportOnRecovery;
         recoveryExportBaseDir = other.recoveryExportBaseDir;
 
@@ -173,6 +181,9 @@ public class DatastoreContext implements ClientActorConfig {
         setTempFileDirectory(other.getTempFileDirectory());
         setFileBackedStreamingThreshold(other.getFileBackedStreamingThreshold());
         setSyncIndexThreshold(other.raftConfig.getSyncIndexThreshold());
+        setMaxInFlightAppendEntries(other.raftConfig.getMaxInFlightAppendEntries());
+        setMaxInFlightSnapshotChunks(other.raftConfig.getMaxInFlightSnapshotChunks());
+        setResumableSnapshotInstall(other.raftConfig.isResumableSnapshotInstall());
     }
 
     public static Builder newBuilder() {
@@ -350,6 +361,18 @@ public class DatastoreContext implements ClientActorConfig {
         raftConfig.setSyncIndexThreshold(syncIndexThreshold);
     }
 
+    private void setMaxInFlightAppendEntries(final int maxInFlightAppendEntries) {
+        raftConfig.setMaxInFlightAppendEntries(maxInFlightAppendEntries);
+    }
+
+    private void setMaxInFlightSnapshotChunks(final int maxInFlightSnapshotChunks) {
+        raftConfig.setMaxInFlightSnapshotChunks(maxInFlightSnapshotChunks);
+    }
+
+    private void setResumableSnapshotInstall(final boolean resumableSnapshotInstall) {
+        raftConfig.setResumableSnapshotInstall(resumableSnapshotInstall);
+    }
+
     public int getShardBatchedModificationCount() {
         return shardBatchedModificationCount;
     }
@@ -375,6 +398,16 @@ public class DatastoreContext implements ClientActorConfig {
         return useLz4Compression;
     }
 
+    /**
+     * Return the maximum number of incremental snapshots a shard takes between two full snapshots. Zero means
+     * incremental snapshots are disabled.
+     *
+     * @return maximum number of consecutive incremental snapshots
+     */
+    public int getMaxIncrementalSnapshots() {
+        return maxIncrementalSnapshots;
+    }
+
     public ExportOnRecovery getExportOnRecovery() {
         return exportOnRecovery;
     }
@@ -615,6 +648,12 @@ public class DatastoreContext implements ClientActorConfig {
             return this;
         }
 
+        public Builder maxIncrementalSnapshots(final int value) {
+            checkArgument(value >= 0);
+            datastoreContext.maxIncrementalSnapshots = value;
+            return this;
+        }
+
         public Builder exportOnRecovery(final ExportOnRecovery value) {
             datastoreContext.exportOnRecovery = value;
             return this;
@@ -672,6 +711,21 @@ public class DatastoreContext implements ClientActorConfig {
             return this;
         }
 
+        public Builder maxInFlightAppendEntries(final int maxInFlightAppendEntries) {
+            datastoreContext.setMaxInFlightAppendEntries(maxInFlightAppendEntries);
+            return this;
+        }
+
+        public Builder maxInFlightSnapshotChunks(final int maxInFlightSnapshotChunks) {
+            datastoreContext.setMaxInFlightSnapshotChunks(maxInFlightSnapshotChunks);
+            return this;
+        }
+
+        public Builder resumableSnapshotInstall(final boolean resumableSnapshotInstall) {
+            datastoreContext.setResumableSnapshotInstall(resumableSnapshotInstall);
+            return this;
+        }
+
         public Builder backendAlivenessTimerIntervalInSeconds(final long interval) {
             datastoreContext.backendAlivenessTimerInterval = TimeUnit.SECONDS.toNanos(interval);
             return this;
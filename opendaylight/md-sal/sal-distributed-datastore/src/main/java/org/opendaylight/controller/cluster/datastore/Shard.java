@@ -274,7 +274,7 @@ public class Shard extends RaftActor {
                 self(), getContext(), shardMBean, builder.getId().getShardName());
 
         snapshotCohort = ShardSnapshotCohort.create(getContext(), builder.getId().getMemberName(), store, LOG,
-            name, datastoreContext);
+            name, datastoreContext, dispatchers);
 
         messageRetrySupport = new ShardTransactionMessageRetrySupport(this);
 
@@ -8,6 +8,7 @@
 package org.opendaylight.controller.cluster.datastore;
 
 import static akka.actor.ActorRef.noSender;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.base.Verify.verifyNotNull;
@@ -31,14 +32,20 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Queue;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -58,6 +65,7 @@ import org.opendaylight.controller.cluster.datastore.persisted.CloseLocalHistory
 import org.opendaylight.controller.cluster.datastore.persisted.CommitTransactionPayload;
 import org.opendaylight.controller.cluster.datastore.persisted.CreateLocalHistoryPayload;
 import org.opendaylight.controller.cluster.datastore.persisted.DataTreeCandidateInputOutput.DataTreeCandidateWithVersion;
+import org.opendaylight.controller.cluster.datastore.persisted.IncrementalShardSnapshotState;
 import org.opendaylight.controller.cluster.datastore.persisted.MetadataShardDataTreeSnapshot;
 import org.opendaylight.controller.cluster.datastore.persisted.PayloadVersion;
 import org.opendaylight.controller.cluster.datastore.persisted.PurgeLocalHistoryPayload;
@@ -69,6 +77,7 @@ import org.opendaylight.controller.cluster.datastore.persisted.SkipTransactionsP
 import org.opendaylight.controller.cluster.datastore.utils.DataTreeModificationOutput;
 import org.opendaylight.controller.cluster.datastore.utils.ImmutableUnsignedLongSet;
 import org.opendaylight.controller.cluster.datastore.utils.PruningDataTreeModification;
+import org.opendaylight.controller.cluster.io.ChunkAllocator;
 import org.opendaylight.controller.cluster.raft.base.messages.InitiateCaptureSnapshot;
 import org.opendaylight.controller.cluster.raft.messages.Payload;
 import org.opendaylight.mdsal.common.api.OptimisticLockFailedException;
@@ -83,6 +92,7 @@ import org.opendaylight.yangtools.yang.data.codec.binfmt.NormalizedNodeStreamVer
 import org.opendaylight.yangtools.yang.data.tree.api.ConflictingModificationAppliedException;
 import org.opendaylight.yangtools.yang.data.tree.api.DataTree;
 import org.opendaylight.yangtools.yang.data.tree.api.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.tree.api.DataTreeCandidateNode;
 import org.opendaylight.yangtools.yang.data.tree.api.DataTreeCandidateTip;
 import org.opendaylight.yangtools.yang.data.tree.api.DataTreeConfiguration;
 import org.opendaylight.yangtools.yang.data.tree.api.DataTreeModification;
@@ -135,6 +145,12 @@ public class ShardDataTree extends ShardDataTreeTransactionParent {
      */
     private static final int MAX_TRANSACTION_BATCH = 100;
 
+    /**
+     * Depth down to which changed subtrees are tracked for incremental snapshots. Changes below this depth are
+     * attributed to their ancestor at this depth, bounding the number of tracked paths.
+     */
+    private static final int MAX_TRACKED_DEPTH = 3;
+
     private final Map<LocalHistoryIdentifier, ShardDataTreeTransactionChain> transactionChains = new HashMap<>();
     private final DataTreeCohortActorRegistry cohortRegistry = new DataTreeCohortActorRegistry();
     private final Deque<CommitEntry> pendingTransactions = new ArrayDeque<>();
@@ -166,6 +182,16 @@ public class ShardDataTree extends ShardDataTreeTransactionParent {
 
     private int currentTransactionBatch;
 
+    /**
+     * Paths changed since the last full snapshot, or null if we are not tracking changes.
+     */
+    private Set<YangInstanceIdentifier> changedPaths;
+
+    /**
+     * Allocator of {@link CommitTransactionPayload} serialization buffers, initialized on first use.
+     */
+    private ChunkAllocator payloadAllocator;
+
     ShardDataTree(final Shard shard, final EffectiveModelContext schemaContext, final DataTree dataTree,
             final ShardDataTreeChangeListenerPublisher treeChangeListenerPublisher,
             final String logContext,
@@ -237,6 +263,94 @@ public class ShardDataTree extends ShardDataTreeTransactionParent {
      */
     @NonNull ShardDataTreeSnapshot takeStateSnapshot() {
         final NormalizedNode rootNode = takeSnapshot().readNode(YangInstanceIdentifier.empty()).orElseThrow();
+        return new MetadataShardDataTreeSnapshot(rootNode, snapshotMetadata());
+    }
+
+    /**
+     * Take a full snapshot of current state and start tracking changed paths, so that subsequent snapshots can be
+     * taken via {@link #takeIncrementalSnapshot()}.
+     *
+     * @return A state snapshot
+     */
+    @NonNull ShardDataTreeSnapshot takeBaseSnapshot() {
+        final ShardDataTreeSnapshot ret = takeStateSnapshot();
+        changedPaths = new HashSet<>();
+        return ret;
+    }
+
+    /**
+     * Take a snapshot of the subtrees which have changed since the last {@link #takeBaseSnapshot()}.
+     *
+     * @return An incremental snapshot, or null if changes are not being tracked
+     */
+    @Nullable IncrementalShardSnapshotState takeIncrementalSnapshot() {
+        if (changedPaths == null) {
+            return null;
+        }
+
+        // Process shallower paths first, so we can skip paths which are covered by their ancestors
+        final List<YangInstanceIdentifier> paths = new ArrayList<>(changedPaths);
+        paths.sort(Comparator.comparingInt(path -> path.getPathArguments().size()));
+
+        final DataTreeSnapshot snapshot = takeSnapshot();
+        final Set<YangInstanceIdentifier> covered = new HashSet<>();
+        final Map<YangInstanceIdentifier, NormalizedNode> writes = new LinkedHashMap<>();
+        final Set<YangInstanceIdentifier> deletes = new LinkedHashSet<>();
+        for (YangInstanceIdentifier path : paths) {
+            if (isCovered(covered, path)) {
+                continue;
+            }
+            covered.add(path);
+
+            final Optional<NormalizedNode> data = snapshot.readNode(path);
+            if (data.isPresent()) {
+                writes.put(path, data.orElseThrow());
+            } else {
+                deletes.add(path);
+            }
+        }
+
+        // Compact the tracked set as well
+        changedPaths = covered;
+        return new IncrementalShardSnapshotState(snapshotMetadata(), writes, deletes);
+    }
+
+    private static boolean isCovered(final Set<YangInstanceIdentifier> covered, final YangInstanceIdentifier path) {
+        final int depth = path.getPathArguments().size();
+        for (int i = 0; i < depth; ++i) {
+            if (covered.contains(path.getAncestor(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void trackChanges(final DataTreeCandidate candidate) {
+        if (changedPaths != null) {
+            trackChanges(candidate.getRootPath(), candidate.getRootNode());
+        }
+    }
+
+    private void trackChanges(final YangInstanceIdentifier path, final DataTreeCandidateNode node) {
+        switch (node.getModificationType()) {
+            case UNMODIFIED:
+                return;
+            case SUBTREE_MODIFIED:
+                if (path.getPathArguments().size() < MAX_TRACKED_DEPTH) {
+                    for (DataTreeCandidateNode child : node.getChildNodes()) {
+                        trackChanges(path.node(child.getIdentifier()), child);
+                    }
+                    return;
+                }
+                changedPaths.add(path);
+                return;
+            default:
+                changedPaths.add(path);
+        }
+    }
+
+    private Map<Class<? extends ShardDataTreeSnapshotMetadata<?>>, ShardDataTreeSnapshotMetadata<?>>
+            snapshotMetadata() {
         final Builder<Class<? extends ShardDataTreeSnapshotMetadata<?>>, ShardDataTreeSnapshotMetadata<?>> metaBuilder =
                 ImmutableMap.builder();
 
@@ -246,8 +360,7 @@ public class ShardDataTree extends ShardDataTreeTransactionParent {
                 metaBuilder.put(meta.getType(), meta);
             }
         }
-
-        return new MetadataShardDataTreeSnapshot(rootNode, metaBuilder.build());
+        return metaBuilder.build();
     }
 
     private boolean anyPendingTransactions() {
@@ -268,15 +381,9 @@ public class ShardDataTree extends ShardDataTreeTransactionParent {
         } else {
             snapshotMeta = ImmutableMap.of();
         }
-
-        for (ShardDataTreeMetadata<?> m : metadata) {
-            final ShardDataTreeSnapshotMetadata<?> s = snapshotMeta.get(m.getSupportedType());
-            if (s != null) {
-                m.applySnapshot(s);
-            } else {
-                m.reset();
-            }
-        }
+        applySnapshotMetadata(snapshotMeta);
+        // Changes are tracked against a base snapshot taken after this point
+        changedPaths = null;
 
         final DataTreeModification unwrapped = newModification();
         final DataTreeModification mod = wrapper.apply(unwrapped);
@@ -298,6 +405,18 @@ public class ShardDataTree extends ShardDataTreeTransactionParent {
         LOG.debug("{}: state snapshot applied in {}", logContext, elapsed);
     }
 
+    private void applySnapshotMetadata(
+            final Map<Class<? extends ShardDataTreeSnapshotMetadata<?>>, ShardDataTreeSnapshotMetadata<?>> snapshotMeta) {
+        for (ShardDataTreeMetadata<?> m : metadata) {
+            final ShardDataTreeSnapshotMetadata<?> s = snapshotMeta.get(m.getSupportedType());
+            if (s != null) {
+                m.applySnapshot(s);
+            } else {
+                m.reset();
+            }
+        }
+    }
+
     /**
      * Apply a snapshot coming from the leader. This method assumes the leader and follower SchemaContexts match and
      * does not perform any pruning.
@@ -331,6 +450,37 @@ public class ShardDataTree extends ShardDataTreeTransactionParent {
         }
     }
 
+    /**
+     * Apply an incremental snapshot coming from recovery, which has been merged with its full snapshot. Like
+     * {@link #applyRecoverySnapshot(ShardSnapshotState)}, this method performs data pruning.
+     *
+     * @param snapshot Snapshot that needs to be applied
+     * @throws DataValidationFailedException when the snapshot fails to apply
+     * @throws IllegalArgumentException if the snapshot has not been merged with its full snapshot
+     */
+    final void applyRecoverySnapshot(final @NonNull IncrementalShardSnapshotState snapshot)
+            throws DataValidationFailedException {
+        final ShardSnapshotState base = snapshot.getBase();
+        checkArgument(base != null, "Incremental snapshot %s has not been merged with its base", snapshot);
+        applyRecoverySnapshot(base);
+
+        final DataTreeModification unwrapped = newModification();
+        final DataTreeModification mod = createPruningModification(unwrapped, base.needsMigration());
+        for (YangInstanceIdentifier path : snapshot.getDeletes()) {
+            mod.delete(path);
+        }
+        for (Entry<YangInstanceIdentifier, NormalizedNode> entry : snapshot.getWrites().entrySet()) {
+            mod.write(entry.getKey(), entry.getValue());
+        }
+        mod.ready();
+
+        dataTree.validate(unwrapped);
+        DataTreeCandidateTip candidate = dataTree.prepare(unwrapped);
+        dataTree.commit(candidate);
+        notifyListeners(candidate);
+        applySnapshotMetadata(snapshot.getMetadata());
+    }
+
     @SuppressWarnings("checkstyle:IllegalCatch")
     private void applyRecoveryCandidate(final CommitTransactionPayload payload) throws IOException {
         final Entry<TransactionIdentifier, DataTreeCandidateWithVersion> entry = payload.acquireCandidate();
@@ -409,6 +559,7 @@ public class ShardDataTree extends ShardDataTreeTransactionParent {
         dataTree.validate(mod);
         final DataTreeCandidate candidate = dataTree.prepare(mod);
         dataTree.commit(candidate);
+        trackChanges(candidate);
 
         allMetadataCommittedTransaction(identifier);
         notifyListeners(candidate);
@@ -513,6 +664,15 @@ public class ShardDataTree extends ShardDataTreeTransactionParent {
         shard.persistPayload(id, payload, true);
     }
 
+    private ChunkAllocator payloadAllocator() {
+        var local = payloadAllocator;
+        if (local == null) {
+            payloadAllocator = local = CommitTransactionPayload.newChunkAllocator(
+                shard.getDatastoreContext().getInitialPayloadSerializedBufferCapacity());
+        }
+        return local;
+    }
+
     private void payloadReplicationComplete(final AbstractIdentifiablePayload<?> payload) {
         final Runnable callback = replicationCallbacks.remove(payload);
         if (callback != null) {
@@ -1088,6 +1248,7 @@ public class ShardDataTree extends ShardDataTreeTransactionParent {
             failCommit(e);
             return;
         }
+        trackChanges(candidate);
 
         allMetadataCommittedTransaction(txId);
         shard.getShardMBean().incrementCommittedTransactionCount();
@@ -1118,8 +1279,7 @@ public class ShardDataTree extends ShardDataTreeTransactionParent {
         final TransactionIdentifier txId = cohort.getIdentifier();
         final Payload payload;
         try {
-            payload = CommitTransactionPayload.create(txId, candidate, PayloadVersion.current(),
-                    shard.getDatastoreContext().getInitialPayloadSerializedBufferCapacity());
+            payload = CommitTransactionPayload.create(txId, candidate, PayloadVersion.current(), payloadAllocator());
         } catch (IOException e) {
             LOG.error("{}: Failed to encode transaction {} candidate {}", logContext, txId, candidate, e);
             pendingCommits.poll().cohort.failedCommit(e);
@@ -11,6 +11,7 @@ import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 
 import java.io.File;
+import org.opendaylight.controller.cluster.datastore.persisted.IncrementalShardSnapshotState;
 import org.opendaylight.controller.cluster.datastore.persisted.ShardDataTreeSnapshot;
 import org.opendaylight.controller.cluster.datastore.persisted.ShardSnapshotState;
 import org.opendaylight.controller.cluster.datastore.utils.NormalizedNodeXMLOutput;
@@ -120,6 +121,10 @@ abstract class ShardRecoveryCoordinator implements RaftActorRecoveryCohort {
     @Override
     @SuppressWarnings("checkstyle:IllegalCatch")
     public void applyRecoverySnapshot(final Snapshot.State snapshotState) {
+        if (snapshotState instanceof IncrementalShardSnapshotState incremental) {
+            applyIncrementalSnapshot(incremental);
+            return;
+        }
         if (!(snapshotState instanceof ShardSnapshotState)) {
             log.debug("{}: applyRecoverySnapshot ignoring snapshot: {}", shardName, snapshotState);
             return;
@@ -137,4 +142,25 @@ abstract class ShardRecoveryCoordinator implements RaftActorRecoveryCohort {
                     shardName, shardSnapshot, f), e);
         }
     }
+
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    private void applyIncrementalSnapshot(final IncrementalShardSnapshotState snapshotState) {
+        final ShardSnapshotState base = snapshotState.getBase();
+        if (base == null) {
+            throw new IllegalStateException(String.format(
+                "%s: Recovered incremental snapshot %s without its base snapshot. Is the snapshot store configured "
+                    + "to support incremental snapshots?", shardName, snapshotState));
+        }
+
+        log.debug("{}: Applying recovered incremental snapshot", shardName);
+        try {
+            store.applyRecoverySnapshot(snapshotState);
+        } catch (Exception e) {
+            final ShardDataTreeSnapshot shardSnapshot = base.getSnapshot();
+            final File f = writeRoot("snapshot", shardSnapshot.getRootNode().orElse(null));
+            throw new IllegalStateException(String.format(
+                    "%s: Failed to apply recovery snapshot %s on top of %s. Base node data was written to file %s",
+                    shardName, snapshotState, shardSnapshot, f), e);
+        }
+    }
 }
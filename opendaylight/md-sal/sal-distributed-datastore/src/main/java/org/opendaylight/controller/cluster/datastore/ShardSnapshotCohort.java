@@ -21,11 +21,14 @@ import org.opendaylight.controller.cluster.access.concepts.FrontendIdentifier;
 import org.opendaylight.controller.cluster.access.concepts.FrontendType;
 import org.opendaylight.controller.cluster.access.concepts.LocalHistoryIdentifier;
 import org.opendaylight.controller.cluster.access.concepts.MemberName;
+import org.opendaylight.controller.cluster.common.actor.Dispatchers;
 import org.opendaylight.controller.cluster.datastore.actors.ShardSnapshotActor;
+import org.opendaylight.controller.cluster.datastore.persisted.IncrementalShardSnapshotState;
 import org.opendaylight.controller.cluster.datastore.persisted.ShardDataTreeSnapshot;
 import org.opendaylight.controller.cluster.datastore.persisted.ShardSnapshotState;
 import org.opendaylight.controller.cluster.io.InputOutputStreamFactory;
 import org.opendaylight.controller.cluster.raft.RaftActorSnapshotCohort;
+import org.opendaylight.controller.cluster.raft.base.messages.CaptureSnapshotReply;
 import org.opendaylight.controller.cluster.raft.persisted.Snapshot;
 import org.opendaylight.controller.cluster.raft.persisted.Snapshot.State;
 import org.slf4j.Logger;
@@ -43,18 +46,25 @@ final class ShardSnapshotCohort implements RaftActorSnapshotCohort {
     private final ShardDataTree store;
     private final String logId;
     private final Logger log;
+    private final int maxIncrementalSnapshots;
+
+    // Number of incremental snapshots taken since the last full snapshot
+    private int incrementalSnapshots;
 
     ShardSnapshotCohort(final InputOutputStreamFactory streamFactory, final LocalHistoryIdentifier applyHistoryId,
-            final ActorRef snapshotActor, final ShardDataTree store, final Logger log, final String logId) {
+            final ActorRef snapshotActor, final ShardDataTree store, final Logger log, final String logId,
+            final int maxIncrementalSnapshots) {
         this.streamFactory = requireNonNull(streamFactory);
         this.snapshotActor = requireNonNull(snapshotActor);
         this.store = requireNonNull(store);
         this.log = log;
         this.logId = logId;
+        this.maxIncrementalSnapshots = maxIncrementalSnapshots;
     }
 
     static ShardSnapshotCohort create(final ActorContext actorContext, final MemberName memberName,
-            final ShardDataTree store, final Logger log, final String logId, final DatastoreContext context) {
+            final ShardDataTree store, final Logger log, final String logId, final DatastoreContext context,
+            final Dispatchers dispatchers) {
         final LocalHistoryIdentifier applyHistoryId = new LocalHistoryIdentifier(ClientIdentifier.create(
             FrontendIdentifier.create(memberName, SNAPSHOT_APPLY), 0), 0);
         final String snapshotActorName = "shard-" + memberName.getName() + ':' + "snapshot-read";
@@ -62,19 +72,53 @@ final class ShardSnapshotCohort implements RaftActorSnapshotCohort {
         final InputOutputStreamFactory streamFactory = context.isUseLz4Compression()
                 ? InputOutputStreamFactory.lz4("256KB") : InputOutputStreamFactory.simple();
         // Create a snapshot actor. This actor will act as a worker to offload snapshot serialization for all
-        // requests.
-        final ActorRef snapshotActor = actorContext.actorOf(ShardSnapshotActor.props(streamFactory),
-                snapshotActorName);
-
-        return new ShardSnapshotCohort(streamFactory, applyHistoryId, snapshotActor, store, log, logId);
+        // requests. It runs on the serialization dispatcher, so that encoding a large snapshot does not take threads
+        // away from shards. Since we capture at most one snapshot at a time, it also never queues up more than one
+        // immutable data tree.
+        final ActorRef snapshotActor = actorContext.actorOf(ShardSnapshotActor.props(streamFactory, dispatchers),
+            snapshotActorName);
+
+        return new ShardSnapshotCohort(streamFactory, applyHistoryId, snapshotActor, store, log, logId,
+            context.getMaxIncrementalSnapshots());
     }
 
     @Override
     public void createSnapshot(final ActorRef actorRef, final Optional<OutputStream> installSnapshotStream) {
+        // Snapshots being installed on a follower are persisted locally as well, hence they can serve as a base for
+        // incremental snapshots. Other snapshots are not persisted and must not disturb change tracking.
+        requestSnapshot(actorRef, installSnapshotStream.isPresent() ? takeBaseSnapshot() : store.takeStateSnapshot(),
+            installSnapshotStream);
+    }
+
+    @Override
+    public void createLocalSnapshot(final ActorRef actorRef) {
+        if (incrementalSnapshots < maxIncrementalSnapshots) {
+            final IncrementalShardSnapshotState delta = store.takeIncrementalSnapshot();
+            if (delta != null) {
+                incrementalSnapshots++;
+                log.debug("{}: created incremental snapshot {} ({} of {})", logId, delta, incrementalSnapshots,
+                    maxIncrementalSnapshots);
+                actorRef.tell(new CaptureSnapshotReply(delta, Optional.empty()), ActorRef.noSender());
+                return;
+            }
+        }
+
+        requestSnapshot(actorRef, takeBaseSnapshot(), Optional.empty());
+    }
+
+    private ShardDataTreeSnapshot takeBaseSnapshot() {
+        if (maxIncrementalSnapshots == 0) {
+            return store.takeStateSnapshot();
+        }
+
+        incrementalSnapshots = 0;
+        return store.takeBaseSnapshot();
+    }
+
+    private void requestSnapshot(final ActorRef actorRef, final ShardDataTreeSnapshot snapshot,
+            final Optional<OutputStream> installSnapshotStream) {
         // Forward the request to the snapshot actor
-        final ShardDataTreeSnapshot snapshot = store.takeStateSnapshot();
         log.debug("{}: requesting serialization of snapshot {}", logId, snapshot);
-
         ShardSnapshotActor.requestSnapshot(snapshotActor, snapshot, installSnapshotStream, actorRef);
     }
 
@@ -11,19 +11,25 @@ import static java.util.Objects.requireNonNull;
 
 import akka.actor.ActorRef;
 import akka.actor.Props;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import org.opendaylight.controller.cluster.common.actor.AbstractUntypedActorWithMetering;
+import org.opendaylight.controller.cluster.common.actor.Dispatchers;
 import org.opendaylight.controller.cluster.datastore.persisted.ShardDataTreeSnapshot;
 import org.opendaylight.controller.cluster.datastore.persisted.ShardSnapshotState;
 import org.opendaylight.controller.cluster.io.InputOutputStreamFactory;
 import org.opendaylight.controller.cluster.raft.base.messages.CaptureSnapshotReply;
+import org.slf4j.Logger;
 
 /**
  * This is an offload actor, which is given an isolated snapshot of the data tree. It performs the potentially
- * time-consuming operation of serializing the snapshot.
+ * time-consuming operation of serializing the snapshot, periodically reporting its progress.
  *
  * @author Robert Varga
  */
@@ -54,8 +60,65 @@ public final class ShardSnapshotActor extends AbstractUntypedActorWithMetering {
         }
     }
 
+    /**
+     * An {@link OutputStream} which counts the bytes written through it and periodically reports serialization
+     * progress, so that a long-running snapshot serialization is visible in logs.
+     */
+    @VisibleForTesting
+    static final class ProgressOutputStream extends FilterOutputStream {
+        private final Stopwatch stopwatch = Stopwatch.createStarted();
+        private final long reportIntervalNanos;
+        private final Logger log;
+
+        private long count;
+        private long nextReportNanos;
+
+        ProgressOutputStream(final OutputStream out, final Logger log) {
+            this(out, log, PROGRESS_REPORT_INTERVAL_NANOS);
+        }
+
+        @VisibleForTesting
+        ProgressOutputStream(final OutputStream out, final Logger log, final long reportIntervalNanos) {
+            super(out);
+            this.log = requireNonNull(log);
+            this.reportIntervalNanos = reportIntervalNanos;
+            nextReportNanos = reportIntervalNanos;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            count++;
+            maybeReport();
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+            maybeReport();
+        }
+
+        long count() {
+            return count;
+        }
+
+        Stopwatch stopwatch() {
+            return stopwatch;
+        }
+
+        private void maybeReport() {
+            final long elapsed = stopwatch.elapsed(TimeUnit.NANOSECONDS);
+            if (elapsed >= nextReportNanos) {
+                nextReportNanos = elapsed + reportIntervalNanos;
+                log.info("Snapshot serialization in progress: {} bytes serialized in {}", count, stopwatch);
+            }
+        }
+    }
+
     //actor name override used for metering. This does not change the "real" actor name
     private static final String ACTOR_NAME_FOR_METERING = "shard-snapshot";
+    private static final long PROGRESS_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
 
     private final InputOutputStreamFactory streamFactory;
 
@@ -76,18 +139,25 @@ public final class ShardSnapshotActor extends AbstractUntypedActorWithMetering {
     private void onSerializeSnapshot(final SerializeSnapshot request) {
         Optional<OutputStream> installSnapshotStream = request.getInstallSnapshotStream();
         if (installSnapshotStream.isPresent()) {
-            try (ObjectOutputStream out = getOutputStream(installSnapshotStream.orElseThrow())) {
-                request.getSnapshot().serialize(out);
-            } catch (IOException e) {
-                // TODO - we should communicate the failure in the CaptureSnapshotReply.
-                LOG.error("Error serializing snapshot", e);
-            }
+            serializeSnapshot(request.getSnapshot(), installSnapshotStream.orElseThrow());
         }
 
         request.getReplyTo().tell(new CaptureSnapshotReply(new ShardSnapshotState(request.getSnapshot()),
                 installSnapshotStream), ActorRef.noSender());
     }
 
+    private void serializeSnapshot(final ShardDataTreeSnapshot snapshot, final OutputStream outputStream) {
+        final ProgressOutputStream progress = new ProgressOutputStream(outputStream, LOG);
+        try (ObjectOutputStream out = getOutputStream(progress)) {
+            snapshot.serialize(out);
+        } catch (IOException e) {
+            // TODO - we should communicate the failure in the CaptureSnapshotReply.
+            LOG.error("Error serializing snapshot after {} bytes in {}", progress.count(), progress.stopwatch(), e);
+            return;
+        }
+        LOG.debug("Serialized snapshot of {} bytes in {}", progress.count(), progress.stopwatch());
+    }
+
     private ObjectOutputStream getOutputStream(final OutputStream outputStream) throws IOException {
         return new ObjectOutputStream(streamFactory.wrapOutputStream(outputStream));
     }
@@ -109,4 +179,17 @@ public final class ShardSnapshotActor extends AbstractUntypedActorWithMetering {
     public static Props props(final InputOutputStreamFactory streamFactory) {
         return Props.create(ShardSnapshotActor.class, streamFactory);
     }
+
+    /**
+     * Return the Props of a ShardSnapshotActor running on the serialization dispatcher, or on the default dispatcher
+     * if the serialization dispatcher is not configured.
+     *
+     * @param streamFactory the factory of the streams the snapshot is serialized to
+     * @param dispatchers the known dispatchers
+     * @return Props of a ShardSnapshotActor
+     */
+    public static Props props(final InputOutputStreamFactory streamFactory, final Dispatchers dispatchers) {
+        return props(streamFactory).withDispatcher(
+            dispatchers.getDispatcherPath(Dispatchers.DispatcherType.Serialization));
+    }
 }
@@ -18,6 +18,7 @@ import com.google.common.io.ByteStreams;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.DataInput;
 import java.io.DataInputStream;
+import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.Externalizable;
 import java.io.IOException;
@@ -31,6 +32,7 @@ import org.apache.commons.lang3.SerializationUtils;
 import org.eclipse.jdt.annotation.NonNull;
 import org.opendaylight.controller.cluster.access.concepts.TransactionIdentifier;
 import org.opendaylight.controller.cluster.datastore.persisted.DataTreeCandidateInputOutput.DataTreeCandidateWithVersion;
+import org.opendaylight.controller.cluster.io.ChunkAllocator;
 import org.opendaylight.controller.cluster.io.ChunkedByteArray;
 import org.opendaylight.controller.cluster.io.ChunkedOutputStream;
 import org.opendaylight.controller.cluster.raft.messages.IdentifiablePayload;
@@ -56,6 +58,7 @@ public abstract sealed class CommitTransactionPayload extends IdentifiablePayloa
 
     static final int MAX_ARRAY_SIZE = ceilingPowerOfTwo(Integer.getInteger(
         "org.opendaylight.controller.cluster.datastore.persisted.max-array-size", 256 * 1024));
+    private static final int MAX_POOLED_CHUNKS = 2;
 
     private volatile Entry<TransactionIdentifier, DataTreeCandidateWithVersion> candidate = null;
 
@@ -66,7 +69,32 @@ public abstract sealed class CommitTransactionPayload extends IdentifiablePayloa
     public static @NonNull CommitTransactionPayload create(final TransactionIdentifier transactionId,
             final DataTreeCandidate candidate, final PayloadVersion version, final int initialSerializedBufferCapacity)
                     throws IOException {
-        final ChunkedOutputStream cos = new ChunkedOutputStream(initialSerializedBufferCapacity, MAX_ARRAY_SIZE);
+        return create(transactionId, candidate, version, initialSerializedBufferCapacity,
+            new ChunkedOutputStream(initialSerializedBufferCapacity, MAX_ARRAY_SIZE));
+    }
+
+    /**
+     * Create a payload, allocating serialization buffers from a {@link ChunkAllocator} created by
+     * {@link #newChunkAllocator(int)}. The allocator also provides the initial buffer capacity, based on the sizes of
+     * previously-created payloads.
+     *
+     * @param transactionId transaction identifier
+     * @param candidate data tree candidate
+     * @param version payload version
+     * @param allocator chunk allocator
+     * @return A new payload
+     * @throws IOException if an I/O error occurs
+     */
+    public static @NonNull CommitTransactionPayload create(final TransactionIdentifier transactionId,
+            final DataTreeCandidate candidate, final PayloadVersion version, final ChunkAllocator allocator)
+                throws IOException {
+        return create(transactionId, candidate, version, allocator.initialCapacity(),
+            new ChunkedOutputStream(allocator, MAX_ARRAY_SIZE));
+    }
+
+    private static @NonNull CommitTransactionPayload create(final TransactionIdentifier transactionId,
+            final DataTreeCandidate candidate, final PayloadVersion version, final int initialSerializedBufferCapacity,
+            final ChunkedOutputStream cos) throws IOException {
         try (DataOutputStream dos = new DataOutputStream(cos)) {
             transactionId.writeTo(dos);
             DataTreeCandidateInputOutput.writeDataTreeCandidate(dos, version, candidate);
@@ -77,6 +105,17 @@ public abstract sealed class CommitTransactionPayload extends IdentifiablePayloa
         return source.isFirst() ? new Simple(source.getFirst()) : new Chunked(source.getSecond());
     }
 
+    /**
+     * Create a new {@link ChunkAllocator} suitable for use with
+     * {@link #create(TransactionIdentifier, DataTreeCandidate, PayloadVersion, ChunkAllocator)}.
+     *
+     * @param initialSerializedBufferCapacity buffer capacity to use until the allocator learns actual payload sizes
+     * @return A new ChunkAllocator
+     */
+    public static @NonNull ChunkAllocator newChunkAllocator(final int initialSerializedBufferCapacity) {
+        return new ChunkAllocator(initialSerializedBufferCapacity, MAX_ARRAY_SIZE, MAX_POOLED_CHUNKS);
+    }
+
     @VisibleForTesting
     public static @NonNull CommitTransactionPayload create(final TransactionIdentifier transactionId,
             final DataTreeCandidate candidate, final PayloadVersion version) throws IOException {
@@ -145,7 +184,7 @@ public abstract sealed class CommitTransactionPayload extends IdentifiablePayloa
         return helper.add("size", size()).toString();
     }
 
-    abstract void writeBytes(ObjectOutput out) throws IOException;
+    abstract void writeBytes(DataOutput out) throws IOException;
 
     abstract DataInput newDataInput();
 
@@ -175,7 +214,7 @@ public abstract sealed class CommitTransactionPayload extends IdentifiablePayloa
         }
 
         @Override
-        void writeBytes(final ObjectOutput out) throws IOException {
+        void writeBytes(final DataOutput out) throws IOException {
             out.write(serialized);
         }
     }
@@ -192,7 +231,7 @@ public abstract sealed class CommitTransactionPayload extends IdentifiablePayloa
         }
 
         @Override
-        void writeBytes(final ObjectOutput out) throws IOException {
+        void writeBytes(final DataOutput out) throws IOException {
             source.copyTo(out);
         }
 
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.persisted;
+
+import akka.serialization.JSerializer;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import org.opendaylight.controller.cluster.datastore.persisted.CommitTransactionPayload.Chunked;
+import org.opendaylight.controller.cluster.datastore.persisted.CommitTransactionPayload.Simple;
+import org.opendaylight.controller.cluster.io.ChunkedByteArray;
+import org.opendaylight.controller.cluster.io.ChunkedOutputStream;
+import org.opendaylight.yangtools.concepts.Either;
+
+/**
+ * Specialized serializer for {@link CommitTransactionPayload}. The binary form is just the serialized transaction
+ * identifier and data tree candidate, without going through Java serialization. Large payloads are split into chunks
+ * when they are deserialized, just as they are when read from a {@link CT} proxy. It is not bound by default, as
+ * binding it changes the format used by remoting and by all persistence plugins.
+ */
+public final class CommitTransactionPayloadSerializer extends JSerializer {
+    @Override
+    public int identifier() {
+        return 97439502;
+    }
+
+    @Override
+    public boolean includeManifest() {
+        return false;
+    }
+
+    @Override
+    public byte[] toBinary(final Object obj) {
+        if (!(obj instanceof CommitTransactionPayload payload)) {
+            throw new IllegalArgumentException("Unsupported object type " + obj.getClass());
+        }
+
+        final ByteArrayDataOutput out = ByteStreams.newDataOutput(payload.size());
+        try {
+            payload.writeBytes(out);
+        } catch (IOException e) {
+            // ByteArrayDataOutput does not throw IOException
+            throw new IllegalStateException("Failed to serialize " + payload, e);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object fromBinaryJava(final byte[] bytes, final Class<?> manifest) {
+        if (bytes.length < CommitTransactionPayload.MAX_ARRAY_SIZE) {
+            return new Simple(bytes);
+        }
+
+        final ChunkedOutputStream cos = new ChunkedOutputStream(bytes.length, CommitTransactionPayload.MAX_ARRAY_SIZE);
+        try {
+            cos.write(bytes, 0, bytes.length);
+        } catch (IOException e) {
+            // ChunkedOutputStream does not throw IOException unless it is closed
+            throw new IllegalStateException("Failed to deserialize payload", e);
+        }
+        cos.close();
+        final Either<byte[], ChunkedByteArray> source = cos.toVariant();
+        return source.isFirst() ? new Simple(source.getFirst()) : new Chunked(source.getSecond());
+    }
+}
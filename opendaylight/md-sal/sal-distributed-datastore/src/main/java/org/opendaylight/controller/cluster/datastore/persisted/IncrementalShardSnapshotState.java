@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2023 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.controller.cluster.datastore.persisted;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.controller.cluster.raft.persisted.Snapshot;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+
+/**
+ * Snapshot state of a Shard which captures only the subtrees which have changed since the last full snapshot, as
+ * a set of deleted paths and a set of written subtrees. These never overlap. Shard metadata is always captured
+ * completely.
+ *
+ * <p>
+ * Instances are persisted on their own, but a recovered instance needs to be merged with its full snapshot via
+ * {@link #mergeWith(Snapshot.State)} before it can be applied.
+ */
+public final class IncrementalShardSnapshotState implements Snapshot.DeltaState {
+    @java.io.Serial
+    private static final long serialVersionUID = 1L;
+
+    @SuppressFBWarnings(value = "SE_BAD_FIELD", justification = "This field is not Serializable but this class "
+            + "implements writeReplace to delegate serialization to a Proxy class and thus instances of this class "
+            + "aren't serialized. FindBugs does not recognize this.")
+    private final @NonNull Map<Class<? extends ShardDataTreeSnapshotMetadata<?>>, ShardDataTreeSnapshotMetadata<?>>
+        metadata;
+    @SuppressFBWarnings(value = "SE_BAD_FIELD", justification = "See above justification.")
+    private final @NonNull Map<YangInstanceIdentifier, NormalizedNode> writes;
+    @SuppressFBWarnings(value = "SE_BAD_FIELD", justification = "See above justification.")
+    private final @NonNull Set<YangInstanceIdentifier> deletes;
+    private final @Nullable ShardSnapshotState base;
+
+    private IncrementalShardSnapshotState(
+            final Map<Class<? extends ShardDataTreeSnapshotMetadata<?>>, ShardDataTreeSnapshotMetadata<?>> metadata,
+            final Map<YangInstanceIdentifier, NormalizedNode> writes, final Set<YangInstanceIdentifier> deletes,
+            final @Nullable ShardSnapshotState base) {
+        this.metadata = ImmutableMap.copyOf(metadata);
+        this.writes = ImmutableMap.copyOf(writes);
+        this.deletes = ImmutableSet.copyOf(deletes);
+        this.base = base;
+    }
+
+    public IncrementalShardSnapshotState(
+            final Map<Class<? extends ShardDataTreeSnapshotMetadata<?>>, ShardDataTreeSnapshotMetadata<?>> metadata,
+            final Map<YangInstanceIdentifier, NormalizedNode> writes, final Set<YangInstanceIdentifier> deletes) {
+        this(metadata, writes, deletes, null);
+    }
+
+    public @NonNull Map<Class<? extends ShardDataTreeSnapshotMetadata<?>>, ShardDataTreeSnapshotMetadata<?>>
+            getMetadata() {
+        return metadata;
+    }
+
+    public @NonNull Map<YangInstanceIdentifier, NormalizedNode> getWrites() {
+        return writes;
+    }
+
+    public @NonNull Set<YangInstanceIdentifier> getDeletes() {
+        return deletes;
+    }
+
+    /**
+     * Return the full snapshot state this delta has been merged with.
+     *
+     * @return Full snapshot state, or null if this delta has not been merged
+     */
+    public @Nullable ShardSnapshotState getBase() {
+        return base;
+    }
+
+    @Override
+    public IncrementalShardSnapshotState mergeWith(final Snapshot.State baseState) throws IOException {
+        if (!(baseState instanceof ShardSnapshotState shardState)) {
+            throw new IOException("Unexpected base snapshot state " + baseState);
+        }
+        return new IncrementalShardSnapshotState(metadata, writes, deletes, shardState);
+    }
+
+    @Override
+    public boolean needsMigration() {
+        return base != null && base.needsMigration();
+    }
+
+    @java.io.Serial
+    private Object writeReplace() {
+        return new IS(this);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).omitNullValues()
+            .add("metadata", metadata)
+            .add("writes", writes.size())
+            .add("deletes", deletes.size())
+            .add("base", base)
+            .toString();
+    }
+}
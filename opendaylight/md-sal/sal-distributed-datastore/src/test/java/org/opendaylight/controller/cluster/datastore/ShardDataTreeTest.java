@@ -9,6 +9,8 @@ package org.opendaylight.controller.cluster.datastore;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
@@ -44,15 +46,18 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
+import org.apache.commons.lang3.SerializationUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.opendaylight.controller.cluster.datastore.persisted.CommitTransactionPayload;
+import org.opendaylight.controller.cluster.datastore.persisted.IncrementalShardSnapshotState;
 import org.opendaylight.controller.cluster.datastore.persisted.MetadataShardDataTreeSnapshot;
 import org.opendaylight.controller.cluster.datastore.persisted.PayloadVersion;
 import org.opendaylight.controller.cluster.datastore.persisted.ShardSnapshotState;
+import org.opendaylight.controller.cluster.raft.persisted.Snapshot;
 import org.opendaylight.controller.md.cluster.datastore.model.CarsModel;
 import org.opendaylight.controller.md.cluster.datastore.model.PeopleModel;
 import org.opendaylight.controller.md.cluster.datastore.model.SchemaContextHelper;
@@ -79,6 +84,7 @@ import org.opendaylight.yangtools.yang.data.tree.impl.di.InMemoryDataTreeFactory
 import org.opendaylight.yangtools.yang.data.tree.spi.DataTreeCandidates;
 import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.slf4j.LoggerFactory;
 
 public class ShardDataTreeTest extends AbstractTest {
     private static final DatastoreContext DATASTORE_CONTEXT = DatastoreContext.newBuilder().build();
@@ -228,6 +234,66 @@ public class ShardDataTreeTest extends AbstractTest {
         }
     }
 
+    @Test
+    public void testIncrementalSnapshot() throws Exception {
+        immediatePayloadReplication(shardDataTree, mockShard);
+        assertNull(shardDataTree.takeIncrementalSnapshot());
+
+        addCar(shardDataTree, "optima");
+        addCar(shardDataTree, "sportage");
+        final ShardSnapshotState base = new ShardSnapshotState(shardDataTree.takeBaseSnapshot());
+
+        addCar(shardDataTree, "murano");
+        doTransaction(shardDataTree, snapshot -> snapshot.delete(CarsModel.newCarPath("sportage")));
+
+        final IncrementalShardSnapshotState delta = SerializationUtils.clone(shardDataTree.takeIncrementalSnapshot());
+        assertNull(delta.getBase());
+
+        final ShardDataTree newDataTree = new ShardDataTree(mockShard, fullSchema, TreeType.OPERATIONAL);
+        assertThrows(IllegalArgumentException.class, () -> newDataTree.applyRecoverySnapshot(delta));
+
+        newDataTree.applyRecoverySnapshot(delta.mergeWith(base));
+        assertEquals(getCars(shardDataTree), getCars(newDataTree));
+
+        // Applying a snapshot stops change tracking
+        shardDataTree.applySnapshot(base.getSnapshot());
+        assertNull(shardDataTree.takeIncrementalSnapshot());
+    }
+
+    @Test
+    public void testIncrementalSnapshotRecovery() throws Exception {
+        immediatePayloadReplication(shardDataTree, mockShard);
+
+        addCar(shardDataTree, "optima");
+        addCar(shardDataTree, "sportage");
+        final Snapshot base = persistedSnapshot(new ShardSnapshotState(shardDataTree.takeBaseSnapshot()));
+        final NormalizedNode baseCars = getCars(shardDataTree);
+
+        addCar(shardDataTree, "murano");
+        final Snapshot firstDelta = persistedSnapshot(shardDataTree.takeIncrementalSnapshot());
+        final NormalizedNode firstCars = getCars(shardDataTree);
+
+        doTransaction(shardDataTree, snapshot -> snapshot.delete(CarsModel.newCarPath("optima")));
+        addCar(shardDataTree, "altima");
+        final Snapshot secondDelta = persistedSnapshot(shardDataTree.takeIncrementalSnapshot());
+        final NormalizedNode secondCars = getCars(shardDataTree);
+
+        assertEquals(baseCars, getCars(recoverFrom(base)));
+        assertEquals(firstCars, getCars(recoverFrom(firstDelta.mergeWith(base))));
+        assertEquals(secondCars, getCars(recoverFrom(secondDelta.mergeWith(base))));
+    }
+
+    private static Snapshot persistedSnapshot(final Snapshot.State state) {
+        return SerializationUtils.clone(Snapshot.create(state, List.of(), -1, -1, -1, -1, -1, null, null));
+    }
+
+    private ShardDataTree recoverFrom(final Snapshot snapshot) {
+        final ShardDataTree newDataTree = new ShardDataTree(mockShard, fullSchema, TreeType.OPERATIONAL);
+        ShardRecoveryCoordinator.create(newDataTree, "foobar", LoggerFactory.getLogger(ShardDataTreeTest.class))
+            .applyRecoverySnapshot(snapshot.getState());
+        return newDataTree;
+    }
+
     @Test
     public void testPipelinedTransactionsWithCoordinatedCommits() throws Exception {
         final ShardDataTreeCohort cohort1 = newShardDataTreeCohort(snapshot ->
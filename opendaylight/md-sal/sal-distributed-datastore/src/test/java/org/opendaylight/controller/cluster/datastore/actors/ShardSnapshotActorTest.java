@@ -7,17 +7,32 @@
  */
 package org.opendaylight.controller.cluster.datastore.actors;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
 import akka.testkit.javadsl.TestKit;
 import com.google.common.io.ByteSource;
+import com.typesafe.config.ConfigFactory;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.io.OutputStream;
 import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Test;
+import org.opendaylight.controller.cluster.common.actor.Dispatchers;
 import org.opendaylight.controller.cluster.datastore.AbstractActorTest;
 import org.opendaylight.controller.cluster.datastore.persisted.MetadataShardDataTreeSnapshot;
 import org.opendaylight.controller.cluster.datastore.persisted.ShardDataTreeSnapshot;
@@ -27,6 +42,7 @@ import org.opendaylight.controller.cluster.raft.base.messages.CaptureSnapshotRep
 import org.opendaylight.controller.md.cluster.datastore.model.TestModel;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.slf4j.Logger;
 
 public class ShardSnapshotActorTest extends AbstractActorTest {
     private static final InputOutputStreamFactory STREAM_FACTORY = InputOutputStreamFactory.simple();
@@ -69,4 +85,74 @@ public class ShardSnapshotActorTest extends AbstractActorTest {
         testSerializeSnapshot("testSerializeBoronSnapshotWithoutInstallSnapshot",
                 new MetadataShardDataTreeSnapshot(DATA), false);
     }
+
+    @Test
+    public void testSerializeOnSerializationDispatcher() {
+        final ActorSystem system = ActorSystem.create("test-serialization", ConfigFactory.parseString(
+            Dispatchers.SERIALIZATION_DISPATCHER_PATH + " { type = Dispatcher\n executor = \"fork-join-executor\" }")
+            .withFallback(ConfigFactory.load()));
+        try {
+            final String threadName = serializingThreadName(system);
+            assertTrue("Thread " + threadName, threadName.contains(Dispatchers.SERIALIZATION_DISPATCHER_PATH));
+        } finally {
+            TestKit.shutdownActorSystem(system);
+        }
+    }
+
+    @Test
+    public void testSerializeOnDefaultDispatcher() {
+        // The serialization dispatcher is not configured in the test actor system
+        final String threadName = serializingThreadName(getSystem());
+        assertTrue("Thread " + threadName, threadName.contains(Dispatchers.DEFAULT_DISPATCHER_PATH));
+    }
+
+    private static String serializingThreadName(final ActorSystem system) {
+        final TestKit kit = new TestKit(system);
+        final ActorRef snapshotActor = system.actorOf(ShardSnapshotActor.props(STREAM_FACTORY,
+            new Dispatchers(system.dispatchers())));
+
+        final AtomicReference<String> threadName = new AtomicReference<>();
+        final OutputStream installSnapshotStream = new OutputStream() {
+            @Override
+            public void write(final int value) {
+                threadName.compareAndSet(null, Thread.currentThread().getName());
+            }
+        };
+
+        ShardSnapshotActor.requestSnapshot(snapshotActor, new MetadataShardDataTreeSnapshot(DATA),
+            Optional.of(installSnapshotStream), kit.getRef());
+        kit.expectMsgClass(Duration.ofSeconds(3), CaptureSnapshotReply.class);
+        assertNotNull("Snapshot not serialized", threadName.get());
+        return threadName.get();
+    }
+
+    @Test
+    public void testProgressOutputStream() throws IOException {
+        final Logger log = mock(Logger.class);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        // Report on every write
+        try (var progress = new ShardSnapshotActor.ProgressOutputStream(bytes, log, 0)) {
+            progress.write(1);
+            progress.write(new byte[] { 2, 3, 4 }, 0, 3);
+            assertEquals("count", 4, progress.count());
+        }
+
+        assertArrayEquals("Written bytes", new byte[] { 1, 2, 3, 4 }, bytes.toByteArray());
+        verify(log).info(anyString(), eq(1L), any());
+        verify(log).info(anyString(), eq(4L), any());
+    }
+
+    @Test
+    public void testProgressOutputStreamNotReported() throws IOException {
+        final Logger log = mock(Logger.class);
+
+        try (var progress = new ShardSnapshotActor.ProgressOutputStream(new ByteArrayOutputStream(), log,
+                TimeUnit.HOURS.toNanos(1))) {
+            progress.write(new byte[] { 1, 2, 3 });
+            assertEquals("count", 3, progress.count());
+        }
+
+        verify(log, never()).info(anyString(), any(), any());
+    }
 }
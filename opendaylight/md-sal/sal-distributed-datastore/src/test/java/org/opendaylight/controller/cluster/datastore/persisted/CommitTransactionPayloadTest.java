@@ -123,6 +123,18 @@ public class CommitTransactionPayloadTest extends AbstractTest {
         assertCandidateEquals(candidate, SerializationUtils.clone(payload).getCandidate().getValue());
     }
 
+    @Test
+    public void testSerializer() throws IOException {
+        final CommitTransactionPayload payload = CommitTransactionPayload.create(nextTransactionId(), candidate);
+        final CommitTransactionPayloadSerializer serializer = new CommitTransactionPayloadSerializer();
+        final byte[] bytes = serializer.toBinary(payload);
+        assertEquals("serialized size", payload.size(), bytes.length);
+
+        final Object deserialized = serializer.fromBinary(bytes, CommitTransactionPayload.class);
+        assertEquals("payload size", payload.size(), ((CommitTransactionPayload) deserialized).size());
+        assertCandidateEquals(candidate, ((CommitTransactionPayload) deserialized).getCandidate().getValue());
+    }
+
     @Test
     public void testLeafSetEntryNodeCandidate() throws Exception {
         NodeWithValue<String> entryPathArg = new NodeWithValue<>(LEAF_SET, "one");